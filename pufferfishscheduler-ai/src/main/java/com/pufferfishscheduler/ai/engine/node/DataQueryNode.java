@@ -5,6 +5,7 @@ import com.alibaba.cloud.ai.graph.action.NodeAction;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pufferfishscheduler.common.utils.DataSourceRegistry;
 import com.pufferfishscheduler.common.utils.JdbcUtil;
 import com.pufferfishscheduler.domain.domain.QueryResult;
 import com.pufferfishscheduler.domain.domain.TableMetaData;
@@ -140,7 +141,7 @@ public class DataQueryNode implements NodeAction {
                     connectionInfo.getExtConfig()
             );
 
-            connection = JdbcUtil.getConnection(driverName, url, connectionInfo);
+            connection = DataSourceRegistry.getConnection(driverName, url, connectionInfo);
 
             // 4. 从问题中提取要查询的表名 - 重要：不要使用 allowedTables
             List<String> tablesToQuery = extractTablesFromQuestion(question);
@@ -0,0 +1,227 @@
+package com.pufferfishscheduler.cdc.kafka;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Debezium 消息操作类型提取器：直接在 UTF-8 字节上扫描 {@code payload.op}，不构建 JSON 文档、不解码字符串。
+ * <p>
+ * 只识别对象结构与字符串边界：跳过 before/after/source 等大字段时仅移动下标，不产生任何对象。
+ * UTF-8 多字节字符的每个字节都大于 0x7F，不会与引号、反斜杠、括号混淆。
+ * 兼容带 schema（{"schema":..,"payload":{..,"op":"c"}}）与不带 schema（{..,"op":"c"}）两种格式。
+ * 截断或结构不完整的消息在扫描过程中按下标边界判断，返回空串，不依赖异常。
+ * </p>
+ *
+ * @author Mayc
+ * @since 2026-03-16
+ */
+public final class DebeziumOpExtractor {
+
+    private static final byte[] PAYLOAD = "payload".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] OP = "op".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 扫描越过消息末尾（截断）或遇到非预期字符时的返回值
+     */
+    private static final int MALFORMED = -1;
+
+    private DebeziumOpExtractor() {
+    }
+
+    /**
+     * 提取操作类型
+     *
+     * @param value 消息原始字节
+     * @return c/r/u/d 等；无法识别返回空串
+     */
+    public static String extract(byte[] value) {
+        if (value == null || value.length == 0) {
+            return "";
+        }
+        int pos = skipWhitespace(value, 0);
+        if (pos >= value.length || value[pos] != '{') {
+            return "";
+        }
+        // 优先取 payload.op，没有 payload 时取顶层 op
+        String op = findOp(value, pos, true);
+        return op == null ? "" : op;
+    }
+
+    /**
+     * 在对象中查找 op
+     *
+     * @param b            字节
+     * @param objectStart  '{' 的位置
+     * @param allowPayload 是否进入 payload 子对象
+     * @return op 值，未找到或消息不完整返回 null
+     */
+    private static String findOp(byte[] b, int objectStart, boolean allowPayload) {
+        String topLevelOp = null;
+        int pos = objectStart + 1;
+        while (true) {
+            pos = skipWhitespace(b, pos);
+            if (pos >= b.length) {
+                return null;
+            }
+            if (b[pos] == '}') {
+                return topLevelOp;
+            }
+            if (b[pos] == ',') {
+                pos = skipWhitespace(b, pos + 1);
+            }
+            // 键
+            if (pos >= b.length || b[pos] != '"') {
+                return null;
+            }
+            int keyStart = pos + 1;
+            int keyEnd = skipString(b, pos);
+            if (keyEnd == MALFORMED) {
+                return null;
+            }
+            // ':'
+            pos = skipWhitespace(b, keyEnd + 1);
+            if (pos >= b.length || b[pos] != ':') {
+                return null;
+            }
+            pos = skipWhitespace(b, pos + 1);
+            if (pos >= b.length) {
+                return null;
+            }
+
+            if (allowPayload && b[pos] == '{' && equalsKey(b, keyStart, keyEnd, PAYLOAD)) {
+                return findOp(b, pos, false);
+            }
+            if (b[pos] == '"' && equalsKey(b, keyStart, keyEnd, OP)) {
+                int valueEnd = skipString(b, pos);
+                if (valueEnd == MALFORMED) {
+                    return null;
+                }
+                String op = toOp(b, pos + 1, valueEnd);
+                if (!allowPayload) {
+                    return op;
+                }
+                // 顶层 op：继续查找 payload，找不到时使用
+                topLevelOp = op;
+                pos = valueEnd + 1;
+                continue;
+            }
+            pos = skipValue(b, pos);
+            if (pos == MALFORMED) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 跳过一个值，返回值之后的位置
+     *
+     * @return 值之后的位置；字符串、对象或数组未闭合时返回 {@link #MALFORMED}
+     */
+    private static int skipValue(byte[] b, int pos) {
+        byte c = b[pos];
+        if (c == '"') {
+            int end = skipString(b, pos);
+            return end == MALFORMED ? MALFORMED : end + 1;
+        }
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            while (pos < b.length) {
+                c = b[pos];
+                if (c == '"') {
+                    int end = skipString(b, pos);
+                    if (end == MALFORMED) {
+                        return MALFORMED;
+                    }
+                    pos = end + 1;
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        return pos + 1;
+                    }
+                }
+                pos++;
+            }
+            return MALFORMED;
+        }
+        // 数字、true/false/null
+        while (pos < b.length) {
+            c = b[pos];
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                return pos;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * 跳过字符串，返回结束引号的位置
+     *
+     * @param pos 起始引号的位置
+     * @return 结束引号的位置；字符串未闭合时返回 {@link #MALFORMED}
+     */
+    private static int skipString(byte[] b, int pos) {
+        int i = pos + 1;
+        while (i < b.length) {
+            byte c = b[i];
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '"') {
+                return i;
+            }
+            i++;
+        }
+        return MALFORMED;
+    }
+
+    private static int skipWhitespace(byte[] b, int pos) {
+        while (pos < b.length) {
+            byte c = b[pos];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean equalsKey(byte[] b, int start, int end, byte[] key) {
+        if (end - start != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (b[start + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 常见单字符操作类型直接返回常量，避免创建字符串
+     */
+    private static String toOp(byte[] b, int start, int end) {
+        if (end - start == 1) {
+            switch (b[start]) {
+                case 'c':
+                    return "c";
+                case 'r':
+                    return "r";
+                case 'u':
+                    return "u";
+                case 'd':
+                    return "d";
+                case 't':
+                    return "t";
+                default:
+                    break;
+            }
+        }
+        return new String(b, start, end - start, StandardCharsets.UTF_8);
+    }
+}
@@ -116,9 +116,8 @@ public class RealTimeDataSyncEngine {
             RealTimeSyncTaskData realTimeSyncTaskData = new RealTimeSyncTaskData(task.getTaskId());
             realTimeSyncTaskData.setTaskId(task.getTaskId());
             realTimeSyncTaskData.setRealTimeDataSyncStatsTask(syncStatsTask);
+            // 注册即加入共享统计消费者，不单独启动线程
             RealTimeSyncTaskDatas.register(realTimeSyncTaskData);
-
-            syncStatsTask.start();
             log.info("完成创建【任务号：{}】统计任务。统计任务名称：{}", task.getTaskId(), syncStatsTask.getStatsName(task.getTaskId()));
 
             runtimeConfig.setServerName(task.getSourceDatabase().getServerName(task.getTaskId()));
@@ -161,7 +160,7 @@ public class RealTimeDataSyncEngine {
         } catch (Exception e) {
             // 这里不能吞掉异常，否则上层无法感知失败、无法写入 reason
             log.error("启动实时同步任务失败，任务号：{}，原因：{}", task.getTaskId(), e.getMessage(), e);
-            // 创建实时同步任务失败后：只清理目标连接器 + 停止统计线程
+            // 创建实时同步任务失败后：只清理目标连接器 + 注销统计任务
             // 不删除源连接器，便于你通过 Connect REST/日志直接定位 Debezium 的根因。
             try {
                 deleteTargetConnector(task);
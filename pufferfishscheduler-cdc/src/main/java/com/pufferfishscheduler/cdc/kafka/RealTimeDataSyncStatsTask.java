@@ -1,31 +1,21 @@
 package com.pufferfishscheduler.cdc.kafka;
 
-import com.alibaba.fastjson2.JSON;
-import com.alibaba.fastjson2.JSONObject;
-import com.pufferfishscheduler.cdc.kafka.data.RealTimeSyncTaskData;
-import com.pufferfishscheduler.cdc.kafka.data.RealTimeSyncTaskDatas;
 import com.pufferfishscheduler.cdc.kafka.entity.DataSyncTask;
-import com.pufferfishscheduler.cdc.kafka.entity.RealTimeSyncTaskStatus;
 import com.pufferfishscheduler.cdc.kafka.entity.TableMapper;
 import com.pufferfishscheduler.common.bean.PufferfishSchedulerApplicationContext;
 import com.pufferfishscheduler.common.enums.SyncDataType;
-import com.pufferfishscheduler.common.exception.BusinessException;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Properties;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * 实时数据同步统计任务：只负责消费 CDC 消息，解析后把计数写入 Redis。
+ * 实时数据同步统计任务：单个任务的统计聚合器，不再独占线程与消费者。
+ * 消息由 {@link RealTimeStatsEngine} 的共享消费者按 topic 路由进来，解析后把计数写入 Redis。
  * 累计量、按小时量由 {@link RealtimeStatsRedisWriter} 写入；定时同步入库由 {@link RealTimeSyncTaskJob} 负责。
  *
  * @author Mayc
@@ -33,24 +23,19 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 @Data
 @Slf4j
-public class RealTimeDataSyncStatsTask extends Thread {
-
-    private static final int MAX_EXCEPTION_TIMES = 3;
-    private static final long POLL_TIMEOUT_MS = 100L;
-    private static final long SHUTDOWN_CHECK_INTERVAL_MS = 2000L;
-    private static final long EXCEPTION_SLEEP_MS = 2000L;
+public class RealTimeDataSyncStatsTask {
 
     private final String kafkaBrokers;
     private final DataSyncTask taskConfig;
-    private final AtomicBoolean stopFlag = new AtomicBoolean(false);
-    private final AtomicBoolean finishShutDown = new AtomicBoolean(false);
 
-    private String status;
-    private KafkaConsumer<String, String> consumer;
+    /**
+     * 由共享消费者在订阅完成/异常时更新
+     */
+    private volatile String status;
     private final Map<String, TableMapper> tableMappers;
     private final Map<String, String> topicSuffix2TableNameMappers;
-    private final RealTimeDataSyncEngineConfig config;
     private final RealtimeStatsRedisWriter redisWriter;
+    private final RealTimeStatsEngine statsEngine;
 
     public RealTimeDataSyncStatsTask(String kafkaBrokers, DataSyncTask task) {
         this.kafkaBrokers = kafkaBrokers;
@@ -65,90 +50,30 @@ public class RealTimeDataSyncStatsTask extends Thread {
             topicSuffix2TableNameMappers.put(topicName, tm.getSourceTableName());
         }
 
-        this.config = PufferfishSchedulerApplicationContext.getBean(RealTimeDataSyncEngineConfig.class);
         this.redisWriter = PufferfishSchedulerApplicationContext.getBean(RealtimeStatsRedisWriter.class);
-    }
-
-    @Override
-    public void run() {
-        int exceptionTimes = 0;
-
-        try {
-            initializeConsumer();
-            // 让外部校验方法尽快感知“统计线程已就绪”，避免刚 start() 就被判定为异常
-            status = RealTimeSyncTaskStatus.TASK_STATUS_RUNNING;
-            RealTimeSyncTaskData taskData = RealTimeSyncTaskDatas.getTask(taskConfig.getTaskId());
-
-            while (shouldContinue()) {
-                try {
-                    processMessages(taskData);
-                    exceptionTimes = 0;
-                } catch (Exception e) {
-                    exceptionTimes = handleProcessingException(e, exceptionTimes);
-                }
-            }
-        } catch (Exception e) {
-            log.error("Fatal error in stats task for taskId: {}", taskConfig.getTaskId(), e);
-            status = RealTimeSyncTaskStatus.TASK_STATUS_FAILURE;
-        } finally {
-            shutdownConsumer();
-        }
-    }
-
-    private void initializeConsumer() {
-        Properties props = createConsumerProperties();
-        consumer = new KafkaConsumer<>(props);
-        consumer.subscribe(taskConfig.getTopics());
-        log.info("Stats task {} started for topics: {}", getStatsName(taskConfig.getTaskId()), taskConfig.getTopics());
-    }
-
-    private Properties createConsumerProperties() {
-        Properties props = new Properties();
-        props.setProperty("bootstrap.servers", kafkaBrokers);
-        props.setProperty("group.id", getStatsName(taskConfig.getTaskId()));
-        props.setProperty("enable.auto.commit", "false");
-        props.setProperty("key.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
-        props.setProperty("value.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
-
-        props.setProperty("max.poll.records", config.consumerMaxPollRecords);
-        props.setProperty("max.partition.fetch.bytes", config.consumerMaxPartitionFetchBytes);
-        props.setProperty("fetch.min.bytes", config.consumerFetchMinBytes);
-        props.setProperty("fetch.max.wait.ms", config.consumerFetchMaxWaitMs);
-        props.setProperty("compression.type", config.consumerCompressionType);
-
-        return props;
-    }
-
-    private boolean shouldContinue() {
-        return !stopFlag.get();
+        this.statsEngine = PufferfishSchedulerApplicationContext.getBean(RealTimeStatsEngine.class);
     }
 
     /**
-     * 轮询消息 → 按表聚合 → 写 Redis（累计 + 按小时），不落库。
+     * 注册到共享消费者
      */
-    private void processMessages(RealTimeSyncTaskData taskData) {
-        status = RealTimeSyncTaskStatus.TASK_STATUS_RUNNING;
-
-        ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(POLL_TIMEOUT_MS));
-
-        if (!records.isEmpty()) {
-            processRecords(records);
-            try {
-                consumer.commitSync();
-            } catch (Exception e) {
-                log.warn("Stats task commit offset failed: {}", e.getMessage());
-            }
-        }
+    public void start() {
+        statsEngine.register(this);
     }
 
-    private void processRecords(ConsumerRecords<String, String> records) {
+    /**
+     * 按表聚合 → 写 Redis（累计 + 按小时），不落库。由共享消费者线程调用，一次 poll 中本任务的消息合并为一次批量写入。
+     *
+     * @param records 本任务的消息
+     */
+    public void processRecords(List<ConsumerRecord<String, byte[]>> records) {
         LocalDateTime now = LocalDateTime.now();
         int syncDate = getFormatDate(now);
         int syncHour = now.getHour();
 
         Map<String, RecordStats> aggregatedStats = new HashMap<>();
 
-        for (ConsumerRecord<String, String> record : records) {
+        for (ConsumerRecord<String, byte[]> record : records) {
             String sourceTableName = topicSuffix2TableNameMappers.get(record.topic());
             if (sourceTableName == null) {
                 log.warn("Unknown topic: {}", record.topic());
@@ -162,10 +87,11 @@ public class RealTimeDataSyncStatsTask extends Thread {
 
             aggregatedStats
                     .computeIfAbsent(sourceTableName, k -> new RecordStats())
-                    .add(extractOperationType(record.value()), mapper.getWriteType());
+                    .add(DebeziumOpExtractor.extract(record.value()), mapper.getWriteType());
         }
 
-        Integer taskId = taskConfig.getTaskId();
+        // 本次 poll 的所有表合并为一次批量写入
+        Map<String, RealtimeStatsRedisWriter.RealtimeStatsIncrement> batch = new HashMap<>();
         for (Map.Entry<String, RecordStats> entry : aggregatedStats.entrySet()) {
             String tableName = entry.getKey();
             RecordStats stats = entry.getValue();
@@ -173,71 +99,22 @@ public class RealTimeDataSyncStatsTask extends Thread {
             if (mapper == null) {
                 continue;
             }
-            redisWriter.increment(taskId, mapper.getTableMapperId(), syncDate, syncHour,
-                    stats.insert, stats.update, stats.delete);
-        }
-    }
-
-    private String extractOperationType(String messageValue) {
-        if (StringUtils.isEmpty(messageValue)) {
-            return "";
-        }
-        try {
-            JSONObject jo = JSON.parseObject(messageValue);
-            return jo.getJSONObject("payload").getString("op");
-        } catch (Exception e) {
-            log.debug("Failed to parse message: {}", messageValue);
-            return "";
+            batch.put(tableName, new RealtimeStatsRedisWriter.RealtimeStatsIncrement(mapper.getTableMapperId(),
+                    syncDate, syncHour, stats.insert, stats.update, stats.delete));
         }
+        redisWriter.incrementBatch(taskConfig.getTaskId(), batch);
     }
 
     private static int getFormatDate(LocalDateTime time) {
         return time.getYear() * 10000 + time.getMonthValue() * 100 + time.getDayOfMonth();
     }
 
-    private int handleProcessingException(Exception e, int exceptionTimes) {
-        log.error("Error processing messages for task: {}", taskConfig.getTaskId(), e);
-
-        try {
-            Thread.sleep(EXCEPTION_SLEEP_MS);
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-        }
-
-        int newExceptionTimes = exceptionTimes + 1;
-        if (newExceptionTimes >= MAX_EXCEPTION_TIMES) {
-            log.error("Task {} failed after {} exceptions", taskConfig.getTaskId(), MAX_EXCEPTION_TIMES);
-            status = RealTimeSyncTaskStatus.TASK_STATUS_FAILURE;
-            throw new BusinessException("Task failed after multiple exceptions: " + e.getMessage());
-        }
-
-        return newExceptionTimes;
-    }
-
-    private void shutdownConsumer() {
-        if (consumer != null) {
-            try {
-                consumer.close();
-                log.info("Consumer closed for task: {}", taskConfig.getTaskId());
-            } catch (Exception e) {
-                log.error("Error closing consumer for task: {}", taskConfig.getTaskId(), e);
-            }
-        }
-    }
-
+    /**
+     * 从共享消费者注销，消费线程在下一次 poll 前取消本任务 topic 的订阅
+     */
     public void shutdown() {
         log.info("Shutting down stats task: {}", taskConfig.getTaskId());
-        stopFlag.set(true);
-
-        while (!finishShutDown.get()) {
-            try {
-                Thread.sleep(SHUTDOWN_CHECK_INTERVAL_MS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
-
+        statsEngine.unregister(taskConfig.getTaskId());
         log.info("Stats task shutdown complete: {}", taskConfig.getTaskId());
     }
 
@@ -0,0 +1,395 @@
+package com.pufferfishscheduler.cdc.kafka;
+
+import com.pufferfishscheduler.cdc.kafka.config.KafkaDataProperties;
+import com.pufferfishscheduler.cdc.kafka.entity.RealTimeSyncTaskStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 实时统计引擎：固定数量的共享消费者承载所有实时任务的统计。
+ * <p>
+ * 任务按任务号取模分配到某个消费者槽位，每个槽位订阅其下所有任务的 topic，按 topic 把消息路由到对应任务的聚合器。
+ * 任务注册/注销只更新槽位的路由表和版本号，消费线程在下一次 poll 前重新订阅，不需要重启消费者。
+ * 每个槽位使用独立的消费组（STATS_POOL_{n}），某个槽位订阅变化引起的 rebalance 不影响其他槽位。
+ * 同一槽位内的任务相互隔离：某个任务处理失败只标记该任务失败并回退其分区重试，只提交已完整处理的分区位点。
+ * </p>
+ *
+ * @author Mayc
+ * @since 2026-03-16
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RealTimeStatsEngine {
+
+    private static final String GROUP_ID_FORMAT = "STATS_POOL_%d";
+    private static final int MAX_EXCEPTION_TIMES = 3;
+    private static final long POLL_TIMEOUT_MS = 100L;
+    private static final long IDLE_SLEEP_MS = 500L;
+    private static final long EXCEPTION_SLEEP_MS = 2000L;
+    private static final long JOIN_TIMEOUT_MS = 10_000L;
+
+    private final KafkaDataProperties kafkaDataProperties;
+    private final RealTimeDataSyncEngineConfig config;
+
+    /**
+     * 共享消费者数量
+     */
+    @Value("${realtime.stats.consumers:4}")
+    private int consumerCount;
+
+    private final Map<Integer, ConsumerSlot> slots = new ConcurrentHashMap<>();
+
+    /**
+     * 注册任务：按任务号分配槽位并加入路由表，槽位线程未启动时启动
+     *
+     * @param statsTask 任务统计聚合器
+     */
+    public void register(RealTimeDataSyncStatsTask statsTask) {
+        Integer taskId = statsTask.getTaskConfig().getTaskId();
+        // 同一任务重复注册时先移除旧路由，避免旧 topic 残留
+        unregister(taskId);
+        ConsumerSlot slot = slotOf(taskId);
+        slot.add(statsTask);
+        log.info("Stats task {} registered to consumer slot {}, topics: {}",
+                taskId, slot.index, statsTask.getTopicSuffix2TableNameMappers().keySet());
+    }
+
+    /**
+     * 注销任务：从槽位路由表移除，消费线程在下一次 poll 前取消对应 topic 的订阅
+     *
+     * @param taskId 任务号
+     */
+    public void unregister(Integer taskId) {
+        if (taskId == null) {
+            return;
+        }
+        for (ConsumerSlot slot : slots.values()) {
+            if (slot.remove(taskId)) {
+                log.info("Stats task {} unregistered from consumer slot {}", taskId, slot.index);
+            }
+        }
+    }
+
+    private ConsumerSlot slotOf(Integer taskId) {
+        int size = Math.max(1, consumerCount);
+        int index = Math.floorMod(taskId, size);
+        return slots.computeIfAbsent(index, ConsumerSlot::new);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ConsumerSlot slot : slots.values()) {
+            slot.stop();
+        }
+        slots.clear();
+    }
+
+    private Properties createConsumerProperties(int index) {
+        Properties props = new Properties();
+        props.setProperty("bootstrap.servers", kafkaDataProperties.getBrokers());
+        props.setProperty("group.id", String.format(GROUP_ID_FORMAT, index));
+        props.setProperty("enable.auto.commit", "false");
+        props.setProperty("key.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
+        // 统计只需要 op，值保持原始字节，由 DebeziumOpExtractor 直接扫描
+        props.setProperty("value.deserializer", "org.apache.kafka.common.serialization.ByteArrayDeserializer");
+
+        props.setProperty("max.poll.records", config.consumerMaxPollRecords);
+        props.setProperty("max.partition.fetch.bytes", config.consumerMaxPartitionFetchBytes);
+        props.setProperty("fetch.min.bytes", config.consumerFetchMinBytes);
+        props.setProperty("fetch.max.wait.ms", config.consumerFetchMaxWaitMs);
+        props.setProperty("compression.type", config.consumerCompressionType);
+
+        return props;
+    }
+
+    /**
+     * 消费者槽位：一个线程 + 一个 KafkaConsumer，承载多个任务
+     */
+    private class ConsumerSlot implements Runnable {
+
+        private final int index;
+
+        /**
+         * 任务号 -> 聚合器
+         */
+        private final Map<Integer, RealTimeDataSyncStatsTask> tasks = new ConcurrentHashMap<>();
+
+        /**
+         * 路由表变化版本号，消费线程据此判断是否需要重新订阅
+         */
+        private final AtomicLong version = new AtomicLong();
+
+        private volatile boolean stopped;
+
+        private volatile Thread thread;
+
+        private ConsumerSlot(int index) {
+            this.index = index;
+        }
+
+        private synchronized void add(RealTimeDataSyncStatsTask statsTask) {
+            tasks.put(statsTask.getTaskConfig().getTaskId(), statsTask);
+            version.incrementAndGet();
+            if (thread == null && !stopped) {
+                thread = new Thread(this, "rt-stats-consumer-" + index);
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+
+        private boolean remove(Integer taskId) {
+            RealTimeDataSyncStatsTask removed = tasks.remove(taskId);
+            if (removed == null) {
+                return false;
+            }
+            version.incrementAndGet();
+            return true;
+        }
+
+        private void stop() {
+            stopped = true;
+            Thread t = thread;
+            if (t == null) {
+                return;
+            }
+            try {
+                t.join(JOIN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (!stopped) {
+                KafkaConsumer<String, byte[]> consumer = null;
+                try {
+                    consumer = new KafkaConsumer<>(createConsumerProperties(index));
+                    consume(consumer);
+                } catch (Exception e) {
+                    // 消费者连续异常（任务处理异常已在 dispatch 内隔离），槽位内任务都无法消费，标记失败并重建消费者
+                    log.error("Stats consumer slot {} failed, recreating consumer", index, e);
+                    markAll(RealTimeSyncTaskStatus.TASK_STATUS_FAILURE);
+                    sleepQuietly(EXCEPTION_SLEEP_MS);
+                } finally {
+                    closeQuietly(consumer);
+                }
+            }
+            log.info("Stats consumer slot {} stopped", index);
+        }
+
+        private void consume(KafkaConsumer<String, byte[]> consumer) {
+            long subscribedVersion = -1;
+            Map<String, RealTimeDataSyncStatsTask> routes = new HashMap<>();
+            int exceptionTimes = 0;
+            // 处理失败、等待重试的任务（按引用，重新注册的任务是新对象）
+            Set<RealTimeDataSyncStatsTask> failedTasks = Collections.newSetFromMap(new IdentityHashMap<>());
+            // 处理失败的分区 -> 恢复消费的时间
+            Map<TopicPartition, Long> pausedUntil = new HashMap<>();
+
+            while (!stopped) {
+                try {
+                    long current = version.get();
+                    if (current != subscribedVersion) {
+                        routes = buildRoutes();
+                        if (routes.isEmpty()) {
+                            consumer.unsubscribe();
+                        } else {
+                            consumer.subscribe(new ArrayList<>(routes.keySet()));
+                        }
+                        subscribedVersion = current;
+                        failedTasks.removeIf(statsTask -> tasks.get(statsTask.getTaskConfig().getTaskId()) != statsTask);
+                        log.info("Stats consumer slot {} subscribed {} topics of {} tasks",
+                                index, routes.size(), tasks.size());
+                    }
+                    if (routes.isEmpty()) {
+                        sleepQuietly(IDLE_SLEEP_MS);
+                        continue;
+                    }
+                    resumeDue(consumer, pausedUntil);
+                    ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(POLL_TIMEOUT_MS));
+                    if (!records.isEmpty()) {
+                        dispatch(consumer, records, routes, failedTasks, pausedUntil);
+                    }
+                    // poll 成功后才视为就绪，供外部状态校验；处理失败的任务保持失败直到重试成功
+                    for (RealTimeDataSyncStatsTask statsTask : routes.values()) {
+                        if (!failedTasks.contains(statsTask)) {
+                            statsTask.setStatus(RealTimeSyncTaskStatus.TASK_STATUS_RUNNING);
+                        }
+                    }
+                    exceptionTimes = 0;
+                } catch (Exception e) {
+                    exceptionTimes++;
+                    log.error("Error processing stats messages in consumer slot {}", index, e);
+                    if (exceptionTimes >= MAX_EXCEPTION_TIMES) {
+                        throw e;
+                    }
+                    sleepQuietly(EXCEPTION_SLEEP_MS);
+                }
+            }
+        }
+
+        /**
+         * topic -> 任务聚合器
+         */
+        private Map<String, RealTimeDataSyncStatsTask> buildRoutes() {
+            Map<String, RealTimeDataSyncStatsTask> routes = new HashMap<>();
+            for (RealTimeDataSyncStatsTask statsTask : tasks.values()) {
+                for (String topic : statsTask.getTopicSuffix2TableNameMappers().keySet()) {
+                    routes.put(topic, statsTask);
+                }
+            }
+            return routes;
+        }
+
+        /**
+         * 按 topic 把一次 poll 的消息分发给各任务，每个任务合并为一次批量写入，然后提交位点。
+         * <p>
+         * 任务之间相互隔离：某个任务处理失败时只标记该任务失败，其分区回退到本批第一条消息并暂停
+         * {@link #EXCEPTION_SLEEP_MS} 后重试；只提交已完整处理（或因任务已注销而丢弃）的分区位点，
+         * 重投时不会把其他任务已写入的计数再累加一次。
+         * </p>
+         */
+        private void dispatch(KafkaConsumer<String, byte[]> consumer, ConsumerRecords<String, byte[]> records,
+                              Map<String, RealTimeDataSyncStatsTask> routes,
+                              Set<RealTimeDataSyncStatsTask> failedTasks, Map<TopicPartition, Long> pausedUntil) {
+            Map<Integer, List<ConsumerRecord<String, byte[]>>> grouped = new HashMap<>();
+            Map<Integer, Set<TopicPartition>> partitionsOfTask = new HashMap<>();
+            Set<String> unknownTopics = null;
+            for (ConsumerRecord<String, byte[]> record : records) {
+                RealTimeDataSyncStatsTask statsTask = routes.get(record.topic());
+                // 任务已注销但订阅尚未刷新时，丢弃其消息
+                if (statsTask == null || tasks.get(statsTask.getTaskConfig().getTaskId()) != statsTask) {
+                    if (unknownTopics == null) {
+                        unknownTopics = new HashSet<>();
+                    }
+                    unknownTopics.add(record.topic());
+                    continue;
+                }
+                Integer taskId = statsTask.getTaskConfig().getTaskId();
+                grouped.computeIfAbsent(taskId, k -> new ArrayList<>()).add(record);
+                partitionsOfTask.computeIfAbsent(taskId, k -> new HashSet<>())
+                        .add(new TopicPartition(record.topic(), record.partition()));
+            }
+
+            Set<TopicPartition> failedPartitions = new HashSet<>();
+            for (Map.Entry<Integer, List<ConsumerRecord<String, byte[]>>> entry : grouped.entrySet()) {
+                RealTimeDataSyncStatsTask statsTask = tasks.get(entry.getKey());
+                if (statsTask == null) {
+                    continue;
+                }
+                try {
+                    statsTask.processRecords(entry.getValue());
+                    failedTasks.remove(statsTask);
+                } catch (Exception e) {
+                    log.error("Stats task {} failed to process {} records in consumer slot {}, retry in {} ms",
+                            entry.getKey(), entry.getValue().size(), index, EXCEPTION_SLEEP_MS, e);
+                    statsTask.setStatus(RealTimeSyncTaskStatus.TASK_STATUS_FAILURE);
+                    failedTasks.add(statsTask);
+                    failedPartitions.addAll(partitionsOfTask.get(entry.getKey()));
+                }
+            }
+            if (unknownTopics != null) {
+                log.debug("Stats consumer slot {} skipped records of unregistered topics: {}", index, unknownTopics);
+            }
+
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            for (TopicPartition partition : records.partitions()) {
+                List<ConsumerRecord<String, byte[]>> partitionRecords = records.records(partition);
+                if (failedPartitions.contains(partition)) {
+                    // 回退到本批第一条，恢复后重新投递
+                    consumer.seek(partition, partitionRecords.get(0).offset());
+                } else {
+                    offsets.put(partition, new OffsetAndMetadata(partitionRecords.get(partitionRecords.size() - 1).offset() + 1));
+                }
+            }
+            if (!failedPartitions.isEmpty()) {
+                consumer.pause(failedPartitions);
+                long resumeAt = System.currentTimeMillis() + EXCEPTION_SLEEP_MS;
+                for (TopicPartition partition : failedPartitions) {
+                    pausedUntil.put(partition, resumeAt);
+                }
+            }
+            if (!offsets.isEmpty()) {
+                try {
+                    consumer.commitSync(offsets);
+                } catch (Exception e) {
+                    log.warn("Stats consumer slot {} commit offset failed: {}", index, e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * 恢复已到重试时间的分区；rebalance 后不再分配给本消费者的分区直接丢弃
+         */
+        private void resumeDue(KafkaConsumer<String, byte[]> consumer, Map<TopicPartition, Long> pausedUntil) {
+            if (pausedUntil.isEmpty()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            Set<TopicPartition> assignment = consumer.assignment();
+            List<TopicPartition> due = new ArrayList<>();
+            Iterator<Map.Entry<TopicPartition, Long>> it = pausedUntil.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<TopicPartition, Long> entry = it.next();
+                if (!assignment.contains(entry.getKey())) {
+                    it.remove();
+                } else if (entry.getValue() <= now) {
+                    due.add(entry.getKey());
+                    it.remove();
+                }
+            }
+            if (!due.isEmpty()) {
+                consumer.resume(due);
+            }
+        }
+
+        private void markAll(String status) {
+            for (RealTimeDataSyncStatsTask statsTask : tasks.values()) {
+                statsTask.setStatus(status);
+            }
+        }
+
+        private void closeQuietly(KafkaConsumer<String, byte[]> consumer) {
+            if (consumer == null) {
+                return;
+            }
+            try {
+                consumer.close();
+            } catch (Exception e) {
+                log.error("Error closing stats consumer slot {}", index, e);
+            }
+        }
+    }
+
+    private static void sleepQuietly(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,20 +1,30 @@
 package com.pufferfishscheduler.cdc.kafka;
 
 import com.pufferfishscheduler.common.constants.Constants;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 实时统计 Redis 写入器：统计消费者只负责解析 CDC 后调用本类写 Redis。
  * 累计量：rt:stats:task:{taskId}:table:{tableMapperId}（Hash：today_idv/udv/ddv, last_*, updated_at）
  * 按小时：rt:log:task:{taskId}:table:{tableMapperId}:{yyyyMMdd}:{HH}（Hash：insert/update/delete_data_volume），带 TTL。
+ * 一批增量在一个 pipeline 中写入；可选本地累加（realtime.stats.accumulator.*），按条数阈值或定时刷新。
  *
  * @author Mayc
  * @since 2026-03-15
@@ -30,8 +40,34 @@ public class RealtimeStatsRedisWriter {
     /** 按小时 key 的 TTL（天），避免 Redis 无限增长 */
     private static final long RT_LOG_TTL_DAYS = 7;
 
+    /** 逐条写入时每个 (表, 小时) 需要的命令数：累计 3×HINCRBY + HSET，按小时 3×HINCRBY + EXPIRE */
+    private static final int LEGACY_COMMANDS_PER_INCREMENT = 8;
+
+    /** 节省量统计输出间隔 */
+    private static final long REPORT_INTERVAL_MS = 60_000L;
+
     private final StringRedisTemplate stringRedisTemplate;
 
+    /**
+     * 是否开启本地累加（多次 poll 合并后再写 Redis）
+     */
+    @Value("${realtime.stats.accumulator.enabled:false}")
+    private boolean accumulatorEnabled;
+
+    /**
+     * 本地累加的消息条数阈值，达到后立即刷新
+     */
+    @Value("${realtime.stats.accumulator.flush-threshold:10000}")
+    private long accumulatorFlushThreshold;
+
+    private final ConcurrentHashMap<IncrementKey, RealtimeStatsIncrement> pending = new ConcurrentHashMap<>();
+    private final AtomicLong pendingCount = new AtomicLong();
+
+    private final AtomicLong legacyCommands = new AtomicLong();
+    private final AtomicLong issuedCommands = new AtomicLong();
+    private final AtomicLong roundTrips = new AtomicLong();
+    private volatile long lastReportMs = System.currentTimeMillis();
+
     /**
      * 累计量 Redis Key
      */
@@ -62,29 +98,15 @@ public class RealtimeStatsRedisWriter {
         if (taskId == null || tableMapperId == null) {
             return;
         }
-        String statsKey = buildStatsKey(taskId, tableMapperId);
-        String logKey = buildLogKey(taskId, tableMapperId, syncDate, syncHour);
-        String now = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-
-        try {
-            // 累计：today_*
-            stringRedisTemplate.opsForHash().increment(statsKey, "today_idv", idv);
-            stringRedisTemplate.opsForHash().increment(statsKey, "today_udv", udv);
-            stringRedisTemplate.opsForHash().increment(statsKey, "today_ddv", ddv);
-            stringRedisTemplate.opsForHash().put(statsKey, "updated_at", now);
-
-            // 按小时
-            stringRedisTemplate.opsForHash().increment(logKey, "insert_data_volume", idv);
-            stringRedisTemplate.opsForHash().increment(logKey, "update_data_volume", udv);
-            stringRedisTemplate.opsForHash().increment(logKey, "delete_data_volume", ddv);
-            stringRedisTemplate.expire(logKey, RT_LOG_TTL_DAYS, TimeUnit.DAYS);
-        } catch (Exception e) {
-            log.error("RealtimeStatsRedisWriter increment failed, taskId={}, tableMapperId={}", taskId, tableMapperId, e);
-        }
+        Map<IncrementKey, RealtimeStatsIncrement> batch = new HashMap<>(2);
+        batch.put(new IncrementKey(taskId, tableMapperId, syncDate, syncHour),
+                new RealtimeStatsIncrement(tableMapperId, syncDate, syncHour, idv, udv, ddv));
+        submit(batch);
     }
 
     /**
-     * 批量写入：先按 (taskId, tableMapperId, date, hour) 聚合同一批消息的 idv/udv/ddv，再一次性写 Redis（减少调用次数）。
+     * 批量写入：同一次 poll 的所有表在一个 Redis pipeline 中写入（一次往返）；开启本地累加时先合并到内存，
+     * 达到条数阈值或定时刷新时再写 Redis。
      *
      * @param taskId 任务ID
      * @param batch  表名 -> (tableMapperId, syncDate, syncHour, idv, udv, ddv)
@@ -93,10 +115,152 @@ public class RealtimeStatsRedisWriter {
         if (taskId == null || batch == null || batch.isEmpty()) {
             return;
         }
+        Map<IncrementKey, RealtimeStatsIncrement> keyed = new HashMap<>(batch.size() * 2);
         for (RealtimeStatsIncrement inc : batch.values()) {
-            increment(taskId, inc.getTableMapperId(), inc.getSyncDate(), inc.getSyncHour(),
-                    inc.getIdv(), inc.getUdv(), inc.getDdv());
+            if (inc == null || inc.getTableMapperId() == null) {
+                continue;
+            }
+            keyed.merge(new IncrementKey(taskId, inc.getTableMapperId(), inc.getSyncDate(), inc.getSyncHour()),
+                    inc, RealtimeStatsIncrement::plus);
+        }
+        submit(keyed);
+    }
+
+    private void submit(Map<IncrementKey, RealtimeStatsIncrement> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        legacyCommands.addAndGet((long) batch.size() * LEGACY_COMMANDS_PER_INCREMENT);
+        if (!accumulatorEnabled) {
+            write(batch);
+            return;
+        }
+        long added = 0;
+        for (Map.Entry<IncrementKey, RealtimeStatsIncrement> entry : batch.entrySet()) {
+            pending.merge(entry.getKey(), entry.getValue(), RealtimeStatsIncrement::plus);
+            added += entry.getValue().total();
+        }
+        if (pendingCount.addAndGet(added) >= accumulatorFlushThreshold) {
+            flush();
+        }
+    }
+
+    /**
+     * 定时刷新本地累加结果，并周期性输出 Redis 命令节省情况
+     */
+    @Scheduled(fixedDelayString = "${realtime.stats.accumulator.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        if (accumulatorEnabled) {
+            flush();
+        }
+        reportIfDue();
+    }
+
+    /**
+     * 将本地累加结果写入 Redis
+     */
+    @PreDestroy
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        pendingCount.set(0);
+        Map<IncrementKey, RealtimeStatsIncrement> drained = new HashMap<>();
+        for (IncrementKey key : pending.keySet()) {
+            RealtimeStatsIncrement inc = pending.remove(key);
+            if (inc != null) {
+                drained.put(key, inc);
+            }
         }
+        write(drained);
+    }
+
+    /**
+     * 在一个 pipeline 中写入所有增量；值为 0 的字段不发 HINCRBY
+     */
+    private void write(Map<IncrementKey, RealtimeStatsIncrement> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        String now = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        long[] commands = new long[1];
+        try {
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    HashOperations<String, Object, Object> hashOps = ops.opsForHash();
+                    for (Map.Entry<IncrementKey, RealtimeStatsIncrement> entry : batch.entrySet()) {
+                        IncrementKey key = entry.getKey();
+                        RealtimeStatsIncrement inc = entry.getValue();
+                        String statsKey = buildStatsKey(key.taskId(), key.tableMapperId());
+                        String logKey = buildLogKey(key.taskId(), key.tableMapperId(), key.syncDate(), key.syncHour());
+
+                        // 累计：today_*
+                        commands[0] += incrementIfNonZero(hashOps, statsKey, "today_idv", inc.getIdv());
+                        commands[0] += incrementIfNonZero(hashOps, statsKey, "today_udv", inc.getUdv());
+                        commands[0] += incrementIfNonZero(hashOps, statsKey, "today_ddv", inc.getDdv());
+                        hashOps.put(statsKey, "updated_at", now);
+
+                        // 按小时
+                        commands[0] += incrementIfNonZero(hashOps, logKey, "insert_data_volume", inc.getIdv());
+                        commands[0] += incrementIfNonZero(hashOps, logKey, "update_data_volume", inc.getUdv());
+                        commands[0] += incrementIfNonZero(hashOps, logKey, "delete_data_volume", inc.getDdv());
+                        ops.expire(logKey, RT_LOG_TTL_DAYS, TimeUnit.DAYS);
+                        commands[0] += 2;
+                    }
+                    return null;
+                }
+            });
+            roundTrips.incrementAndGet();
+            issuedCommands.addAndGet(commands[0]);
+        } catch (Exception e) {
+            log.error("RealtimeStatsRedisWriter pipelined write failed, entries={}", batch.size(), e);
+        }
+    }
+
+    /**
+     * 增量为 0 时不下发命令
+     *
+     * @return 下发的命令数
+     */
+    private static long incrementIfNonZero(HashOperations<String, Object, Object> hashOps, String key,
+                                            String field, long delta) {
+        if (delta == 0) {
+            return 0;
+        }
+        hashOps.increment(key, field, delta);
+        return 1;
+    }
+
+    /**
+     * 输出与逐条写入相比节省的 Redis 命令数与往返次数（每秒）
+     */
+    private void reportIfDue() {
+        long nowMs = System.currentTimeMillis();
+        long elapsedMs = nowMs - lastReportMs;
+        if (elapsedMs < REPORT_INTERVAL_MS) {
+            return;
+        }
+        lastReportMs = nowMs;
+        long legacy = legacyCommands.getAndSet(0);
+        long issued = issuedCommands.getAndSet(0);
+        long trips = roundTrips.getAndSet(0);
+        if (legacy == 0) {
+            return;
+        }
+        double seconds = elapsedMs / 1000D;
+        log.info("RealtimeStats redis: legacy ops/s={}, issued ops/s={}, round trips/s={}, saved ops/s={}, saved round trips/s={}",
+                String.format("%.1f", legacy / seconds), String.format("%.1f", issued / seconds),
+                String.format("%.1f", trips / seconds), String.format("%.1f", (legacy - issued) / seconds),
+                String.format("%.1f", (legacy - trips) / seconds));
+    }
+
+    /**
+     * 累加键：任务 + 表映射 + 日期 + 小时
+     */
+    private record IncrementKey(Integer taskId, Integer tableMapperId, int syncDate, int syncHour) {
     }
 
     /**
@@ -119,5 +283,17 @@ public class RealtimeStatsRedisWriter {
             this.udv += udv;
             this.ddv += ddv;
         }
+
+        /**
+         * 合并为新对象（不修改原对象，便于并发 merge）
+         */
+        public RealtimeStatsIncrement plus(RealtimeStatsIncrement other) {
+            return new RealtimeStatsIncrement(tableMapperId, syncDate, syncHour,
+                    idv + other.idv, udv + other.udv, ddv + other.ddv);
+        }
+
+        public long total() {
+            return idv + udv + ddv;
+        }
     }
 }
@@ -30,6 +30,15 @@ public class RealTimeSyncTaskData {
         log.info(String.format("开始重构任务【任务ID：%s】的内存统计信息...", taskId));
     }
 
+    /**
+     * 把实时统计任务注册到共享消费者，供 RealTimeSyncTaskDatas 在注册任务时调用。
+     */
+    public void startRealTimeDataSyncStatsTask() {
+        if (realTimeDataSyncStatsTask != null) {
+            realTimeDataSyncStatsTask.start();
+        }
+    }
+
     /**
      * 停止并释放实时统计任务，供 RealTimeSyncTaskDatas 在注销任务时调用。
      */
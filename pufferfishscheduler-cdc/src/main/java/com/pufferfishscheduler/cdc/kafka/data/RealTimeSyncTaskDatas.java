@@ -7,7 +7,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * 用于存放实时同步任务信息（只负责任务注册/反注册和统计线程的生命周期管理）。
+ * 用于存放实时同步任务信息（只负责任务注册/反注册，以及统计任务在共享消费者上的注册/注销）。
  */
 public class RealTimeSyncTaskDatas {
 
@@ -19,14 +19,18 @@ public class RealTimeSyncTaskDatas {
     }
 
     /**
-     * 任务运行成功后注册任务，用于后续资源管理
+     * 任务运行成功后注册任务，用于后续资源管理；同时把统计任务的 topic 加入共享消费者
      */
     public static void register(RealTimeSyncTaskData taskData) {
-        taskDataMap.put(taskData.getTaskId(), taskData);
+        RealTimeSyncTaskData old = taskDataMap.put(taskData.getTaskId(), taskData);
+        if (old != null && old != taskData) {
+            old.stopRealTimeDataSyncStatsTaskQuietly();
+        }
+        taskData.startRealTimeDataSyncStatsTask();
     }
 
     /**
-     * 任务停止、删除时调用，解除注册并释放资源
+     * 任务停止、删除时调用，解除注册并从共享消费者移除统计任务的 topic
      */
     public static void unRegister(Integer taskId) {
         RealTimeSyncTaskData taskData = taskDataMap.get(taskId);
@@ -0,0 +1,87 @@
+package com.pufferfishscheduler.cdc.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+
+/**
+ * 统计消费端提取操作类型的吞吐：改造前解码为字符串并用 fastjson2 解析整条消息，与直接扫描 UTF-8 字节对比；
+ * 消息为 MySQL、Oracle、PostgreSQL 连接器格式，分别带 schema 与不带 schema。
+ * <p>
+ * 运行：在测试类路径下执行 {@link #main(String[])}，结果单位为每秒处理的消息数。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DebeziumOpExtractorBenchmark {
+
+    private static final String[] OPS = {"c", "u", "u", "d"};
+
+    private static final int MESSAGES_PER_OP = OPS.length;
+
+    @Param({"mysql", "oracle", "postgresql"})
+    public String connector;
+
+    @Param({"true", "false"})
+    public boolean withSchema;
+
+    private byte[][] messages;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        messages = new byte[OPS.length][];
+        for (int i = 0; i < OPS.length; i++) {
+            String message = switch (connector) {
+                case "mysql" -> DebeziumPayloads.mysql(OPS[i], withSchema);
+                case "oracle" -> DebeziumPayloads.oracle(OPS[i], withSchema);
+                default -> DebeziumPayloads.postgres(OPS[i], withSchema);
+            };
+            messages[i] = message.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES_PER_OP)
+    public void parseJson(Blackhole blackhole) {
+        for (byte[] message : messages) {
+            JSONObject root = JSON.parseObject(new String(message, StandardCharsets.UTF_8));
+            JSONObject payload = root.getJSONObject("payload");
+            blackhole.consume((payload == null ? root : payload).getString("op"));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES_PER_OP)
+    public void scanBytes(Blackhole blackhole) {
+        for (byte[] message : messages) {
+            blackhole.consume(DebeziumOpExtractor.extract(message));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(DebeziumOpExtractorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package com.pufferfishscheduler.cdc.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Debezium 操作类型提取：带 schema 与不带 schema 两种格式、字符串转义、截断与非法输入
+ */
+class DebeziumOpExtractorTest {
+
+    private static final String[] OPS = {"c", "r", "u", "d"};
+
+    @Test
+    void extractsOpFromSchemaAndSchemalessMessages() {
+        for (String op : OPS) {
+            for (boolean withSchema : new boolean[]{true, false}) {
+                assertEquals(op, extract(DebeziumPayloads.mysql(op, withSchema)), "mysql " + op + " " + withSchema);
+                assertEquals(op, extract(DebeziumPayloads.oracle(op, withSchema)), "oracle " + op + " " + withSchema);
+                assertEquals(op, extract(DebeziumPayloads.postgres(op, withSchema)),
+                        "postgres " + op + " " + withSchema);
+            }
+        }
+    }
+
+    @Test
+    void prefersPayloadOpOverTopLevelOp() {
+        assertEquals("d", extract("{\"op\":\"x\",\"payload\":{\"before\":null,\"op\":\"d\"}}"));
+        assertEquals("x", extract("{\"op\":\"x\",\"schema\":{\"op\":\"c\"}}"));
+        assertEquals("", extract("{\"payload\":{\"after\":{\"op\":\"c\"}}}"));
+    }
+
+    @Test
+    void skipsEscapedQuotesAndBackslashes() {
+        assertEquals("u", extract("{\"after\":{\"note\":\"a\\\",\\\"op\\\":\\\"x\"},\"op\":\"u\"}"));
+        assertEquals("u", extract("{\"after\":{\"path\":\"C:\\\\dir\\\\\"},\"op\":\"u\"}"));
+        assertEquals("c", extract("{\"k\\\"ey\":\"v\",\"op\":\"c\"}"));
+        assertEquals("c", extract("{\"after\":{\"text\":\"}]}{[\"},\"op\":\"c\"}"));
+    }
+
+    @Test
+    void keepsMultiCharacterAndMultiByteValues() {
+        assertEquals("truncate", extract("{\"op\":\"truncate\"}"));
+        assertEquals("c", extract(" \n{ \"after\" : { \"名称\" : \"值\" } ,\n \"op\" : \"c\" }"));
+    }
+
+    @Test
+    void truncatedMessageReturnsEmptyWithoutThrowing() {
+        for (String message : new String[]{DebeziumPayloads.mysql("u", true), DebeziumPayloads.oracle("d", false),
+                DebeziumPayloads.postgres("c", true)}) {
+            byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            String op = DebeziumOpExtractor.extract(bytes);
+            int opEnd = lastIndexOf(bytes, ("\"op\":\"" + op + "\"").getBytes(StandardCharsets.UTF_8));
+            for (int length = 0; length < bytes.length; length++) {
+                String extracted = DebeziumOpExtractor.extract(Arrays.copyOf(bytes, length));
+                if (length < opEnd) {
+                    assertEquals("", extracted, "length " + length);
+                } else {
+                    // payload.op 已完整读到，后续截断不影响结果
+                    assertTrue(extracted.equals(op) || extracted.isEmpty(), "length " + length);
+                }
+            }
+        }
+    }
+
+    @Test
+    void malformedInputReturnsEmpty() {
+        assertEquals("", DebeziumOpExtractor.extract(null));
+        assertEquals("", DebeziumOpExtractor.extract(new byte[0]));
+        for (String message : new String[]{"   ", "[]", "null", "\"op\"", "{", "{\"op\"", "{\"op\" \"c\"}",
+                "{\"op\":", "{\"op\":\"c", "{op:\"c\"}", "{\"a\":1]", "{\"a\":[1,2}", "{\"a\":\"\\"}) {
+            assertEquals("", extract(message), message);
+        }
+    }
+
+    private static String extract(String message) {
+        return DebeziumOpExtractor.extract(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 返回最后一次出现位置之后的下标
+     */
+    private static int lastIndexOf(byte[] bytes, byte[] target) {
+        for (int i = bytes.length - target.length; i >= 0; i--) {
+            if (Arrays.equals(bytes, i, i + target.length, target, 0, target.length)) {
+                return i + target.length;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,80 @@
+package com.pufferfishscheduler.cdc.kafka;
+
+/**
+ * 按 Debezium MySQL、Oracle、PostgreSQL 连接器实际输出结构构造的变更消息，字段与 source 块取自各连接器默认配置
+ */
+final class DebeziumPayloads {
+
+    private DebeziumPayloads() {
+    }
+
+    static String mysql(String op, boolean withSchema) {
+        String row = "{\"id\":1001,\"order_no\":\"SO-20240615-0001\",\"customer\":\"张三\",\"amount\":\"AZ0=\","
+                + "\"remark\":\"含 \\\"引号\\\" 与 \\\\ 反斜杠，以及 {括号} 和 [方括号]\",\"status\":2,"
+                + "\"created_at\":1718419200000,\"deleted\":false}";
+        String source = "{\"version\":\"2.5.4.Final\",\"connector\":\"mysql\",\"name\":\"pfs_mysql\","
+                + "\"ts_ms\":1718419200000,\"snapshot\":\"false\",\"db\":\"shop\",\"sequence\":null,"
+                + "\"table\":\"t_order\",\"server_id\":223344,\"gtid\":null,\"file\":\"mysql-bin.000003\","
+                + "\"pos\":154,\"row\":0,\"thread\":7,\"query\":null}";
+        return envelope(op, row, source, withSchema, "pfs_mysql.shop.t_order");
+    }
+
+    static String oracle(String op, boolean withSchema) {
+        String row = "{\"ID\":\"AQ==\",\"ORDER_NO\":\"SO-20240615-0002\",\"CUSTOMER\":\"李四\",\"AMOUNT\":\"ATg=\","
+                + "\"REMARK\":null,\"STATUS\":\"Ag==\",\"CREATED_AT\":1718419200000}";
+        String source = "{\"version\":\"2.5.4.Final\",\"connector\":\"oracle\",\"name\":\"pfs_oracle\","
+                + "\"ts_ms\":1718419200000,\"snapshot\":\"false\",\"db\":\"ORCLPDB1\",\"sequence\":null,"
+                + "\"schema\":\"SHOP\",\"table\":\"T_ORDER\",\"txId\":\"0a001b00e4030000\","
+                + "\"scn\":\"2997632\",\"commit_scn\":\"2997633\",\"lcr_position\":null,\"rs_id\":null,"
+                + "\"ssn\":0,\"redo_thread\":1,\"user_name\":\"SHOP\"}";
+        return envelope(op, row, source, withSchema, "pfs_oracle.SHOP.T_ORDER");
+    }
+
+    static String postgres(String op, boolean withSchema) {
+        String row = "{\"id\":1003,\"order_no\":\"SO-20240615-0003\",\"customer\":\"王五\",\"amount\":\"AZ0=\","
+                + "\"tags\":[\"vip\",\"first\"],\"attrs\":\"{\\\"channel\\\":\\\"app\\\"}\","
+                + "\"created_at\":1718419200000000}";
+        String source = "{\"version\":\"2.5.4.Final\",\"connector\":\"postgresql\",\"name\":\"pfs_pg\","
+                + "\"ts_ms\":1718419200000,\"snapshot\":\"false\",\"db\":\"shop\","
+                + "\"sequence\":\"[\\\"24023128\\\",\\\"24023128\\\"]\",\"schema\":\"public\","
+                + "\"table\":\"t_order\",\"txId\":555,\"lsn\":24023128,\"xmin\":null}";
+        return envelope(op, row, source, withSchema, "pfs_pg.public.t_order");
+    }
+
+    private static String envelope(String op, String row, String source, boolean withSchema, String name) {
+        String before = "c".equals(op) || "r".equals(op) ? "null" : row;
+        String after = "d".equals(op) ? "null" : row;
+        String payload = "{\"before\":" + before + ",\"after\":" + after + ",\"source\":" + source
+                + ",\"op\":\"" + op + "\",\"ts_ms\":1718419200123,\"transaction\":null}";
+        if (!withSchema) {
+            return payload;
+        }
+        return "{\"schema\":" + schema(name) + ",\"payload\":" + payload + "}";
+    }
+
+    /**
+     * 信封 schema；其中也有名为 op 的字段定义，提取时不能误取
+     */
+    private static String schema(String name) {
+        return "{\"type\":\"struct\",\"fields\":[" + rowSchema(name, "before") + "," + rowSchema(name, "after") + ","
+                + "{\"type\":\"struct\",\"fields\":[{\"type\":\"string\",\"optional\":false,\"field\":\"version\"},"
+                + "{\"type\":\"string\",\"optional\":false,\"field\":\"connector\"}],\"optional\":false,"
+                + "\"name\":\"io.debezium.connector.common.Source\",\"field\":\"source\"},"
+                + "{\"type\":\"string\",\"optional\":false,\"field\":\"op\"},"
+                + "{\"type\":\"int64\",\"optional\":true,\"field\":\"ts_ms\"}],\"optional\":false,"
+                + "\"name\":\"" + name + ".Envelope\",\"version\":1}";
+    }
+
+    private static String rowSchema(String name, String field) {
+        return "{\"type\":\"struct\",\"fields\":["
+                + "{\"type\":\"int64\",\"optional\":false,\"field\":\"id\"},"
+                + "{\"type\":\"string\",\"optional\":true,\"field\":\"order_no\"},"
+                + "{\"type\":\"string\",\"optional\":true,\"field\":\"customer\"},"
+                + "{\"type\":\"bytes\",\"optional\":true,\"name\":\"org.apache.kafka.connect.data.Decimal\","
+                + "\"version\":1,\"parameters\":{\"scale\":\"2\",\"connect.decimal.precision\":\"12\"},"
+                + "\"field\":\"amount\"},"
+                + "{\"type\":\"int64\",\"optional\":true,\"name\":\"io.debezium.time.Timestamp\",\"version\":1,"
+                + "\"field\":\"created_at\"}],\"optional\":true,\"name\":\"" + name + ".Value\",\"field\":\"" + field
+                + "\"}";
+    }
+}
@@ -4,8 +4,8 @@ import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.pufferfishscheduler.common.constants.Constants;
 import com.pufferfishscheduler.common.exception.BusinessException;
+import com.pufferfishscheduler.common.utils.DataSourceRegistry;
 import com.pufferfishscheduler.common.utils.JdbcUrlUtil;
-import com.pufferfishscheduler.common.utils.JdbcUtil;
 import com.pufferfishscheduler.domain.model.database.DBConnectionInfo;
 import com.pufferfishscheduler.domain.model.database.DatabaseField;
 import com.pufferfishscheduler.domain.vo.database.DatabaseTableFieldVo;
@@ -471,7 +471,7 @@ public final class SqlConditionBuilder {
     // SQL 语法校验
     // -------------------------------------------------------------------------
     public static void validateSqlSyntax(String sql, DBConnectionInfo connInfo) {
-        try (Connection conn = JdbcUtil.getConnection(
+        try (Connection conn = DataSourceRegistry.getConnection(
                 JdbcUrlUtil.getDriver(connInfo.getType()),
                 JdbcUrlUtil.getUrl(connInfo.getType(), connInfo.getDbHost(), connInfo.getDbPort(), connInfo.getDbName(), connInfo.getProperties()),
                 connInfo);
@@ -1,4 +1,4 @@
-package com.pufferfishscheduler.worker.task.connect.ftp;
+package com.pufferfishscheduler.common.ftp;
 
 
 import com.pufferfishscheduler.common.constants.Constants;
@@ -0,0 +1,197 @@
+package com.pufferfishscheduler.common.ftp;
+
+import com.pufferfishscheduler.common.constants.Constants;
+import com.pufferfishscheduler.common.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.commons.pool2.BaseKeyedPooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * FTP/FTPS 客户端连接池
+ * <p>
+ * 按 {@link FtpPoolKey}（数据源 + 连接参数）维护已登录的客户端，借用时以 NOOP 校验连接是否可用，
+ * 空闲连接定期检测并在空闲超时后登出回收。执行过程中出现 IOException 的客户端视为已损坏，直接销毁不再归还。
+ * </p>
+ */
+@Slf4j
+@Component
+public class FtpClientPool implements DisposableBean {
+
+    /**
+     * 单个数据源最多同时借出的连接数，多数 FTP 服务端会限制同一账号的并发连接
+     */
+    private static final int MAX_TOTAL_PER_KEY = 4;
+
+    private static final int MAX_IDLE_PER_KEY = 2;
+
+    private static final int MAX_TOTAL = 64;
+
+    private static final Duration MAX_WAIT = Duration.ofSeconds(30);
+
+    private static final Duration EVICTION_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * 空闲连接回收时间，需小于服务端的空闲断开时间（常见为 5~15 分钟）
+     */
+    private static final Duration MIN_EVICTABLE_IDLE = Duration.ofMinutes(3);
+
+    private final GenericKeyedObjectPool<FtpPoolKey, FTPClient> pool;
+
+    /**
+     * 曾经使用过的键，用于按数据源清理
+     */
+    private final Set<FtpPoolKey> keys = ConcurrentHashMap.newKeySet();
+
+    public FtpClientPool() {
+        GenericKeyedObjectPoolConfig<FTPClient> config = new GenericKeyedObjectPoolConfig<>();
+        config.setMaxTotalPerKey(MAX_TOTAL_PER_KEY);
+        config.setMaxIdlePerKey(MAX_IDLE_PER_KEY);
+        config.setMinIdlePerKey(0);
+        config.setMaxTotal(MAX_TOTAL);
+        config.setMaxWait(MAX_WAIT);
+        config.setTestOnBorrow(true);
+        config.setTestWhileIdle(true);
+        config.setTimeBetweenEvictionRuns(EVICTION_INTERVAL);
+        config.setMinEvictableIdleTime(MIN_EVICTABLE_IDLE);
+        config.setJmxEnabled(false);
+        this.pool = new GenericKeyedObjectPool<>(new FtpClientFactory(), config);
+    }
+
+    /**
+     * 借用客户端执行操作，完成后归还
+     *
+     * @param key      连接池键
+     * @param callback 操作
+     * @return 操作结果
+     * @throws IOException 操作过程中的 IO 异常（该客户端会被销毁）
+     */
+    public <T> T execute(FtpPoolKey key, FtpCallback<T> callback) throws IOException {
+        FTPClient client = borrow(key);
+        boolean broken = true;
+        try {
+            T result = callback.doWithClient(client);
+            broken = false;
+            return result;
+        } catch (BusinessException e) {
+            // 业务校验失败（如目录不存在），连接本身可继续使用
+            broken = false;
+            throw e;
+        } finally {
+            release(key, client, broken);
+        }
+    }
+
+    /**
+     * 清理数据源的全部空闲连接，数据源修改或删除后调用
+     *
+     * @param dbId 数据源id
+     */
+    public void clear(Integer dbId) {
+        keys.removeIf(key -> {
+            if (!Objects.equals(key.getDbId(), dbId)) {
+                return false;
+            }
+            pool.clear(key);
+            return true;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        pool.close();
+    }
+
+    private FTPClient borrow(FtpPoolKey key) {
+        keys.add(key);
+        try {
+            return pool.borrowObject(key);
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("获取FTP连接失败 {}: {}", key, e.getMessage(), e);
+            throw new BusinessException("获取FTP连接失败: " + e.getMessage());
+        }
+    }
+
+    private void release(FtpPoolKey key, FTPClient client, boolean broken) {
+        if (!broken) {
+            pool.returnObject(key, client);
+            return;
+        }
+        try {
+            pool.invalidateObject(key, client);
+        } catch (Exception e) {
+            log.warn("销毁FTP连接失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 使用连接池客户端的操作
+     */
+    @FunctionalInterface
+    public interface FtpCallback<T> {
+
+        T doWithClient(FTPClient client) throws IOException;
+    }
+
+    /**
+     * 创建、校验、销毁客户端，登录逻辑复用 {@link FTPManager}/{@link FTPSManager}
+     */
+    private static class FtpClientFactory extends BaseKeyedPooledObjectFactory<FtpPoolKey, FTPClient> {
+
+        @Override
+        public FTPClient create(FtpPoolKey key) {
+            if (Constants.FTP_TYPE.FTPS.equals(key.getType())) {
+                return new FTPSManager(key.getHost(), key.getPort(), key.getUser(), key.getPassword(),
+                        key.getControlEncoding(), key.getMode()).getFTPClient();
+            }
+            return new FTPManager(key.getHost(), key.getPort(), key.getUser(), key.getPassword(),
+                    key.getControlEncoding(), key.getMode()).getFTPClient();
+        }
+
+        @Override
+        public PooledObject<FTPClient> wrap(FTPClient client) {
+            return new DefaultPooledObject<>(client);
+        }
+
+        @Override
+        public boolean validateObject(FtpPoolKey key, PooledObject<FTPClient> p) {
+            FTPClient client = p.getObject();
+            try {
+                return client.isConnected() && client.sendNoOp();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void destroyObject(FtpPoolKey key, PooledObject<FTPClient> p) {
+            FTPClient client = p.getObject();
+            if (!client.isConnected()) {
+                return;
+            }
+            try {
+                client.logout();
+            } catch (IOException e) {
+                log.debug("FTP登出失败: {}", e.getMessage());
+            }
+            try {
+                client.disconnect();
+            } catch (IOException e) {
+                log.debug("断开FTP连接失败: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.pufferfishscheduler.common.ftp;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * FTP 连接池的键
+ * <p>
+ * 包含全部连接参数，数据源的地址、账号或编码等修改后自然对应新的键，旧键下的空闲连接由连接池回收。
+ * </p>
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString(exclude = "password")
+public class FtpPoolKey {
+
+    /**
+     * 数据源id
+     */
+    private final Integer dbId;
+
+    /**
+     * 数据源类型：FTP/FTPS
+     */
+    private final String type;
+
+    /**
+     * 主机地址
+     */
+    private final String host;
+
+    /**
+     * 端口
+     */
+    private final int port;
+
+    /**
+     * 用户名
+     */
+    private final String user;
+
+    /**
+     * 密码
+     */
+    private final String password;
+
+    /**
+     * 编码
+     */
+    private final String controlEncoding;
+
+    /**
+     * 模式
+     */
+    private final String mode;
+}
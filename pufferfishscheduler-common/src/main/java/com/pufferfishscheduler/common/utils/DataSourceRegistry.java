@@ -0,0 +1,444 @@
+package com.pufferfishscheduler.common.utils;
+
+import com.pufferfishscheduler.common.exception.BusinessException;
+import com.pufferfishscheduler.domain.model.database.DBConnectionInfo;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据源连接池注册表
+ * <p>
+ * 每个数据源（DbDatabase id）维护一个 HikariCP 连接池，元数据读取、数据预览、规则校验、智能问数等场景从池中借用连接，
+ * 用完 close 即归还，避免每次调用都重新建立 JDBC 连接。没有数据源 id 的临时连接（如智能问数从问题中解析出的连接信息）
+ * 按 url + 用户名 共用一个池。
+ * </p>
+ * <p>
+ * 连接池记录驱动、url、连接属性（含密码）的指纹，数据源连接信息变更后下一次借用时自动重建连接池；
+ * 新池建立失败时保留旧池，便于定位配置错误。连接池个数、单池连接数有上限，长时间未使用的连接池由后台线程关闭。
+ * 被替换、失效或回收的连接池先移出注册表，由后台线程在其借出的连接全部归还后关闭，不会中断执行中的查询。
+ * 以下参数可通过 JVM 系统属性调整：
+ * <ul>
+ *     <li>pfs.datasource.pool.max.size：单个连接池最大连接数，默认 5</li>
+ *     <li>pfs.datasource.pool.max.pools：最多保留的连接池个数，默认 64，超过时关闭最久未使用的连接池</li>
+ *     <li>pfs.datasource.pool.idle.minutes：连接池空闲多久后关闭，默认 30 分钟</li>
+ * </ul>
+ * </p>
+ * <p>
+ * 测试连接、DDL 等需要独立会话或特殊连接属性的场景仍使用 {@link JdbcUtil#getConnection} 直接建立连接。
+ * </p>
+ */
+@Slf4j
+public class DataSourceRegistry {
+
+    private static final int MAX_POOL_SIZE = Integer.getInteger("pfs.datasource.pool.max.size", 5);
+
+    private static final int MAX_POOLS = Integer.getInteger("pfs.datasource.pool.max.pools", 64);
+
+    private static final long POOL_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(Long.getLong("pfs.datasource.pool.idle.minutes", 30L));
+
+    /**
+     * 池内空闲连接的回收时间
+     */
+    private static final long CONNECTION_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * 连接最大存活时间，需小于数据库端的空闲断开时间（如 MySQL wait_timeout）
+     */
+    private static final long CONNECTION_MAX_LIFETIME_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    /**
+     * 借用连接的等待时间，与直连时的登录超时保持一致
+     */
+    private static final long CONNECTION_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    /**
+     * 移出注册表的连接池等待借出连接归还的最长时间，超时后强制关闭
+     */
+    private static final long RETIRE_GRACE_MILLIS = CONNECTION_MAX_LIFETIME_MILLIS;
+
+    private static final long EVICT_INTERVAL_MINUTES = 1;
+
+    private static final String POOL_NAME_PREFIX = "pfs-db-";
+
+    private static final Map<String, PoolHolder> POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * 已移出注册表、等待关闭的连接池，只在回收线程中关闭
+     */
+    private static final Queue<PoolHolder> RETIRED = new ConcurrentLinkedQueue<>();
+
+    private static final ScheduledExecutorService EVICTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "pfs-datasource-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        EVICTOR.scheduleWithFixedDelay(DataSourceRegistry::evict,
+                EVICT_INTERVAL_MINUTES, EVICT_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        Runtime.getRuntime().addShutdownHook(new Thread(DataSourceRegistry::closeAll, "pfs-datasource-shutdown"));
+    }
+
+    private DataSourceRegistry() {
+    }
+
+    /**
+     * 从连接池借用连接，使用完毕后调用 close 归还
+     *
+     * @param driverName   驱动类
+     * @param url          jdbc url
+     * @param databaseInfo 数据源连接信息
+     * @return 连接
+     */
+    public static Connection getConnection(String driverName, String url, DBConnectionInfo databaseInfo) {
+        Properties properties = JdbcUtil.buildConnectionProperties(databaseInfo, true);
+        String key = poolKey(url, databaseInfo);
+        String fingerprint = fingerprint(driverName, url, properties);
+
+        for (int attempt = 1; ; attempt++) {
+            PoolHolder holder = acquire(key, databaseInfo.getId(), fingerprint, driverName, url, properties);
+            try {
+                return holder.dataSource.getConnection();
+            } catch (SQLException e) {
+                // 取得连接池之后、借用之前，连接池被回收线程关闭，重新取得连接池后重试一次
+                if (attempt == 1 && holder.dataSource.isClosed()) {
+                    log.debug("连接池[{}]已关闭，重新获取", holder.dataSource.getPoolName());
+                    continue;
+                }
+                String errorMsg = "Failed to get database connection to: " + url;
+                log.error(errorMsg, e);
+                throw new BusinessException(errorMsg);
+            }
+        }
+    }
+
+    /**
+     * 取得数据源的连接池，不存在、连接信息已变更或已关闭时新建
+     * <p>
+     * 新池在注册表之外建立（建池时校验连接，可能耗时数秒，不能占用 ConcurrentHashMap 的桶锁阻塞其他数据源），
+     * 再以 putIfAbsent / replace 安装；并发建池时只有一个安装成功，落选的连接池尚未借出连接，直接关闭。
+     * 新池建立失败时抛出异常，注册表保持不变。
+     * </p>
+     */
+    private static PoolHolder acquire(String key, Integer databaseId, String fingerprint, String driverName,
+                                      String url, Properties properties) {
+        while (true) {
+            PoolHolder current = POOLS.get(key);
+            if (current != null && current.fingerprint.equals(fingerprint) && !current.dataSource.isClosed()) {
+                current.lastAccess = System.currentTimeMillis();
+                return current;
+            }
+
+            PoolHolder created = new PoolHolder(databaseId, fingerprint,
+                    createDataSource(key, driverName, url, properties));
+            boolean installed = current == null
+                    ? POOLS.putIfAbsent(key, created) == null
+                    : POOLS.replace(key, current, created);
+            if (!installed) {
+                log.debug("连接池[{}]已由其他线程建立，关闭本次新建的连接池", created.dataSource.getPoolName());
+                created.dataSource.close();
+                continue;
+            }
+
+            if (current != null) {
+                log.info("数据源[{}]连接信息已变更，重建连接池", key);
+                retire(current);
+            }
+            if (POOLS.size() > MAX_POOLS) {
+                evictLeastRecentlyUsed(key);
+            }
+            return created;
+        }
+    }
+
+    /**
+     * 关闭数据源的连接池，数据源修改或删除后调用
+     *
+     * @param databaseId 数据源id
+     */
+    public static void invalidate(Integer databaseId) {
+        if (databaseId == null) {
+            return;
+        }
+        PoolHolder holder = POOLS.remove(idKey(databaseId));
+        if (holder != null) {
+            log.info("关闭数据源[id={}]的连接池", databaseId);
+            retire(holder);
+        }
+    }
+
+    /**
+     * 连接池统计信息
+     *
+     * @return 各连接池的连接数与最后使用时间
+     */
+    public static List<PoolStats> stats() {
+        List<PoolStats> result = new ArrayList<>();
+        POOLS.forEach((key, holder) -> {
+            PoolStats stats = new PoolStats();
+            stats.setPoolName(holder.dataSource.getPoolName());
+            stats.setDatabaseId(holder.databaseId);
+            stats.setMaxPoolSize(holder.dataSource.getMaximumPoolSize());
+            stats.setCreatedTime(holder.createdTime);
+            stats.setLastAccessTime(holder.lastAccess);
+            HikariPoolMXBean pool = holder.dataSource.getHikariPoolMXBean();
+            if (pool != null) {
+                stats.setActiveConnections(pool.getActiveConnections());
+                stats.setIdleConnections(pool.getIdleConnections());
+                stats.setTotalConnections(pool.getTotalConnections());
+                stats.setThreadsAwaitingConnection(pool.getThreadsAwaitingConnection());
+            }
+            result.add(stats);
+        });
+        return result;
+    }
+
+    /**
+     * 关闭所有连接池
+     */
+    public static void closeAll() {
+        POOLS.keySet().forEach(key -> {
+            PoolHolder holder = POOLS.remove(key);
+            if (holder != null) {
+                holder.dataSource.close();
+            }
+        });
+        for (PoolHolder holder; (holder = RETIRED.poll()) != null; ) {
+            holder.dataSource.close();
+        }
+    }
+
+    private static HikariDataSource createDataSource(String key, String driverName, String url, Properties properties) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(POOL_NAME_PREFIX + key);
+        config.setDriverClassName(driverName);
+        config.setJdbcUrl(url);
+        config.setDataSourceProperties(properties);
+        config.setMaximumPoolSize(MAX_POOL_SIZE);
+        // 不预留空闲连接，空闲连接超时后全部回收
+        config.setMinimumIdle(0);
+        config.setIdleTimeout(CONNECTION_IDLE_MILLIS);
+        config.setMaxLifetime(CONNECTION_MAX_LIFETIME_MILLIS);
+        config.setConnectionTimeout(CONNECTION_TIMEOUT_MILLIS);
+        try {
+            // 建池时校验一次连接，连接信息错误时立即失败，不会缓存不可用的连接池
+            return new HikariDataSource(config);
+        } catch (RuntimeException e) {
+            String errorMsg = "Failed to get database connection to: " + url;
+            log.error(errorMsg, e);
+            throw new BusinessException(errorMsg);
+        }
+    }
+
+    private static void evict() {
+        evictIdlePools();
+        closeRetiredPools();
+    }
+
+    /**
+     * 关闭空闲超时的连接池（池内仍有借出连接的跳过）
+     */
+    private static void evictIdlePools() {
+        long now = System.currentTimeMillis();
+        POOLS.forEach((key, holder) -> {
+            if (now - holder.lastAccess > POOL_IDLE_MILLIS && activeConnections(holder) == 0
+                    && POOLS.remove(key, holder)) {
+                log.info("连接池[{}]空闲超过{}分钟，关闭", holder.dataSource.getPoolName(),
+                        TimeUnit.MILLISECONDS.toMinutes(POOL_IDLE_MILLIS));
+                retire(holder);
+            }
+        });
+    }
+
+    /**
+     * 移出注册表的连接池交给回收线程关闭
+     * <p>
+     * HikariDataSource.close() 会等待最多 10 秒后中断仍在使用的连接，因此不在调用线程中直接关闭：
+     * 空闲连接立即释放，借出的连接归还时释放，连接池在借出连接全部归还后关闭。
+     * 已取得该连接池的线程仍可借用连接，借用前连接池恰好被关闭时由 {@link #getConnection} 重试。
+     * </p>
+     */
+    private static void retire(PoolHolder holder) {
+        HikariPoolMXBean pool = holder.dataSource.getHikariPoolMXBean();
+        if (pool != null) {
+            pool.softEvictConnections();
+        }
+        holder.retiredTime = System.currentTimeMillis();
+        RETIRED.add(holder);
+        EVICTOR.execute(DataSourceRegistry::closeRetiredPools);
+    }
+
+    /**
+     * 关闭借出连接已全部归还的退役连接池，超过等待时间的强制关闭
+     */
+    private static void closeRetiredPools() {
+        long now = System.currentTimeMillis();
+        RETIRED.removeIf(holder -> {
+            boolean expired = now - holder.retiredTime > RETIRE_GRACE_MILLIS;
+            if (!expired && activeConnections(holder) > 0) {
+                return false;
+            }
+            if (expired) {
+                log.warn("连接池[{}]仍有{}个连接未归还，强制关闭", holder.dataSource.getPoolName(),
+                        activeConnections(holder));
+            }
+            holder.dataSource.close();
+            return true;
+        });
+    }
+
+    /**
+     * 连接池个数超过上限时，关闭最久未使用且没有借出连接的连接池
+     */
+    private static void evictLeastRecentlyUsed(String excludeKey) {
+        String eldestKey = null;
+        PoolHolder eldest = null;
+        for (Map.Entry<String, PoolHolder> entry : POOLS.entrySet()) {
+            PoolHolder holder = entry.getValue();
+            if (entry.getKey().equals(excludeKey) || activeConnections(holder) > 0) {
+                continue;
+            }
+            if (eldest == null || holder.lastAccess < eldest.lastAccess) {
+                eldestKey = entry.getKey();
+                eldest = holder;
+            }
+        }
+        if (eldest != null && POOLS.remove(eldestKey, eldest)) {
+            log.info("连接池个数超过{}，关闭最久未使用的连接池[{}]", MAX_POOLS, eldest.dataSource.getPoolName());
+            retire(eldest);
+        }
+    }
+
+    private static int activeConnections(PoolHolder holder) {
+        HikariPoolMXBean pool = holder.dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+
+    private static String poolKey(String url, DBConnectionInfo databaseInfo) {
+        if (databaseInfo.getId() != null) {
+            return idKey(databaseInfo.getId());
+        }
+        return "adhoc-" + digest(url + "|" + databaseInfo.getUsername()).substring(0, 16);
+    }
+
+    private static String idKey(Integer databaseId) {
+        return String.valueOf(databaseId);
+    }
+
+    /**
+     * 连接信息指纹，属性按键排序后计算，密码不以明文保存
+     */
+    private static String fingerprint(String driverName, String url, Properties properties) {
+        StringBuilder content = new StringBuilder(driverName).append('|').append(url);
+        Map<String, String> sorted = new TreeMap<>();
+        properties.forEach((k, v) -> sorted.put(String.valueOf(k), String.valueOf(v)));
+        sorted.forEach((k, v) -> content.append('|').append(k).append('=').append(v));
+        return digest(content.toString());
+    }
+
+    private static String digest(String content) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 已注册的连接池
+     */
+    private static class PoolHolder {
+
+        private final Integer databaseId;
+
+        private final String fingerprint;
+
+        private final HikariDataSource dataSource;
+
+        private final long createdTime = System.currentTimeMillis();
+
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private volatile long retiredTime;
+
+        PoolHolder(Integer databaseId, String fingerprint, HikariDataSource dataSource) {
+            this.databaseId = databaseId;
+            this.fingerprint = fingerprint;
+            this.dataSource = dataSource;
+        }
+    }
+
+    /**
+     * 连接池统计信息
+     */
+    @Data
+    public static class PoolStats {
+
+        /**
+         * 连接池名称
+         */
+        private String poolName;
+
+        /**
+         * 数据源id，临时连接为空
+         */
+        private Integer databaseId;
+
+        /**
+         * 最大连接数
+         */
+        private int maxPoolSize;
+
+        /**
+         * 借出中的连接数
+         */
+        private int activeConnections;
+
+        /**
+         * 空闲连接数
+         */
+        private int idleConnections;
+
+        /**
+         * 连接总数
+         */
+        private int totalConnections;
+
+        /**
+         * 等待借用连接的线程数
+         */
+        private int threadsAwaitingConnection;
+
+        /**
+         * 连接池创建时间（毫秒时间戳）
+         */
+        private long createdTime;
+
+        /**
+         * 最后借用时间（毫秒时间戳）
+         */
+        private long lastAccessTime;
+    }
+}
@@ -181,9 +181,9 @@ public class JdbcUtil {
     }
 
     /**
-     * 构建连接属性
+     * 构建连接属性（{@link DataSourceRegistry} 建池时复用）
      */
-    private static Properties buildConnectionProperties(DBConnectionInfo databaseInfo, boolean useCursorFetch) {
+    static Properties buildConnectionProperties(DBConnectionInfo databaseInfo, boolean useCursorFetch) {
         Properties properties = new Properties();
         properties.put("user", databaseInfo.getUsername());
         properties.put("password", databaseInfo.getPassword());
@@ -0,0 +1,155 @@
+package com.pufferfishscheduler.common.ftp;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.net.ftp.FTPClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockftpserver.core.command.CommandHandler;
+import org.mockftpserver.core.command.CommandNames;
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.UserAccount;
+import org.mockftpserver.fake.filesystem.DirectoryEntry;
+import org.mockftpserver.fake.filesystem.FileEntry;
+import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
+
+import com.pufferfishscheduler.common.constants.Constants;
+import com.pufferfishscheduler.common.exception.BusinessException;
+
+/**
+ * FTP 客户端连接池：借用时 NOOP 校验、IOException 后销毁、按数据源清理，基于内嵌 FTP 服务
+ */
+class FtpClientPoolTest {
+
+    private static final String USER = "pfs";
+
+    private static final String PASSWORD = "secret";
+
+    private FakeFtpServer server;
+
+    private FtpClientPool pool;
+
+    private final AtomicInteger noops = new AtomicInteger();
+
+    /**
+     * 为 true 时下一次 NOOP 返回 421，模拟服务端已断开空闲连接
+     */
+    private final AtomicBoolean rejectNextNoop = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        UnixFakeFileSystem fileSystem = new UnixFakeFileSystem();
+        fileSystem.add(new DirectoryEntry("/data"));
+        fileSystem.add(new FileEntry("/data/a.txt", "hello"));
+
+        server = new FakeFtpServer();
+        server.setServerControlPort(0);
+        server.addUserAccount(new UserAccount(USER, PASSWORD, "/data"));
+        server.setFileSystem(fileSystem);
+        CommandHandler noop = server.getCommandHandler(CommandNames.NOOP);
+        server.setCommandHandler(CommandNames.NOOP, (command, session) -> {
+            noops.incrementAndGet();
+            if (rejectNextNoop.compareAndSet(true, false)) {
+                session.sendReply(421, "Idle timeout, closing control connection");
+                return;
+            }
+            noop.handleCommand(command, session);
+        });
+        server.start();
+
+        pool = new FtpClientPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.destroy();
+        server.stop();
+    }
+
+    @Test
+    void reusesClientValidatedByNoop() throws IOException {
+        FtpPoolKey key = key(1);
+        FTPClient first = pool.execute(key, client -> {
+            assertArrayEquals(new String[]{"a.txt"}, client.listNames("/data"));
+            return client;
+        });
+        int noopsAfterFirst = noops.get();
+
+        FTPClient second = pool.execute(key, client -> client);
+
+        assertSame(first, second);
+        assertEquals(noopsAfterFirst + 1, noops.get());
+    }
+
+    @Test
+    void replacesIdleClientThatFailsNoop() throws IOException {
+        FtpPoolKey key = key(1);
+        FTPClient first = pool.execute(key, client -> client);
+
+        rejectNextNoop.set(true);
+        FTPClient second = pool.execute(key, client -> {
+            assertArrayEquals(new String[]{"a.txt"}, client.listNames("/data"));
+            return client;
+        });
+
+        assertNotSame(first, second);
+        assertFalse(first.isConnected());
+    }
+
+    @Test
+    void invalidatesClientAfterIOException() throws IOException {
+        FtpPoolKey key = key(1);
+        AtomicReference<FTPClient> broken = new AtomicReference<>();
+        IOException error = assertThrows(IOException.class, () -> pool.execute(key, client -> {
+            broken.set(client);
+            throw new IOException("Connection reset");
+        }));
+        assertEquals("Connection reset", error.getMessage());
+        assertFalse(broken.get().isConnected());
+
+        FTPClient next = pool.execute(key, client -> client);
+        assertNotSame(broken.get(), next);
+    }
+
+    @Test
+    void keepsClientAfterBusinessException() throws IOException {
+        FtpPoolKey key = key(1);
+        AtomicReference<FTPClient> used = new AtomicReference<>();
+        assertThrows(BusinessException.class, () -> pool.execute(key, client -> {
+            used.set(client);
+            throw new BusinessException("远程目录不存在");
+        }));
+
+        assertSame(used.get(), pool.execute(key, client -> client));
+    }
+
+    @Test
+    void clearOnlyAffectsGivenDataSource() throws IOException {
+        FtpPoolKey first = key(1);
+        FtpPoolKey second = key(2);
+        FTPClient firstClient = pool.execute(first, client -> client);
+        FTPClient secondClient = pool.execute(second, client -> client);
+
+        pool.clear(1);
+
+        assertFalse(firstClient.isConnected());
+        assertNotSame(firstClient, pool.execute(first, client -> client));
+        assertSame(secondClient, pool.execute(second, client -> client));
+    }
+
+    private FtpPoolKey key(int dbId) {
+        return new FtpPoolKey(dbId, Constants.FTP_TYPE.FTP, "localhost", server.getServerControlPort(), USER,
+                PASSWORD, Constants.CONTROL_ENCODING, Constants.MODE_TYPE.PASSIVE);
+    }
+}
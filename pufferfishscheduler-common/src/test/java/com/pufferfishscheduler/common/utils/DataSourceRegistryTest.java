@@ -0,0 +1,160 @@
+package com.pufferfishscheduler.common.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.pufferfishscheduler.domain.model.database.DBConnectionInfo;
+
+/**
+ * 数据源连接池注册表：连接池被替换或失效时，已借出的连接继续可用，调用线程不等待旧池关闭；
+ * 并发建池时只保留一个连接池，基于 H2 内存库
+ */
+class DataSourceRegistryTest {
+
+    private static final String DRIVER = "org.h2.Driver";
+
+    @Test
+    void invalidateKeepsInFlightConnectionUsable() throws SQLException {
+        DBConnectionInfo info = info(9101);
+        String url = memoryUrl();
+        try (Connection inFlight = DataSourceRegistry.getConnection(DRIVER, url, info)) {
+            assertTimeout(Duration.ofSeconds(2), () -> DataSourceRegistry.invalidate(info.getId()));
+            assertTrue(pools(info.getId()).isEmpty());
+
+            // 旧池交给回收线程，借出的连接归还前不会被中断
+            assertEquals(1, selectOne(inFlight));
+            try (Connection fresh = DataSourceRegistry.getConnection(DRIVER, url, info)) {
+                assertEquals(1, selectOne(fresh));
+            }
+            assertEquals(1, selectOne(inFlight));
+        } finally {
+            DataSourceRegistry.invalidate(info.getId());
+        }
+    }
+
+    @Test
+    void changedConnectionInfoRebuildsPoolWithoutAbortingBorrowedConnections() throws SQLException {
+        DBConnectionInfo info = info(9102);
+        try (Connection old = DataSourceRegistry.getConnection(DRIVER, memoryUrl(), info)) {
+            String changedUrl = memoryUrl();
+            Connection rebuilt = assertTimeout(Duration.ofSeconds(5),
+                    () -> DataSourceRegistry.getConnection(DRIVER, changedUrl, info));
+            try (rebuilt) {
+                assertEquals(1, selectOne(rebuilt));
+            }
+            assertEquals(1, pools(info.getId()).size());
+            assertEquals(1, selectOne(old));
+        } finally {
+            DataSourceRegistry.invalidate(info.getId());
+        }
+    }
+
+    @Test
+    void reusesPoolWhileConnectionInfoUnchanged() throws SQLException {
+        DBConnectionInfo info = info(9103);
+        String url = memoryUrl();
+        try {
+            for (int i = 0; i < 20; i++) {
+                try (Connection connection = DataSourceRegistry.getConnection(DRIVER, url, info)) {
+                    assertEquals(1, selectOne(connection));
+                }
+            }
+            List<DataSourceRegistry.PoolStats> pools = pools(info.getId());
+            assertEquals(1, pools.size());
+            assertEquals(0, pools.get(0).getActiveConnections());
+            assertTrue(pools.get(0).getTotalConnections() <= 1, "connections=" + pools.get(0).getTotalConnections());
+        } finally {
+            DataSourceRegistry.invalidate(info.getId());
+        }
+    }
+
+    @Test
+    void concurrentFirstUseKeepsOnePoolAndClosesTheRest() throws Exception {
+        DBConnectionInfo info = info(9104);
+        String url = memoryUrl();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try (Connection connection = DataSourceRegistry.getConnection(DRIVER, url, info)) {
+                        return selectOne(connection);
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> future : futures) {
+                assertEquals(1, future.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(1, pools(info.getId()).size());
+
+            // 落选的连接池已关闭，数据库上只剩注册表中连接池的连接
+            try (Connection connection = DataSourceRegistry.getConnection(DRIVER, url, info)) {
+                long deadline = System.currentTimeMillis() + 5_000;
+                int sessions = sessions(connection);
+                while (sessions > pools(info.getId()).get(0).getTotalConnections()
+                        && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(50);
+                    sessions = sessions(connection);
+                }
+                assertEquals(pools(info.getId()).get(0).getTotalConnections(), sessions);
+            }
+        } finally {
+            executor.shutdownNow();
+            DataSourceRegistry.invalidate(info.getId());
+        }
+    }
+
+    private static List<DataSourceRegistry.PoolStats> pools(Integer databaseId) {
+        return DataSourceRegistry.stats().stream()
+                .filter(stats -> databaseId.equals(stats.getDatabaseId()))
+                .toList();
+    }
+
+    private static int selectOne(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery("SELECT 1")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static int sessions(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static String memoryUrl() {
+        return "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    }
+
+    private static DBConnectionInfo info(int id) {
+        DBConnectionInfo info = new DBConnectionInfo();
+        info.setId(id);
+        info.setUsername("sa");
+        info.setPassword("");
+        return info;
+    }
+}
@@ -70,6 +70,16 @@ public interface KettleFlowRepositoryMapper extends BaseMapper<KettleFlowReposit
         KettleFlowRepository selectByBizTypeAndBizObjectId(@Param("bizType") String bizType,
                         @Param("bizObjectId") String bizObjectId);
 
+        /**
+         * 查询流程版本信息（id、流程类型、版本号、更新时间），不读取流程内容
+         * 
+         * @param bizType     业务类型
+         * @param bizObjectId 业务对象ID
+         * @return 流程版本信息
+         */
+        KettleFlowRepository selectVersionByBizTypeAndBizObjectId(@Param("bizType") String bizType,
+                        @Param("bizObjectId") String bizObjectId);
+
         /**
          * 根据主机名查询所有流程
          * 
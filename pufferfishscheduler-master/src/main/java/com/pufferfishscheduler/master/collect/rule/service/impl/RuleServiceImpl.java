@@ -701,7 +701,7 @@ public class RuleServiceImpl implements RuleService {
     private Map<String, Object> executeQueryAndBuildResult(String sql, DBConnectionInfo connectionInfo, String dbType) throws SQLException {
         Map<String, Object> result = new HashMap<>();
 
-        try (Connection conn = JdbcUtil.getConnection(
+        try (Connection conn = DataSourceRegistry.getConnection(
                 JdbcUrlUtil.getDriver(dbType),
                 JdbcUrlUtil.getUrl(dbType, connectionInfo.getDbHost(), connectionInfo.getDbPort(),
                         connectionInfo.getDbName(), connectionInfo.getProperties()),
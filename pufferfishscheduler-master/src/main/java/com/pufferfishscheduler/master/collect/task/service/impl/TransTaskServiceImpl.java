@@ -20,6 +20,7 @@ import com.pufferfishscheduler.master.collect.group.service.TransGroupService;
 import com.pufferfishscheduler.master.collect.task.service.TransTaskService;
 import com.pufferfishscheduler.master.common.dict.service.DictService;
 import com.pufferfishscheduler.master.dispatch.kafka.TaskDispatchKafkaProducer;
+import com.pufferfishscheduler.master.dispatch.schedule.TransKafkaScheduleScanner;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.BeanUtils;
@@ -59,6 +60,9 @@ public class TransTaskServiceImpl implements TransTaskService {
     @Autowired
     private TaskDispatchKafkaProducer taskDispatchKafkaProducer;
 
+    @Autowired
+    private TransKafkaScheduleScanner transKafkaScheduleScanner;
+
     /**
      * 与 {@link com.pufferfishscheduler.master.dispatch.schedule.TransKafkaScheduleScanner}、元数据立即同步使用同一语义：卡住后才允许抢占
      */
@@ -133,6 +137,7 @@ public class TransTaskServiceImpl implements TransTaskService {
         task.setCreatedBy(UserContext.getCurrentAccount());
         task.setCreatedTime(new Date());
         transTaskMapper.insert(task);
+        transKafkaScheduleScanner.refresh(task.getId());
     }
 
     /**
@@ -158,6 +163,7 @@ public class TransTaskServiceImpl implements TransTaskService {
         exist.setUpdatedBy(UserContext.getCurrentAccount());
         exist.setUpdatedTime(new Date());
         transTaskMapper.updateById(exist);
+        transKafkaScheduleScanner.refresh(exist.getId());
     }
 
     /**
@@ -174,6 +180,7 @@ public class TransTaskServiceImpl implements TransTaskService {
                 .set("updated_by", UserContext.getCurrentAccount())
                 .set("updated_time", new Date());
         transTaskMapper.update(null, uw);
+        transKafkaScheduleScanner.remove(id);
     }
 
     /**
@@ -189,6 +196,7 @@ public class TransTaskServiceImpl implements TransTaskService {
         task.setUpdatedBy(UserContext.getCurrentAccount());
         task.setUpdatedTime(new Date());
         transTaskMapper.updateById(task);
+        transKafkaScheduleScanner.refresh(id);
     }
 
     /**
@@ -202,6 +210,7 @@ public class TransTaskServiceImpl implements TransTaskService {
         task.setUpdatedBy(UserContext.getCurrentAccount());
         task.setUpdatedTime(new Date());
         transTaskMapper.updateById(task);
+        transKafkaScheduleScanner.refresh(id);
     }
 
     /**
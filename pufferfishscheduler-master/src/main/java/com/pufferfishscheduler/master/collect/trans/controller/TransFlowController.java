@@ -221,13 +221,13 @@ public class TransFlowController {
      * 获取流程运行日志
      *
      * @param id
+     * @param cursor 上次返回的 cursor，只拉取之后的日志；为空时返回全部
      * @return
      */
     @Operation(summary = "流程运行日志")
     @GetMapping(value = "/getProcessLog.do")
-    public ApiResponse getProcessLog(@RequestParam Integer id) {
-        LogChannel logChannel = stepService.getProcessLog(id);
-        return ApiResponse.success(logChannel.clone());
+    public ApiResponse getProcessLog(@RequestParam Integer id, @RequestParam(required = false) Long cursor) {
+        return ApiResponse.success(stepService.getProcessLog(id, cursor));
     }
 
     /**
@@ -103,10 +103,11 @@ public interface StepService {
     /**
      * 获取转换流程运行日志
      *
-     * @param id 转换流id
+     * @param id     转换流id
+     * @param cursor 已读到的日志序号，为空时返回全部日志
      * @return 转换流程运行日志
      */
-    LogChannel getProcessLog(Integer id);
+    LogChannel getProcessLog(Integer id, Long cursor);
 
     /**
      * 展示转换流程图片
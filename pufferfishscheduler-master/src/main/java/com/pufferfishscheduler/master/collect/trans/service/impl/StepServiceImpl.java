@@ -24,6 +24,8 @@ import com.pufferfishscheduler.trans.engine.logchannel.LogChannelManager;
 import com.pufferfishscheduler.trans.plugin.AbstractStepMetaConstructor;
 import com.pufferfishscheduler.trans.plugin.StepContext;
 import com.pufferfishscheduler.trans.plugin.StepMetaConstructorFactory;
+import com.pufferfishscheduler.trans.plugin.StepParallelism;
+import com.pufferfishscheduler.trans.plugin.StepParallelismPlanner;
 import com.pufferfishscheduler.master.collect.trans.service.StepService;
 import dm.jdbc.util.StringUtil;
 import lombok.extern.slf4j.Slf4j;
@@ -394,6 +396,10 @@ public class StepServiceImpl implements StepService {
         // 存储错误处理配置
         Map<String, Map<String, String>> errorConfigMap = new HashMap<>();
 
+        // 并行度规划所需的步骤特征及用户显式配置副本数的步骤
+        Map<String, StepParallelism> stepTraits = new HashMap<>();
+        Set<String> pinnedSteps = new HashSet<>();
+
         // 6. 创建步骤
         for (int i = 0; i < stepCells.size(); i++) {
             JSONObject stepCell = stepCells.getJSONObject(i);
@@ -446,6 +452,12 @@ public class StepServiceImpl implements StepService {
                 }
             }
 
+            stepTraits.put(name, stepMetaConstructor.getParallelism());
+            JSONObject stepData = data.getJSONObject("data");
+            if (stepData != null && stepData.get("copiesCache") != null) {
+                pinnedSteps.add(name);
+            }
+
             // 将各个步骤存入map，方便后面连线
             stepMetaMap.put(id, stepMeta);
             transMeta.addStep(stepMeta);
@@ -519,6 +531,11 @@ public class StepServiceImpl implements StepService {
             log.warn("转换有多个步骤但没有连线");
         }
 
+        // 9. 自动规划步骤并行度：候选步骤随转换 XML 一起保存，副本数在运行时按执行节点的资源分配
+        if (jsonObject.getBooleanValue("autoParallelism")) {
+            StepParallelismPlanner.plan(transMeta, stepTraits, pinnedSteps, jsonObject.getIntValue("maxParallelism"));
+        }
+
         return transMeta;
     }
 
@@ -1085,11 +1102,12 @@ public class StepServiceImpl implements StepService {
     /**
      * 获取转换流程运行日志
      *
-     * @param id 转换流id
+     * @param id     转换流id
+     * @param cursor 已读到的日志序号，为空时返回全部日志
      * @return 转换流程运行日志
      */
     @Override
-    public LogChannel getProcessLog(Integer id) {
+    public LogChannel getProcessLog(Integer id, Long cursor) {
 
         // 获取日志通道
         String key = LogChannelManager.getKey(DataTransEngine.ResourceType.TRANS.name(), String.valueOf(id));
@@ -1098,7 +1116,7 @@ public class StepServiceImpl implements StepService {
             throw new BusinessException("当前会话已超时，回放条件失效，请重新发起！");// todo
         }
 
-        return logChannel.clone();
+        return logChannel.clone(cursor != null ? cursor : -1L);
     }
 
     /**
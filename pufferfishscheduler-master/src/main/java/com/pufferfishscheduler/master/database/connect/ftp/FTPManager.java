@@ -1,388 +0,0 @@
-package com.pufferfishscheduler.master.database.connect.ftp;
-
-
-import com.pufferfishscheduler.common.constants.Constants;
-import com.pufferfishscheduler.common.exception.BusinessException;
-import lombok.Data;
-import lombok.ToString;
-import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.net.ftp.*;
-
-import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
-
-/**
- * FTP管理器
- */
-@Data
-@ToString(exclude = {"ftpClient", "password"})
-@Slf4j
-public class FTPManager {
-
-    private static final int RETRY_TIMES_READ_DATA = 6;
-    private static final int RETRY_TIMES_INIT = 3;
-    private static final int DEFAULT_WAIT_MS = 2000;
-    private static final int KEEP_ALIVE_TIMEOUT_SEC = 60;
-
-    private FTPClient ftpClient;
-    private String controlEncoding;
-    private String mode;
-    private String host;
-    private int port;
-    private String user;
-    private String password;
-    private int bufferSize = 4096;
-    private int connectTimeout = 60000;
-    private int connectSoTimeout = 60000;
-    private int dataSoTimeout = 120000;
-
-    public FTPManager() {
-    }
-
-    public FTPManager(String host, int port, String user, String password, String controlEncoding, String mode) {
-        this.host = host;
-        this.port = port;
-        this.user = user;
-        this.password = password;
-        this.controlEncoding = controlEncoding;
-        this.mode = mode;
-    }
-
-    public void init() {
-        int attempt = 0;
-        while (attempt < RETRY_TIMES_INIT) {
-            try {
-                attempt++;
-                getFTPClient();
-                return;
-            } catch (Exception e) {
-                log.warn("FTP登录失败，尝试第{}/{}次。原因: {}", attempt, RETRY_TIMES_INIT, e.getMessage());
-                if (attempt >= RETRY_TIMES_INIT) {
-                    throw new BusinessException("FTP登录失败，已达最大重试次数");
-                }
-                sleep(DEFAULT_WAIT_MS);
-                resetConnection();
-            }
-        }
-    }
-
-    public FTPClient getFTPClient() {
-        if ((this.ftpClient != null) && (this.ftpClient.isConnected())) {
-            return this.ftpClient;
-        }
-
-        this.ftpClient = new FTPClient();
-        try {
-            configureFtpClient();
-            establishConnection();
-            authenticate();
-            configureTransferMode();
-        } catch (IOException e) {
-            String detail = describeIOException(e);
-            log.error("FTP连接/登录失败 host={}:{} encoding={} mode={}: {}",
-                    host, port, controlEncoding, mode, detail, e);
-            throw new BusinessException("FTP连接/登录失败: " + detail);
-        }
-
-        return this.ftpClient;
-    }
-
-    /**
-     * JDK 中部分 IOException（如 EOFException）message 为空，需补充可诊断信息
-     */
-    private static String describeIOException(IOException e) {
-        String msg = e.getMessage();
-        if (StringUtils.isNotBlank(msg)) {
-            return msg;
-        }
-        StringBuilder sb = new StringBuilder(e.getClass().getSimpleName());
-        for (Throwable c = e.getCause(); c != null; c = c.getCause()) {
-            sb.append(" | cause=").append(c.getClass().getSimpleName());
-            if (StringUtils.isNotBlank(c.getMessage())) {
-                sb.append(": ").append(c.getMessage());
-            }
-        }
-        sb.append("（常见于：FTP/FTPS 类型与端口不一致、服务器立即断开、或需被动模式却未开启）");
-        return sb.toString();
-    }
-
-    private void configureFtpClient() {
-        String enc = StringUtils.isNotBlank(controlEncoding) ? controlEncoding : Constants.CONTROL_ENCODING;
-        this.ftpClient.setControlEncoding(enc);
-        FTPClientConfig conf = new FTPClientConfig();
-        conf.setServerLanguageCode("zh");
-        conf.setServerTimeZoneId("Asia/Shanghai");
-        this.ftpClient.configure(conf);
-
-        this.ftpClient.setConnectTimeout(connectTimeout);
-        this.ftpClient.setDefaultTimeout(connectSoTimeout);
-        this.ftpClient.setDataTimeout(dataSoTimeout);
-        this.ftpClient.setBufferSize(bufferSize);
-        this.ftpClient.setControlKeepAliveTimeout(KEEP_ALIVE_TIMEOUT_SEC);
-        this.ftpClient.setCopyStreamListener(new DGPCopyStreamListener());
-    }
-
-    private void establishConnection() throws IOException {
-        this.ftpClient.connect(host, port);
-        logServerReply();
-        validateConnectionResponse();
-    }
-
-    private void authenticate() throws IOException {
-        if (!this.ftpClient.login(user, password)) {
-            throw new BusinessException("FTP登录认证失败");
-        }
-        logServerReply();
-        log.info("FTP服务器登录成功");
-    }
-
-    private void configureTransferMode() throws IOException {
-        String m = resolveTransferMode(mode);
-        if (Constants.MODE_TYPE.PASSIVE.equals(m)) {
-            this.ftpClient.enterLocalPassiveMode();
-        } else {
-            this.ftpClient.enterLocalActiveMode();
-        }
-        this.ftpClient.setFileType(FTP.BINARY_FILE_TYPE);
-        this.ftpClient.setFileTransferMode(FTP.STREAM_TRANSFER_MODE);
-    }
-
-    /**
-     * 数据源扩展里 mode 应为 Constants.MODE_TYPE 的 "1"（主动）/ "2"（被动）；兼容 passive/active 等写法。
-     * 未识别或为空时默认被动（多数 NAT/防火墙环境必需）。
-     */
-    private static String resolveTransferMode(String raw) {
-        if (StringUtils.isBlank(raw)) {
-            return Constants.MODE_TYPE.PASSIVE;
-        }
-        String s = raw.trim();
-        if (Constants.MODE_TYPE.PASSIVE.equals(s) || Constants.MODE_TYPE.ACTIVE.equals(s)) {
-            return s;
-        }
-        String lower = s.toLowerCase();
-        if ("passive".equals(lower) || "pasv".equals(lower)) {
-            return Constants.MODE_TYPE.PASSIVE;
-        }
-        if ("active".equals(lower) || "port".equals(lower)) {
-            return Constants.MODE_TYPE.ACTIVE;
-        }
-        log.warn("无法识别的 FTP 传输模式 [{}]，已使用被动模式", raw);
-        return Constants.MODE_TYPE.PASSIVE;
-    }
-
-    private void validateConnectionResponse() throws IOException {
-        int replyCode = this.ftpClient.getReplyCode();
-        if (!FTPReply.isPositiveCompletion(replyCode)) {
-            this.ftpClient.disconnect();
-            throw new BusinessException("FTP服务器拒绝连接。响应码: " + replyCode);
-        }
-    }
-
-    private void resetConnection() {
-        try {
-            if (ftpClient != null && this.ftpClient.isConnected()) {
-                this.ftpClient.disconnect();
-            }
-        } catch (IOException e) {
-            log.warn("断开FTP连接时发生错误: {}", e.getMessage());
-        }
-    }
-
-    private void logServerReply() {
-        String[] replies = this.ftpClient.getReplyStrings();
-        if (replies != null) {
-            Arrays.stream(replies).forEach(reply -> log.debug("FTP SERVER: {}", reply));
-        }
-    }
-
-    private void sleep(int millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-    }
-
-    /**
-     * 上传文件
-     *
-     * @param remoteDir
-     * @param localFilePath
-     * @param createSubDir
-     * @return
-     */
-    public boolean uploadFile(String remoteDir, String localFilePath, boolean createSubDir) {
-        validatePathParams(remoteDir, localFilePath);
-        Path localPath = Paths.get(localFilePath);
-
-        if (!Files.isRegularFile(localPath)) {
-            throw new BusinessException("无效的本地文件路径: " + localFilePath);
-        }
-
-        ensureRemoteDirectoryExists(remoteDir, createSubDir);
-
-        try (InputStream is = Files.newInputStream(localPath)) {
-            return this.ftpClient.storeFile(localPath.getFileName().toString(), is);
-        } catch (IOException e) {
-            throw new BusinessException("文件上传失败: " + localFilePath);
-        }
-    }
-
-    private void validatePathParams(String remoteDir, String localPath) {
-        if (StringUtils.isBlank(remoteDir)) {
-            throw new BusinessException("远程目录不能为空");
-        }
-        if (StringUtils.isBlank(localPath)) {
-            throw new BusinessException("本地路径不能为空");
-        }
-    }
-
-    private void ensureRemoteDirectoryExists(String remoteDir, boolean createIfMissing) {
-        try {
-            if (!this.ftpClient.changeWorkingDirectory(remoteDir)) {
-                if (createIfMissing) {
-                    createRemoteDirectory(remoteDir);
-                } else {
-                    throw new BusinessException("远程目录不存在: " + remoteDir);
-                }
-            }
-        } catch (IOException e) {
-            throw new BusinessException("访问远程目录失败: " + remoteDir);
-        }
-    }
-
-    /**
-     * 创建目录
-     *
-     * @param path
-     */
-    public void createRemoteDirectory(String path) {
-        try {
-            String[] parts = path.split(Constants.FILE_SEPARATOR);
-            StringBuilder currentPath = new StringBuilder();
-
-            for (String dir : parts) {
-                if (dir.isEmpty()) continue;
-
-                currentPath.append(Constants.FILE_SEPARATOR).append(dir);
-                String current = currentPath.toString();
-
-                if (!this.ftpClient.changeWorkingDirectory(current)) {
-                    if (this.ftpClient.makeDirectory(current)) {
-                        log.info("创建远程目录: {}", current);
-                    } else {
-                        throw new BusinessException("目录创建失败: " + current);
-                    }
-                }
-            }
-        } catch (IOException e) {
-            throw new BusinessException("创建目录失败: " + path);
-        }
-    }
-
-    /**
-     * 下载文件
-     *
-     * @param remotePath
-     * @param fileName
-     * @param localDir
-     * @return
-     */
-    public boolean downloadFile(String remotePath, String fileName, String localDir) {
-        Path localPath = Paths.get(localDir);
-        ensureLocalDirectoryExists(localPath.getParent());
-
-        boolean success = false;
-        int attempt = 0;
-
-        while (!success && attempt < RETRY_TIMES_READ_DATA) {
-            try {
-                attempt++;
-                success = attemptDownload(remotePath, fileName, localPath);
-            } catch (Exception e) {
-                log.error("下载失败({}/{}): {}", attempt, RETRY_TIMES_READ_DATA, e.getMessage());
-                if (attempt >= RETRY_TIMES_READ_DATA) {
-                    throw new BusinessException("文件下载失败，已达最大重试次数");
-                }
-                resetConnection();
-                init();
-                sleep(DEFAULT_WAIT_MS);
-            }
-        }
-        return success;
-    }
-
-    private boolean attemptDownload(String remotePath, String fileName, Path localPath) throws IOException {
-        if (!this.ftpClient.changeWorkingDirectory(remotePath)) {
-            throw new BusinessException("远程目录不存在: " + remotePath);
-        }
-
-        long localSize = getExistingFileSize(localPath);
-        this.ftpClient.setRestartOffset(localSize);
-
-        try (OutputStream os = new BufferedOutputStream(
-                new FileOutputStream(localPath.toFile(), localSize > 0))) {
-            return this.ftpClient.retrieveFile(fileName, os);
-        }
-    }
-
-    private long getExistingFileSize(Path path) {
-        return path.toFile().exists() ? path.toFile().length() : 0;
-    }
-
-    private void ensureLocalDirectoryExists(Path dir) {
-        if (!Files.exists(dir)) {
-            try {
-                Files.createDirectories(dir);
-            } catch (IOException e) {
-                throw new BusinessException("本地目录创建失败: " + dir);
-            }
-        }
-    }
-
-    /**
-     * 关闭连接
-     */
-    public void close() {
-        if (this.ftpClient == null) return;
-
-        try {
-            if (this.ftpClient.isConnected()) {
-                this.ftpClient.logout();
-                this.ftpClient.disconnect();
-                log.debug("FTP连接已关闭");
-            }
-        } catch (IOException e) {
-            log.warn("关闭FTP连接时发生错误: {}", e.getMessage());
-        } finally {
-            this.ftpClient = null;
-        }
-    }
-
-    /**
-     * 获取到目录下文件列表
-     *
-     * @param remoteDir
-     * @return
-     */
-    public List<String> listFiles(String remoteDir) {
-        try {
-            if (!this.ftpClient.changeWorkingDirectory(remoteDir)) {
-                throw new BusinessException("目录不存在: " + remoteDir);
-            }
-
-            return Arrays.stream(this.ftpClient.listFiles())
-                    .filter(FTPFile::isFile)
-                    .map(FTPFile::getName)
-                    .collect(Collectors.toList());
-        } catch (IOException e) {
-            throw new BusinessException("获取文件列表失败: " + remoteDir);
-        }
-    }
-}
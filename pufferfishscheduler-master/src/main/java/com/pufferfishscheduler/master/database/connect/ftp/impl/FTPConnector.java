@@ -3,7 +3,7 @@ package com.pufferfishscheduler.master.database.connect.ftp.impl;
 
 import com.pufferfishscheduler.common.result.ConResponse;
 import com.pufferfishscheduler.master.database.connect.ftp.AbstractFTPConnector;
-import com.pufferfishscheduler.master.database.connect.ftp.FTPManager;
+import com.pufferfishscheduler.common.ftp.FTPManager;
 
 public class FTPConnector extends AbstractFTPConnector {
 
@@ -4,6 +4,7 @@ import com.pufferfishscheduler.common.constants.Constants;
 import com.pufferfishscheduler.common.exception.BusinessException;
 import com.pufferfishscheduler.common.utils.ConnectorUtil;
 import com.pufferfishscheduler.common.utils.JdbcUrlUtil;
+import com.pufferfishscheduler.common.utils.DataSourceRegistry;
 import com.pufferfishscheduler.common.utils.JdbcUtil;
 import com.pufferfishscheduler.domain.domain.TableColumnSchema;
 import com.pufferfishscheduler.domain.domain.TableForeignKey;
@@ -70,7 +71,7 @@ public class DorisConnector extends AbstractDatabaseConnector {
     @Override
     public Connection getConnection() {
         try {
-            return JdbcUtil.getConnection(getDriver(), getUrl(), getDatabaseInfo());
+            return DataSourceRegistry.getConnection(getDriver(), getUrl(), getDatabaseInfo());
         } catch (Exception e) {
             log.error("Doris数据库连接创建失败", e);
             throw new BusinessException("创建数据库连接失败！" + e.getMessage());
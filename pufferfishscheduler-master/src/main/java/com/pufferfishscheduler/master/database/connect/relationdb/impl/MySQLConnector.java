@@ -7,6 +7,7 @@ import com.pufferfishscheduler.domain.domain.TableColumnSchema;
 import com.pufferfishscheduler.domain.domain.TableForeignKey;
 import com.pufferfishscheduler.domain.domain.TableIndexSchema;
 import com.pufferfishscheduler.domain.domain.TableSchema;
+import com.pufferfishscheduler.common.utils.DataSourceRegistry;
 import com.pufferfishscheduler.common.utils.JdbcUtil;
 import com.pufferfishscheduler.master.database.connect.relationdb.AbstractDatabaseConnector;
 import lombok.extern.slf4j.Slf4j;
@@ -80,7 +81,7 @@ public class MySQLConnector extends AbstractDatabaseConnector {
     public Connection getConnection() {
         Connection conn;
         try {
-            conn = JdbcUtil.getConnection(getDriver(), getUrl(), getDatabaseInfo());
+            conn = DataSourceRegistry.getConnection(getDriver(), getUrl(), getDatabaseInfo());
         } catch (Exception e) {
             log.error(null, e);
             throw new BusinessException("创建数据库连接失败！" + e.getMessage());
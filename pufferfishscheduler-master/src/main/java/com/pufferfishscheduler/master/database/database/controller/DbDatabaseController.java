@@ -2,6 +2,7 @@ package com.pufferfishscheduler.master.database.database.controller;
 
 import com.pufferfishscheduler.domain.form.database.DbDatabaseForm;
 import com.pufferfishscheduler.common.result.ApiResponse;
+import com.pufferfishscheduler.common.utils.DataSourceRegistry;
 import com.pufferfishscheduler.master.common.config.openapi.OpenApiTags;
 import com.pufferfishscheduler.master.database.database.service.DbDatabaseService;
 import com.pufferfishscheduler.master.database.database.service.DbFieldService;
@@ -134,4 +135,15 @@ public class DbDatabaseController {
         dbDatabaseService.testConnect(form);
         return ApiResponse.success("连接成功!");
     }
+
+    /**
+     * 获取数据源连接池统计信息
+     *
+     * @return
+     */
+    @Operation(summary = "获取数据源连接池统计")
+    @GetMapping("/poolStats.do")
+    public ApiResponse poolStats() {
+        return ApiResponse.success(DataSourceRegistry.stats());
+    }
 }
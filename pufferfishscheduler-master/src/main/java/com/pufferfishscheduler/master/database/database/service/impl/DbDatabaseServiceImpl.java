@@ -9,9 +9,11 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.pufferfishscheduler.common.bean.UserContext;
 import com.pufferfishscheduler.common.constants.Constants;
 import com.pufferfishscheduler.common.exception.BusinessException;
+import com.pufferfishscheduler.common.ftp.FtpClientPool;
 import com.pufferfishscheduler.common.result.ConResponse;
 import com.pufferfishscheduler.common.utils.AESUtil;
 import com.pufferfishscheduler.common.utils.Base64Util;
+import com.pufferfishscheduler.common.utils.DataSourceRegistry;
 import com.pufferfishscheduler.common.utils.DateUtil;
 import com.pufferfishscheduler.common.utils.RSAUtil;
 import com.pufferfishscheduler.dao.entity.DbDatabase;
@@ -30,6 +32,7 @@ import com.pufferfishscheduler.master.database.connect.relationdb.AbstractDataba
 import com.pufferfishscheduler.master.database.connect.relationdb.DatabaseConnectorFactory;
 import com.pufferfishscheduler.master.database.database.service.DbDatabaseService;
 import com.pufferfishscheduler.master.database.database.service.DbGroupService;
+import com.pufferfishscheduler.master.database.resource.service.ResourceService;
 import com.pufferfishscheduler.master.common.dict.service.DictService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
@@ -107,6 +110,9 @@ public class DbDatabaseServiceImpl extends ServiceImpl<DbDatabaseMapper, DbDatab
     @Autowired
     private DbGroupService dbGroupService;
 
+    @Autowired
+    private FtpClientPool ftpClientPool;
+
     @Autowired
     private DbDatabaseMapper dbDatabaseDao;
 
@@ -114,6 +120,10 @@ public class DbDatabaseServiceImpl extends ServiceImpl<DbDatabaseMapper, DbDatab
     @Lazy
     private DictService dictService;
 
+    @Autowired
+    @Lazy
+    private ResourceService resourceService;
+
     // ==================== 查询方法 ====================
 
     @Override
@@ -276,6 +286,11 @@ public class DbDatabaseServiceImpl extends ServiceImpl<DbDatabaseMapper, DbDatab
 
         setConnectionInfoAndConfig(dbDatabase, form);
         dbDatabaseDao.updateById(dbDatabase);
+
+        // 连接信息可能已变更，关闭旧连接池
+        DataSourceRegistry.invalidate(dbDatabase.getId());
+        ftpClientPool.clear(dbDatabase.getId());
+        resourceService.evictListing(dbDatabase.getId());
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -291,6 +306,9 @@ public class DbDatabaseServiceImpl extends ServiceImpl<DbDatabaseMapper, DbDatab
                 .set("updated_time", new Date());
 
         dbDatabaseDao.update(null, updateWrapper);
+        DataSourceRegistry.invalidate(id);
+        ftpClientPool.clear(id);
+        resourceService.evictListing(id);
     }
 
     // ==================== 连接测试方法 ====================
@@ -323,6 +341,7 @@ public class DbDatabaseServiceImpl extends ServiceImpl<DbDatabaseMapper, DbDatab
     @Override
     public AbstractDatabaseConnector buildDbConnector(DBConnectionInfo databaseInfo) {
         AbstractDatabaseConnector connector = DatabaseConnectorFactory.getConnector(databaseInfo.getType());
+        connector.setId(databaseInfo.getId());
         connector.setDbName(databaseInfo.getDbName());
         connector.setUsername(databaseInfo.getUsername());
         connector.setPassword(resolvePassword(databaseInfo));
@@ -27,6 +27,7 @@ import com.pufferfishscheduler.master.database.metadata.service.MetadataService;
 import com.pufferfishscheduler.master.common.dict.service.DictService;
 import com.pufferfishscheduler.api.dispatch.TaskDispatchMessage;
 import com.pufferfishscheduler.master.dispatch.kafka.TaskDispatchKafkaProducer;
+import com.pufferfishscheduler.master.dispatch.schedule.MetadataKafkaScheduleScanner;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -71,6 +72,9 @@ public class MetadataServiceImpl implements MetadataService {
     @Autowired
     private TaskDispatchKafkaProducer taskDispatchKafkaProducer;
 
+    @Autowired
+    private MetadataKafkaScheduleScanner metadataKafkaScheduleScanner;
+
     /**
      * 任务卡住阈值（用于“手动立即触发”的抢占）
      * <p>
@@ -263,6 +267,7 @@ public class MetadataServiceImpl implements MetadataService {
         // 是否启用
         metadataTask.setEnable(Enable.ENABLE.getCode().equals(taskForm.getEnable()));
         metadataTaskMapper.insert(metadataTask);
+        metadataKafkaScheduleScanner.refresh(metadataTask.getId());
     }
 
     /**
@@ -286,6 +291,7 @@ public class MetadataServiceImpl implements MetadataService {
         task.setUpdatedBy(UserContext.getCurrentAccount());
         task.setUpdatedTime(new Date());
         metadataTaskMapper.updateById(task);
+        metadataKafkaScheduleScanner.refresh(task.getId());
     }
 
     /**
@@ -303,6 +309,7 @@ public class MetadataServiceImpl implements MetadataService {
         task.setUpdatedBy(UserContext.getCurrentAccount());
         task.setUpdatedTime(new Date());
         metadataTaskMapper.updateById(task);
+        metadataKafkaScheduleScanner.refresh(id);
     }
 
     /**
@@ -324,6 +331,7 @@ public class MetadataServiceImpl implements MetadataService {
                 .set("updated_time", new Date());
 
         metadataTaskMapper.update(null, updateWrapper);
+        metadataKafkaScheduleScanner.remove(id);
     }
 
     /**
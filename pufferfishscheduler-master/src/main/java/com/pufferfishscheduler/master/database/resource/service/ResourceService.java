@@ -102,6 +102,13 @@ public interface ResourceService {
      */
     List<ResourceTreeVo> directoryTree(Integer dbId, String path);
 
+    /**
+     * 清理数据源的目录列表缓存，数据源修改或删除后调用
+     *
+     * @param dbId 数据源id
+     */
+    void evictListing(Integer dbId);
+
     /**
      * 删除本地临时目录及其所有内容
      *
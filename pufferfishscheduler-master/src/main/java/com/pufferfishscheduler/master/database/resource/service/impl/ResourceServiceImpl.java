@@ -3,6 +3,8 @@ package com.pufferfishscheduler.master.database.resource.service.impl;
 import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.pufferfishscheduler.common.constants.Constants;
 import com.pufferfishscheduler.common.exception.BusinessException;
 import com.pufferfishscheduler.common.utils.AESUtil;
@@ -14,8 +16,10 @@ import com.pufferfishscheduler.domain.vo.database.ResourceVo;
 import com.pufferfishscheduler.common.config.file.FilePathConfig;
 import com.pufferfishscheduler.master.database.database.service.DbDatabaseService;
 import com.pufferfishscheduler.master.common.dict.service.DictService;
-import com.pufferfishscheduler.master.database.connect.ftp.FTPManager;
-import com.pufferfishscheduler.master.database.connect.ftp.FTPSManager;
+import com.pufferfishscheduler.common.ftp.FTPManager;
+import com.pufferfishscheduler.common.ftp.FTPSManager;
+import com.pufferfishscheduler.common.ftp.FtpClientPool;
+import com.pufferfishscheduler.common.ftp.FtpPoolKey;
 import com.pufferfishscheduler.master.database.resource.service.ResourceService;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +40,7 @@ import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.util.*;
 import java.util.function.BooleanSupplier;
@@ -47,6 +52,29 @@ import java.util.function.BooleanSupplier;
 @Service
 public class ResourceServiceImpl implements ResourceService {
 
+    /**
+     * 目录列表缓存时间，只用于翻页、搜索时复用，不宜过长
+     */
+    private static final Duration LISTING_CACHE_TTL = Duration.ofSeconds(30);
+
+    /**
+     * 目录列表缓存的最大条目总数（按文件数计算权重）
+     */
+    private static final long LISTING_CACHE_MAX_ENTRIES = 200_000L;
+
+    /**
+     * 目录列表缓存：数据源id:目录 -> 该目录下全部条目（未过滤，按创建时间倒序）
+     * <p>
+     * 同一目录的翻页、按名称搜索、按类型筛选都基于同一份快照，不再重复登录、LIST；
+     * 翻页期间目录内容变化也不会导致条目重复或遗漏。本服务的上传、创建、重命名、移动、删除操作以及数据源的修改、删除会清理对应数据源的缓存。
+     * </p>
+     */
+    private final Cache<String, List<ResourceVo>> listingCache = Caffeine.newBuilder()
+            .expireAfterWrite(LISTING_CACHE_TTL)
+            .maximumWeight(LISTING_CACHE_MAX_ENTRIES)
+            .weigher((String key, List<ResourceVo> value) -> Math.max(1, value.size()))
+            .build();
+
     @Autowired
     private AESUtil aesUtil;
 
@@ -59,6 +87,9 @@ public class ResourceServiceImpl implements ResourceService {
     @Autowired
     private DbDatabaseService databaseService;
 
+    @Autowired
+    private FtpClientPool ftpClientPool;
+
     /**
      * 分页获取资源文件列表
      *
@@ -79,10 +110,9 @@ public class ResourceServiceImpl implements ResourceService {
 
         try {
             path = filePathConfig.getFtpPath() + handleBuiltInDirectory(path);
-            if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
-                resultList = handleFtpList(database, path, name, null);
-            } else if (Constants.FTP_TYPE.FTPS.equals(database.getType())) {
-                resultList = handleFtpsList(database, path, name, null);
+            if (Constants.FTP_TYPE.FTP.equals(database.getType())
+                    || Constants.FTP_TYPE.FTPS.equals(database.getType())) {
+                resultList = listResources(database, path, name, null);
             } else {
                 throw new BusinessException("请校验数据源类型是否是FTP/FTPS!");
             }
@@ -97,11 +127,11 @@ public class ResourceServiceImpl implements ResourceService {
             return page;
         }
 
-        resultList.sort(Comparator.comparing(ResourceVo::getCreatedTime).reversed());
+        // 缓存的列表已按创建时间倒序
         int total = resultList.size();
         int fromIndex = Math.min((pageNo - 1) * pageSize, total);
         int toIndex = Math.min(pageNo * pageSize, total);
-        List<ResourceVo> pageList = resultList.subList(fromIndex, toIndex);
+        List<ResourceVo> pageList = new ArrayList<>(resultList.subList(fromIndex, toIndex));
 
         page.setTotal(total);
         page.setRecords(pageList);
@@ -123,10 +153,9 @@ public class ResourceServiceImpl implements ResourceService {
 
         try {
             path = filePathConfig.getFtpPath() + handleBuiltInDirectory(path);
-            if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
-                resultList = handleFtpList(database, path, null, fileTypeSet);
-            } else if (Constants.FTP_TYPE.FTPS.equals(database.getType())) {
-                resultList = handleFtpsList(database, path, null, fileTypeSet);
+            if (Constants.FTP_TYPE.FTP.equals(database.getType())
+                    || Constants.FTP_TYPE.FTPS.equals(database.getType())) {
+                resultList = listResources(database, path, null, fileTypeSet);
             } else {
                 throw new BusinessException("请校验数据源类型是否是FTP/FTPS!");
             }
@@ -154,32 +183,18 @@ public class ResourceServiceImpl implements ResourceService {
         }
 
         DbDatabase database = getDbDatabase(dbId);
-        FTPManager ftpManager = null;
-        FTPSManager ftpsManager = null;
-        FTPClient ftpClient = null;
+        String rootPath = filePathConfig.getFtpPath();
 
         try {
-            if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
-                ftpManager = getFtpManager(database);
-                ftpClient = ftpManager.getFTPClient();
-            } else {
-                ftpsManager = getFtpsManager(database);
-                ftpClient = ftpsManager.getFTPClient();
-            }
-
-            String normalizedPath = normalizePath(path);
-            normalizedPath = filePathConfig.getFtpPath();
-
-            if (!ftpClient.changeWorkingDirectory(normalizedPath)) {
-                throw new BusinessException("当前账号权限不足/路径不存在: " + normalizedPath);
-            }
-
-            return listDirectories(ftpClient, normalizedPath);
+            return ftpClientPool.execute(getFtpPoolKey(database), ftpClient -> {
+                if (!ftpClient.changeWorkingDirectory(rootPath)) {
+                    throw new BusinessException("当前账号权限不足/路径不存在: " + rootPath);
+                }
+                return listDirectories(ftpClient, rootPath);
+            });
         } catch (Exception e) {
             log.error("获取FTP目录失败: {}", e.getMessage());
             throw new BusinessException("获取FTP目录失败: " + e.getMessage());
-        } finally {
-            closeResources(ftpManager, ftpsManager);
         }
     }
 
@@ -434,37 +449,6 @@ public class ResourceServiceImpl implements ResourceService {
         return new File(basePath, dirName).getPath();
     }
 
-    /**
-     * 归一化路径
-     *
-     * @param path 路径
-     * @return 归一化后的路径
-     */
-    private String normalizePath(String path) {
-        if (!path.startsWith("/")) {
-            path = "/" + path;
-        }
-        if (!"/".equals(path) && path.endsWith("/")) {
-            path = path.substring(0, path.length() - 1);
-        }
-        return path;
-    }
-
-    /**
-     * 关闭FTP资源
-     *
-     * @param ftpManager  FTP管理器
-     * @param ftpsManager FTPS管理器
-     */
-    private void closeResources(FTPManager ftpManager, FTPSManager ftpsManager) {
-        try {
-            if (ftpManager != null) ftpManager.close();
-            if (ftpsManager != null) ftpsManager.close();
-        } catch (Exception e) {
-            log.warn("关闭FTP资源时出错: {}", e.getMessage());
-        }
-    }
-
     /**
      * 上传文件到FTP服务器
      *
@@ -487,10 +471,14 @@ public class ResourceServiceImpl implements ResourceService {
         path = filePathConfig.getFtpPath() + File.separator + handleBuiltInDirectory(path);
         DbDatabase database = getDbDatabase(dbId);
 
-        if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
-            ftpUpload(database, path, files);
-        } else {
-            ftpsUpload(database, path, files);
+        try {
+            if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
+                ftpUpload(database, path, files);
+            } else {
+                ftpsUpload(database, path, files);
+            }
+        } finally {
+            evictListing(database.getId());
         }
     }
 
@@ -516,10 +504,14 @@ public class ResourceServiceImpl implements ResourceService {
         path = filePathConfig.getFtpPath() + File.separator + handleBuiltInDirectory(path);
         DbDatabase database = getDbDatabase(dbId);
 
-        if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
-            ftpUploadWithNames(database, path, fileNames);
-        } else {
-            ftpsUploadWithNames(database, path, fileNames);
+        try {
+            if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
+                ftpUploadWithNames(database, path, fileNames);
+            } else {
+                ftpsUploadWithNames(database, path, fileNames);
+            }
+        } finally {
+            evictListing(database.getId());
         }
     }
 
@@ -541,10 +533,14 @@ public class ResourceServiceImpl implements ResourceService {
         String remotePath = filePathConfig.getFtpPath() + handleBuiltInDirectory(form.getRemotePath());
         DbDatabase database = getDbDatabase(form.getDbId());
 
-        if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
-            ftpMkdir(database, remotePath, name);
-        } else {
-            ftpsMkdir(database, remotePath, name);
+        try {
+            if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
+                ftpMkdir(database, remotePath, name);
+            } else {
+                ftpsMkdir(database, remotePath, name);
+            }
+        } finally {
+            evictListing(database.getId());
         }
     }
 
@@ -570,10 +566,14 @@ public class ResourceServiceImpl implements ResourceService {
         String path = filePathConfig.getFtpPath() + File.separator + handleBuiltInDirectory(form.getPath());
         DbDatabase database = getDbDatabase(form.getDbId());
 
-        if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
-            ftpRename(database, path, oldName, newName);
-        } else {
-            ftpsRename(database, path, oldName, newName);
+        try {
+            if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
+                ftpRename(database, path, oldName, newName);
+            } else {
+                ftpsRename(database, path, oldName, newName);
+            }
+        } finally {
+            evictListing(database.getId());
         }
     }
 
@@ -597,10 +597,14 @@ public class ResourceServiceImpl implements ResourceService {
         toPath = filePathConfig.getFtpPath() + toPath;
         DbDatabase database = getDbDatabase(form.getDbId());
 
-        if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
-            ftpMove(database, form.getType(), fromPath, toPath);
-        } else {
-            ftpsMove(database, form.getType(), fromPath, toPath);
+        try {
+            if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
+                ftpMove(database, form.getType(), fromPath, toPath);
+            } else {
+                ftpsMove(database, form.getType(), fromPath, toPath);
+            }
+        } finally {
+            evictListing(database.getId());
         }
     }
 
@@ -626,10 +630,14 @@ public class ResourceServiceImpl implements ResourceService {
         String remotePath = filePathConfig.getFtpPath() + File.separator + handleBuiltInDirectory(path);
         DbDatabase database = getDbDatabase(dbId);
 
-        if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
-            ftpRemove(database, type, remotePath);
-        } else {
-            ftpsRemove(database, type, remotePath);
+        try {
+            if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
+                ftpRemove(database, type, remotePath);
+            } else {
+                ftpsRemove(database, type, remotePath);
+            }
+        } finally {
+            evictListing(database.getId());
         }
     }
 
@@ -679,57 +687,67 @@ public class ResourceServiceImpl implements ResourceService {
     }
 
     /**
-     * 处理FTP资源列表
+     * 获取FTP/FTPS资源列表，优先使用目录列表缓存
      *
-     * @param database 数据库
-     * @return 资源列表
+     * @param database    数据库
+     * @param path        目录
+     * @param name        名称过滤
+     * @param fileTypeSet 文件类型过滤
+     * @return 资源列表（按创建时间倒序）
      */
-    private List<ResourceVo> handleFtpList(DbDatabase database, String path, String name, List<String> fileTypeSet) throws IOException {
-        FTPManager ftpManager = getFtpManager(database);
-        FTPClient ftpClient = ftpManager.getFTPClient();
-        try {
-            if (!ftpClient.changeWorkingDirectory(path)) return Collections.emptyList();
-            FTPFile[] fs = ftpClient.listFiles();
-            return ArrayUtils.isNotEmpty(fs) ? buildList(fs, name, database.getId(), fileTypeSet) : Collections.emptyList();
-        } finally {
-            ftpManager.close();
-        }
+    private List<ResourceVo> listResources(DbDatabase database, String path, String name, List<String> fileTypeSet) throws IOException {
+        String cacheKey = database.getId() + ":" + path;
+        List<ResourceVo> all = listingCache.getIfPresent(cacheKey);
+        if (all == null) {
+            all = ftpClientPool.execute(getFtpPoolKey(database), ftpClient -> {
+                // 连接池中的客户端保留上次的工作目录，每次都需切换
+                if (!ftpClient.changeWorkingDirectory(path)) return Collections.<ResourceVo>emptyList();
+                FTPFile[] fs = ftpClient.listFiles();
+                return ArrayUtils.isNotEmpty(fs) ? buildList(fs, database.getId()) : Collections.<ResourceVo>emptyList();
+            });
+            listingCache.put(cacheKey, all);
+        }
+        return filterList(all, name, fileTypeSet);
     }
 
-    /**
-     * 处理FTPS资源列表
-     */
-    private List<ResourceVo> handleFtpsList(DbDatabase database, String path, String name, List<String> fileTypeSet) throws IOException {
-        FTPSManager ftpsManager = getFtpsManager(database);
-        FTPSClient ftpsClient = ftpsManager.getFTPClient();
-        try {
-            if (!ftpsClient.changeWorkingDirectory(path)) return Collections.emptyList();
-            FTPFile[] fs = ftpsClient.listFiles();
-            return ArrayUtils.isNotEmpty(fs) ? buildList(fs, name, database.getId(), fileTypeSet) : Collections.emptyList();
-        } finally {
-            ftpsManager.close();
-        }
+    @Override
+    public void evictListing(Integer dbId) {
+        String prefix = dbId + ":";
+        listingCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
     }
 
     /**
-     * 构建资源列表
+     * 构建资源列表（按创建时间倒序）
      */
-    private List<ResourceVo> buildList(FTPFile[] files, String nameFilter, Integer dbId, List<String> fileTypeSet) {
+    private List<ResourceVo> buildList(FTPFile[] files, Integer dbId) {
         List<ResourceVo> resultList = new ArrayList<>();
         for (FTPFile file : files) {
             String fileName = file.getName();
-            if (file.isDirectory()) {
-                if (".".equals(fileName) || "..".equals(fileName)) continue;
-                resultList.add(buildResourceVo(file, fileName, dbId));
-                continue;
-            }
+            if (file.isDirectory() && (".".equals(fileName) || "..".equals(fileName))) continue;
+            resultList.add(buildResourceVo(file, fileName, dbId));
+        }
+        resultList.sort(Comparator.comparing(ResourceVo::getCreatedTime).reversed());
+        return Collections.unmodifiableList(resultList);
+    }
 
-            if (StringUtils.isNotBlank(nameFilter) && !fileName.contains(nameFilter)) continue;
-            if (!CollectionUtils.isEmpty(fileTypeSet)) {
-                String ext = getFileExtension(fileName);
-                if (!fileTypeSet.contains(ext)) continue;
+    /**
+     * 过滤资源列表，目录不参与过滤
+     */
+    private List<ResourceVo> filterList(List<ResourceVo> list, String nameFilter, List<String> fileTypeSet) {
+        if (StringUtils.isBlank(nameFilter) && CollectionUtils.isEmpty(fileTypeSet)) {
+            return list;
+        }
+        List<ResourceVo> resultList = new ArrayList<>();
+        for (ResourceVo vo : list) {
+            String fileName = vo.getName();
+            if (!Constants.FTP_FILE_TYPE.DIRECTORY.equals(vo.getType())) {
+                if (StringUtils.isNotBlank(nameFilter) && !fileName.contains(nameFilter)) continue;
+                if (!CollectionUtils.isEmpty(fileTypeSet)) {
+                    String ext = getFileExtension(fileName);
+                    if (!fileTypeSet.contains(ext)) continue;
+                }
             }
-            resultList.add(buildResourceVo(file, fileName, dbId));
+            resultList.add(vo);
         }
         return resultList;
     }
@@ -816,6 +834,23 @@ public class ResourceServiceImpl implements ResourceService {
         return ftpsManager;
     }
 
+    /**
+     * 获取FTP连接池的键
+     *
+     * @param database 数据库
+     * @return 连接池键
+     */
+    private FtpPoolKey getFtpPoolKey(DbDatabase database) {
+        if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
+            FTPManager m = getFtpManager(database);
+            return new FtpPoolKey(database.getId(), Constants.FTP_TYPE.FTP, m.getHost(), m.getPort(),
+                    m.getUser(), m.getPassword(), m.getControlEncoding(), m.getMode());
+        }
+        FTPSManager m = getFtpsManager(database);
+        return new FtpPoolKey(database.getId(), Constants.FTP_TYPE.FTPS, m.getHost(), m.getPort(),
+                m.getUser(), m.getPassword(), m.getControlEncoding(), m.getMode());
+    }
+
     /**
      * FTP上传文件
      *
@@ -0,0 +1,394 @@
+package com.pufferfishscheduler.master.dispatch.schedule;
+
+import com.pufferfishscheduler.api.dispatch.TaskDispatchMessage;
+import com.pufferfishscheduler.common.constants.Constants;
+import com.pufferfishscheduler.master.dispatch.kafka.TaskDispatchKafkaProducer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Master：基于分层时间轮的 cron 调度，投递调度消息到 Kafka
+ * <p>
+ * 启动时全量加载一次任务并计算下一次触发时间放入时间轮；任务增删改时由业务层增量刷新；低频对账扫描兜底（Worker 回写状态、
+ * 其他 Master 修改等）。每秒推进一次时间轮，同一秒到期的任务用一条批量 UPDATE 抢占为 STARTING 后投递。
+ * </p>
+ *
+ * @param <T> 任务实体
+ */
+@Slf4j
+public abstract class AbstractKafkaScheduleScanner<T> {
+
+    /**
+     * 单条批量抢占 SQL 的最大 id 数
+     */
+    private static final int CLAIM_BATCH_SIZE = 500;
+
+    private final TaskDispatchKafkaProducer producer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 下一次触发时间（受 lock 保护）
+     */
+    private final HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(System.currentTimeMillis());
+
+    /**
+     * 可调度任务快照
+     */
+    private final ConcurrentHashMap<Integer, T> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * 本 Master 最近一次触发时间，避免对账时按旧的 execute_time 重复触发（受 lock 保护）
+     */
+    private final Map<Integer, Long> lastFireTimes = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean ticking = new AtomicBoolean(false);
+
+    private final AtomicBoolean reconciling = new AtomicBoolean(false);
+
+    protected AbstractKafkaScheduleScanner(TaskDispatchKafkaProducer producer) {
+        this.producer = producer;
+    }
+
+    /**
+     * 触发窗口：错过触发时间超过该值则跳过本次
+     */
+    protected abstract long getTriggerWindowMs();
+
+    /**
+     * 卡住阈值：STARTING/RUNNING 超过该时长允许重新抢占
+     */
+    protected abstract long getStuckThresholdMs();
+
+    /**
+     * 加载全部未删除且配置了 cron 的任务
+     */
+    protected abstract List<T> loadTasks();
+
+    /**
+     * 按 id 加载任务，已删除返回 null
+     */
+    protected abstract T loadTask(Integer id);
+
+    protected abstract Integer getId(T task);
+
+    protected abstract String getCron(T task);
+
+    protected abstract Date getExecuteTime(T task);
+
+    protected abstract boolean isSchedulable(T task);
+
+    /**
+     * 批量抢占：UPDATE ... SET status=STARTING, execute_time=? WHERE id IN (...) AND 状态允许
+     *
+     * @return 更新行数
+     */
+    protected abstract int claim(List<Integer> ids, Date scheduledDate, Date now, Date stuckThresholdDate);
+
+    /**
+     * 查询本次抢占成功的任务 id
+     */
+    protected abstract List<Integer> selectClaimed(List<Integer> ids, Date scheduledDate);
+
+    /**
+     * 构造调度消息
+     */
+    protected abstract TaskDispatchMessage buildMessage(T task, Date scheduledDate);
+
+    /**
+     * 推进时间轮并触发到期任务
+     */
+    protected void doTick() {
+        if (!ticking.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long nowMs = System.currentTimeMillis();
+            List<Map.Entry<Integer, Long>> due;
+            lock.lock();
+            try {
+                due = wheel.advance(nowMs);
+            } finally {
+                lock.unlock();
+            }
+            if (due.isEmpty()) {
+                return;
+            }
+
+            // 同一秒到期的任务合并为一次批量抢占
+            Map<Long, List<Integer>> groups = new TreeMap<>();
+            for (Map.Entry<Integer, Long> entry : due) {
+                long fireTimeMs = entry.getValue();
+                if (nowMs - fireTimeMs > getTriggerWindowMs()) {
+                    log.warn("cron task missed trigger window, taskId={}, fireTime={}", entry.getKey(), new Date(fireTimeMs));
+                    continue;
+                }
+                groups.computeIfAbsent(truncateToSecond(fireTimeMs), k -> new ArrayList<>()).add(entry.getKey());
+            }
+            Date now = new Date(nowMs);
+            for (Map.Entry<Long, List<Integer>> group : groups.entrySet()) {
+                fire(group.getValue(), new Date(group.getKey()), now);
+            }
+
+            lock.lock();
+            try {
+                for (Map.Entry<Integer, Long> entry : due) {
+                    lastFireTimes.put(entry.getKey(), entry.getValue());
+                    T task = tasks.get(entry.getKey());
+                    if (task != null) {
+                        schedule(task, nowMs);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (Exception e) {
+            // 调度侧失败不影响主流程
+            log.error("cron schedule tick failed", e);
+        } finally {
+            ticking.set(false);
+        }
+    }
+
+    /**
+     * 批量抢占并投递
+     */
+    private void fire(List<Integer> ids, Date scheduledDate, Date now) {
+        Date stuckThresholdDate = new Date(now.getTime() - getStuckThresholdMs());
+        for (int from = 0; from < ids.size(); from += CLAIM_BATCH_SIZE) {
+            List<Integer> batch = ids.subList(from, Math.min(ids.size(), from + CLAIM_BATCH_SIZE));
+            int updated;
+            try {
+                updated = claim(batch, scheduledDate, now, stuckThresholdDate);
+            } catch (Exception e) {
+                log.error("claim cron tasks failed, ids={}", batch, e);
+                continue;
+            }
+            if (updated <= 0) {
+                continue;
+            }
+            List<Integer> claimed = updated == batch.size() ? batch : selectClaimed(batch, scheduledDate);
+            for (Integer id : claimed) {
+                T task = tasks.get(id);
+                if (task == null) {
+                    task = loadTask(id);
+                }
+                if (task == null) {
+                    continue;
+                }
+                try {
+                    producer.send(buildMessage(task, scheduledDate));
+                } catch (Exception e) {
+                    log.error("send dispatch message failed, taskId={}", id, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 对账：全量加载任务，补齐缺失或 cron 变更的条目，移除已删除/不可调度的任务
+     */
+    protected void doReconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<T> all = loadTasks();
+            long nowMs = System.currentTimeMillis();
+            lock.lock();
+            try {
+                Set<Integer> seen = new HashSet<>();
+                for (T task : all) {
+                    if (task == null || getId(task) == null) {
+                        continue;
+                    }
+                    Integer id = getId(task);
+                    seen.add(id);
+                    T old = tasks.get(id);
+                    if (old != null && isSchedulable(task) && wheel.fireTimeOf(id) != null
+                            && Objects.equals(getCron(old), getCron(task))) {
+                        tasks.put(id, task);
+                        continue;
+                    }
+                    apply(task, nowMs);
+                }
+                Iterator<Integer> it = tasks.keySet().iterator();
+                while (it.hasNext()) {
+                    Integer id = it.next();
+                    if (!seen.contains(id)) {
+                        it.remove();
+                        wheel.cancel(id);
+                        lastFireTimes.remove(id);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            log.debug("cron schedule reconciled, tasks={}, scheduled={}", tasks.size(), wheel.size());
+        } catch (Exception e) {
+            log.error("cron schedule reconcile failed", e);
+        } finally {
+            reconciling.set(false);
+        }
+    }
+
+    /**
+     * 任务新增/修改/启停后刷新调度（事务中调用时在提交后执行）
+     *
+     * @param id 任务id
+     */
+    public void refresh(Integer id) {
+        if (id == null) {
+            return;
+        }
+        afterCommit(() -> {
+            T task = loadTask(id);
+            lock.lock();
+            try {
+                if (task == null) {
+                    unschedule(id);
+                } else {
+                    apply(task, System.currentTimeMillis());
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * 任务删除后移除调度（事务中调用时在提交后执行）
+     *
+     * @param id 任务id
+     */
+    public void remove(Integer id) {
+        if (id == null) {
+            return;
+        }
+        afterCommit(() -> {
+            lock.lock();
+            try {
+                unschedule(id);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    private void apply(T task, long nowMs) {
+        Integer id = getId(task);
+        if (!isSchedulable(task) || CronExpressionCache.get(getCron(task)) == null) {
+            unschedule(id);
+            return;
+        }
+        tasks.put(id, task);
+        schedule(task, nowMs);
+    }
+
+    private void unschedule(Integer id) {
+        tasks.remove(id);
+        wheel.cancel(id);
+        lastFireTimes.remove(id);
+    }
+
+    /**
+     * 计算下一次触发时间并放入时间轮；超出时间轮跨度的由对账重新计算
+     */
+    private void schedule(T task, long nowMs) {
+        Integer id = getId(task);
+        Long next = computeNext(task, nowMs);
+        if (next == null || !wheel.schedule(id, next)) {
+            wheel.cancel(id);
+        }
+    }
+
+    /**
+     * 下一次触发时间：参考点为 execute_time 与本 Master 最近触发时间中较晚者；无 execute_time 时回拨一个触发窗口，
+     * 使刚到期的新任务仍能触发。错过超过触发窗口时从当前时刻重新计算。
+     */
+    private Long computeNext(T task, long nowMs) {
+        CronExpression cronExpression = CronExpressionCache.get(getCron(task));
+        if (cronExpression == null) {
+            return null;
+        }
+        Date executeTime = getExecuteTime(task);
+        long reference = executeTime != null ? executeTime.getTime() : nowMs - getTriggerWindowMs();
+        Long lastFireTime = lastFireTimes.get(getId(task));
+        if (lastFireTime != null) {
+            reference = Math.max(reference, lastFireTime);
+        }
+        try {
+            Long next = nextAfter(cronExpression, reference);
+            if (next != null && nowMs - next > getTriggerWindowMs()) {
+                next = nextAfter(cronExpression, nowMs);
+            }
+            return next;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static Long nextAfter(CronExpression cronExpression, long referenceMs) {
+        ZonedDateTime next = cronExpression.next(Instant.ofEpochMilli(referenceMs).atZone(ZoneId.systemDefault()));
+        return next == null ? null : next.toInstant().toEpochMilli();
+    }
+
+    /**
+     * 公共状态判定：启用、状态非空、未停止、未因失败策略停止
+     */
+    protected static boolean isSchedulableStatus(Boolean enable, String status, String failurePolicy) {
+        if (enable == null || !enable || status == null) {
+            return false;
+        }
+        if (Constants.JOB_MANAGE_STATUS.STOP.equals(status)
+                || Constants.JOB_MANAGE_STATUS.STOPPING.equals(status)) {
+            return false;
+        }
+        // failure_policy：0继续 1停止
+        return !(Constants.JOB_MANAGE_STATUS.FAILURE.equals(status) && "1".equals(failurePolicy));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runQuietly(action);
+                }
+            });
+        } else {
+            runQuietly(action);
+        }
+    }
+
+    private static void runQuietly(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            // 刷新失败由对账兜底
+            log.warn("refresh cron schedule failed", e);
+        }
+    }
+
+    private static long truncateToSecond(long ms) {
+        return (ms / 1000) * 1000;
+    }
+}
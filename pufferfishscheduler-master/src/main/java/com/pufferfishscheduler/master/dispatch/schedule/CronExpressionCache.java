@@ -0,0 +1,54 @@
+package com.pufferfishscheduler.master.dispatch.schedule;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.util.Optional;
+
+/**
+ * cron 表达式解析缓存：同一表达式只解析一次，非法表达式也缓存（返回 null），避免每次调度重复解析
+ */
+public final class CronExpressionCache {
+
+    /**
+     * 缓存上限，正常情况下不同表达式的数量远小于任务数；超出时按最近最少使用淘汰，常用表达式保持命中
+     */
+    private static final int MAX_SIZE = 10_000;
+
+    private static final Cache<String, Optional<CronExpression>> CACHE = Caffeine.newBuilder()
+            .maximumSize(MAX_SIZE)
+            .build();
+
+    private CronExpressionCache() {
+    }
+
+    /**
+     * 获取解析后的 cron 表达式（兼容 5 字段 cron，自动补秒）
+     *
+     * @param cron cron 表达式
+     * @return 非法表达式返回 null
+     */
+    public static CronExpression get(String cron) {
+        if (cron == null) {
+            return null;
+        }
+        String s = cron.trim();
+        if (s.isEmpty()) {
+            return null;
+        }
+        return CACHE.get(s, CronExpressionCache::parse).orElse(null);
+    }
+
+    private static Optional<CronExpression> parse(String cron) {
+        String s = cron;
+        if (s.split("\\s+").length == 5) {
+            s = "0 " + s;
+        }
+        try {
+            return Optional.of(CronExpression.parse(s));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+}
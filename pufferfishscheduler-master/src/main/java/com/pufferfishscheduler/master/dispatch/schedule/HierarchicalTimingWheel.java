@@ -0,0 +1,195 @@
+package com.pufferfishscheduler.master.dispatch.schedule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分层时间轮：秒 / 分 / 时 / 天四层，保存每个任务的下一次触发时间
+ * <p>
+ * 每层的一个槽覆盖下一层的一整圈；推进到上层槽的起点时，把该槽的条目重新放入下层，最终在秒级槽精确到期。
+ * 添加、取消为 O(1)，推进只处理到期的槽，与任务总数无关。超出最高层跨度的条目不入轮，由调用方在对账时重新计算。
+ * 非线程安全，由调用方加锁。
+ * </p>
+ *
+ * @param <K> 任务标识
+ */
+public class HierarchicalTimingWheel<K> {
+
+    /**
+     * 各层刻度（毫秒）：1 秒、1 分钟、1 小时、1 天
+     */
+    private static final long[] TICKS = {1_000L, 60_000L, 3_600_000L, 86_400_000L};
+
+    /**
+     * 各层槽数：60 秒、60 分钟、24 小时、400 天
+     */
+    private static final int[] SIZES = {60, 60, 24, 400};
+
+    /**
+     * 最高层可容纳的跨度
+     */
+    public static final long MAX_SPAN_MS = TICKS[TICKS.length - 1] * SIZES[SIZES.length - 1];
+
+    private final List<List<Set<Node<K>>>> levels = new ArrayList<>(TICKS.length);
+
+    private final Map<K, Node<K>> index = new HashMap<>();
+
+    /**
+     * 已到期、等待下一次推进时返回的条目
+     */
+    private final List<Node<K>> expired = new ArrayList<>();
+
+    /**
+     * 当前时间（按秒对齐）
+     */
+    private long currentTime;
+
+    public HierarchicalTimingWheel(long startTimeMs) {
+        for (int size : SIZES) {
+            List<Set<Node<K>>> slots = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                slots.add(new LinkedHashSet<>());
+            }
+            levels.add(slots);
+        }
+        this.currentTime = align(startTimeMs);
+    }
+
+    /**
+     * 设置任务的触发时间，已存在则替换；触发时间已过的条目在下一次推进时立即返回
+     *
+     * @param key        任务标识
+     * @param fireTimeMs 触发时间
+     * @return 是否入轮（超出最大跨度返回 false）
+     */
+    public boolean schedule(K key, long fireTimeMs) {
+        cancel(key);
+        Node<K> node = new Node<>(key, fireTimeMs);
+        if (!place(node)) {
+            return false;
+        }
+        index.put(key, node);
+        return true;
+    }
+
+    /**
+     * 取消任务
+     *
+     * @param key 任务标识
+     * @return 被取消条目的触发时间，不存在返回 null
+     */
+    public Long cancel(K key) {
+        Node<K> node = index.remove(key);
+        if (node == null) {
+            return null;
+        }
+        if (node.slot != null) {
+            node.slot.remove(node);
+            node.slot = null;
+        } else {
+            expired.remove(node);
+        }
+        return node.fireTimeMs;
+    }
+
+    /**
+     * 查询任务的触发时间
+     */
+    public Long fireTimeOf(K key) {
+        Node<K> node = index.get(key);
+        return node == null ? null : node.fireTimeMs;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * 推进到指定时间，返回所有到期条目（任务标识 -> 触发时间，按到期顺序）
+     *
+     * @param nowMs 当前时间
+     * @return 到期条目
+     */
+    public List<Map.Entry<K, Long>> advance(long nowMs) {
+        List<Node<K>> due = new ArrayList<>(expired);
+        expired.clear();
+        long target = align(nowMs);
+        while (currentTime < target) {
+            currentTime += TICKS[0];
+            // 先从高层向低层逐级下放，再处理秒级槽
+            for (int level = TICKS.length - 1; level >= 1; level--) {
+                if (currentTime % TICKS[level] == 0) {
+                    Set<Node<K>> slot = slotOf(level, currentTime);
+                    List<Node<K>> cascade = new ArrayList<>(slot);
+                    slot.clear();
+                    for (Node<K> node : cascade) {
+                        node.slot = null;
+                        place(node);
+                    }
+                }
+            }
+            Set<Node<K>> slot = slotOf(0, currentTime);
+            for (Node<K> node : slot) {
+                node.slot = null;
+                due.add(node);
+            }
+            slot.clear();
+        }
+        // place 在推进过程中可能把已到期条目放入 expired
+        due.addAll(expired);
+        expired.clear();
+
+        List<Map.Entry<K, Long>> result = new ArrayList<>(due.size());
+        for (Node<K> node : due) {
+            index.remove(node.key, node);
+            result.add(Map.entry(node.key, node.fireTimeMs));
+        }
+        return result;
+    }
+
+    /**
+     * 放入能容纳该触发时间的最低层
+     */
+    private boolean place(Node<K> node) {
+        if (align(node.fireTimeMs) <= currentTime) {
+            expired.add(node);
+            return true;
+        }
+        for (int level = 0; level < TICKS.length; level++) {
+            long distance = node.fireTimeMs / TICKS[level] - currentTime / TICKS[level];
+            if (distance < SIZES[level]) {
+                Set<Node<K>> slot = slotOf(level, node.fireTimeMs);
+                slot.add(node);
+                node.slot = slot;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Set<Node<K>> slotOf(int level, long timeMs) {
+        return levels.get(level).get((int) ((timeMs / TICKS[level]) % SIZES[level]));
+    }
+
+    private static long align(long timeMs) {
+        return (timeMs / TICKS[0]) * TICKS[0];
+    }
+
+    /**
+     * 时间轮条目，按引用比较
+     */
+    private static final class Node<K> {
+        private final K key;
+        private final long fireTimeMs;
+        private Set<Node<K>> slot;
+
+        private Node(K key, long fireTimeMs) {
+            this.key = key;
+            this.fireTimeMs = fireTimeMs;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.pufferfishscheduler.master.dispatch.schedule;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.pufferfishscheduler.api.dispatch.TaskDispatchMessage;
 import com.pufferfishscheduler.common.constants.Constants;
 import com.pufferfishscheduler.dao.entity.MetadataTask;
@@ -7,24 +9,20 @@ import com.pufferfishscheduler.dao.mapper.MetadataTaskMapper;
 import com.pufferfishscheduler.master.dispatch.kafka.TaskDispatchKafkaProducer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.scheduling.support.CronExpression;
 import org.springframework.stereotype.Component;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 
-import java.time.ZoneId;
-import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Master 侧：计算 cron 下一次触发时间，并把“调度消息”投递到 Kafka（方案B）
  */
 @Component
-public class MetadataKafkaScheduleScanner {
+public class MetadataKafkaScheduleScanner extends AbstractKafkaScheduleScanner<MetadataTask> {
 
     private final MetadataTaskMapper metadataTaskMapper;
-    private final TaskDispatchKafkaProducer producer;
-    private final AtomicBoolean scanning = new AtomicBoolean(false);
 
     /**
      * 触发窗口（<=1分钟内）
@@ -39,140 +37,120 @@ public class MetadataKafkaScheduleScanner {
     private long stuckThresholdMs;
 
     public MetadataKafkaScheduleScanner(MetadataTaskMapper metadataTaskMapper,
-                                          TaskDispatchKafkaProducer producer) {
+                                        TaskDispatchKafkaProducer producer) {
+        super(producer);
         this.metadataTaskMapper = metadataTaskMapper;
-        this.producer = producer;
     }
 
     /**
-     * 扫描元数据任务
+     * 推进时间轮
      */
-    @Scheduled(fixedDelayString = "${scheduler.metadata.scan-interval-ms:10000}")
-    public void scan() {
-        try {
-            // 单 master 情况下防重入（避免一次扫描没结束下次又进来）
-            if (!scanning.compareAndSet(false, true)) {
-                return;
-            }
-
-            Date now = new Date();
-            LambdaQueryWrapper<MetadataTask> query = new LambdaQueryWrapper<>();
-            query.eq(MetadataTask::getDeleted, Constants.DELETE_FLAG.FALSE)
-                    .isNotNull(MetadataTask::getCron);
-
-            List<MetadataTask> tasks = metadataTaskMapper.selectList(query);
-            if (tasks == null || tasks.isEmpty()) {
-                return;
-            }
-
-            for (MetadataTask task : tasks) {
-                if (task == null) continue;
-                if (task.getEnable() == null || !task.getEnable()) continue;
-                if (task.getStatus() == null) continue;
-
-                if (Constants.JOB_MANAGE_STATUS.STOP.equals(task.getStatus())
-                        || Constants.JOB_MANAGE_STATUS.STOPPING.equals(task.getStatus())) {
-                    continue;
-                }
-
-                boolean isInProgress = Constants.JOB_MANAGE_STATUS.STARTING.equals(task.getStatus())
-                        || Constants.JOB_MANAGE_STATUS.RUNNING.equals(task.getStatus());
-                if (isInProgress) {
-                    // 正常执行中：在阈值内跳过，避免重复投递；超过阈值则允许走后续逻辑做异常回收
-                    // execute_time 为空仍停留在 STARTING/RUNNING 时，不能 continue（否则会永久卡死）
-                    if (task.getExecuteTime() != null) {
-                        long diff = now.getTime() - task.getExecuteTime().getTime();
-                        if (diff <= stuckThresholdMs) {
-                            continue;
-                        }
-                    }
-                }
+    @Scheduled(fixedRateString = "${scheduler.metadata.tick-interval-ms:1000}")
+    public void tick() {
+        doTick();
+    }
+
+    /**
+     * 低频对账（启动时立即执行一次，完成全量加载）
+     */
+    @Scheduled(fixedDelayString = "${scheduler.metadata.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        doReconcile();
+    }
+
+    @Override
+    protected long getTriggerWindowMs() {
+        return triggerWindowMs;
+    }
+
+    @Override
+    protected long getStuckThresholdMs() {
+        return stuckThresholdMs;
+    }
 
+    @Override
+    protected List<MetadataTask> loadTasks() {
+        LambdaQueryWrapper<MetadataTask> query = new LambdaQueryWrapper<>();
+        query.eq(MetadataTask::getDeleted, Constants.DELETE_FLAG.FALSE)
+                .isNotNull(MetadataTask::getCron);
+        return metadataTaskMapper.selectList(query);
+    }
+
+    @Override
+    protected MetadataTask loadTask(Integer id) {
+        LambdaQueryWrapper<MetadataTask> query = new LambdaQueryWrapper<>();
+        query.eq(MetadataTask::getId, id)
+                .eq(MetadataTask::getDeleted, Constants.DELETE_FLAG.FALSE)
+                .isNotNull(MetadataTask::getCron);
+        return metadataTaskMapper.selectOne(query);
+    }
+
+    @Override
+    protected Integer getId(MetadataTask task) {
+        return task.getId();
+    }
+
+    @Override
+    protected String getCron(MetadataTask task) {
+        return task.getCron();
+    }
+
+    @Override
+    protected Date getExecuteTime(MetadataTask task) {
+        return task.getExecuteTime();
+    }
+
+    @Override
+    protected boolean isSchedulable(MetadataTask task) {
+        return isSchedulableStatus(task.getEnable(), task.getStatus(), task.getFailurePolicy());
+    }
+
+    @Override
+    protected int claim(List<Integer> ids, Date scheduledDate, Date now, Date stuckThresholdDate) {
+        UpdateWrapper<MetadataTask> uw = new UpdateWrapper<>();
+        uw.in("id", ids)
+                .eq("deleted", Constants.DELETE_FLAG.FALSE)
+                .eq("enable", true)
+                .notIn("status", Arrays.asList(
+                        Constants.JOB_MANAGE_STATUS.STOP,
+                        Constants.JOB_MANAGE_STATUS.STOPPING))
                 // failure_policy：0继续 1停止
-                if (Constants.JOB_MANAGE_STATUS.FAILURE.equals(task.getStatus())
-                        && "1".equals(task.getFailurePolicy())) {
-                    continue;
-                }
-
-                // CronExpression.next(参考点) 返回的是「严格晚于参考点」的下一次触发。
-                // 若参考点用「当前时刻」，对新建 INIT（execute_time 为空）会得到「未来的下一次」，永远进不了触发窗口。
-                // 无 execute_time 时回拨参考点：至少回拨「触发窗口」；并对天/周级 cron 保证足够长的回看（仅回拨 triggerWindow 时，
-                // next(现在-1分钟) 对「每天 0 点」类表达式仍可能直接落到「明天 0 点」导致永远不触发）。
-                Date reference;
-                if (task.getExecuteTime() != null) {
-                    reference = task.getExecuteTime();
-                } else {
-                    long minLookback = Math.max(triggerWindowMs + 1000L, 86_400_000L); // >= 1 天
-                    long refMs = now.getTime() - minLookback;
-                    reference = new Date(Math.max(0L, refMs));
-                }
-                CronExpression cronExpression = parseCron(task.getCron());
-                if (cronExpression == null) continue;
-
-                ZoneId zoneId = ZoneId.systemDefault();
-                Date next;
-                try {
-                    next = Date.from(cronExpression.next(reference.toInstant().atZone(zoneId)).toInstant());
-                } catch (Exception e) {
-                    continue;
-                }
-                if (next == null) continue;
-
-                long nextTimeMs = next.getTime();
-                long nowMs = now.getTime();
-                if (nextTimeMs > nowMs) continue;
-                if (nowMs - nextTimeMs > triggerWindowMs) continue;
-
-                Date scheduledDate = truncateToSecond(new Date(nextTimeMs));
-
-                UpdateWrapper<MetadataTask> uw = new UpdateWrapper<>();
-                uw.eq("id", task.getId())
-                        .eq("deleted", Constants.DELETE_FLAG.FALSE)
-                        .set("status", Constants.JOB_MANAGE_STATUS.STARTING)
-                        .set("execute_time", scheduledDate)
-                        // 新一次调度开始，清空上次失败原因（与实时任务“由执行结果写 reason”一致）
-                        .set("reason", "")
-                        .set("updated_by", Constants.SYS_OP_INFO.SYSTEM_ACCOUNT)
-                        .set("updated_time", now);
-
-                int updated = metadataTaskMapper.update(null, uw);
-                if (updated != 1) {
-                    continue;
-                }
-
-                TaskDispatchMessage msg = new TaskDispatchMessage();
-                msg.setTaskType(Constants.TASK_TYPE.METADATA_TASK);
-                msg.setTaskId(task.getId());
-                msg.setDbId(task.getDbId());
-                msg.setScheduledTimeMillis(scheduledDate.getTime());
-
-                producer.send(msg);
-            }
-        } catch (Exception e) {
-            // 调度侧失败不影响主流程
-            e.printStackTrace();
-        } finally {
-            scanning.set(false);
-        }
+                .and(w -> w.ne("status", Constants.JOB_MANAGE_STATUS.FAILURE)
+                        .or().isNull("failure_policy")
+                        .or().ne("failure_policy", "1"))
+                // 正常执行中不重复投递；卡住超过阈值允许抢占恢复
+                .and(w -> w.notIn("status", Arrays.asList(
+                                Constants.JOB_MANAGE_STATUS.STARTING,
+                                Constants.JOB_MANAGE_STATUS.RUNNING))
+                        .or().isNull("execute_time")
+                        .or().le("execute_time", stuckThresholdDate))
+                // 同一调度时刻只能被认领一次：执行很快已回到 INIT 时，其他 Master 不会再次认领该时刻
+                .and(w -> w.isNull("execute_time").or().lt("execute_time", scheduledDate))
+                .set("status", Constants.JOB_MANAGE_STATUS.STARTING)
+                .set("execute_time", scheduledDate)
+                .set("reason", "")
+                .set("updated_by", Constants.SYS_OP_INFO.SYSTEM_ACCOUNT)
+                .set("updated_time", now);
+        return metadataTaskMapper.update(null, uw);
     }
 
-    private static Date truncateToSecond(Date date) {
-        long ms = date.getTime();
-        return new Date((ms / 1000) * 1000);
+    @Override
+    protected List<Integer> selectClaimed(List<Integer> ids, Date scheduledDate) {
+        LambdaQueryWrapper<MetadataTask> query = new LambdaQueryWrapper<>();
+        query.select(MetadataTask::getId)
+                .in(MetadataTask::getId, ids)
+                .eq(MetadataTask::getStatus, Constants.JOB_MANAGE_STATUS.STARTING)
+                .eq(MetadataTask::getExecuteTime, scheduledDate);
+        return metadataTaskMapper.selectList(query).stream().map(MetadataTask::getId).collect(Collectors.toList());
     }
 
-    private static CronExpression parseCron(String cron) {
-        if (cron == null) return null;
-        String s = cron.trim();
-        // 兼容 5 字段 cron（补秒）
-        if (s.split("\\s+").length == 5) {
-            s = "0 " + s;
-        }
-        try {
-            return CronExpression.parse(s);
-        } catch (Exception e) {
-            return null;
-        }
+    @Override
+    protected TaskDispatchMessage buildMessage(MetadataTask task, Date scheduledDate) {
+        TaskDispatchMessage msg = new TaskDispatchMessage();
+        msg.setTaskType(Constants.TASK_TYPE.METADATA_TASK);
+        msg.setTaskId(task.getId());
+        msg.setDbId(task.getDbId());
+        msg.setScheduledTimeMillis(scheduledDate.getTime());
+        return msg;
     }
 }
-
@@ -9,23 +9,20 @@ import com.pufferfishscheduler.dao.mapper.TransTaskMapper;
 import com.pufferfishscheduler.master.dispatch.kafka.TaskDispatchKafkaProducer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.scheduling.support.CronExpression;
 import org.springframework.stereotype.Component;
 
-import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 /**
- * Master：转换任务 cron 扫描，投递 taskType=trans_task 到 Kafka（与元数据任务扫描器逻辑对齐）
+ * Master：转换任务 cron 调度，投递 taskType=trans_task 到 Kafka（与元数据任务调度器逻辑对齐）
  */
 @Component
-public class TransKafkaScheduleScanner {
+public class TransKafkaScheduleScanner extends AbstractKafkaScheduleScanner<TransTask> {
 
     private final TransTaskMapper transTaskMapper;
-    private final TaskDispatchKafkaProducer producer;
-    private final AtomicBoolean scanning = new AtomicBoolean(false);
 
     @Value("${scheduler.trans.trigger-window-ms:60000}")
     private long triggerWindowMs;
@@ -35,139 +32,118 @@ public class TransKafkaScheduleScanner {
 
     public TransKafkaScheduleScanner(TransTaskMapper transTaskMapper,
                                      TaskDispatchKafkaProducer producer) {
+        super(producer);
         this.transTaskMapper = transTaskMapper;
-        this.producer = producer;
     }
 
-    @Scheduled(fixedDelayString = "${scheduler.trans.scan-interval-ms:10000}")
-    public void scan() {
-        try {
-            if (!scanning.compareAndSet(false, true)) {
-                return;
-            }
-
-            Date now = new Date();
-            LambdaQueryWrapper<TransTask> query = new LambdaQueryWrapper<>();
-            query.eq(TransTask::getDeleted, Constants.DELETE_FLAG.FALSE)
-                    .isNotNull(TransTask::getCron);
-
-            List<TransTask> tasks = transTaskMapper.selectList(query);
-            if (tasks == null || tasks.isEmpty()) {
-                return;
-            }
-
-            for (TransTask task : tasks) {
-                if (task == null) {
-                    continue;
-                }
-                if (task.getEnable() == null || !task.getEnable()) {
-                    continue;
-                }
-                if (task.getStatus() == null) {
-                    continue;
-                }
-
-                if (Constants.JOB_MANAGE_STATUS.STOP.equals(task.getStatus())
-                        || Constants.JOB_MANAGE_STATUS.STOPPING.equals(task.getStatus())) {
-                    continue;
-                }
-
-                boolean isInProgress = Constants.JOB_MANAGE_STATUS.STARTING.equals(task.getStatus())
-                        || Constants.JOB_MANAGE_STATUS.RUNNING.equals(task.getStatus());
-                if (isInProgress) {
-                    if (task.getExecuteTime() != null) {
-                        long diff = now.getTime() - task.getExecuteTime().getTime();
-                        if (diff <= stuckThresholdMs) {
-                            continue;
-                        }
-                    }
-                }
-
-                if (Constants.JOB_MANAGE_STATUS.FAILURE.equals(task.getStatus())
-                        && "1".equals(task.getFailurePolicy())) {
-                    continue;
-                }
-
-                Date reference;
-                if (task.getExecuteTime() != null) {
-                    reference = task.getExecuteTime();
-                } else {
-                    long minLookback = Math.max(triggerWindowMs + 1000L, 86_400_000L);
-                    long refMs = now.getTime() - minLookback;
-                    reference = new Date(Math.max(0L, refMs));
-                }
-                CronExpression cronExpression = parseCron(task.getCron());
-                if (cronExpression == null) {
-                    continue;
-                }
-
-                ZoneId zoneId = ZoneId.systemDefault();
-                Date next;
-                try {
-                    next = Date.from(cronExpression.next(reference.toInstant().atZone(zoneId)).toInstant());
-                } catch (Exception e) {
-                    continue;
-                }
-                if (next == null) {
-                    continue;
-                }
-
-                long nextTimeMs = next.getTime();
-                long nowMs = now.getTime();
-                if (nextTimeMs > nowMs) {
-                    continue;
-                }
-                if (nowMs - nextTimeMs > triggerWindowMs) {
-                    continue;
-                }
-
-                Date scheduledDate = truncateToSecond(new Date(nextTimeMs));
-
-                UpdateWrapper<TransTask> uw = new UpdateWrapper<>();
-                uw.eq("id", task.getId())
-                        .eq("deleted", Constants.DELETE_FLAG.FALSE)
-                        .set("status", Constants.JOB_MANAGE_STATUS.STARTING)
-                        .set("execute_time", scheduledDate)
-                        .set("reason", "")
-                        .set("updated_by", Constants.SYS_OP_INFO.SYSTEM_ACCOUNT)
-                        .set("updated_time", now);
-
-                int updated = transTaskMapper.update(null, uw);
-                if (updated != 1) {
-                    continue;
-                }
-
-                TaskDispatchMessage msg = new TaskDispatchMessage();
-                msg.setTaskType(Constants.TASK_TYPE.TRANS_TASK);
-                msg.setTaskId(task.getId());
-                msg.setScheduledTimeMillis(scheduledDate.getTime());
-
-                producer.send(msg);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        } finally {
-            scanning.set(false);
-        }
+    /**
+     * 推进时间轮
+     */
+    @Scheduled(fixedRateString = "${scheduler.trans.tick-interval-ms:1000}")
+    public void tick() {
+        doTick();
     }
 
-    private static Date truncateToSecond(Date date) {
-        long ms = date.getTime();
-        return new Date((ms / 1000) * 1000);
+    /**
+     * 低频对账（启动时立即执行一次，完成全量加载）
+     */
+    @Scheduled(fixedDelayString = "${scheduler.trans.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        doReconcile();
     }
 
-    private static CronExpression parseCron(String cron) {
-        if (cron == null) {
-            return null;
-        }
-        String s = cron.trim();
-        if (s.split("\\s+").length == 5) {
-            s = "0 " + s;
-        }
-        try {
-            return CronExpression.parse(s);
-        } catch (Exception e) {
-            return null;
-        }
+    @Override
+    protected long getTriggerWindowMs() {
+        return triggerWindowMs;
+    }
+
+    @Override
+    protected long getStuckThresholdMs() {
+        return stuckThresholdMs;
+    }
+
+    @Override
+    protected List<TransTask> loadTasks() {
+        LambdaQueryWrapper<TransTask> query = new LambdaQueryWrapper<>();
+        query.eq(TransTask::getDeleted, Constants.DELETE_FLAG.FALSE)
+                .isNotNull(TransTask::getCron);
+        return transTaskMapper.selectList(query);
+    }
+
+    @Override
+    protected TransTask loadTask(Integer id) {
+        LambdaQueryWrapper<TransTask> query = new LambdaQueryWrapper<>();
+        query.eq(TransTask::getId, id)
+                .eq(TransTask::getDeleted, Constants.DELETE_FLAG.FALSE)
+                .isNotNull(TransTask::getCron);
+        return transTaskMapper.selectOne(query);
+    }
+
+    @Override
+    protected Integer getId(TransTask task) {
+        return task.getId();
+    }
+
+    @Override
+    protected String getCron(TransTask task) {
+        return task.getCron();
+    }
+
+    @Override
+    protected Date getExecuteTime(TransTask task) {
+        return task.getExecuteTime();
+    }
+
+    @Override
+    protected boolean isSchedulable(TransTask task) {
+        return isSchedulableStatus(task.getEnable(), task.getStatus(), task.getFailurePolicy());
+    }
+
+    @Override
+    protected int claim(List<Integer> ids, Date scheduledDate, Date now, Date stuckThresholdDate) {
+        UpdateWrapper<TransTask> uw = new UpdateWrapper<>();
+        uw.in("id", ids)
+                .eq("deleted", Constants.DELETE_FLAG.FALSE)
+                .eq("enable", true)
+                .notIn("status", Arrays.asList(
+                        Constants.JOB_MANAGE_STATUS.STOP,
+                        Constants.JOB_MANAGE_STATUS.STOPPING))
+                // failure_policy：0继续 1停止
+                .and(w -> w.ne("status", Constants.JOB_MANAGE_STATUS.FAILURE)
+                        .or().isNull("failure_policy")
+                        .or().ne("failure_policy", "1"))
+                // 正常执行中不重复投递；卡住超过阈值允许抢占恢复
+                .and(w -> w.notIn("status", Arrays.asList(
+                                Constants.JOB_MANAGE_STATUS.STARTING,
+                                Constants.JOB_MANAGE_STATUS.RUNNING))
+                        .or().isNull("execute_time")
+                        .or().le("execute_time", stuckThresholdDate))
+                // 同一调度时刻只能被认领一次：执行很快已回到 INIT 时，其他 Master 不会再次认领该时刻
+                .and(w -> w.isNull("execute_time").or().lt("execute_time", scheduledDate))
+                .set("status", Constants.JOB_MANAGE_STATUS.STARTING)
+                .set("execute_time", scheduledDate)
+                .set("reason", "")
+                .set("updated_by", Constants.SYS_OP_INFO.SYSTEM_ACCOUNT)
+                .set("updated_time", now);
+        return transTaskMapper.update(null, uw);
+    }
+
+    @Override
+    protected List<Integer> selectClaimed(List<Integer> ids, Date scheduledDate) {
+        LambdaQueryWrapper<TransTask> query = new LambdaQueryWrapper<>();
+        query.select(TransTask::getId)
+                .in(TransTask::getId, ids)
+                .eq(TransTask::getStatus, Constants.JOB_MANAGE_STATUS.STARTING)
+                .eq(TransTask::getExecuteTime, scheduledDate);
+        return transTaskMapper.selectList(query).stream().map(TransTask::getId).collect(Collectors.toList());
+    }
+
+    @Override
+    protected TaskDispatchMessage buildMessage(TransTask task, Date scheduledDate) {
+        TaskDispatchMessage msg = new TaskDispatchMessage();
+        msg.setTaskType(Constants.TASK_TYPE.TRANS_TASK);
+        msg.setTaskId(task.getId());
+        msg.setScheduledTimeMillis(scheduledDate.getTime());
+        return msg;
     }
 }
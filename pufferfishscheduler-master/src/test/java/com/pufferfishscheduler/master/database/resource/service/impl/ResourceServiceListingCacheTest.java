@@ -0,0 +1,150 @@
+package com.pufferfishscheduler.master.database.resource.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockftpserver.fake.FakeFtpServer;
+import org.mockftpserver.fake.UserAccount;
+import org.mockftpserver.fake.filesystem.DirectoryEntry;
+import org.mockftpserver.fake.filesystem.FileEntry;
+import org.mockftpserver.fake.filesystem.UnixFakeFileSystem;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pufferfishscheduler.common.config.file.FilePathConfig;
+import com.pufferfishscheduler.common.constants.Constants;
+import com.pufferfishscheduler.common.ftp.FtpClientPool;
+import com.pufferfishscheduler.common.utils.AESUtil;
+import com.pufferfishscheduler.dao.entity.DbDatabase;
+import com.pufferfishscheduler.domain.vo.database.ResourceVo;
+import com.pufferfishscheduler.master.common.dict.service.DictService;
+import com.pufferfishscheduler.master.database.database.service.DbDatabaseService;
+
+/**
+ * 目录列表缓存：命中缓存时不再访问服务端，上传、删除以及数据源变更后重新列目录，基于内嵌 FTP 服务
+ */
+class ResourceServiceListingCacheTest {
+
+    private static final String USER = "pfs";
+
+    private static final String PASSWORD = "secret";
+
+    @TempDir
+    Path dir;
+
+    private UnixFakeFileSystem fileSystem;
+
+    private FakeFtpServer server;
+
+    private FtpClientPool pool;
+
+    private ResourceServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        fileSystem = new UnixFakeFileSystem() {
+            @Override
+            public String normalize(String path) {
+                // 服务拼接路径时会产生连续分隔符，与多数服务端一致按单个分隔符处理
+                return super.normalize(path.replaceAll("/{2,}", "/"));
+            }
+        };
+        fileSystem.add(new DirectoryEntry("/data"));
+        fileSystem.add(new DirectoryEntry("/data/docs"));
+        fileSystem.add(new FileEntry("/data/docs/a.txt", "a"));
+
+        server = new FakeFtpServer();
+        server.setServerControlPort(0);
+        server.addUserAccount(new UserAccount(USER, PASSWORD, "/data"));
+        server.setFileSystem(fileSystem);
+        server.start();
+
+        FilePathConfig filePathConfig = new FilePathConfig();
+        filePathConfig.setFtpPath("/data");
+        AESUtil aesUtil = mock(AESUtil.class);
+        when(aesUtil.decrypt(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        DbDatabaseService databaseService = mock(DbDatabaseService.class);
+        when(databaseService.getDatabaseById(anyInt())).thenAnswer(invocation -> database(invocation.getArgument(0)));
+
+        pool = new FtpClientPool();
+        service = new ResourceServiceImpl();
+        ReflectionTestUtils.setField(service, "aesUtil", aesUtil);
+        ReflectionTestUtils.setField(service, "filePathConfig", filePathConfig);
+        ReflectionTestUtils.setField(service, "dictService", mock(DictService.class));
+        ReflectionTestUtils.setField(service, "databaseService", databaseService);
+        ReflectionTestUtils.setField(service, "ftpClientPool", pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.destroy();
+        server.stop();
+    }
+
+    @Test
+    void uploadEvictsCachedListing() throws Exception {
+        assertEquals(List.of("a.txt"), names(1));
+
+        // 绕过服务直接改动服务端，缓存未失效前仍返回旧列表
+        fileSystem.add(new FileEntry("/data/docs/b.txt", "b"));
+        assertEquals(List.of("a.txt"), names(1));
+
+        Path local = dir.resolve("c.txt");
+        Files.writeString(local, "c");
+        service.uploadWithNames(1, "/docs", List.of(local.toString()));
+
+        assertEquals(List.of("a.txt", "b.txt", "c.txt"), names(1));
+    }
+
+    @Test
+    void removeEvictsCachedListing() {
+        assertEquals(List.of("a.txt"), names(1));
+
+        service.remove(1, Constants.FTP_FILE_TYPE.FILE, "/docs/a.txt");
+
+        assertEquals(List.of(), names(1));
+    }
+
+    @Test
+    void evictListingOnlyAffectsGivenDataSource() {
+        assertEquals(List.of("a.txt"), names(1));
+        assertEquals(List.of("a.txt"), names(2));
+        fileSystem.add(new FileEntry("/data/docs/b.txt", "b"));
+
+        // 数据源修改、删除时由 DbDatabaseService 调用
+        service.evictListing(1);
+
+        assertEquals(List.of("a.txt", "b.txt"), names(1));
+        assertEquals(List.of("a.txt"), names(2));
+    }
+
+    private List<String> names(int dbId) {
+        return service.list(dbId, null, "/docs", 1, 100).getRecords().stream()
+                .map(ResourceVo::getName)
+                .sorted()
+                .toList();
+    }
+
+    private DbDatabase database(Integer id) {
+        DbDatabase database = new DbDatabase();
+        database.setId(id);
+        database.setType(Constants.FTP_TYPE.FTP);
+        database.setDbHost("localhost");
+        database.setDbPort(String.valueOf(server.getServerControlPort()));
+        database.setUsername(USER);
+        database.setPassword(PASSWORD);
+        database.setProperties(String.format("{\"%s\":\"%s\"}", Constants.FTP_PROPERTIES.MODE,
+                Constants.MODE_TYPE.PASSIVE));
+        return database;
+    }
+}
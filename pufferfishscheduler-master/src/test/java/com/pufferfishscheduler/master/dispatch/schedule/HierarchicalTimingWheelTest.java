@@ -0,0 +1,117 @@
+package com.pufferfishscheduler.master.dispatch.schedule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 分层时间轮：条目在各层之间逐级下放，并在触发时间所在的那一秒到期，不提前、不滞后
+ */
+class HierarchicalTimingWheelTest {
+
+    /**
+     * 不按分钟、小时、天对齐的起点，覆盖跨层边界
+     */
+    private static final long START = 1_700_000_123_456L;
+
+    private static final long SECOND = 1_000L;
+
+    private static final long MINUTE = 60 * SECOND;
+
+    private static final long HOUR = 60 * MINUTE;
+
+    private static final long DAY = 24 * HOUR;
+
+    @Test
+    void entriesFireInTheSecondOfTheirDueTime() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(START);
+        long[] offsets = {
+                1_500L, 59 * SECOND + 999, MINUTE + 1, 59 * MINUTE + 30 * SECOND, HOUR + 250,
+                23 * HOUR + 59 * MINUTE + 59 * SECOND, DAY + 7 * HOUR + 3 * SECOND + 10, 3 * DAY + 42
+        };
+        Map<String, Long> fireTimes = new HashMap<>();
+        for (int i = 0; i < offsets.length; i++) {
+            String key = "job-" + i;
+            fireTimes.put(key, START + offsets[i]);
+            assertTrue(wheel.schedule(key, START + offsets[i]));
+        }
+
+        long end = START + 3 * DAY + 2 * SECOND;
+        Map<String, Long> firedAt = new HashMap<>();
+        for (long now = START; now <= end; now += SECOND) {
+            for (Map.Entry<String, Long> entry : wheel.advance(now)) {
+                assertNull(firedAt.put(entry.getKey(), now), entry.getKey() + " 重复到期");
+                assertEquals(fireTimes.get(entry.getKey()), entry.getValue());
+            }
+        }
+
+        assertEquals(fireTimes.size(), firedAt.size());
+        for (Map.Entry<String, Long> entry : fireTimes.entrySet()) {
+            // 每秒推进一次，条目恰好在推进时刻进入触发时间所在的那一秒时到期
+            assertEquals(entry.getValue() / SECOND, firedAt.get(entry.getKey()) / SECOND, entry.getKey());
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void entriesCascadeThroughLevelsWithinOneAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(START);
+        wheel.schedule("day", START + 2 * DAY + 5 * HOUR + 7 * MINUTE + 11 * SECOND);
+        wheel.schedule("hour", START + 5 * HOUR + 7 * MINUTE + 11 * SECOND);
+        wheel.schedule("minute", START + 7 * MINUTE + 11 * SECOND);
+        wheel.schedule("second", START + 11 * SECOND);
+
+        // 推进到“天”层条目的前一秒：下放过程中不会提前到期
+        List<Map.Entry<String, Long>> due = wheel.advance(START + 2 * DAY + 5 * HOUR + 7 * MINUTE + 10 * SECOND);
+        assertEquals(List.of("second", "minute", "hour"), keys(due));
+        assertEquals(1, wheel.size());
+
+        due = wheel.advance(START + 2 * DAY + 5 * HOUR + 7 * MINUTE + 11 * SECOND);
+        assertEquals(List.of("day"), keys(due));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rescheduleAndCancelAcrossLevels() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(START);
+        wheel.schedule("a", START + 3 * HOUR);
+        wheel.schedule("b", START + 3 * HOUR);
+        wheel.schedule("c", START + 10 * SECOND);
+
+        // 从“小时”层改到“秒”层，以及取消仍在高层的条目
+        assertTrue(wheel.schedule("a", START + 5 * SECOND));
+        assertEquals(START + 3 * HOUR, wheel.cancel("b"));
+        assertNull(wheel.cancel("b"));
+
+        assertEquals(List.of("a", "c"), keys(wheel.advance(START + 4 * HOUR)));
+        assertNull(wheel.fireTimeOf("b"));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastEntriesFireOnNextAdvanceAndFarEntriesAreRejected() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(START);
+        assertTrue(wheel.schedule("late", START - MINUTE));
+        assertFalse(wheel.schedule("far", START + HierarchicalTimingWheel.MAX_SPAN_MS + DAY));
+        assertNull(wheel.fireTimeOf("far"));
+
+        assertEquals(List.of("late"), keys(wheel.advance(START)));
+        assertTrue(wheel.advance(START + SECOND).isEmpty());
+    }
+
+    private static List<String> keys(List<Map.Entry<String, Long>> entries) {
+        List<String> keys = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Long> entry : entries) {
+            keys.add(entry.getKey());
+        }
+        return keys;
+    }
+}
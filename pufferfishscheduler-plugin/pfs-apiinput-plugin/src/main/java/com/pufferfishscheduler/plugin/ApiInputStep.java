@@ -1,16 +1,29 @@
 package com.pufferfishscheduler.plugin;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.cert.X509Certificate;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONException;
 import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONPath;
+import com.alibaba.fastjson2.JSONReader;
 import com.pufferfishscheduler.plugin.common.Param;
 import com.pufferfishscheduler.plugin.common.WayType;
 import org.apache.http.HttpEntity;
@@ -18,8 +31,10 @@ import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
@@ -30,6 +45,7 @@ import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
@@ -50,6 +66,7 @@ import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 /**
  * API输入步骤 - 用于从HTTP API获取数据
+ * 分页模式可开启预取：同时发出多个页码的请求，按页码顺序输出；配置响应 JSONPath 时流式解析响应体，只输出提取的部分
  */
 public class ApiInputStep extends BaseStep implements StepInterface {
 
@@ -61,6 +78,8 @@ public class ApiInputStep extends BaseStep implements StepInterface {
     private static final long MAX_PAGE_LIMIT = 1_000_000L;
     private static final int EXTRA_FIELDS_COUNT = 3;
     private static final int PAGE_LOG_INTERVAL = 100;
+    private static final int MAX_PREFETCH_PAGES = 32;
+    private static final int MAX_CONNECTIONS = 200;
 
     private static CloseableHttpClient httpClient;
     private static RequestConfig requestConfig;
@@ -87,27 +106,40 @@ public class ApiInputStep extends BaseStep implements StepInterface {
 
         initializeHttpClient();
         initializeRequestConfig();
-        initializeSpelParser();
+        if (!initializeResponseParser()) {
+            return false;
+        }
+        initializePrefetch();
 
         logDebug("API Step initialized successfully");
         return true;
     }
 
+    /**
+     * 初始化共享的HTTP客户端，连接池按单路由最多 {@value #MAX_PREFETCH_PAGES} 个连接配置，满足分页预取并发
+     */
     private void initializeHttpClient() {
-        if (httpClient != null) {
-            return;
-        }
+        synchronized (ApiInputStep.class) {
+            if (httpClient != null) {
+                return;
+            }
 
-        try {
-            SSLContext sslContext = createTrustAllSslContext();
-            SSLConnectionSocketFactory socketFactory = new SSLConnectionSocketFactory(
-                    sslContext, NoopHostnameVerifier.INSTANCE);
-            httpClient = HttpClients.custom()
-                    .setSSLSocketFactory(socketFactory)
-                    .build();
-        } catch (Exception e) {
-            LOGGER.warn("Failed to create custom SSL HTTP client, using default", e);
-            httpClient = HttpClients.createDefault();
+            try {
+                SSLContext sslContext = createTrustAllSslContext();
+                SSLConnectionSocketFactory socketFactory = new SSLConnectionSocketFactory(
+                        sslContext, NoopHostnameVerifier.INSTANCE);
+                httpClient = HttpClients.custom()
+                        .setSSLSocketFactory(socketFactory)
+                        .setMaxConnTotal(MAX_CONNECTIONS)
+                        .setMaxConnPerRoute(MAX_PREFETCH_PAGES)
+                        .build();
+            } catch (Exception e) {
+                LOGGER.warn("Failed to create custom SSL HTTP client, using default", e);
+                httpClient = HttpClients.custom()
+                        .setMaxConnTotal(MAX_CONNECTIONS)
+                        .setMaxConnPerRoute(MAX_PREFETCH_PAGES)
+                        .build();
+            }
         }
     }
 
@@ -141,6 +173,9 @@ public class ApiInputStep extends BaseStep implements StepInterface {
                 .build();
     }
 
+    /**
+     * 解析分页条件（依赖输出行元数据中的字段名，在首行初始化时调用）
+     */
     private void initializeSpelParser() {
         if (meta.isUsePage()) {
             this.spelParser = new SpelExpressionParser();
@@ -149,6 +184,44 @@ public class ApiInputStep extends BaseStep implements StepInterface {
         }
     }
 
+    /**
+     * 编译响应体 JSONPath，未配置时输出完整响应体
+     */
+    private boolean initializeResponseParser() {
+        String path = meta.getResponseJsonPath();
+        if (path == null || path.trim().isEmpty()) {
+            data.responsePath = null;
+        } else {
+            try {
+                data.responsePath = JSONPath.of(environmentSubstitute(path.trim()));
+            } catch (JSONException e) {
+                logError("Invalid response JSONPath: " + path, e);
+                return false;
+            }
+        }
+        String charset = meta.getResponseCode();
+        data.responseCharset = charset == null || charset.trim().isEmpty()
+                ? StandardCharsets.UTF_8 : Charset.forName(charset.trim());
+        return true;
+    }
+
+    /**
+     * 分页预取线程池，预取数为 1 时在步骤线程中逐页请求
+     */
+    private void initializePrefetch() {
+        Integer prefetch = meta.getPrefetchPages();
+        data.prefetchPages = meta.isUsePage() && prefetch != null
+                ? Math.max(1, Math.min(prefetch, MAX_PREFETCH_PAGES)) : 1;
+        if (data.prefetchPages > 1) {
+            String threadName = "ApiInputPrefetch-" + getStepname() + "-" + getCopy();
+            data.pageExecutor = Executors.newFixedThreadPool(data.prefetchPages, r -> {
+                Thread thread = new Thread(r, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
     /**
      * Process a row of data from the input stream.
      *
@@ -202,6 +275,7 @@ public class ApiInputStep extends BaseStep implements StepInterface {
         }
         data.outputRowMeta = data.inputRowMeta.clone();
         meta.getFields(data.outputRowMeta, getStepname(), null, null, this, repository, metaStore);
+        initializeSpelParser();
         first = false;
     }
 
@@ -226,20 +300,55 @@ public class ApiInputStep extends BaseStep implements StepInterface {
         return (startPage != null && startPage > 0) ? startPage : 1L;
     }
 
-    private void processPaginatedData(Object[] currentRow, Long pageNo) throws KettleException, UnsupportedEncodingException {
-        while (!isStopped()) {
-            logPageProgress(pageNo);
-
-            applyRequestDelay();
-
-            boolean shouldContinue = executeRequest(currentRow, pageNo);
+    /**
+     * 分页拉取：最多同时发出 prefetchPages 个页码递增的请求，按页码顺序消费响应；
+     * 分页条件判定为结束的页不输出，停止拉取并取消尚未完成的预取请求。
+     *
+     * @param currentRow  The current row of data.
+     * @param startPageNo The first page number.
+     */
+    private void processPaginatedData(Object[] currentRow, Long startPageNo) {
+        Deque<PageRequest> window = new ArrayDeque<>(data.prefetchPages);
+        long nextPageNo = startPageNo;
+        try {
+            while (!isStopped()) {
+                while (window.size() < data.prefetchPages && nextPageNo <= MAX_PAGE_LIMIT && !isStopped()) {
+                    logPageProgress(nextPageNo);
+                    applyRequestDelay();
+                    window.addLast(submitPage(currentRow, nextPageNo++));
+                }
 
-            if (shouldStopPagination(pageNo, shouldContinue)) {
-                break;
+                PageRequest page = window.pollFirst();
+                if (page == null) {
+                    break;
+                }
+                Object[] resultRow = page.await();
+                if (evaluatePageCondition(resultRow, page.pageNo)) {
+                    break;
+                }
+                putRow(data.outputRowMeta, resultRow);
             }
+        } catch (Exception e) {
+            handleRequestError(e);
+        } finally {
+            for (PageRequest page : window) {
+                page.cancel();
+            }
+        }
+    }
 
-            pageNo++;
+    /**
+     * 发起一页请求：请求在步骤线程中构建，开启预取时提交到预取线程池执行，否则直接执行
+     */
+    private PageRequest submitPage(Object[] currentRow, long pageNo) throws UnsupportedEncodingException {
+        HttpRequestBase request = buildRequest(currentRow, pageNo);
+        FutureTask<Object[]> task = new FutureTask<>(() -> fetchPage(request, currentRow));
+        if (data.pageExecutor != null) {
+            data.pageExecutor.execute(task);
+        } else {
+            task.run();
         }
+        return new PageRequest(pageNo, request, task);
     }
 
     private void logPageProgress(Long pageNo) {
@@ -263,37 +372,28 @@ public class ApiInputStep extends BaseStep implements StepInterface {
         }
     }
 
-    private boolean shouldStopPagination(Long pageNo, boolean shouldContinue) {
-        return pageNo > MAX_PAGE_LIMIT || !shouldContinue || getErrors() > 0;
-    }
-
-    private void processSinglePageData(Object[] currentRow, Long pageNo) throws KettleException, UnsupportedEncodingException {
-        executeRequest(currentRow, pageNo);
+    private void processSinglePageData(Object[] currentRow, Long pageNo)
+            throws KettleStepException, UnsupportedEncodingException {
+        Object[] resultRow;
+        try {
+            resultRow = fetchPage(buildRequest(currentRow, pageNo), currentRow);
+        } catch (IOException e) {
+            handleRequestError(e);
+            return;
+        }
+        putRow(data.outputRowMeta, resultRow);
     }
 
-    private boolean executeRequest(Object[] currentRow, Long pageNo) throws KettleException, UnsupportedEncodingException {
+    private HttpRequestBase buildRequest(Object[] currentRow, Long pageNo) throws UnsupportedEncodingException {
         String url = buildRequestUrl(currentRow, pageNo);
 
         if (WayType.GET.getDescription().equals(meta.getRequestMethod())) {
-            return executeGetRequest(currentRow, pageNo, url);
-        } else {
-            return executePostRequest(currentRow, pageNo, url);
+            HttpGet httpGet = new HttpGet(url);
+            httpGet.setConfig(requestConfig);
+            addGetHeaders(currentRow, httpGet, pageNo);
+            return httpGet;
         }
-    }
-
-    private String buildRequestUrl(Object[] currentRow, Long pageNo) {
-        return getUrlValue(meta.getUrl(), currentRow, pageNo);
-    }
-
-    private boolean executeGetRequest(Object[] currentRow, Long pageNo, String url) throws KettleException {
-        HttpGet httpGet = new HttpGet(url);
-        httpGet.setConfig(requestConfig);
-        addGetHeaders(currentRow, httpGet, pageNo);
-
-        return executeHttpRequest(httpGet, currentRow, pageNo);
-    }
 
-    private boolean executePostRequest(Object[] currentRow, Long pageNo, String url) throws KettleException, UnsupportedEncodingException {
         HttpPost httpPost = new HttpPost(url);
         httpPost.setConfig(requestConfig);
         addPostHeaders(currentRow, httpPost, pageNo);
@@ -303,8 +403,11 @@ public class ApiInputStep extends BaseStep implements StepInterface {
         } else {
             addPostRawBody(pageNo, httpPost, currentRow);
         }
+        return httpPost;
+    }
 
-        return executeHttpRequest(httpPost, currentRow, pageNo);
+    private String buildRequestUrl(Object[] currentRow, Long pageNo) {
+        return getUrlValue(meta.getUrl(), currentRow, pageNo);
     }
 
     private boolean hasXFormParams() {
@@ -312,36 +415,17 @@ public class ApiInputStep extends BaseStep implements StepInterface {
         return xforms != null && !xforms.isEmpty();
     }
 
-    private boolean executeHttpRequest(HttpUriRequest request, Object[] currentRow, Long pageNo)
-            throws KettleException {
-        try {
-            HttpResponse response = httpClient.execute(request);
-            return handleResponse(response, currentRow, pageNo);
-        } catch (Exception e) {
-            handleRequestError(e);
-            return false;
-        }
-    }
-
     /**
-     * Handle the HTTP response from the API call.
+     * Execute the HTTP request and build the result row. May run on a prefetch thread.
      *
-     * @param response The HTTP response.
+     * @param request The HTTP request.
      * @param currentRow The current row of data.
-     * @param pageNo The current page number.
-     * @return True if the page condition is met, false otherwise.
-     * @throws KettleException If the evaluation fails.
+     * @return The result row of data.
      * @throws IOException If an I/O error occurs.
      */
-    private boolean handleResponse(HttpResponse response, Object[] currentRow, Long pageNo)
-            throws KettleException, IOException {
-        Object[] resultRow = buildResultRow(response, currentRow);
-
-        if (meta.isUsePage()) {
-            return evaluatePageCondition(resultRow, pageNo);
-        } else {
-            putRow(data.outputRowMeta, resultRow);
-            return true;
+    private Object[] fetchPage(HttpUriRequest request, Object[] currentRow) throws IOException {
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            return buildResultRow(response, currentRow);
         }
     }
 
@@ -354,8 +438,7 @@ public class ApiInputStep extends BaseStep implements StepInterface {
      * @throws IOException If an I/O error occurs.
      */
     private Object[] buildResultRow(HttpResponse response, Object[] currentRow) throws IOException {
-        HttpEntity entity = response.getEntity();
-        String responseBody = EntityUtils.toString(entity, meta.getResponseCode());
+        String responseBody = readResponseBody(response.getEntity());
         String headersJson = JSONObject.toJSONString(response.getAllHeaders());
 
         Object[] extraFields = {
@@ -364,18 +447,46 @@ public class ApiInputStep extends BaseStep implements StepInterface {
                 responseBody
         };
 
-        Object[] result = resizeArray(currentRow, data.inputRowMeta.size() + extraFields.length);
+        // 每页一个新数组：同一输入行的多页结果不能共用行数组
+        Object[] result = copyRow(currentRow, data.inputRowMeta.size() + extraFields.length);
         System.arraycopy(extraFields, 0, result, data.inputRowMeta.size(), extraFields.length);
 
         return result;
     }
 
+    /**
+     * 读取响应体：配置了 JSONPath 时从输入流流式解析，只提取匹配部分，不构建完整文档
+     *
+     * @param entity The HTTP entity.
+     * @return The response body, or the extracted value as JSON text.
+     * @throws IOException If an I/O error occurs or the body is not valid JSON.
+     */
+    private String readResponseBody(HttpEntity entity) throws IOException {
+        if (data.responsePath == null) {
+            return EntityUtils.toString(entity, data.responseCharset);
+        }
+        if (entity == null) {
+            return null;
+        }
+        try (InputStream in = entity.getContent();
+             JSONReader reader = JSONReader.of(in, data.responseCharset)) {
+            Object value = data.responsePath.extract(reader);
+            if (value == null || value instanceof String) {
+                return (String) value;
+            }
+            return JSON.toJSONString(value);
+        } catch (JSONException e) {
+            throw new IOException("Failed to extract response body by JSONPath: " + meta.getResponseJsonPath(), e);
+        }
+    }
+
     /**
      * Evaluate the page condition expression for the given row of data.
+     * The page condition marks the terminal page: that page is not output and pagination stops.
      *
      * @param resultRow The result row of data.
      * @param pageNo The current page number.
-     * @return True if the page condition is met, false otherwise.
+     * @return True if this is the terminal page, false otherwise.
      * @throws KettleException If the evaluation fails.
      */
     private boolean evaluatePageCondition(Object[] resultRow, Long pageNo) throws KettleException {
@@ -384,11 +495,7 @@ public class ApiInputStep extends BaseStep implements StepInterface {
             Object conditionResult = pageConditionExpression.getValue(context);
 
             if (conditionResult instanceof Boolean) {
-                boolean shouldStop = (Boolean) conditionResult;
-                if (!shouldStop) {
-                    putRow(data.outputRowMeta, resultRow);
-                }
-                return shouldStop;
+                return (Boolean) conditionResult;
             }
 
             throw new KettleException("Filter expression must return boolean, got: " +
@@ -565,17 +672,12 @@ public class ApiInputStep extends BaseStep implements StepInterface {
         return result;
     }
 
-    public static Object[] resizeArray(Object[] original, int newSize) {
-        if (original != null && original.length >= newSize) {
-            return original;
-        }
-
-        Object[] newArray = new Object[newSize + RowDataUtil.OVER_ALLOCATE_SIZE];
+    private static Object[] copyRow(Object[] original, int size) {
+        Object[] row = new Object[size + RowDataUtil.OVER_ALLOCATE_SIZE];
         if (original != null) {
-            System.arraycopy(original, 0, newArray, 0, original.length);
+            System.arraycopy(original, 0, row, 0, Math.min(original.length, row.length));
         }
-
-        return newArray;
+        return row;
     }
 
     @Override
@@ -583,7 +685,42 @@ public class ApiInputStep extends BaseStep implements StepInterface {
         this.meta = (ApiInputStepMeta) smi;
         this.data = (ApiInputStepData) sdi;
 
+        if (data.pageExecutor != null) {
+            data.pageExecutor.shutdownNow();
+            data.pageExecutor = null;
+        }
         super.dispose(smi, sdi);
         logDebug("API Step disposed");
     }
-}
\ No newline at end of file
+
+    /**
+     * 一页请求及其结果
+     */
+    private static final class PageRequest {
+        private final long pageNo;
+        private final HttpRequestBase request;
+        private final Future<Object[]> result;
+
+        private PageRequest(long pageNo, HttpRequestBase request, Future<Object[]> result) {
+            this.pageNo = pageNo;
+            this.request = request;
+            this.result = result;
+        }
+
+        private Object[] await() throws KettleException {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new KettleException("Interrupted while waiting for page " + pageNo, e);
+            } catch (ExecutionException e) {
+                throw new KettleException("Failed to fetch page " + pageNo, e.getCause());
+            }
+        }
+
+        private void cancel() {
+            request.abort();
+            result.cancel(true);
+        }
+    }
+}
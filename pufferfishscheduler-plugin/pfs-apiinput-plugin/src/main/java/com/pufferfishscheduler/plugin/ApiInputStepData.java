@@ -1,5 +1,9 @@
 package com.pufferfishscheduler.plugin;
 
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutorService;
+
+import com.alibaba.fastjson2.JSONPath;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -9,4 +13,10 @@ public class ApiInputStepData extends BaseStepData implements StepDataInterface
     public RowMetaInterface inputRowMeta;
     /** 无上游步骤时，首轮用空行元数据拉取 API 后置位，避免再次进入 processRow 重复请求 */
     public boolean standaloneRunCompleted;
+    /** 响应体 JSONPath，为空时输出完整响应体 */
+    public JSONPath responsePath;
+    public Charset responseCharset;
+    /** 分页预取数与预取线程池（预取数为 1 时为空） */
+    public int prefetchPages = 1;
+    public ExecutorService pageExecutor;
 }
@@ -69,6 +69,8 @@ public class ApiInputStepMeta extends BaseStepMeta implements StepMetaInterface
     private static final String XML_TAG_RETRY_NUM = "retryNum";
     private static final String XML_TAG_RETRY_TIME = "retryTime";
     private static final String XML_TAG_START_PAGE_NO = "startPageNo";
+    private static final String XML_TAG_PREFETCH_PAGES = "prefetchPages";
+    private static final String XML_TAG_RESPONSE_JSON_PATH = "responseJsonPath";
     private static final String XML_TAG_PARAMS = "params";
     private static final String XML_TAG_PARAM = "param";
     private static final String XML_TAG_XFORMS = "xforms";
@@ -100,6 +102,8 @@ public class ApiInputStepMeta extends BaseStepMeta implements StepMetaInterface
     private static final long DEFAULT_INTERVAL_FROM_MS = 1000L;
     private static final long DEFAULT_INTERVAL_TO_MS = 5000L;
     private static final long DEFAULT_START_PAGE_NO = 1L;
+    private static final int DEFAULT_PREFETCH_PAGES = 1;
+    private static final String DEFAULT_RESPONSE_JSON_PATH = "";
     private static final String YES_VALUE = "Y";
 
     // 配置属性
@@ -125,6 +129,14 @@ public class ApiInputStepMeta extends BaseStepMeta implements StepMetaInterface
     private Integer retryNum = DEFAULT_RETRY_NUM;
     private Long retryTime = DEFAULT_RETRY_TIME_MS;
     private Long startPageNo = DEFAULT_START_PAGE_NO;
+    /**
+     * 分页预取数：同时发出的分页请求数，按页码顺序输出；1 表示逐页请求
+     */
+    private Integer prefetchPages = DEFAULT_PREFETCH_PAGES;
+    /**
+     * 响应体 JSONPath，配置后流式解析响应并只输出提取的部分（如 $.data.list），为空时输出完整响应体
+     */
+    private String responseJsonPath = DEFAULT_RESPONSE_JSON_PATH;
 
     public ApiInputStepMeta() {
         setDefault();
@@ -154,6 +166,8 @@ public class ApiInputStepMeta extends BaseStepMeta implements StepMetaInterface
         this.retryNum = DEFAULT_RETRY_NUM;
         this.retryTime = DEFAULT_RETRY_TIME_MS;
         this.startPageNo = DEFAULT_START_PAGE_NO;
+        this.prefetchPages = DEFAULT_PREFETCH_PAGES;
+        this.responseJsonPath = DEFAULT_RESPONSE_JSON_PATH;
     }
 
     @Override
@@ -192,6 +206,8 @@ public class ApiInputStepMeta extends BaseStepMeta implements StepMetaInterface
         appendXmlTag(xml, XML_TAG_RETRY_NUM, retryNum);
         appendXmlTag(xml, XML_TAG_RETRY_TIME, retryTime);
         appendXmlTag(xml, XML_TAG_START_PAGE_NO, startPageNo);
+        appendXmlTag(xml, XML_TAG_PREFETCH_PAGES, prefetchPages);
+        appendXmlTag(xml, XML_TAG_RESPONSE_JSON_PATH, responseJsonPath);
 
         // 参数列表
         appendParamListXml(xml, XML_TAG_PARAMS, XML_TAG_PARAM, params);
@@ -278,6 +294,8 @@ public class ApiInputStepMeta extends BaseStepMeta implements StepMetaInterface
         rep.saveStepAttribute(transformationId, stepId, XML_TAG_RETRY_NUM, retryNum);
         rep.saveStepAttribute(transformationId, stepId, XML_TAG_RETRY_TIME, retryTime);
         rep.saveStepAttribute(transformationId, stepId, XML_TAG_START_PAGE_NO, startPageNo);
+        rep.saveStepAttribute(transformationId, stepId, XML_TAG_PREFETCH_PAGES, prefetchPages);
+        rep.saveStepAttribute(transformationId, stepId, XML_TAG_RESPONSE_JSON_PATH, responseJsonPath);
     }
 
     private void saveParamListToRepository(Repository rep, ObjectId transformationId, ObjectId stepId,
@@ -332,6 +350,9 @@ public class ApiInputStepMeta extends BaseStepMeta implements StepMetaInterface
                 XMLHandler.getSubNode(stepNode, XML_TAG_RETRY_TIME)));
         startPageNo = parseLongSafe(XMLHandler.getNodeValue(
                 XMLHandler.getSubNode(stepNode, XML_TAG_START_PAGE_NO)));
+        prefetchPages = parseIntegerSafe(XMLHandler.getNodeValue(
+                XMLHandler.getSubNode(stepNode, XML_TAG_PREFETCH_PAGES)));
+        responseJsonPath = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepNode, XML_TAG_RESPONSE_JSON_PATH));
     }
 
     private void loadParamListFromXml(Node stepNode, String listTag, String itemTag,
@@ -386,6 +407,8 @@ public class ApiInputStepMeta extends BaseStepMeta implements StepMetaInterface
         retryNum = (int) rep.getStepAttributeInteger(stepId, XML_TAG_RETRY_NUM);
         retryTime = rep.getStepAttributeInteger(stepId, XML_TAG_RETRY_TIME);
         startPageNo = rep.getStepAttributeInteger(stepId, XML_TAG_START_PAGE_NO);
+        prefetchPages = (int) rep.getStepAttributeInteger(stepId, XML_TAG_PREFETCH_PAGES);
+        responseJsonPath = rep.getStepAttributeString(stepId, XML_TAG_RESPONSE_JSON_PATH);
     }
 
     private void loadParamListFromRepository(Repository rep, ObjectId stepId, List<Param> targetList,
@@ -458,6 +481,12 @@ public class ApiInputStepMeta extends BaseStepMeta implements StepMetaInterface
             return;
         }
 
+        // 检查预取数配置
+        if (usePage && prefetchPages != null && prefetchPages > 1 && intervalTo != null && intervalTo > 0) {
+            remarks.add(new CheckResult(CheckResultInterface.TYPE_RESULT_WARNING,
+                    "已开启分页预取，请求间隔仍按发起请求的时间生效，可能限制预取效果", stepMeta));
+        }
+
         // 检查间隔时间配置合理性
         if (intervalFrom != null && intervalTo != null && intervalFrom > intervalTo) {
             remarks.add(new CheckResult(CheckResultInterface.TYPE_RESULT_WARNING,
@@ -667,4 +696,20 @@ public class ApiInputStepMeta extends BaseStepMeta implements StepMetaInterface
     public void setStartPageNo(Long startPageNo) {
         this.startPageNo = startPageNo;
     }
-}
\ No newline at end of file
+
+    public Integer getPrefetchPages() {
+        return prefetchPages;
+    }
+
+    public void setPrefetchPages(Integer prefetchPages) {
+        this.prefetchPages = prefetchPages;
+    }
+
+    public String getResponseJsonPath() {
+        return responseJsonPath;
+    }
+
+    public void setResponseJsonPath(String responseJsonPath) {
+        this.responseJsonPath = responseJsonPath;
+    }
+}
@@ -3,26 +3,36 @@ package com.pufferfishscheduler.plugin;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONException;
 import com.alibaba.fastjson2.JSONObject;
 import com.pufferfishscheduler.plugin.common.Param;
 import com.pufferfishscheduler.plugin.common.WayType;
 import org.apache.commons.compress.utils.Lists;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
@@ -48,6 +58,18 @@ import org.slf4j.LoggerFactory;
 
 /**
  * API输出步骤 - 用于调用HTTP API输出数据
+ * <p>
+ * 支持三种输出模式：
+ * <ul>
+ *     <li>逐行（ROW）：每行同步发送一个请求；</li>
+ *     <li>批量（BATCH）：每 batchSize 行合并为一个 POST 请求，请求体为 JSON 数组，
+ *     元素为按行渲染的 raw 模板（未配置 raw 时为输入字段组成的对象），URL 与请求头按批次第一行渲染；</li>
+ *     <li>并发（CONCURRENT）：逐行构建请求，由线程池并发发送，最多 maxInFlight 个请求在途。</li>
+ * </ul>
+ * 批量/并发模式的响应按输入顺序输出，每行追加响应状态码、响应头、响应体字段（批量模式同批各行相同）。
+ * 请求异常时按 retryTime 固定间隔重试；开启 retryOnStatus 后响应 429/5xx 也重试，并改为指数退避（参考 Retry-After），
+ * 见 {@link RetryPolicy}。设置了转换变量 RATE_LIMIT_COUNT 时按每秒请求数限流（由各步骤副本平分）。
+ * </p>
  */
 public class ApiOutputStep extends BaseStep implements StepInterface {
 
@@ -56,13 +78,23 @@ public class ApiOutputStep extends BaseStep implements StepInterface {
     private static final String VARIABLE_PREFIX = "${";
     private static final String VARIABLE_SUFFIX = "}";
     private static final String CONTENT_TYPE_HEADER = "Content-Type";
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
     private static final int EXTRA_FIELDS_COUNT = 3;
     private static final int STATUS_CODE_INDEX = 0;
     private static final int HEADERS_INDEX = 1;
     private static final int BODY_INDEX = 2;
+    private static final long FIRST_PAGE_NO = 1L;
+
+    /**
+     * 限流变量名（每秒请求数），与转换引擎设置的参数名一致
+     */
+    private static final String RATE_LIMIT_COUNT = "RATE_LIMIT_COUNT";
+    private static final int MAX_IN_FLIGHT = 64;
+    private static final int MAX_CONNECTIONS = 200;
 
     private static CloseableHttpClient httpClient;
-    private static RequestConfig requestConfig;
+
+    private RequestConfig requestConfig;
 
     private ApiOutputStepMeta meta;
     private ApiOutputStepData data;
@@ -84,26 +116,41 @@ public class ApiOutputStep extends BaseStep implements StepInterface {
 
         initializeHttpClient();
         initializeRequestConfig();
+        if (!initializeOutputMode()) {
+            return false;
+        }
+        initializeRateLimiter();
+        data.retryPolicy = new RetryPolicy(meta.getRetryNum(), meta.getRetryTime(), meta.isRetryOnStatus());
 
         logDebug("API Output Step initialized successfully");
         return true;
     }
 
+    /**
+     * 初始化共享的HTTP客户端，连接池按单路由最多 {@value #MAX_IN_FLIGHT} 个连接配置，满足并发发送
+     */
     private void initializeHttpClient() {
-        if (httpClient != null) {
-            return;
-        }
+        synchronized (ApiOutputStep.class) {
+            if (httpClient != null) {
+                return;
+            }
 
-        try {
-            SSLContext sslContext = createTrustAllSslContext();
-            SSLConnectionSocketFactory socketFactory = new SSLConnectionSocketFactory(
-                    sslContext, NoopHostnameVerifier.INSTANCE);
-            httpClient = HttpClients.custom()
-                    .setSSLSocketFactory(socketFactory)
-                    .build();
-        } catch (Exception e) {
-            LOGGER.warn("Failed to create custom SSL HTTP client, using default", e);
-            httpClient = HttpClients.createDefault();
+            try {
+                SSLContext sslContext = createTrustAllSslContext();
+                SSLConnectionSocketFactory socketFactory = new SSLConnectionSocketFactory(
+                        sslContext, NoopHostnameVerifier.INSTANCE);
+                httpClient = HttpClients.custom()
+                        .setSSLSocketFactory(socketFactory)
+                        .setMaxConnTotal(MAX_CONNECTIONS)
+                        .setMaxConnPerRoute(MAX_IN_FLIGHT)
+                        .build();
+            } catch (Exception e) {
+                LOGGER.warn("Failed to create custom SSL HTTP client, using default", e);
+                httpClient = HttpClients.custom()
+                        .setMaxConnTotal(MAX_CONNECTIONS)
+                        .setMaxConnPerRoute(MAX_IN_FLIGHT)
+                        .build();
+            }
         }
     }
 
@@ -137,6 +184,60 @@ public class ApiOutputStep extends BaseStep implements StepInterface {
                 .build();
     }
 
+    /**
+     * 初始化输出模式；无上游步骤时只发送一次请求，始终按逐行模式处理
+     *
+     * @return 输出模式不受支持时返回 false
+     */
+    private boolean initializeOutputMode() {
+        String mode = meta.getOutputMode();
+        data.outputMode = mode == null ? ApiOutputStepMeta.OUTPUT_MODE_ROW : mode;
+        if (!ApiOutputStepMeta.isSupportedOutputMode(data.outputMode)) {
+            logError("Unsupported output mode: " + data.outputMode);
+            return false;
+        }
+        data.batchSize = meta.getBatchSize() != null ? Math.max(1, meta.getBatchSize()) : 1;
+        data.maxInFlight = meta.getMaxInFlight() != null
+                ? Math.max(1, Math.min(meta.getMaxInFlight(), MAX_IN_FLIGHT)) : 1;
+
+        if (ApiOutputStepMeta.OUTPUT_MODE_ROW.equals(data.outputMode) || isStandaloneInput()) {
+            return true;
+        }
+        if (ApiOutputStepMeta.OUTPUT_MODE_BATCH.equals(data.outputMode)) {
+            data.batchRows = new ArrayList<>(data.batchSize);
+        }
+        String threadName = "ApiOutputSender-" + getStepname() + "-" + getCopy();
+        data.requestExecutor = Executors.newFixedThreadPool(data.maxInFlight, r -> {
+            Thread thread = new Thread(r, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        data.inFlight = new InFlightRequests(data.requestExecutor, data.maxInFlight, this::isStopped, this::putResultRow);
+        return true;
+    }
+
+    /**
+     * 按转换变量 RATE_LIMIT_COUNT（每秒请求数）初始化限流，多个步骤副本平分
+     */
+    private void initializeRateLimiter() {
+        String value = getVariable(RATE_LIMIT_COUNT);
+        if (value == null || value.trim().isEmpty()) {
+            return;
+        }
+        double rate;
+        try {
+            rate = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            logBasic("Invalid " + RATE_LIMIT_COUNT + " value: " + value + ", rate limit disabled");
+            return;
+        }
+        if (rate <= 0) {
+            return;
+        }
+        data.rateLimiter = TokenBucket.perCopy(rate, getStepMeta().getCopies());
+        logBasic(String.format("API output rate limited to %.2f requests/second", data.rateLimiter.getPermitsPerSecond()));
+    }
+
     /**
      * 处理数据行
      */
@@ -151,11 +252,21 @@ public class ApiOutputStep extends BaseStep implements StepInterface {
         }
 
         if (shouldStopProcessing(currentRow)) {
+            flushPending();
             setOutputDone();
             return false;
         }
 
-        executeRequest(currentRow, 1L);
+        if (data.requestExecutor == null) {
+            executeRequest(currentRow, FIRST_PAGE_NO);
+        } else if (ApiOutputStepMeta.OUTPUT_MODE_BATCH.equals(data.outputMode)) {
+            data.batchRows.add(currentRow);
+            if (data.batchRows.size() >= data.batchSize) {
+                return submitBatch();
+            }
+        } else {
+            return submit(Collections.singletonList(currentRow), buildRequestOrFail(currentRow, FIRST_PAGE_NO));
+        }
 
         if (isStandaloneInput()) {
             data.standaloneRunCompleted = true;
@@ -206,16 +317,18 @@ public class ApiOutputStep extends BaseStep implements StepInterface {
     }
 
     /**
-     * 执行请求
+     * 逐行模式：同步执行请求并输出
      */
     private void executeRequest(Object[] currentRow, Long pageNo) throws KettleException {
-        String url = buildRequestUrl(currentRow, pageNo);
-
-        if (WayType.GET.getDescription().equals(meta.getRequestMethod())) {
-            executeGetRequest(currentRow, pageNo, url);
-        } else {
-            executePostRequest(currentRow, pageNo, url);
+        HttpUriRequest request = buildRequestOrFail(currentRow, pageNo);
+        Object[] extraFields;
+        try {
+            extraFields = send(request);
+        } catch (Exception e) {
+            handleFinalFailure(e);
+            return;
         }
+        putResultRow(currentRow, extraFields);
     }
 
     /**
@@ -225,9 +338,22 @@ public class ApiOutputStep extends BaseStep implements StepInterface {
         return getUrlValue(meta.getUrl(), currentRow, pageNo);
     }
 
-    private void executeGetRequest(Object[] currentRow, Long pageNo, String url)
-            throws KettleException {
-        executeWithRetry(() -> {
+    private HttpUriRequest buildRequestOrFail(Object[] currentRow, Long pageNo) throws KettleException {
+        try {
+            return buildRequest(currentRow, pageNo);
+        } catch (Exception e) {
+            handleFinalFailure(e);
+            return null;
+        }
+    }
+
+    /**
+     * 按当前行构建请求
+     */
+    private HttpUriRequest buildRequest(Object[] currentRow, Long pageNo) throws UnsupportedEncodingException {
+        String url = buildRequestUrl(currentRow, pageNo);
+
+        if (WayType.GET.getDescription().equals(meta.getRequestMethod())) {
             String finalUrl = url;
             if (meta.isUseXForm()) {
                 finalUrl = appendXFormsToUrl(url, pageNo, currentRow);
@@ -235,114 +361,162 @@ public class ApiOutputStep extends BaseStep implements StepInterface {
 
             HttpGet httpGet = new HttpGet(finalUrl);
             httpGet.setConfig(requestConfig);
-            addHeaders(currentRow, httpGet, pageNo);
-
+            addHeaders(currentRow, httpGet, pageNo, meta.getRequestType());
             return httpGet;
-        }, currentRow);
+        }
+
+        HttpPost httpPost = new HttpPost(url);
+        httpPost.setConfig(requestConfig);
+        addHeaders(currentRow, httpPost, pageNo, meta.getRequestType());
+
+        if (meta.isUseXForm()) {
+            addPostXForms(pageNo, httpPost, currentRow);
+        } else if (meta.isUseRaw()) {
+            addPostRawBody(pageNo, httpPost, currentRow);
+        }
+        return httpPost;
     }
 
     /**
-     * 执行POST请求
+     * 批量模式：一批行合并为一个 POST 请求，URL 与请求头按第一行渲染，请求体为 JSON 数组
      */
-    private void executePostRequest(Object[] currentRow, Long pageNo, String url)
-            throws KettleException {
-        executeWithRetry(() -> {
-            HttpPost httpPost = new HttpPost(url);
-            httpPost.setConfig(requestConfig);
-            addHeaders(currentRow, httpPost, pageNo);
+    private HttpUriRequest buildBatchRequest(List<Object[]> rows) throws KettleException {
+        Object[] firstRow = rows.get(0);
+        HttpPost httpPost = new HttpPost(buildRequestUrl(firstRow, FIRST_PAGE_NO));
+        httpPost.setConfig(requestConfig);
+        addHeaders(firstRow, httpPost, FIRST_PAGE_NO, ContentType.APPLICATION_JSON.getMimeType());
+
+        JSONArray body = new JSONArray(rows.size());
+        for (Object[] row : rows) {
+            body.add(toBatchElement(row));
+        }
+        StringEntity entity = new StringEntity(body.toJSONString(), meta.getRequestCode());
+        entity.setContentType(ContentType.APPLICATION_JSON.getMimeType());
+        entity.setContentEncoding(new BasicHeader("Content-Encoding", meta.getRequestCode()));
+        httpPost.setEntity(entity);
+        return httpPost;
+    }
 
-            if (meta.isUseXForm()) {
-                addPostXForms(pageNo, httpPost, currentRow);
-            } else if (meta.isUseRaw()) {
-                addPostRawBody(pageNo, httpPost, currentRow);
+    /**
+     * 批量请求体中的一个元素：配置了 raw 模板时为渲染结果（不是合法 JSON 时按字符串处理），否则为输入字段组成的对象
+     */
+    private Object toBatchElement(Object[] row) throws KettleException {
+        if (meta.isUseRaw() && meta.getRaw() != null && !meta.getRaw().trim().isEmpty()) {
+            String content = environmentSubstitute(String.valueOf(getValue(meta.getRaw(), row, FIRST_PAGE_NO)));
+            try {
+                return JSON.parse(content);
+            } catch (JSONException e) {
+                return content;
             }
+        }
 
-            return httpPost;
-        }, currentRow);
+        JSONObject element = new JSONObject(data.inputRowMeta.size());
+        for (int i = 0; i < data.inputRowMeta.size() && i < row.length; i++) {
+            ValueMetaInterface valueMeta = data.inputRowMeta.getValueMeta(i);
+            element.put(valueMeta.getName(), valueMeta.convertToNormalStorageType(row[i]));
+        }
+        return element;
     }
 
-    @FunctionalInterface
-    private interface RequestBuilder {
-        HttpUriRequest build() throws Exception;
+    private boolean submitBatch() throws KettleException {
+        List<Object[]> rows = data.batchRows;
+        data.batchRows = new ArrayList<>(data.batchSize);
+        return submit(rows, buildBatchRequest(rows));
     }
 
     /**
-     * 执行请求并重试
+     * 提交请求到线程池；在途请求达到上限时先按顺序输出最早的请求
+     *
+     * @return 步骤被停止时返回 false
      */
-    private void executeWithRetry(RequestBuilder requestBuilder, Object[] currentRow)
-            throws KettleException {
-        int maxRetries = meta.getRetryNum();
-        long retryDelayMs = meta.getRetryTime();
-        Exception lastException = null;
-
-        for (int attempt = 0; attempt <= maxRetries; attempt++) {
-            HttpUriRequest request = null;
-            try {
-                request = requestBuilder.build();
-                HttpResponse response = httpClient.execute(request);
-                processResponse(response, currentRow);
-                return; // 成功则返回
-
-            } catch (Exception e) {
-                lastException = e;
-                releaseRequest(request);
-
-                if (attempt >= maxRetries) {
-                    handleFinalFailure(e);
-                } else {
-                    logRetryAttempt(attempt + 1, request, retryDelayMs);
-                    sleepSafely(retryDelayMs);
-                }
-            }
+    private boolean submit(List<Object[]> rows, HttpUriRequest request) throws KettleException {
+        try {
+            return data.inFlight.submit(rows, () -> send(request));
+        } catch (ExecutionException e) {
+            handleFinalFailure(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+            return false;
         }
+    }
 
-        throw new KettleException("API call failed after " + maxRetries + " retries", lastException);
+    /**
+     * 输入结束：发送剩余的批次并输出全部在途请求
+     */
+    private void flushPending() throws KettleException {
+        if (data.batchRows != null && !data.batchRows.isEmpty() && !submitBatch()) {
+            return;
+        }
+        if (data.inFlight == null) {
+            return;
+        }
+        try {
+            data.inFlight.drain();
+        } catch (ExecutionException e) {
+            handleFinalFailure(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        }
     }
 
-    private void releaseRequest(HttpUriRequest request) {
-        if (request != null) {
-            try {
-                request.abort();
+    /**
+     * 发送请求并读取响应，按 {@link RetryPolicy} 重试，每次发送前先获取限流令牌
+     *
+     * @return 响应状态码、响应头、响应体
+     */
+    private Object[] send(HttpUriRequest request) throws Exception {
+        RetryPolicy retryPolicy = data.retryPolicy;
+        for (int attempt = 0; ; attempt++) {
+            if (data.rateLimiter != null) {
+                data.rateLimiter.acquire();
+            }
+
+            long delayMs;
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (!retryPolicy.retryOnStatus(attempt, statusCode)) {
+                    return readExtraFields(response);
+                }
+                EntityUtils.consumeQuietly(response.getEntity());
+                delayMs = retryPolicy.delay(attempt, parseRetryAfter(response));
+                logRetryAttempt(attempt + 1, request, "HTTP " + statusCode, delayMs);
             } catch (Exception e) {
-                LOGGER.debug("Failed to release request", e);
+                if (!retryPolicy.retryOnException(attempt)) {
+                    throw e;
+                }
+                delayMs = retryPolicy.delay(attempt, -1L);
+                logRetryAttempt(attempt + 1, request, e.getMessage(), delayMs);
+            }
+
+            Thread.sleep(delayMs);
+            if (request instanceof HttpRequestBase) {
+                ((HttpRequestBase) request).reset();
             }
         }
     }
 
-    private void processResponse(HttpResponse response, Object[] currentRow) throws IOException, KettleStepException {
-        Object[] resultRow = buildResultRow(response, currentRow);
-        putRow(data.outputRowMeta, resultRow);
-        incrementLinesOutput();
+    private long parseRetryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader(RETRY_AFTER_HEADER);
+        return header == null ? -1L : RetryPolicy.parseRetryAfter(header.getValue());
     }
 
-    private Object[] buildResultRow(HttpResponse response, Object[] currentRow) throws IOException {
+    private Object[] readExtraFields(HttpResponse response) throws IOException {
         HttpEntity entity = response.getEntity();
 
         Object[] extraFields = new Object[EXTRA_FIELDS_COUNT];
         extraFields[STATUS_CODE_INDEX] = (long) response.getStatusLine().getStatusCode();
         extraFields[HEADERS_INDEX] = JSONObject.toJSONString(response.getAllHeaders());
-        extraFields[BODY_INDEX] = EntityUtils.toString(entity, meta.getResponseCode());
+        extraFields[BODY_INDEX] = entity != null ? EntityUtils.toString(entity, meta.getResponseCode()) : null;
+        return extraFields;
+    }
 
+    private void putResultRow(Object[] currentRow, Object[] extraFields) throws KettleStepException {
         Object[] result = resizeArray(currentRow, data.inputRowMeta.size() + extraFields.length);
         System.arraycopy(extraFields, 0, result, data.inputRowMeta.size(), extraFields.length);
-
-        return result;
+        putRow(data.outputRowMeta, result);
+        incrementLinesOutput();
     }
 
-    private void logRetryAttempt(int attemptNumber, HttpUriRequest request, long delayMs) {
+    private void logRetryAttempt(int attemptNumber, HttpUriRequest request, String reason, long delayMs) {
         String url = request != null ? request.getURI().toString() : "unknown";
-        long delaySeconds = TimeUnit.MILLISECONDS.toSeconds(delayMs);
-        logBasic(String.format("API call failed: %s, retry %d after %d seconds",
-                url, attemptNumber, delaySeconds));
-    }
-
-    private void sleepSafely(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            LOGGER.warn("Retry delay interrupted", e);
-        }
+        logBasic(String.format("API call failed: %s (%s), retry %d after %d ms",
+                url, reason, attemptNumber, delayMs));
     }
 
     private void handleFinalFailure(Exception e) throws KettleException {
@@ -381,7 +555,7 @@ public class ApiOutputStep extends BaseStep implements StepInterface {
         httpPost.setEntity(entity);
     }
 
-    private void addHeaders(Object[] currentRow, HttpUriRequest request, Long pageNo) {
+    private void addHeaders(Object[] currentRow, HttpUriRequest request, Long pageNo, String defaultContentType) {
         List<Param> headers = meta.getParams();
         boolean hasContentType = false;
 
@@ -399,7 +573,7 @@ public class ApiOutputStep extends BaseStep implements StepInterface {
 
         // 如果是POST请求且没有设置Content-Type，添加默认值
         if (!hasContentType && request instanceof HttpPost) {
-            request.addHeader(CONTENT_TYPE_HEADER, meta.getRequestType());
+            request.addHeader(CONTENT_TYPE_HEADER, defaultContentType);
         }
     }
 
@@ -499,6 +673,14 @@ public class ApiOutputStep extends BaseStep implements StepInterface {
         this.meta = (ApiOutputStepMeta) smi;
         this.data = (ApiOutputStepData) sdi;
 
+        if (data.inFlight != null) {
+            data.inFlight.cancel();
+            data.inFlight = null;
+        }
+        if (data.requestExecutor != null) {
+            data.requestExecutor.shutdownNow();
+            data.requestExecutor = null;
+        }
         super.dispose(smi, sdi);
         logDebug("API Output Step disposed");
     }
@@ -1,5 +1,8 @@
 package com.pufferfishscheduler.plugin;
 
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -9,4 +12,18 @@ public class ApiOutputStepData extends BaseStepData implements StepDataInterface
     public RowMetaInterface inputRowMeta;
     /** 无上游步骤时，首轮请求完成后置位，避免重复调用 API */
     public boolean standaloneRunCompleted;
+    /** 输出模式，见 {@link ApiOutputStepMeta#OUTPUT_MODE_ROW} 等 */
+    public String outputMode;
+    public int batchSize;
+    public int maxInFlight;
+    /** 批量模式下尚未发送的行 */
+    public List<Object[]> batchRows;
+    /** 批量/并发模式的请求线程池（逐行模式为空） */
+    public ExecutorService requestExecutor;
+    /** 批量/并发模式的在途请求，按输入顺序输出（逐行模式为空） */
+    public InFlightRequests inFlight;
+    /** 请求重试策略 */
+    public RetryPolicy retryPolicy;
+    /** 按 RATE_LIMIT_COUNT 限流，未配置时为空 */
+    public TokenBucket rateLimiter;
 }
@@ -65,6 +65,10 @@ public class ApiOutputStepMeta extends BaseStepMeta implements StepMetaInterface
     private static final String XML_TAG_READ_TIMEOUT = "readOutTime";
     private static final String XML_TAG_RETRY_NUM = "retryNum";
     private static final String XML_TAG_RETRY_TIME = "retryTime";
+    private static final String XML_TAG_RETRY_ON_STATUS = "retryOnStatus";
+    private static final String XML_TAG_OUTPUT_MODE = "outputMode";
+    private static final String XML_TAG_BATCH_SIZE = "batchSize";
+    private static final String XML_TAG_MAX_IN_FLIGHT = "maxInFlight";
     private static final String XML_TAG_PARAMS = "params";
     private static final String XML_TAG_PARAM = "param";
     private static final String XML_TAG_XFORMS = "xforms";
@@ -92,6 +96,15 @@ public class ApiOutputStepMeta extends BaseStepMeta implements StepMetaInterface
     private static final int DEFAULT_TIMEOUT_MS = 30000;
     private static final int DEFAULT_RETRY_NUM = 0;
     private static final long DEFAULT_RETRY_TIME_MS = 10000L;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 8;
+
+    /**
+     * 输出模式：逐行同步请求 / 多行合并为一个 JSON 数组请求 / 逐行并发请求
+     */
+    public static final String OUTPUT_MODE_ROW = "ROW";
+    public static final String OUTPUT_MODE_BATCH = "BATCH";
+    public static final String OUTPUT_MODE_CONCURRENT = "CONCURRENT";
     private static final String YES_VALUE = "Y";
 
     // 配置属性
@@ -112,6 +125,19 @@ public class ApiOutputStepMeta extends BaseStepMeta implements StepMetaInterface
     private String responseBody;
     private Integer retryNum;
     private Long retryTime;
+    /**
+     * 响应 429/5xx 时是否重试（按指数退避），默认只在请求异常时按固定间隔重试
+     */
+    private boolean retryOnStatus;
+    private String outputMode;
+    /**
+     * 批量模式每个请求包含的行数
+     */
+    private Integer batchSize;
+    /**
+     * 批量/并发模式同时在途的最大请求数
+     */
+    private Integer maxInFlight;
 
     public ApiOutputStepMeta() {
         setDefault();
@@ -136,6 +162,10 @@ public class ApiOutputStepMeta extends BaseStepMeta implements StepMetaInterface
         this.readOutTime = DEFAULT_TIMEOUT_MS;
         this.retryNum = DEFAULT_RETRY_NUM;
         this.retryTime = DEFAULT_RETRY_TIME_MS;
+        this.retryOnStatus = false;
+        this.outputMode = OUTPUT_MODE_ROW;
+        this.batchSize = DEFAULT_BATCH_SIZE;
+        this.maxInFlight = DEFAULT_MAX_IN_FLIGHT;
     }
 
     @Override
@@ -169,6 +199,10 @@ public class ApiOutputStepMeta extends BaseStepMeta implements StepMetaInterface
         appendXmlTag(xml, XML_TAG_READ_TIMEOUT, readOutTime);
         appendXmlTag(xml, XML_TAG_RETRY_NUM, retryNum);
         appendXmlTag(xml, XML_TAG_RETRY_TIME, retryTime);
+        appendXmlTag(xml, XML_TAG_RETRY_ON_STATUS, retryOnStatus);
+        appendXmlTag(xml, XML_TAG_OUTPUT_MODE, outputMode);
+        appendXmlTag(xml, XML_TAG_BATCH_SIZE, batchSize);
+        appendXmlTag(xml, XML_TAG_MAX_IN_FLIGHT, maxInFlight);
 
         // 参数列表
         appendParamListXml(xml, XML_TAG_PARAMS, XML_TAG_PARAM, params);
@@ -250,6 +284,10 @@ public class ApiOutputStepMeta extends BaseStepMeta implements StepMetaInterface
         rep.saveStepAttribute(transformationId, stepId, XML_TAG_READ_TIMEOUT, readOutTime);
         rep.saveStepAttribute(transformationId, stepId, XML_TAG_RETRY_NUM, retryNum);
         rep.saveStepAttribute(transformationId, stepId, XML_TAG_RETRY_TIME, retryTime);
+        rep.saveStepAttribute(transformationId, stepId, XML_TAG_RETRY_ON_STATUS, retryOnStatus);
+        rep.saveStepAttribute(transformationId, stepId, XML_TAG_OUTPUT_MODE, outputMode);
+        rep.saveStepAttribute(transformationId, stepId, XML_TAG_BATCH_SIZE, batchSize);
+        rep.saveStepAttribute(transformationId, stepId, XML_TAG_MAX_IN_FLIGHT, maxInFlight);
     }
 
     private void saveParamListToRepository(Repository rep, ObjectId transformationId, ObjectId stepId,
@@ -296,6 +334,13 @@ public class ApiOutputStepMeta extends BaseStepMeta implements StepMetaInterface
                 XMLHandler.getSubNode(stepNode, XML_TAG_RETRY_NUM)));
         retryTime = parseLongSafe(XMLHandler.getNodeValue(
                 XMLHandler.getSubNode(stepNode, XML_TAG_RETRY_TIME)));
+        retryOnStatus = YES_VALUE.equals(XMLHandler.getNodeValue(XMLHandler.getSubNode(stepNode, XML_TAG_RETRY_ON_STATUS)));
+        outputMode = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepNode, XML_TAG_OUTPUT_MODE));
+        batchSize = parseIntegerSafe(XMLHandler.getNodeValue(
+                XMLHandler.getSubNode(stepNode, XML_TAG_BATCH_SIZE)));
+        maxInFlight = parseIntegerSafe(XMLHandler.getNodeValue(
+                XMLHandler.getSubNode(stepNode, XML_TAG_MAX_IN_FLIGHT)));
+        applyModeDefaults();
     }
 
     private void loadParamListFromXml(Node stepNode, String listTag, String itemTag,
@@ -345,6 +390,24 @@ public class ApiOutputStepMeta extends BaseStepMeta implements StepMetaInterface
         readOutTime = (int) rep.getStepAttributeInteger(stepId, XML_TAG_READ_TIMEOUT);
         retryNum = (int) rep.getStepAttributeInteger(stepId, XML_TAG_RETRY_NUM);
         retryTime = rep.getStepAttributeInteger(stepId, XML_TAG_RETRY_TIME);
+        retryOnStatus = rep.getStepAttributeBoolean(stepId, XML_TAG_RETRY_ON_STATUS);
+        outputMode = rep.getStepAttributeString(stepId, XML_TAG_OUTPUT_MODE);
+        batchSize = (int) rep.getStepAttributeInteger(stepId, XML_TAG_BATCH_SIZE);
+        maxInFlight = (int) rep.getStepAttributeInteger(stepId, XML_TAG_MAX_IN_FLIGHT);
+        applyModeDefaults();
+    }
+
+    /**
+     * 旧版本配置没有输出模式相关属性，按逐行模式和默认值处理
+     */
+    private void applyModeDefaults() {
+        outputMode = isBlank(outputMode) ? OUTPUT_MODE_ROW : outputMode.trim().toUpperCase();
+        if (batchSize == null || batchSize <= 0) {
+            batchSize = DEFAULT_BATCH_SIZE;
+        }
+        if (maxInFlight == null || maxInFlight <= 0) {
+            maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+        }
     }
 
     private void loadParamListFromRepository(Repository rep, ObjectId stepId, List<Param> targetList,
@@ -405,12 +468,26 @@ public class ApiOutputStepMeta extends BaseStepMeta implements StepMetaInterface
         if (isBlank(url)) {
             remarks.add(new CheckResult(CheckResultInterface.TYPE_RESULT_ERROR,
                     "URL配置为空！", stepMeta));
+        } else if (!isSupportedOutputMode(outputMode)) {
+            remarks.add(new CheckResult(CheckResultInterface.TYPE_RESULT_ERROR,
+                    "不支持的输出模式：" + outputMode, stepMeta));
+        } else if (OUTPUT_MODE_BATCH.equals(outputMode)
+                && WayType.GET.getDescription().equals(requestMethod)) {
+            remarks.add(new CheckResult(CheckResultInterface.TYPE_RESULT_WARNING,
+                    "批量模式以 JSON 数组作为请求体，将使用POST方式发送！", stepMeta));
         } else {
             remarks.add(new CheckResult(CheckResultInterface.TYPE_RESULT_OK,
                     "校验通过！", stepMeta));
         }
     }
 
+    /**
+     * 是否为支持的输出模式（逐行 / 批量 / 并发）
+     */
+    public static boolean isSupportedOutputMode(String mode) {
+        return OUTPUT_MODE_ROW.equals(mode) || OUTPUT_MODE_BATCH.equals(mode) || OUTPUT_MODE_CONCURRENT.equals(mode);
+    }
+
     private boolean isBlank(String str) {
         return str == null || str.trim().isEmpty();
     }
@@ -571,4 +648,36 @@ public class ApiOutputStepMeta extends BaseStepMeta implements StepMetaInterface
         this.retryTime = retryTime;
     }
 
-}
\ No newline at end of file
+    public boolean isRetryOnStatus() {
+        return retryOnStatus;
+    }
+
+    public void setRetryOnStatus(boolean retryOnStatus) {
+        this.retryOnStatus = retryOnStatus;
+    }
+
+
+    public String getOutputMode() {
+        return outputMode;
+    }
+
+    public void setOutputMode(String outputMode) {
+        this.outputMode = outputMode;
+    }
+
+    public Integer getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Integer getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(Integer maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+}
@@ -0,0 +1,143 @@
+package com.pufferfishscheduler.plugin;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import org.pentaho.di.core.exception.KettleException;
+
+/**
+ * 批量/并发模式的在途请求：请求由线程池并发发送，结果按提交顺序输出，
+ * 在途请求达到上限时先等待并输出最早提交的请求。仅由步骤线程访问。
+ */
+class InFlightRequests {
+
+    private static final long AWAIT_POLL_MS = 1000L;
+
+    /**
+     * 接收一行输入及其请求结果
+     */
+    @FunctionalInterface
+    interface RowSink {
+        void put(Object[] row, Object[] extraFields) throws KettleException;
+    }
+
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final BooleanSupplier stopped;
+    private final RowSink sink;
+
+    /**
+     * 已提交、尚未输出的请求，按输入顺序排列
+     */
+    private final Deque<Delivery> pending = new ArrayDeque<>();
+
+    /**
+     * @param stopped 等待期间轮询，返回 true 时取消全部在途请求
+     */
+    InFlightRequests(ExecutorService executor, int maxInFlight, BooleanSupplier stopped, RowSink sink) {
+        this.executor = executor;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.stopped = stopped;
+        this.sink = sink;
+    }
+
+    /**
+     * 提交一个请求，rows 为该请求对应的输入行，输出时每行都追加该请求的结果
+     *
+     * @return 步骤被停止时返回 false
+     * @throws ExecutionException 等待中的请求最终失败，此时其余在途请求已取消
+     */
+    boolean submit(List<Object[]> rows, Callable<Object[]> request) throws KettleException, ExecutionException {
+        while (pending.size() >= maxInFlight) {
+            if (!emitFirst()) {
+                return false;
+            }
+        }
+        pending.addLast(new Delivery(rows, executor.submit(request)));
+        return true;
+    }
+
+    /**
+     * 按顺序输出全部在途请求
+     *
+     * @return 步骤被停止时返回 false
+     * @throws ExecutionException 请求最终失败，此时其余在途请求已取消
+     */
+    boolean drain() throws KettleException, ExecutionException {
+        while (!pending.isEmpty()) {
+            if (!emitFirst()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 等待最早提交的请求完成并输出对应的行
+     */
+    private boolean emitFirst() throws KettleException, ExecutionException {
+        Delivery delivery = pending.pollFirst();
+        Object[] extraFields = null;
+        try {
+            while (extraFields == null) {
+                if (stopped.getAsBoolean()) {
+                    delivery.result.cancel(true);
+                    cancel();
+                    return false;
+                }
+                try {
+                    extraFields = delivery.result.get(AWAIT_POLL_MS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // 继续等待，期间检查步骤是否被停止
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            return false;
+        } catch (ExecutionException e) {
+            cancel();
+            throw e;
+        }
+
+        for (Object[] row : delivery.rows) {
+            sink.put(row, extraFields);
+        }
+        return true;
+    }
+
+    /**
+     * 取消全部在途请求
+     */
+    void cancel() {
+        for (Delivery delivery : pending) {
+            delivery.result.cancel(true);
+        }
+        pending.clear();
+    }
+
+    int size() {
+        return pending.size();
+    }
+
+    /**
+     * 一次已提交的请求及其对应的输入行
+     */
+    private static final class Delivery {
+        private final List<Object[]> rows;
+        private final Future<Object[]> result;
+
+        private Delivery(List<Object[]> rows, Future<Object[]> result) {
+            this.rows = rows;
+            this.result = result;
+        }
+    }
+}
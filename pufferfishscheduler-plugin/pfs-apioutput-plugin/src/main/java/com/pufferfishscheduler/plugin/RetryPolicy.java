@@ -0,0 +1,73 @@
+package com.pufferfishscheduler.plugin;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API 请求重试策略
+ * <p>
+ * 默认只在请求异常时重试，每次间隔固定的 retryTime 毫秒，响应状态码不触发重试；
+ * 开启 retryOnStatus 后，响应 429/5xx 同样重试，间隔按 retryTime * 2^attempt 指数退避，
+ * 服务端返回 Retry-After 时取两者较大值，最长 {@value #MAX_BACKOFF_MS} 毫秒。
+ * </p>
+ */
+final class RetryPolicy {
+
+    static final long MAX_BACKOFF_MS = 60000L;
+
+    private static final int STATUS_TOO_MANY_REQUESTS = 429;
+    private static final int STATUS_SERVER_ERROR = 500;
+    private static final int MAX_BACKOFF_SHIFT = 16;
+
+    private final int maxRetries;
+    private final long retryTimeMs;
+    private final boolean retryOnStatus;
+
+    RetryPolicy(Integer retryNum, Long retryTime, boolean retryOnStatus) {
+        this.maxRetries = retryNum != null ? Math.max(0, retryNum) : 0;
+        this.retryTimeMs = retryTime != null ? Math.max(0L, retryTime) : 0L;
+        this.retryOnStatus = retryOnStatus;
+    }
+
+    /**
+     * 第 attempt 次（从 0 开始）请求异常后是否重试
+     */
+    boolean retryOnException(int attempt) {
+        return attempt < maxRetries;
+    }
+
+    /**
+     * 第 attempt 次（从 0 开始）请求返回 statusCode 后是否重试
+     */
+    boolean retryOnStatus(int attempt, int statusCode) {
+        return retryOnStatus && attempt < maxRetries
+                && (statusCode == STATUS_TOO_MANY_REQUESTS || statusCode >= STATUS_SERVER_ERROR);
+    }
+
+    /**
+     * 第 attempt 次（从 0 开始）失败后的等待时间
+     *
+     * @param retryAfterMs 服务端 Retry-After 指定的毫秒数，没有时为 -1
+     */
+    long delay(int attempt, long retryAfterMs) {
+        if (!retryOnStatus) {
+            return retryTimeMs;
+        }
+        long backoff = retryTimeMs << Math.min(attempt, MAX_BACKOFF_SHIFT);
+        return Math.min(MAX_BACKOFF_MS, Math.max(backoff, retryAfterMs));
+    }
+
+    /**
+     * 解析秒数形式的 Retry-After 响应头，不存在或为日期格式时返回 -1
+     */
+    static long parseRetryAfter(String value) {
+        if (value == null) {
+            return -1L;
+        }
+        try {
+            long seconds = Long.parseLong(value.trim());
+            return seconds < 0 ? -1L : TimeUnit.SECONDS.toMillis(seconds);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
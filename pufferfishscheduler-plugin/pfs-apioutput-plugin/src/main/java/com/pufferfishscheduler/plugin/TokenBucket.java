@@ -0,0 +1,84 @@
+package com.pufferfishscheduler.plugin;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 令牌桶限流：按固定速率补充令牌，桶容量为一秒的令牌数，初始为满。
+ * 每次请求（包括重试）取一个令牌，没有令牌时阻塞等待。
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double permitsPerSecond;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param permitsPerSecond 每秒令牌数，必须大于 0
+     */
+    public TokenBucket(double permitsPerSecond) {
+        this(permitsPerSecond, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = Math.max(1D, permitsPerSecond);
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * 步骤的多个副本平分总速率，每个副本一个令牌桶
+     *
+     * @param permitsPerSecond 所有副本合计的每秒令牌数
+     * @param copies           步骤副本数，小于 1 时按 1 处理
+     */
+    public static TokenBucket perCopy(double permitsPerSecond, int copies) {
+        return perCopy(permitsPerSecond, copies, System::nanoTime);
+    }
+
+    static TokenBucket perCopy(double permitsPerSecond, int copies, LongSupplier nanoClock) {
+        return new TokenBucket(permitsPerSecond / Math.max(1, copies), nanoClock);
+    }
+
+    /**
+     * 获取一个令牌，必要时等待
+     *
+     * @throws InterruptedException 等待被中断
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = tryAcquire()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @return 0 表示已获取；否则为距离下一个令牌的纳秒数
+     */
+    synchronized long tryAcquire() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * permitsPerSecond / NANOS_PER_SECOND);
+        lastRefillNanos = now;
+        if (tokens >= 1D) {
+            tokens -= 1D;
+            return 0;
+        }
+        return Math.max(1L, (long) Math.ceil((1D - tokens) * NANOS_PER_SECOND / permitsPerSecond));
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+}
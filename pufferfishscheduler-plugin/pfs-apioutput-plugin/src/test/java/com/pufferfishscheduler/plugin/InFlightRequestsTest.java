@@ -0,0 +1,156 @@
+package com.pufferfishscheduler.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 在途请求：先提交的请求即使后完成也先输出，批量请求的各行共用同一结果，
+ * 在途请求数不超过上限，请求失败或步骤停止时取消其余在途请求
+ */
+class InFlightRequestsTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    /**
+     * 输出的行号及其对应的请求结果
+     */
+    private final List<String> emitted = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void concurrentResultsAreEmittedInSubmitOrder() throws Exception {
+        InFlightRequests requests = requests(8, () -> false);
+        int count = 8;
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // 越早提交的请求越晚完成
+            long delayMs = (count - i) * 20L;
+            String response = "r" + i;
+            assertTrue(requests.submit(Collections.singletonList(row(i)), () -> {
+                Thread.sleep(delayMs);
+                return new Object[]{response};
+            }));
+            expected.add(i + "=" + response);
+        }
+
+        assertTrue(requests.drain());
+        assertEquals(expected, emitted);
+        assertEquals(0, requests.size());
+    }
+
+    @Test
+    void batchRowsShareResponseInOrder() throws Exception {
+        InFlightRequests requests = requests(4, () -> false);
+        CountDownLatch firstBatch = new CountDownLatch(1);
+        assertTrue(requests.submit(Arrays.asList(row(0), row(1), row(2)), () -> {
+            firstBatch.await(10, TimeUnit.SECONDS);
+            return new Object[]{"b0"};
+        }));
+        assertTrue(requests.submit(Arrays.asList(row(3), row(4)), () -> {
+            firstBatch.countDown();
+            return new Object[]{"b1"};
+        }));
+
+        assertTrue(requests.drain());
+        assertEquals(Arrays.asList("0=b0", "1=b0", "2=b0", "3=b1", "4=b1"), emitted);
+    }
+
+    @Test
+    void inFlightRequestsAreBounded() throws Exception {
+        int maxInFlight = 3;
+        InFlightRequests requests = requests(maxInFlight, () -> false);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        for (int i = 0; i < 20; i++) {
+            assertTrue(requests.submit(Collections.singletonList(row(i)), () -> {
+                peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                Thread.sleep(5);
+                active.decrementAndGet();
+                return new Object[]{"ok"};
+            }));
+            assertTrue(requests.size() <= maxInFlight);
+        }
+
+        assertTrue(requests.drain());
+        assertEquals(20, emitted.size());
+        assertTrue(peak.get() <= maxInFlight, String.valueOf(peak.get()));
+    }
+
+    @Test
+    void failureCancelsRemainingRequests() throws Exception {
+        InFlightRequests requests = requests(4, () -> false);
+        CountDownLatch never = new CountDownLatch(1);
+        AtomicBoolean lastFinished = new AtomicBoolean();
+        requests.submit(Collections.singletonList(row(0)), () -> new Object[]{"ok"});
+        requests.submit(Collections.singletonList(row(1)), () -> {
+            throw new IllegalStateException("HTTP failure");
+        });
+        requests.submit(Collections.singletonList(row(2)), () -> {
+            never.await(10, TimeUnit.SECONDS);
+            lastFinished.set(true);
+            return new Object[]{"late"};
+        });
+
+        ExecutionException failure = null;
+        try {
+            requests.drain();
+        } catch (ExecutionException e) {
+            failure = e;
+        }
+
+        assertTrue(failure != null && failure.getCause() instanceof IllegalStateException);
+        assertEquals(Collections.singletonList("0=ok"), emitted);
+        assertEquals(0, requests.size());
+        assertFalse(lastFinished.get());
+    }
+
+    @Test
+    void stopCancelsRemainingRequests() throws Exception {
+        AtomicBoolean stopped = new AtomicBoolean();
+        InFlightRequests requests = requests(4, stopped::get);
+        CountDownLatch never = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        requests.submit(Collections.singletonList(row(0)), () -> {
+            never.await(10, TimeUnit.SECONDS);
+            finished.set(true);
+            return new Object[]{"late"};
+        });
+
+        stopped.set(true);
+        assertFalse(requests.drain());
+        assertEquals(0, requests.size());
+        assertTrue(emitted.isEmpty());
+        assertFalse(finished.get());
+    }
+
+    private InFlightRequests requests(int maxInFlight, BooleanSupplier stopped) {
+        return new InFlightRequests(executor, maxInFlight, stopped,
+                (row, extraFields) -> emitted.add(row[0] + "=" + extraFields[0]));
+    }
+
+    private static Object[] row(int index) {
+        return new Object[]{index};
+    }
+}
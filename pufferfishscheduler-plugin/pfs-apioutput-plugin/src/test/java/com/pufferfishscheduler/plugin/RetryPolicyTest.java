@@ -0,0 +1,77 @@
+package com.pufferfishscheduler.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 重试策略：默认只在异常时按固定间隔重试；开启状态码重试后 429/5xx 按指数退避重试，
+ * Retry-After 可延长等待时间，两者都不超过上限
+ */
+class RetryPolicyTest {
+
+    @Test
+    void defaultRetriesOnlyExceptionsWithFixedDelay() {
+        RetryPolicy policy = new RetryPolicy(3, 1_000L, false);
+
+        assertTrue(policy.retryOnException(0));
+        assertTrue(policy.retryOnException(2));
+        assertFalse(policy.retryOnException(3));
+
+        assertFalse(policy.retryOnStatus(0, 429));
+        assertFalse(policy.retryOnStatus(0, 503));
+
+        assertEquals(1_000L, policy.delay(0, -1L));
+        assertEquals(1_000L, policy.delay(5, -1L));
+        // Retry-After 只在开启状态码重试时生效
+        assertEquals(1_000L, policy.delay(0, 30_000L));
+    }
+
+    @Test
+    void statusRetryBacksOffExponentiallyUpToCap() {
+        RetryPolicy policy = new RetryPolicy(20, 1_000L, true);
+
+        assertTrue(policy.retryOnStatus(0, 429));
+        assertTrue(policy.retryOnStatus(0, 500));
+        assertTrue(policy.retryOnStatus(0, 503));
+        assertFalse(policy.retryOnStatus(0, 400));
+        assertFalse(policy.retryOnStatus(0, 404));
+        assertFalse(policy.retryOnStatus(20, 503));
+
+        assertEquals(1_000L, policy.delay(0, -1L));
+        assertEquals(2_000L, policy.delay(1, -1L));
+        assertEquals(32_000L, policy.delay(5, -1L));
+        assertEquals(RetryPolicy.MAX_BACKOFF_MS, policy.delay(6, -1L));
+        assertEquals(RetryPolicy.MAX_BACKOFF_MS, policy.delay(19, -1L));
+    }
+
+    @Test
+    void retryAfterExtendsBackoffUpToCap() {
+        RetryPolicy policy = new RetryPolicy(5, 1_000L, true);
+
+        assertEquals(5_000L, policy.delay(0, RetryPolicy.parseRetryAfter("5")));
+        // 指数退避更长时不缩短
+        assertEquals(8_000L, policy.delay(3, RetryPolicy.parseRetryAfter("2")));
+        assertEquals(RetryPolicy.MAX_BACKOFF_MS, policy.delay(0, RetryPolicy.parseRetryAfter("3600")));
+    }
+
+    @Test
+    void parsesRetryAfterSeconds() {
+        assertEquals(120_000L, RetryPolicy.parseRetryAfter(" 120 "));
+        assertEquals(0L, RetryPolicy.parseRetryAfter("0"));
+        assertEquals(-1L, RetryPolicy.parseRetryAfter(null));
+        assertEquals(-1L, RetryPolicy.parseRetryAfter("-3"));
+        assertEquals(-1L, RetryPolicy.parseRetryAfter("Wed, 21 Oct 2026 07:28:00 GMT"));
+    }
+
+    @Test
+    void missingSettingsDisableRetry() {
+        RetryPolicy policy = new RetryPolicy(null, null, true);
+
+        assertFalse(policy.retryOnException(0));
+        assertFalse(policy.retryOnStatus(0, 503));
+        assertEquals(0L, policy.delay(0, -1L));
+    }
+}
@@ -0,0 +1,72 @@
+package com.pufferfishscheduler.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 令牌桶：按速率补充令牌且不超过一秒的容量，多个步骤副本平分总速率
+ */
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+
+    @Test
+    void refillsAtConfiguredRateUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(2, now::get);
+
+        // 初始为满：容量为一秒的令牌数
+        assertEquals(0L, bucket.tryAcquire());
+        assertEquals(0L, bucket.tryAcquire());
+        assertEquals(millis(500), bucket.tryAcquire());
+
+        now.set(millis(250));
+        assertEquals(millis(250), bucket.tryAcquire());
+        now.set(millis(500));
+        assertEquals(0L, bucket.tryAcquire());
+
+        // 长时间空闲后最多积攒一秒的令牌
+        now.set(millis(10_000));
+        assertEquals(0L, bucket.tryAcquire());
+        assertEquals(0L, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    @Test
+    void copiesShareTotalRate() {
+        int copies = 4;
+        List<TokenBucket> buckets = new ArrayList<>(copies);
+        for (int i = 0; i < copies; i++) {
+            buckets.add(TokenBucket.perCopy(10, copies, now::get));
+        }
+        assertEquals(2.5, buckets.get(0).getPermitsPerSecond());
+
+        int granted = 0;
+        for (long ms = 0; ms <= 10_000; ms++) {
+            now.set(millis(ms));
+            for (TokenBucket bucket : buckets) {
+                while (bucket.tryAcquire() == 0) {
+                    granted++;
+                }
+            }
+        }
+        // 10 秒内合计不超过总速率 * 10 秒，再加上初始的一秒容量
+        assertTrue(granted >= 100 && granted <= 110, String.valueOf(granted));
+    }
+
+    @Test
+    void nonPositiveCopiesAreTreatedAsOne() {
+        assertEquals(10.0, TokenBucket.perCopy(10, 0).getPermitsPerSecond());
+        assertEquals(10.0, TokenBucket.perCopy(10, 1).getPermitsPerSecond());
+    }
+
+    private static long millis(long ms) {
+        return TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+}
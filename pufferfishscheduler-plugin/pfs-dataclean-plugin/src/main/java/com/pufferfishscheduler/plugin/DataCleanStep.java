@@ -3,11 +3,13 @@ package com.pufferfishscheduler.plugin;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.pufferfishscheduler.plugin.common.Constants;
+import com.pufferfishscheduler.plugin.common.cache.ValueMappingCache;
 import com.pufferfishscheduler.plugin.common.util.HttpClientUtils;
 import com.pufferfishscheduler.plugin.processor.RuleProcessor;
+import com.pufferfishscheduler.plugin.processor.Impl.ValueMapping;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
-import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.*;
@@ -57,6 +59,28 @@ public class DataCleanStep extends BaseStep {
     private int inputRowLength = 0;
     // 新增字段数（初始化后固定）
     private int newFieldLength = 0;
+    // 新增字段的输出类型（初始化后固定）
+    private int[] newFieldTypes;
+
+    // 批处理行数，小于等于1时逐行处理
+    private int batchSize = 1;
+    // 输入行缓冲区
+    private Object[][] rowBuffer;
+    // 列缓冲区（按规则绑定下标），批次间复用
+    private Object[][] columnBuffer;
+    // 缓冲区中的行数
+    private int bufferedRows = 0;
+    // 逐行处理时复用的结果缓存
+    private Object[] rowCache;
+
+    // 值映射缓存统计的输出间隔（毫秒）
+    private static final long VALUE_MAPPING_STATS_INTERVAL_MS = 60_000L;
+    // 使用逐行查询模式的值映射处理器
+    private List<ValueMapping> lookupMappings = Collections.emptyList();
+    // 是否使用了值映射
+    private boolean valueMappingUsed = false;
+    // 上次输出值映射缓存统计的时间
+    private long lastValueMappingStatsTime;
 
     /**
      * 构造函数
@@ -139,6 +163,29 @@ public class DataCleanStep extends BaseStep {
         }
 
         this.bindings = Collections.unmodifiableList(out);
+        List<ValueMapping> lookups = new ArrayList<>();
+        for (RuleBinding b : out) {
+            if (b.processor instanceof ValueMapping) {
+                this.valueMappingUsed = true;
+                if (((ValueMapping) b.processor).isLookupMode()) {
+                    lookups.add((ValueMapping) b.processor);
+                }
+            }
+        }
+        this.lookupMappings = lookups;
+        this.lastValueMappingStatsTime = System.currentTimeMillis();
+
+        // 3) 预先解析新增字段的输出类型，并分配复用缓冲区
+        this.newFieldTypes = new int[this.newFieldLength];
+        for (int i = 0; i < this.newFieldLength; i++) {
+            this.newFieldTypes[i] = this.data.outputRowMeta.getValueMeta(inputRowLength + i).getType();
+        }
+        this.rowCache = new Object[this.newFieldLength];
+        this.batchSize = Math.max(1, this.meta.getBatchSize());
+        if (this.batchSize > 1) {
+            this.rowBuffer = new Object[this.batchSize][];
+            this.columnBuffer = new Object[this.newFieldLength][this.batchSize];
+        }
     }
 
     /**
@@ -233,6 +280,16 @@ public class DataCleanStep extends BaseStep {
         this.meta = (DataCleanStepMeta) smi;
         Object[] r = getRow();
         if (r == null) {
+            // 输出缓冲区中剩余的行
+            if (this.bufferedRows > 0) {
+                try {
+                    this.flushBuffer();
+                } catch (Exception e) {
+                    logError(e.getMessage());
+                    setErrors(1);
+                    stopAll();
+                }
+            }
             this.setOutputDone();
             return false;
         }
@@ -253,8 +310,19 @@ public class DataCleanStep extends BaseStep {
                 this.initData();
             }
 
-            Object[] objects = this.setRowValue(r, this.dealRowData(r));
-            this.putRow(this.data.outputRowMeta, objects);
+            if (this.batchSize > 1) {
+                this.rowBuffer[this.bufferedRows++] = r;
+                if (this.bufferedRows == this.batchSize) {
+                    this.flushBuffer();
+                }
+            } else {
+                Object[] objects = this.setRowValue(r, this.dealRowData(r));
+                this.putRow(this.data.outputRowMeta, objects);
+            }
+            if (this.valueMappingUsed
+                    && System.currentTimeMillis() - this.lastValueMappingStatsTime >= VALUE_MAPPING_STATS_INTERVAL_MS) {
+                this.logValueMappingStats();
+            }
         } catch (Exception e) {
             logError(e.getMessage());
             setErrors(1);
@@ -274,7 +342,7 @@ public class DataCleanStep extends BaseStep {
      * @throws UnsupportedEncodingException
      */
     private Object[] dealRowData(Object[] r) throws KettleException, SQLException, UnsupportedEncodingException {
-        Object[] cache = new Object[this.newFieldLength];
+        Object[] cache = this.rowCache;
         for (RuleBinding b : this.bindings) {
             Object value = r[b.inputFieldIndex];
             Object out = b.processor.convert(value);
@@ -293,19 +361,40 @@ public class DataCleanStep extends BaseStep {
      * @throws UnsupportedEncodingException
      */
     private Object[] setRowValue(Object[] row, Object[] cache) throws SQLException, UnsupportedEncodingException {
-        int count = inputRowLength + newFieldLength;
-        Object[] output = new Object[count];
-        System.arraycopy(row, 0, output, 0, inputRowLength);
+        // 输入行有富余容量时直接复用，避免重新分配和复制
+        Object[] output = RowDataUtil.resizeArray(row, inputRowLength + newFieldLength);
         for (int i = 0; i < newFieldLength; i++) {
-            output[inputRowLength + i] = dealResultDataType(cache[i], i);
+            output[inputRowLength + i] = dealDataType(newFieldTypes[i], cache[i]);
         }
         return output;
     }
 
-    private Object dealResultDataType(Object data, int index) {
-        ValueMetaInterface valueMetaInterface = this.data.outputRowMeta.getValueMetaList().get(inputRowLength + index);
-        int type = valueMetaInterface.getType();
-        return dealDataType(type, data);
+    /**
+     * 批量处理缓冲区中的行：按规则绑定逐列转换，再按输入顺序输出
+     *
+     * @throws KettleException
+     * @throws SQLException
+     * @throws UnsupportedEncodingException
+     */
+    private void flushBuffer() throws KettleException, SQLException, UnsupportedEncodingException {
+        int n = this.bufferedRows;
+        for (RuleBinding b : this.bindings) {
+            Object[] column = this.columnBuffer[b.bindingIndex];
+            for (int i = 0; i < n; i++) {
+                column[i] = this.rowBuffer[i][b.inputFieldIndex];
+            }
+            b.processor.convertBatch(column, n);
+        }
+        for (int i = 0; i < n; i++) {
+            Object[] output = RowDataUtil.resizeArray(this.rowBuffer[i], inputRowLength + newFieldLength);
+            for (int j = 0; j < newFieldLength; j++) {
+                output[inputRowLength + j] = dealDataType(newFieldTypes[j], this.columnBuffer[j][i]);
+                this.columnBuffer[j][i] = null;
+            }
+            this.rowBuffer[i] = null;
+            this.putRow(this.data.outputRowMeta, output);
+        }
+        this.bufferedRows = 0;
     }
 
     /**
@@ -319,20 +408,25 @@ public class DataCleanStep extends BaseStep {
         switch (type) {
             case 1:
 //                return Double.valueOf(data.toString());
+                if (data instanceof Double) return data;
                 return new BigDecimal(data.toString()).doubleValue();
             case 2:
                 return String.valueOf(data);
             case 4:
+                if (data instanceof Boolean) return data;
                 return Boolean.valueOf(data.toString());
             case 5:
+                if (data instanceof Long) return data;
                 return Long.valueOf(data.toString());
             case 6:
+                if (data instanceof Long) return BigDecimal.valueOf((Long) data);
                 return BigDecimal.valueOf(Long.parseLong(data.toString()));
             case 7: // Serializable
                 return data;
             case 8:
                 return Byte.valueOf(data.toString());
             case 9:
+                if (data instanceof Long) return data;
                 return Long.valueOf(data.toString());
             case 0:
             case 3:
@@ -343,11 +437,28 @@ public class DataCleanStep extends BaseStep {
     }
 
 
+    /**
+     * 输出值映射缓存命中统计：运行中每隔 {@link #VALUE_MAPPING_STATS_INTERVAL_MS} 输出一次，结束时再输出一次
+     */
+    private void logValueMappingStats() {
+        this.lastValueMappingStatsTime = System.currentTimeMillis();
+        for (ValueMapping mapping : this.lookupMappings) {
+            logBasic("值映射逐行查询缓存：hits=" + mapping.getLookupHits() + ", misses=" + mapping.getLookupMisses());
+        }
+        logBasic("值映射共享缓存：" + ValueMappingCache.getInstance().stats());
+    }
+
     /**
      * 步骤组件执行完成（不管成功还是失败，或者异常）后，设计器调用此方法释放资源。譬如：释放文件句柄、数据库连接等
      */
     @Override
     public void dispose(StepMetaInterface smi, StepDataInterface sdi) {
+        if (this.valueMappingUsed) {
+            this.logValueMappingStats();
+        }
+        for (RuleBinding b : this.bindings) {
+            b.processor.dispose();
+        }
         super.dispose(smi, sdi);
         logDebug("Groovy Step Dispose ...");
     }
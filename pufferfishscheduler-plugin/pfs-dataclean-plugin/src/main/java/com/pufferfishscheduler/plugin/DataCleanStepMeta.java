@@ -51,6 +51,7 @@ public class DataCleanStepMeta extends BaseStepMeta implements StepMetaInterface
     private String address;
     private String apiKey;
     private String apiRoute;
+    private int batchSize;
 
     // ✅ 修复1: 添加无参构造函数（Kettle框架通过反射 Class.newInstance() 实例化，必须存在）
     public DataCleanStepMeta() {
@@ -108,6 +109,9 @@ public class DataCleanStepMeta extends BaseStepMeta implements StepMetaInterface
     public String getApiRoute() { return apiRoute; }
     public void setApiRoute(String apiRoute) { this.apiRoute = apiRoute; }
 
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
     // ===================== 核心方法 =====================
 
     public void allocate(int nrkeys) {
@@ -125,6 +129,7 @@ public class DataCleanStepMeta extends BaseStepMeta implements StepMetaInterface
         this.address = "";
         this.apiKey = "";
         this.apiRoute = "";
+        this.batchSize = Constants.DEFAULT_BATCH_SIZE;
     }
 
     @Override
@@ -158,6 +163,7 @@ public class DataCleanStepMeta extends BaseStepMeta implements StepMetaInterface
         retval.append("        ").append(XMLHandler.addTagValue(Constants.ADDRESS, this.address));
         retval.append("        ").append(XMLHandler.addTagValue(Constants.APIKEY, this.apiKey));
         retval.append("        ").append(XMLHandler.addTagValue(Constants.APIROUTE, this.apiRoute));
+        retval.append("        ").append(XMLHandler.addTagValue(Constants.BATCH_SIZE, this.batchSize));
         retval.append("    <fields>").append(Const.CR);
         for (int i = 0; i < this.fieldName.length; ++i) {
             retval.append("      <field>").append(Const.CR);
@@ -187,6 +193,7 @@ public class DataCleanStepMeta extends BaseStepMeta implements StepMetaInterface
             this.address = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepnode, Constants.ADDRESS));
             this.apiKey  = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepnode, Constants.APIKEY));
             this.apiRoute = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepnode, Constants.APIROUTE));
+            this.batchSize = Const.toInt(XMLHandler.getTagValue(stepnode, Constants.BATCH_SIZE), Constants.DEFAULT_BATCH_SIZE);
 
             Node lookup = XMLHandler.getSubNode(stepnode, Constants.FIELDS);
             int nrkeys = XMLHandler.countNodes(lookup, Constants.FIELD);
@@ -224,6 +231,7 @@ public class DataCleanStepMeta extends BaseStepMeta implements StepMetaInterface
             rep.saveStepAttribute(id_transformation, id_step, Constants.ADDRESS,  this.address);
             rep.saveStepAttribute(id_transformation, id_step, Constants.APIKEY,   this.apiKey);
             rep.saveStepAttribute(id_transformation, id_step, Constants.APIROUTE, this.apiRoute);
+            rep.saveStepAttribute(id_transformation, id_step, Constants.BATCH_SIZE, this.batchSize);
 
             for (int i = 0; i < this.fieldName.length; ++i) {
                 rep.saveStepAttribute(id_transformation, id_step, i, Constants.FIELD_NAME,
@@ -251,6 +259,10 @@ public class DataCleanStepMeta extends BaseStepMeta implements StepMetaInterface
             this.address = rep.getStepAttributeString(id_step, Constants.ADDRESS);
             this.apiKey  = rep.getStepAttributeString(id_step, Constants.APIKEY);
             this.apiRoute = rep.getStepAttributeString(id_step, Constants.APIROUTE);
+            this.batchSize = (int) rep.getStepAttributeInteger(id_step, Constants.BATCH_SIZE);
+            if (this.batchSize <= 0) {
+                this.batchSize = Constants.DEFAULT_BATCH_SIZE;
+            }
 
             for (int i = 0; i < nrkeys; ++i) {
                 this.fieldName[i]  = Const.NVL(rep.getStepAttributeString(id_step, i, Constants.FIELD_NAME),
@@ -15,6 +15,11 @@ public interface Constants {
 
     String SQL_CONTEXT = "sqlContext"; // 自定义sql
 
+    String CACHE_MODE = "cacheMode"; // 数据库映射缓存方式 PRELOAD 预加载整表（默认） LOOKUP 逐行查询+LRU
+    String CACHE_MODE_LOOKUP = "LOOKUP";
+    String LRU_SIZE = "lruSize"; // 逐行查询模式的本地缓存条数
+    int DEFAULT_LRU_SIZE = 10000;
+
     // 标准库
     String TRANSFORM_TYPE_2 = "transformType"; // 转换方式 0 代码值转为名称  1 名称转为代码值
     String CODE = "code"; // 代码
@@ -46,6 +51,8 @@ public interface Constants {
     String ADDRESS = "address";
     String APIKEY = "apiKey";
     String APIROUTE = "apiRoute";
+    String BATCH_SIZE = "batchSize"; // 批处理行数
+    int DEFAULT_BATCH_SIZE = 1; // 默认批处理行数：逐行处理，大于 1 时缓冲行并按列批量转换
 
 
     String START = "start"; // 开始位置
@@ -0,0 +1,188 @@
+package com.pufferfishscheduler.plugin.common.cache;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleException;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 值映射查找表缓存（JVM 级共享）
+ * <p>
+ * 插件类由同一个插件 ClassLoader 加载，因此 Worker 上所有数据清洗步骤副本、所有运行实例共享同一份映射表。
+ * 缓存键为（数据源、SQL、配置版本），条目带有过期时间，条目数量有上限；同一个键并发加载时只有一个线程访问数据库，
+ * 其余线程等待同一次加载结果。
+ * </p>
+ */
+public final class ValueMappingCache {
+
+    /**
+     * 映射表过期时间（秒），可通过系统属性调整
+     */
+    private static final long TTL_MILLIS = Const.toLong(System.getProperty("pfs.valuemapping.cache.ttl.seconds"), 600L) * 1000L;
+
+    /**
+     * 最多缓存的映射表数量，可通过系统属性调整
+     */
+    private static final int MAX_ENTRIES = Const.toInt(System.getProperty("pfs.valuemapping.cache.max.entries"), 256);
+
+    private static final ValueMappingCache INSTANCE = new ValueMappingCache();
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong totalLoadNanos = new AtomicLong();
+
+    private ValueMappingCache() {
+    }
+
+    public static ValueMappingCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 映射表加载器
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Map<String, Object> load() throws KettleException;
+    }
+
+    /**
+     * 获取映射表，未命中或已过期时加载
+     *
+     * @param key    缓存键
+     * @param loader 加载器
+     * @return 只读映射表
+     * @throws KettleException 加载失败
+     */
+    public Map<String, Object> get(Key key, Loader loader) throws KettleException {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.compute(key, (k, old) -> old == null || old.isExpired(now) ? new Entry() : old);
+        if (entry.claim()) {
+            misses.incrementAndGet();
+            load(key, entry, loader);
+            evictIfNecessary();
+        } else {
+            hits.incrementAndGet();
+        }
+        entry.lastAccess = now;
+        try {
+            return entry.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KettleException("[值映射]:等待映射表加载被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof KettleException) {
+                throw (KettleException) cause;
+            }
+            throw new KettleException("[值映射]:映射表加载失败：" + cause.getMessage(), cause);
+        }
+    }
+
+    private void load(Key key, Entry entry, Loader loader) {
+        long start = System.nanoTime();
+        try {
+            Map<String, Object> mapping = Collections.unmodifiableMap(loader.load());
+            entry.expiresAt = System.currentTimeMillis() + TTL_MILLIS;
+            entry.future.complete(mapping);
+        } catch (Throwable e) {
+            loadFailures.incrementAndGet();
+            // 失败的条目立即移除，下次访问重新加载
+            entries.remove(key, entry);
+            entry.future.completeExceptionally(e);
+        } finally {
+            totalLoadNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 超出上限时淘汰最久未访问的条目
+     */
+    private void evictIfNecessary() {
+        while (entries.size() > MAX_ENTRIES) {
+            Map.Entry<Key, Entry> eldest = null;
+            for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+                if (eldest == null || e.getValue().lastAccess < eldest.getValue().lastAccess) {
+                    eldest = e;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            if (entries.remove(eldest.getKey(), eldest.getValue())) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * 缓存统计快照
+     */
+    public Stats stats() {
+        return new Stats(hits.get(), misses.get(), loadFailures.get(), evictions.get(),
+                totalLoadNanos.get() / 1_000_000L, entries.size());
+    }
+
+    /**
+     * 缓存统计
+     */
+    public record Stats(long hits, long misses, long loadFailures, long evictions, long totalLoadMillis, int size) {
+
+        @Override
+        public String toString() {
+            return "hits=" + hits + ", misses=" + misses + ", loadFailures=" + loadFailures
+                    + ", evictions=" + evictions + ", totalLoadMillis=" + totalLoadMillis + ", size=" + size;
+        }
+    }
+
+    /**
+     * 缓存键：数据源标识 + 查询 SQL + 规则配置版本
+     */
+    public record Key(String dataSource, String sql, String version) {
+
+        public Key {
+            Objects.requireNonNull(dataSource, "dataSource");
+            Objects.requireNonNull(sql, "sql");
+            Objects.requireNonNull(version, "version");
+        }
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static final class Entry {
+        private final CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile long expiresAt = Long.MAX_VALUE;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        /**
+         * 抢占加载权，只有第一个调用者返回 true
+         */
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        private boolean isExpired(long now) {
+            return future.isDone() && now >= expiresAt;
+        }
+    }
+}
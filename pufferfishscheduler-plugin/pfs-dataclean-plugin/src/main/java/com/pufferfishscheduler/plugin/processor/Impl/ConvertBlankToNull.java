@@ -40,11 +40,42 @@ public class ConvertBlankToNull implements RuleProcessor {
     @Override
     public Object convert(Object value) throws KettleStepException {
         Object result = null;
-        if (String.valueOf(value).replaceAll("\\s", "").length() == 0) {
+        if (isBlank(String.valueOf(value))) {
             return null;
         } else {
             result = value;
         }
         return result;
     }
+
+    @Override
+    public void convertBatch(Object[] column, int n) throws KettleStepException {
+        for (int i = 0; i < n; i++) {
+            if (isBlank(String.valueOf(column[i]))) {
+                column[i] = null;
+            }
+        }
+    }
+
+    /**
+     * 是否全部由空白字符组成（与正则 \s 的字符集一致），不产生中间字符串
+     * @param v
+     * @return
+     */
+    private static boolean isBlank(String v) {
+        for (int i = 0; i < v.length(); i++) {
+            switch (v.charAt(i)) {
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\013':
+                case '\f':
+                case '\r':
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
 }
@@ -7,6 +7,7 @@ import com.pufferfishscheduler.plugin.common.util.ConvertDateToStringUtil;
 import com.pufferfishscheduler.plugin.processor.RuleProcessor;
 import org.pentaho.di.core.exception.KettleStepException;
 
+import java.text.SimpleDateFormat;
 import java.util.Date;
 
 /**
@@ -15,6 +16,8 @@ import java.util.Date;
 public class ConvertDateToString implements RuleProcessor {
 
     private Integer after; // 转换后日期格式
+    // 处理器实例由单个步骤副本独占，格式化器可复用
+    private SimpleDateFormat dateFormat;
 
 
     @Override
@@ -54,9 +57,32 @@ public class ConvertDateToString implements RuleProcessor {
         if ("".equals(value) || value == null || Constants.NULL.equals(value)) {
             return null;
         } else {
-            Date date = (Date) value;
-            result = ConvertDateToStringUtil.convertDateToString(date,after);
+            result = format((Date) value);
         }
         return result;
     }
+
+    @Override
+    public void convertBatch(Object[] column, int n) throws KettleStepException {
+        for (int i = 0; i < n; i++) {
+            Object value = column[i];
+            if ("".equals(value) || value == null || Constants.NULL.equals(value)) {
+                column[i] = null;
+            } else {
+                column[i] = format((Date) value);
+            }
+        }
+    }
+
+    /**
+     * 日期转字符串
+     * @param date
+     * @return
+     */
+    private String format(Date date) {
+        if (dateFormat == null) {
+            dateFormat = new SimpleDateFormat(ConvertDateToStringUtil.getFormat(after));
+        }
+        return dateFormat.format(date);
+    }
 }
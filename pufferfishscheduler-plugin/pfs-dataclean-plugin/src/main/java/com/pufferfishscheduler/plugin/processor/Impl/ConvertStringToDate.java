@@ -7,12 +7,18 @@ import com.pufferfishscheduler.plugin.common.util.ConvertDateToStringUtil;
 import com.pufferfishscheduler.plugin.processor.RuleProcessor;
 import org.pentaho.di.core.exception.KettleStepException;
 
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
 /**
  * 字符串转日期
  */
 public class ConvertStringToDate implements RuleProcessor {
 
     private Integer before;
+    // 处理器实例由单个步骤副本独占，格式化器可复用
+    private SimpleDateFormat dateFormat;
 
     @Override
     public void init(JSONObject metadata) throws KettleStepException {
@@ -65,9 +71,37 @@ public class ConvertStringToDate implements RuleProcessor {
         if ("".equals(value) || value == null || Constants.NULL.equals(value)) {
             return null;
         } else {
-            result = ConvertDateToStringUtil.convertStringToDate(String.valueOf(value),before);
+            result = parse(String.valueOf(value));
         }
         return result;
     }
 
+    @Override
+    public void convertBatch(Object[] column, int n) throws KettleStepException {
+        for (int i = 0; i < n; i++) {
+            Object value = column[i];
+            if ("".equals(value) || value == null || Constants.NULL.equals(value)) {
+                column[i] = null;
+            } else {
+                column[i] = parse(String.valueOf(value));
+            }
+        }
+    }
+
+    /**
+     * 字符串转日期
+     * @param dateStr
+     * @return
+     */
+    private Date parse(String dateStr) {
+        if (dateFormat == null) {
+            dateFormat = new SimpleDateFormat(ConvertDateToStringUtil.getFormat(before));
+        }
+        try {
+            return dateFormat.parse(dateStr);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("ParseException:" + e.getMessage());
+        }
+    }
+
 }
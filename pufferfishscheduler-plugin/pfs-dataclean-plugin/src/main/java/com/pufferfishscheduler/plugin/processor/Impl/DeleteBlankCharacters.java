@@ -6,11 +6,17 @@ import com.pufferfishscheduler.plugin.common.Constants;
 import com.pufferfishscheduler.plugin.processor.RuleProcessor;
 import org.pentaho.di.core.exception.KettleStepException;
 
+import java.util.regex.Pattern;
+
 /**
  * 删除空白字符
  */
 public class DeleteBlankCharacters implements RuleProcessor {
 
+    private static final Pattern LEADING_SPACES = Pattern.compile("^ +");
+    private static final Pattern TRAILING_SPACES = Pattern.compile(" +$");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s");
+
     private Integer deleteType;
     private Integer deleteContent;
 
@@ -68,17 +74,35 @@ public class DeleteBlankCharacters implements RuleProcessor {
             result = String.valueOf(value).trim();
         } else if (deleteType == 0 && deleteContent == 1) {
             // 去除首尾空格
-            result = String.valueOf(value).replaceFirst("^ +", "").replaceFirst(" +$", "");
+            String v = LEADING_SPACES.matcher(String.valueOf(value)).replaceFirst("");
+            result = TRAILING_SPACES.matcher(v).replaceFirst("");
         } else if (deleteType == 1 && deleteContent == 0) {
             // 去除所有空白字符
-            result = String.valueOf(value).replaceAll("\\s", "");
+            result = WHITESPACE.matcher(String.valueOf(value)).replaceAll("");
         } else if (deleteType == 1 && deleteContent == 1) {
             // 去除所有空格
-            result = String.valueOf(value).replaceAll(" ", "");
+            result = String.valueOf(value).replace(" ", "");
         }
         return result;
     }
 
+    @Override
+    public void convertBatch(Object[] column, int n) throws KettleStepException {
+        if (deleteType == 0 && deleteContent == 0) {
+            for (int i = 0; i < n; i++) {
+                column[i] = String.valueOf(column[i]).trim();
+            }
+        } else if (deleteType == 1 && deleteContent == 1) {
+            for (int i = 0; i < n; i++) {
+                column[i] = String.valueOf(column[i]).replace(" ", "");
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                column[i] = convert(column[i]);
+            }
+        }
+    }
+
     /**
      * 删除空格不删除空白字符
      *
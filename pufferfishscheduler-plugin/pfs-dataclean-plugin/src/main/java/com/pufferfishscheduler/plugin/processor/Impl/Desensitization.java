@@ -65,9 +65,29 @@ public class Desensitization implements RuleProcessor {
 
     @Override
     public Object convert(Object value) throws KettleStepException {
-        String v = String.valueOf(value);
-        int length = v.length();
+        return desensitize(String.valueOf(value), new StringBuilder());
+    }
+
+    @Override
+    public void convertBatch(Object[] column, int n) throws KettleStepException {
+        // 批内复用同一个 StringBuilder
         StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            builder.setLength(0);
+            column[i] = desensitize(String.valueOf(column[i]), builder);
+        }
+    }
+
+    /**
+     * 脱敏处理
+     *
+     * @param v
+     * @param builder
+     * @return
+     * @throws KettleStepException
+     */
+    private String desensitize(String v, StringBuilder builder) throws KettleStepException {
+        int length = v.length();
         if (start == 0 && end == -1) {
             for (int i = 0; i < length; i++) {
                 builder.append(replaceContent);
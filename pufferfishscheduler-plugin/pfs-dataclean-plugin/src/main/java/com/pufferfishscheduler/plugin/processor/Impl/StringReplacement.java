@@ -6,6 +6,9 @@ import com.pufferfishscheduler.plugin.common.Constants;
 import com.pufferfishscheduler.plugin.processor.RuleProcessor;
 import org.pentaho.di.core.exception.KettleStepException;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 
 /**
  * 字符串替换
@@ -18,6 +21,7 @@ public class StringReplacement implements RuleProcessor {
     private Integer start;
     private Integer end;
     private String searchContent; // 查找内容
+    private Pattern searchPattern; // 查找内容编译后的正则
 
     @Override
     public void init(JSONObject metadata) throws KettleStepException {
@@ -98,7 +102,40 @@ public class StringReplacement implements RuleProcessor {
         if (searchContent == null) {
             throw new KettleStepException(Constants.INVALID_VALUE + Constants.SEARCH_CONTENT);
         }
-        return value.replaceAll(searchContent, replaceContent);
+        return getSearchPattern().matcher(value).replaceAll(replaceContent);
+    }
+
+    /**
+     * 获取编译后的查找正则（只编译一次）
+     *
+     * @return
+     */
+    private Pattern getSearchPattern() {
+        if (searchPattern == null) {
+            searchPattern = Pattern.compile(searchContent);
+        }
+        return searchPattern;
+    }
+
+    @Override
+    public void convertBatch(Object[] column, int n) throws KettleStepException {
+        // 按位置替换，或未配置查找内容时逐个转换：与逐行处理一致，空值置空，遇到非空值才校验查找内容
+        if (replaceType != 0 || searchContent == null) {
+            for (int i = 0; i < n; i++) {
+                column[i] = convert(column[i]);
+            }
+            return;
+        }
+        // 复用同一个 Matcher
+        Matcher matcher = getSearchPattern().matcher("");
+        for (int i = 0; i < n; i++) {
+            Object value = column[i];
+            if ("".equals(value) || value == null || Constants.NULL.equals(value)) {
+                column[i] = null;
+            } else {
+                column[i] = matcher.reset(value.toString()).replaceAll(replaceContent);
+            }
+        }
     }
 
     /**
@@ -3,6 +3,7 @@ package com.pufferfishscheduler.plugin.processor.Impl;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.pufferfishscheduler.plugin.common.Constants;
+import com.pufferfishscheduler.plugin.common.cache.ValueMappingCache;
 import com.pufferfishscheduler.plugin.common.condition.SqlConditionBuilder;
 import com.pufferfishscheduler.plugin.common.model.DatabaseConnectionInfo;
 import com.pufferfishscheduler.plugin.common.util.AESUtil;
@@ -13,8 +14,10 @@ import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 
 import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
 import java.sql.*;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 
@@ -26,13 +29,30 @@ public class ValueMapping implements RuleProcessor {
     private static final int MAPPING_DB_VIEW = 1;
     private static final int MAPPING_CUSTOM_SQL = 2;
 
+    // 逐行查询模式下未命中值的占位
+    private static final Object NOT_FOUND = new Object();
+
     private JSONObject data;
     private Integer mappingType; // 映射方式
-
-    private final Map<String, Object> cacheDatabase = new HashMap<>(); // 存储数据库配置
+    private boolean lookupMode; // 是否逐行查询（映射表过大不适合预加载时使用）
+    private int lruSize; // 逐行查询模式的本地缓存条数
 
     private final Map<String, Object> cacheManual = new HashMap<>(); // 存储手工配置
 
+    // 数据库映射：首次使用时解析，之后每行复用
+    private DatabaseConnectionInfo connectionInfo;
+    private String sql;
+    private ValueMappingCache.Key cacheKey;
+    private Map<String, Object> cacheDatabase; // 预加载的映射表（JVM 级共享）
+
+    // 逐行查询模式
+    private Connection lookupConnection;
+    private PreparedStatement lookupStatement;
+    private boolean numericKey;
+    private Map<String, Object> lookupCache;
+    private long lookupHits;
+    private long lookupMisses;
+
     /**
      * 初始化
      *
@@ -52,6 +72,9 @@ public class ValueMapping implements RuleProcessor {
         if (mappingType == null) {
             throw new KettleStepException(Constants.INVALID_VALUE + Constants.MAPPING_TYPE);
         }
+        lookupMode = Constants.CACHE_MODE_LOOKUP.equalsIgnoreCase(data.getString(Constants.CACHE_MODE));
+        Integer size = data.getInteger(Constants.LRU_SIZE);
+        lruSize = size == null || size <= 0 ? Constants.DEFAULT_LRU_SIZE : size;
     }
 
     @Override
@@ -62,28 +85,52 @@ public class ValueMapping implements RuleProcessor {
             case MAPPING_MANUAL: // 手工配置
                 return dealManualConfig(data, stringValue);
             case MAPPING_DB_VIEW: // 数据库可视化配置
-                return dealDataViewConfig(data, stringValue);
             case MAPPING_CUSTOM_SQL: // 自定义sql
-                return dealCustomSQL(data, stringValue);
+                return dealDataBaseMapping(stringValue);
             default:
                 throw new KettleException("未知的映射方式：" + mappingType);
         }
     }
 
+    /**
+     * 数据库映射（数据库字典表 / 自定义sql）
+     *
+     * @param value 原始值
+     * @return 映射值或原始值
+     * @throws KettleException
+     */
+    private Object dealDataBaseMapping(String value) throws KettleException {
+        if (connectionInfo == null) {
+            connectionInfo = buildConnectionInfo(data);
+            sql = mappingType == MAPPING_CUSTOM_SQL ? dealCustomSQL(data) : dealDataViewConfig(data, connectionInfo);
+            cacheKey = new ValueMappingCache.Key(buildDataSourceKey(connectionInfo), sql,
+                    Integer.toHexString(data.toString().hashCode()));
+        }
+        if (value == null) {
+            return null;
+        }
+        if (lookupMode) {
+            return lookup(value);
+        }
+        if (cacheDatabase == null) {
+            cacheDatabase = ValueMappingCache.getInstance().get(cacheKey, this::loadMapping);
+        }
+        return getMappedOrDefault(cacheDatabase, value);
+    }
+
     /**
      * 自定义sql
      *
      * @param data
-     * @param value
+     * @return 查询语句
      */
-    private Object dealCustomSQL(JSONObject data, String value) throws KettleException {
-        DatabaseConnectionInfo connectionInfo = buildConnectionInfo(data);
+    private String dealCustomSQL(JSONObject data) throws KettleException {
         String sql = data.getString("sql");
 
         // 校验sql是否符合规范
         SqlConditionBuilder.validateCustomSql(sql);
 
-        return dealDataBaseConnect(value, connectionInfo, sql);
+        return sql;
     }
 
 
@@ -91,10 +138,10 @@ public class ValueMapping implements RuleProcessor {
      * 数据库字典表
      *
      * @param data
-     * @param value
+     * @param connectionInfo
+     * @return 查询语句
      */
-    private Object dealDataViewConfig(JSONObject data, String value) throws KettleException {
-        DatabaseConnectionInfo connectionInfo = buildConnectionInfo(data);
+    private String dealDataViewConfig(JSONObject data, DatabaseConnectionInfo connectionInfo) throws KettleException {
         String dbType = connectionInfo.getType();
 
         // 可视化配置 → 直接用工具类构建
@@ -113,37 +160,181 @@ public class ValueMapping implements RuleProcessor {
         }
 
         // 拼接查询SQL（只查2列）
-        String sql = String.format("SELECT %s, %s FROM %s %s",
+        return String.format("SELECT %s, %s FROM %s %s",
                 beforeFieldName, afterFieldName, tableName, whereClause);
-        return dealDataBaseConnect(value, connectionInfo, sql);
     }
 
     /**
-     * 处理数据库的jdbc连接
+     * 预加载整张映射表：第一列为原始值，第二列为映射值
      *
-     * @param value          原始值
-     * @param connectionInfo 数据库连接信息
-     * @param sql            查询语句
-     * @return
+     * @return 映射表
      * @throws KettleException
      */
-    private Object dealDataBaseConnect(String value, DatabaseConnectionInfo connectionInfo, String sql) throws KettleException {
-        if (cacheDatabase.isEmpty()) {
-            String dbType = connectionInfo.getType();
-            try {
-                String driver = JdbcUrlUtil.getDriver(dbType);
-                String url = JdbcUrlUtil.getUrl(connectionInfo.getType(), connectionInfo.getDbHost(), connectionInfo.getDbPort(), connectionInfo.getDbName(), connectionInfo.getProperties());
-                try (Connection conn = JdbcUtil.getConnection(driver, url, connectionInfo);
-                     Statement stat = conn.createStatement();
-                     ResultSet rs = stat.executeQuery(sql)) {
-                    ResultSetMetaData rsmd = rs.getMetaData();
-                    SqlConditionBuilder.mapPreviewResult(cacheDatabase, rs, rsmd);
+    private Map<String, Object> loadMapping() throws KettleException {
+        String dbType = connectionInfo.getType();
+        Map<String, Object> mapping = new HashMap<>();
+        try (Connection conn = openConnection();
+             Statement stat = conn.createStatement();
+             ResultSet rs = stat.executeQuery(sql)) {
+            ResultSetMetaData rsmd = rs.getMetaData();
+            if (rsmd.getColumnCount() < 2) {
+                throw new KettleException("[值映射]:映射查询至少需要返回两列");
+            }
+            while (rs.next()) {
+                Object key = SqlConditionBuilder.readColumnValue(rs, rsmd, 1);
+                Object mapped = SqlConditionBuilder.readColumnValue(rs, rsmd, 2);
+                if (key != null && mapped != null) {
+                    mapping.put(String.valueOf(key), mapped);
                 }
-            } catch (SQLException | KettleException e) {
-                throw new KettleException("[值映射]:" + dbType + Constants.DATABASE_OPERATE_EXCEPTIPN + e.getMessage());
             }
+        } catch (SQLException e) {
+            throw new KettleException("[值映射]:" + dbType + Constants.DATABASE_OPERATE_EXCEPTIPN + e.getMessage());
         }
-        return getMappedOrDefault(cacheDatabase, value);
+        return mapping;
+    }
+
+    /**
+     * 逐行查询并使用本地 LRU 缓存（映射表过大、不适合预加载时使用）
+     *
+     * @param value 原始值
+     * @return 映射值或原始值
+     * @throws KettleException
+     */
+    private Object lookup(String value) throws KettleException {
+        if (lookupCache == null) {
+            lookupCache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                    return size() > lruSize;
+                }
+            };
+        }
+        Object cached = lookupCache.get(value);
+        if (cached != null) {
+            lookupHits++;
+            return cached == NOT_FOUND ? value : cached;
+        }
+        lookupMisses++;
+        Object mapped = queryMapping(value);
+        lookupCache.put(value, mapped == null ? NOT_FOUND : mapped);
+        return mapped == null ? value : mapped;
+    }
+
+    /**
+     * 按原始值查询映射值，查询语句只准备一次
+     *
+     * @param value 原始值
+     * @return 映射值，不存在时返回 null
+     * @throws KettleException
+     */
+    private Object queryMapping(String value) throws KettleException {
+        String dbType = connectionInfo.getType();
+        try {
+            if (lookupStatement == null) {
+                prepareLookupStatement();
+            }
+            if (numericKey) {
+                try {
+                    lookupStatement.setBigDecimal(1, new BigDecimal(value.trim()));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            } else {
+                lookupStatement.setString(1, value);
+            }
+            try (ResultSet rs = lookupStatement.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return SqlConditionBuilder.readColumnValue(rs, rs.getMetaData(), 2);
+            }
+        } catch (SQLException e) {
+            throw new KettleException("[值映射]:" + dbType + Constants.DATABASE_OPERATE_EXCEPTIPN + e.getMessage());
+        }
+    }
+
+    /**
+     * 将映射查询包装为按第一列过滤的参数化查询
+     *
+     * @throws KettleException
+     * @throws SQLException
+     */
+    private void prepareLookupStatement() throws KettleException, SQLException {
+        lookupConnection = openConnection();
+        String keyColumn;
+        try (Statement stat = lookupConnection.createStatement();
+             ResultSet rs = stat.executeQuery("SELECT * FROM (" + sql + ") pfs_vm WHERE 1 = 0")) {
+            ResultSetMetaData rsmd = rs.getMetaData();
+            if (rsmd.getColumnCount() < 2) {
+                throw new KettleException("[值映射]:映射查询至少需要返回两列");
+            }
+            keyColumn = rsmd.getColumnLabel(1);
+            switch (rsmd.getColumnType(1)) {
+                case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+                     Types.DECIMAL, Types.NUMERIC, Types.FLOAT, Types.REAL, Types.DOUBLE -> numericKey = true;
+                default -> numericKey = false;
+            }
+        }
+        lookupStatement = lookupConnection.prepareStatement(
+                "SELECT * FROM (" + sql + ") pfs_vm WHERE pfs_vm." + quoteIdentifier(keyColumn) + " = ?");
+    }
+
+    /**
+     * 按数据库驱动声明的标识符引号包裹列名（列名来自结果集元数据，可能含空格、关键字或区分大小写）
+     *
+     * @param name 列名
+     * @return 包裹后的列名
+     * @throws SQLException
+     */
+    private String quoteIdentifier(String name) throws SQLException {
+        String quote = lookupConnection.getMetaData().getIdentifierQuoteString();
+        if (quote == null || quote.isBlank()) {
+            // 驱动不支持引号标识符
+            return name;
+        }
+        return quote + name.replace(quote, quote + quote) + quote;
+    }
+
+    /**
+     * 打开数据库连接
+     *
+     * @return 连接
+     * @throws KettleException
+     */
+    private Connection openConnection() throws KettleException {
+        String driver = JdbcUrlUtil.getDriver(connectionInfo.getType());
+        String url = JdbcUrlUtil.getUrl(connectionInfo.getType(), connectionInfo.getDbHost(), connectionInfo.getDbPort(), connectionInfo.getDbName(), connectionInfo.getProperties());
+        return JdbcUtil.getConnection(driver, url, connectionInfo);
+    }
+
+    @Override
+    public void dispose() {
+        try {
+            if (lookupStatement != null) {
+                lookupStatement.close();
+            }
+            if (lookupConnection != null) {
+                lookupConnection.close();
+            }
+        } catch (SQLException e) {
+            // 释放资源失败不影响步骤结果
+        } finally {
+            lookupStatement = null;
+            lookupConnection = null;
+            lookupCache = null;
+        }
+    }
+
+    public boolean isLookupMode() {
+        return lookupMode;
+    }
+
+    public long getLookupHits() {
+        return lookupHits;
+    }
+
+    public long getLookupMisses() {
+        return lookupMisses;
     }
 
     /**
@@ -209,6 +400,17 @@ public class ValueMapping implements RuleProcessor {
         return Objects.isNull(codeValue) ? value : codeValue;
     }
 
+    /**
+     * 构建数据源标识（用于共享缓存键）
+     *
+     * @param info 数据库连接信息
+     * @return 数据源标识
+     */
+    private String buildDataSourceKey(DatabaseConnectionInfo info) {
+        return String.join("|", info.getType(), info.getDbHost(), info.getDbPort(), info.getDbName(),
+                String.valueOf(info.getDbSchema()), String.valueOf(info.getUsername()), String.valueOf(info.getProperties()));
+    }
+
     /**
      * 构建数据库连接信息
      *
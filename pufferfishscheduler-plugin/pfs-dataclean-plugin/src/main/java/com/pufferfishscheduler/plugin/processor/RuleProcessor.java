@@ -28,4 +28,28 @@ public interface RuleProcessor {
      */
     Object convert(Object value) throws KettleException, SQLException, UnsupportedEncodingException;
 
+    /**
+     * 批量数据转换（按列原地转换）
+     * <p>
+     * 默认逐个调用 {@link #convert(Object)}；内置处理器可覆盖此方法，将参数校验、正则编译、格式化器创建等
+     * 与行无关的开销提到循环外。
+     * </p>
+     * @param column 列数据，转换结果写回原数组
+     * @param n 有效数据条数
+     * @throws KettleException
+     * @throws SQLException
+     * @throws UnsupportedEncodingException
+     */
+    default void convertBatch(Object[] column, int n) throws KettleException, SQLException, UnsupportedEncodingException {
+        for (int i = 0; i < n; i++) {
+            column[i] = convert(column[i]);
+        }
+    }
+
+    /**
+     * 释放处理器持有的资源（如数据库连接），步骤结束时调用
+     */
+    default void dispose() {
+    }
+
 }
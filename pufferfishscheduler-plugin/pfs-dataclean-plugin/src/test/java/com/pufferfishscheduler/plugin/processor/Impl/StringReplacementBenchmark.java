@@ -0,0 +1,100 @@
+package com.pufferfishscheduler.plugin.processor.Impl;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 字符串替换吞吐：改造前每个值调用 {@link String#replaceAll(String, String)}（每次编译正则）、
+ * 预编译正则后逐个 {@link StringReplacement#convert(Object)}、按列 {@link StringReplacement#convertBatch(Object[], int)}
+ * 复用同一个 Matcher，输入为电话号码和地址混合列，约一成为空值。
+ * <p>
+ * 运行：在测试类路径下执行 {@link #main(String[])}，结果单位为每秒处理的值个数。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StringReplacementBenchmark {
+
+    private static final int VALUES_PER_OP = 1_000;
+
+    /**
+     * 查找内容：单字符类（去除分隔符）与带分组的模式（脱敏中间四位）
+     */
+    @Param({"[-\\s]", "(\\d{3})\\d{4}(\\d{4})"})
+    public String searchContent;
+
+    private String replaceContent;
+
+    private StringReplacement processor;
+
+    private Object[] source;
+
+    private Object[] column;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        replaceContent = searchContent.startsWith("(") ? "$1****$2" : "";
+        processor = StringReplacementTest.processor("0", searchContent, replaceContent);
+
+        Random random = new Random(42);
+        source = new Object[VALUES_PER_OP];
+        for (int i = 0; i < VALUES_PER_OP; i++) {
+            source[i] = switch (random.nextInt(10)) {
+                case 0 -> null;
+                case 1, 2, 3 -> "上海市 浦东新区 张江路 " + random.nextInt(1_000) + " 号 - " + random.nextInt(30) + " 室";
+                default -> String.format("1%02d-%04d-%04d", 30 + random.nextInt(70), random.nextInt(10_000),
+                        random.nextInt(10_000));
+            };
+        }
+        column = new Object[VALUES_PER_OP];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES_PER_OP)
+    public void stringReplaceAll(Blackhole blackhole) {
+        for (Object value : source) {
+            blackhole.consume(value == null ? null : value.toString().replaceAll(searchContent, replaceContent));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES_PER_OP)
+    public void convertPerValue(Blackhole blackhole) throws Exception {
+        for (Object value : source) {
+            blackhole.consume(processor.convert(value));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES_PER_OP)
+    public Object[] convertBatch() throws Exception {
+        System.arraycopy(source, 0, column, 0, VALUES_PER_OP);
+        processor.convertBatch(column, VALUES_PER_OP);
+        return column;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(StringReplacementBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,96 @@
+package com.pufferfishscheduler.plugin.processor.Impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.pentaho.di.core.exception.KettleStepException;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.pufferfishscheduler.plugin.common.Constants;
+
+/**
+ * 字符串替换：批量转换与逐行转换结果一致，未配置查找内容时与逐行处理一样只在遇到非空值时报错
+ */
+class StringReplacementTest {
+
+    @Test
+    void batchMatchesPerValueConversion() throws KettleStepException {
+        StringReplacement perValue = processor("0", "[-\\s]", "");
+        StringReplacement batch = processor("0", "[-\\s]", "");
+        Object[] column = {"138-0013 8000", "", null, Constants.NULL, "010 6552-9988", 12345L, "无需替换"};
+
+        Object[] expected = new Object[column.length];
+        for (int i = 0; i < column.length; i++) {
+            expected[i] = perValue.convert(column[i]);
+        }
+        batch.convertBatch(column, column.length);
+
+        assertArrayEquals(expected, column);
+        assertEquals("13800138000", column[0]);
+    }
+
+    @Test
+    void batchOnlyConvertsFirstNValues() throws KettleStepException {
+        StringReplacement processor = processor("0", "a", "b");
+        Object[] column = {"aa", "aa", "aa"};
+
+        processor.convertBatch(column, 2);
+
+        assertArrayEquals(new Object[]{"bb", "bb", "aa"}, column);
+    }
+
+    @Test
+    void missingSearchContentSkipsBlankValues() throws KettleStepException {
+        StringReplacement processor = processor("0", null, "x");
+        Object[] column = {"", null, Constants.NULL};
+
+        processor.convertBatch(column, column.length);
+
+        assertArrayEquals(new Object[]{null, null, null}, column);
+    }
+
+    @Test
+    void missingSearchContentFailsOnFirstValueLikePerValueConversion() throws KettleStepException {
+        StringReplacement processor = processor("0", null, "x");
+        Object[] column = {"", "abc"};
+
+        KettleStepException perValue = assertThrows(KettleStepException.class, () -> processor.convert("abc"));
+        KettleStepException batch = assertThrows(KettleStepException.class,
+                () -> processor.convertBatch(column, column.length));
+
+        assertEquals(perValue.getMessage(), batch.getMessage());
+        assertNull(column[0]);
+    }
+
+    /**
+     * 按前端传入的规则配置结构初始化处理器
+     */
+    static StringReplacement processor(String replaceType, String searchContent, String replaceContent)
+            throws KettleStepException {
+        JSONArray fieldList = new JSONArray();
+        fieldList.add(field(Constants.REPLACE_TYPE, replaceType));
+        fieldList.add(field(Constants.SEARCH_CONTENT, searchContent));
+        fieldList.add(field(Constants.REPLACE_CONTENT, replaceContent));
+        JSONObject data = new JSONObject();
+        data.put(Constants.FIELD_LIST, fieldList);
+        JSONObject metadata = new JSONObject();
+        metadata.put(Constants.DATA, data);
+
+        StringReplacement processor = new StringReplacement();
+        processor.init(metadata);
+        return processor;
+    }
+
+    private static JSONObject field(String name, String value) {
+        JSONObject field = new JSONObject();
+        field.put(Constants.NAME, name);
+        field.put(Constants.SELECT_ARRAY, new JSONArray());
+        field.put(Constants.REQUIRES, false);
+        field.put(Constants.VALUE, value);
+        return field;
+    }
+}
@@ -1,5 +1,7 @@
 package com.pufferfishscheduler.plugin;
 
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
 import com.google.common.annotations.VisibleForTesting;
 import com.pufferfishscheduler.plugin.load.DelimiterParser;
 import com.pufferfishscheduler.plugin.load.DorisBatchStreamLoad;
@@ -79,42 +81,39 @@ public class DorisStreamLoader extends BaseStep implements StepInterface {
                         throw new KettleException(e.getMessage());
                     }
                 }
-            }
-
 
-            int length = meta.getFieldStream().length;
-            data.keynrs = new int[length];
-
-            Object[] row = new Object[length];
+                // 字段下标、元数据与序列化器只在第一行构建
+                int length = meta.getFieldStream().length;
+                data.keynrs = new int[length];
+                data.formatMeta = new ValueMetaInterface[length];
+                for (int i = 0; i < length; i++) {
+                    String filedName = meta.getFieldStream()[i];
+                    data.keynrs[i] = getInputRowMeta().indexOfValue(filedName);
+                    int keynr = data.keynrs[i];
+                    ValueMetaInterface sourceMeta = getInputRowMeta().getValueMeta(keynr);
+                    data.formatMeta[i] = sourceMeta.clone();
+                }
 
-            data.formatMeta = new ValueMetaInterface[length];
-            for (int i = 0; i < length; i++) {
-                String filedName = meta.getFieldStream()[i];
-                data.keynrs[i] = getInputRowMeta().indexOfValue(filedName);
-                int keynr = data.keynrs[i];
-                ValueMetaInterface sourceMeta = getInputRowMeta().getValueMeta(keynr);
-                data.formatMeta[i] = sourceMeta.clone();
-                row[i] = r[keynr];
+                Properties loadProperties = options.getStreamLoadProp();
+                //builder serializer
+                String property = loadProperties.getProperty(FIELD_DELIMITER_KEY, FIELD_DELIMITER_DEFAULT);
+
+                data.serializer = DorisRecordSerializer.builder()
+                        .setType(loadProperties.getProperty(FORMAT_KEY, CSV))
+                        .setFieldNames(meta.getFieldTable())
+                        .setFormatMeta(data.formatMeta)
+                        .setFieldIndexes(data.keynrs)
+                        .setFieldDelimiter(
+                                DelimiterParser.parse(
+                                        DelimiterParser.convertSeparator(property),
+                                        String.valueOf('\u0001')))
+                        .setLogChannelInterface(log)
+                        .setDeletable(options.isDeletable())
+                        .build();
             }
 
-            Properties loadProperties = options.getStreamLoadProp();
-            //builder serializer
-            String property = loadProperties.getProperty(FIELD_DELIMITER_KEY, FIELD_DELIMITER_DEFAULT);
-
-            data.serializer = DorisRecordSerializer.builder()
-                    .setType(loadProperties.getProperty(FORMAT_KEY, CSV))
-                    .setFieldNames(meta.getFieldTable())
-                    .setFormatMeta(data.formatMeta)
-                    .setFieldDelimiter(
-                            DelimiterParser.parse(
-                                    DelimiterParser.convertSeparator(property),
-                                    String.valueOf('\u0001')))
-                    .setLogChannelInterface(log)
-                    .setDeletable(options.isDeletable())
-                    .build();
-
-            //serializer data
-            streamLoad.writeRecord(meta.getDatabase(), meta.getTable(), data.serializer.serialize(row));
+            //serializer data：直接编码进 stream load 缓冲区
+            streamLoad.writeRecord(meta.getDatabase(), meta.getTable(), data.serializer, r);
             putRow(getInputRowMeta(), r);
             incrementLinesOutput();
 
@@ -221,6 +220,7 @@ public class DorisStreamLoader extends BaseStep implements StepInterface {
             }
             options = DorisOptions.builder()
                     .withFenodes(meta.getFenodes())
+                    .withBenodes(getBenodes(meta.getExtConfig()))
                     .withDatabase(meta.getDatabase())
                     .withTable(meta.getTable())
                     .withUsername(meta.getUsername())
@@ -228,6 +228,7 @@ public class DorisStreamLoader extends BaseStep implements StepInterface {
                     .withBufferFlushMaxBytes(meta.getBufferFlushMaxBytes())
                     .withBufferFlushMaxRows(meta.getBufferFlushMaxRows())
                     .withMaxRetries(meta.getMaxRetries())
+                    .withLoadConcurrency(Math.max(1, meta.getLoadConcurrency()))
                     .withStreamLoadProp(streamHeaders)
                     .withDeletable(meta.isDeletable())
                     .withLoadTimeout(meta.getLoadTimeout())
@@ -257,6 +258,25 @@ public class DorisStreamLoader extends BaseStep implements StepInterface {
         return false;
     }
 
+    /**
+     * 数据源扩展配置中的BE地址
+     *
+     * @param extConfig 扩展配置
+     * @return BE地址，未配置返回null
+     */
+    private String getBenodes(String extConfig) {
+        if (StringUtils.isBlank(extConfig)) {
+            return null;
+        }
+        try {
+            JSONObject config = JSON.parseObject(extConfig);
+            return config == null ? null : config.getString(Constants.DATABASE_EXT_CONFIG.BE_ADDRESS);
+        } catch (Exception e) {
+            logDetailed("Unable to parse extConfig: " + e.getMessage());
+            return null;
+        }
+    }
+
     @Override
     public void dispose(StepMetaInterface smi, StepDataInterface sdi) {
         meta = (DorisStreamLoaderMeta) smi;
@@ -63,6 +63,9 @@ public class DorisStreamLoaderMeta extends BaseStepMeta implements StepMetaInter
 
   private int maxRetries;
 
+  // 并发导入线程数
+  private int loadConcurrency;
+
   private boolean deletable;
 
   /** Field name of the target table */
@@ -121,6 +124,7 @@ public class DorisStreamLoaderMeta extends BaseStepMeta implements StepMetaInter
       bufferFlushMaxRows = Long.valueOf(XMLHandler.getTagValue(stepnode, "bufferFlushMaxRows"));
       bufferFlushMaxBytes = Long.valueOf(XMLHandler.getTagValue(stepnode, "bufferFlushMaxBytes"));
       maxRetries = Integer.valueOf(XMLHandler.getTagValue(stepnode, "maxRetries"));
+      loadConcurrency = Const.toInt(XMLHandler.getTagValue(stepnode, "loadConcurrency"), 1);
 
       scanningFrequency = Long.valueOf(XMLHandler.getTagValue(stepnode,"scanningFrequency"));
       connectTimeout = Long.valueOf(XMLHandler.getTagValue(stepnode,"connectTimeout"));
@@ -167,6 +171,7 @@ public class DorisStreamLoaderMeta extends BaseStepMeta implements StepMetaInter
     bufferFlushMaxRows = 10000;
     bufferFlushMaxBytes = 10 * 1024 * 1024;
     maxRetries = 3;
+    loadConcurrency = 1;
 //    streamLoadProp = "format:json;read_json_by_line:true";
     streamLoadProp = "";
     deletable = false;
@@ -197,6 +202,7 @@ public class DorisStreamLoaderMeta extends BaseStepMeta implements StepMetaInter
     retval.append("    ").append(XMLHandler.addTagValue("bufferFlushMaxRows", bufferFlushMaxRows));
     retval.append("    ").append(XMLHandler.addTagValue("bufferFlushMaxBytes", bufferFlushMaxBytes));
     retval.append("    ").append(XMLHandler.addTagValue("maxRetries", maxRetries));
+    retval.append("    ").append(XMLHandler.addTagValue("loadConcurrency", loadConcurrency));
     retval.append("    ").append(XMLHandler.addTagValue("streamLoadProp", streamLoadProp));
     retval.append("    ").append(XMLHandler.addTagValue("deletable", deletable));
     retval.append("    ").append(XMLHandler.addTagValue("scanningFrequency", scanningFrequency));
@@ -239,6 +245,7 @@ public class DorisStreamLoaderMeta extends BaseStepMeta implements StepMetaInter
       bufferFlushMaxRows = rep.getStepAttributeInteger(id_step, "bufferFlushMaxRows");
       bufferFlushMaxBytes = rep.getStepAttributeInteger(id_step, "bufferFlushMaxBytes");
       maxRetries = (int) rep.getStepAttributeInteger(id_step, "maxRetries");
+      loadConcurrency = Math.max(1, (int) rep.getStepAttributeInteger(id_step, "loadConcurrency"));
 
       loadTimeout = rep.getStepAttributeInteger(id_step, "loadTimeout");
       scanningFrequency = rep.getStepAttributeInteger(id_step, "scanningFrequency");
@@ -284,6 +291,7 @@ public class DorisStreamLoaderMeta extends BaseStepMeta implements StepMetaInter
       rep.saveStepAttribute(id_transformation, id_step, "bufferFlushMaxRows", bufferFlushMaxRows);
       rep.saveStepAttribute(id_transformation, id_step, "bufferFlushMaxBytes", bufferFlushMaxBytes);
       rep.saveStepAttribute(id_transformation, id_step, "maxRetries", maxRetries);
+      rep.saveStepAttribute(id_transformation, id_step, "loadConcurrency", loadConcurrency);
       rep.saveStepAttribute(id_transformation, id_step, "deletable", deletable);
 
       rep.saveStepAttribute(id_transformation, id_step, "mergeType", mergeType);
@@ -409,6 +417,14 @@ public class DorisStreamLoaderMeta extends BaseStepMeta implements StepMetaInter
     this.maxRetries = maxRetries;
   }
 
+  public int getLoadConcurrency() {
+    return loadConcurrency;
+  }
+
+  public void setLoadConcurrency(int loadConcurrency) {
+    this.loadConcurrency = loadConcurrency;
+  }
+
   public boolean isDeletable() {
       return deletable;
   }
@@ -530,6 +546,7 @@ public class DorisStreamLoaderMeta extends BaseStepMeta implements StepMetaInter
             ", bufferFlushMaxRows=" + bufferFlushMaxRows +
             ", bufferFlushMaxBytes=" + bufferFlushMaxBytes +
             ", maxRetries=" + maxRetries +
+            ", loadConcurrency=" + loadConcurrency +
             ", deletable=" + deletable +
             ", fieldTable=" + Arrays.toString(fieldTable) +
             ", fieldStream=" + Arrays.toString(fieldStream) +
@@ -22,12 +22,11 @@ import org.apache.http.entity.AbstractHttpEntity;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.List;
 
+/** 直接按块写出 {@link ChunkedByteBuffer}，不经过中间数组；可重复发送以支持重试。 */
 public class BatchBufferHttpEntity extends AbstractHttpEntity {
 
-    protected static final int OUTPUT_BUFFER_SIZE = 4096;
-    private final List<byte[]> buffer;
+    private final ChunkedByteBuffer buffer;
     private final long contentLength;
 
     public BatchBufferHttpEntity(BatchRecordBuffer recordBuffer) {
@@ -52,18 +51,12 @@ public class BatchBufferHttpEntity extends AbstractHttpEntity {
 
     @Override
     public InputStream getContent() {
-        return new BatchBufferStream(buffer);
+        return buffer.newInputStream();
     }
 
     @Override
     public void writeTo(OutputStream outStream) throws IOException {
-        try (InputStream inStream = new BatchBufferStream(buffer)) {
-            final byte[] buffer = new byte[OUTPUT_BUFFER_SIZE];
-            int readLen;
-            while ((readLen = inStream.read(buffer)) != -1) {
-                outStream.write(buffer, 0, readLen);
-            }
-        }
+        buffer.writeTo(outStream);
     }
 
     @Override
@@ -17,13 +17,13 @@
 
 package com.pufferfishscheduler.plugin.load;
 
-import java.util.LinkedList;
+import org.pentaho.di.core.exception.KettleException;
 
-/** buffer to queue. */
+/** buffer to queue. 行数据直接编码进池化的分块缓冲区，load 完成后 clear 归还。 */
 public class BatchRecordBuffer {
     public static final String LINE_SEPARATOR = "\n";
     private String labelName;
-    private LinkedList<byte[]> buffer;
+    private ChunkedByteBuffer buffer;
     private byte[] lineDelimiter;
     private int numOfRecords = 0;
     private long bufferSizeBytes = 0;
@@ -34,7 +34,7 @@ public class BatchRecordBuffer {
     private long retainTime = 0;
 
     public BatchRecordBuffer() {
-        this.buffer = new LinkedList<>();
+        this.buffer = new ChunkedByteBuffer();
     }
 
     public BatchRecordBuffer(String database, String table, byte[] lineDelimiter, long retainTime) {
@@ -42,22 +42,51 @@ public class BatchRecordBuffer {
         this.database = database;
         this.table = table;
         this.lineDelimiter = lineDelimiter;
-        this.buffer = new LinkedList<>();
+        this.buffer = new ChunkedByteBuffer();
         this.retainTime = retainTime;
     }
 
     public int insert(byte[] record) {
-        int recordSize = record.length;
+        long before = this.buffer.size();
+        writeLineDelimiter();
+        this.buffer.write(record);
+        return endRecord(before);
+    }
+
+    /**
+     * 把一行直接编码进缓冲区，不生成中间 byte[]
+     *
+     * @param encoder 行编码器
+     * @param row     行数据
+     * @return 本行占用字节数（含行分隔符）
+     */
+    public int insert(RowEncoder encoder, Object[] row) throws KettleException {
+        long before = this.buffer.size();
+        boolean firstRecord = loadBatchFirstRecord;
+        writeLineDelimiter();
+        try {
+            encoder.encode(row, this.buffer);
+        } catch (KettleException | RuntimeException e) {
+            // 回退已写入的半行，避免 dispose 时 forceFlush 把它发送出去
+            this.buffer.truncate(before);
+            loadBatchFirstRecord = firstRecord;
+            throw e;
+        }
+        return endRecord(before);
+    }
+
+    private void writeLineDelimiter() {
         if (loadBatchFirstRecord) {
             loadBatchFirstRecord = false;
         } else if (lineDelimiter != null) {
-            this.buffer.add(this.lineDelimiter);
-            setBufferSizeBytes(this.bufferSizeBytes + this.lineDelimiter.length);
-            recordSize += this.lineDelimiter.length;
+            this.buffer.write(this.lineDelimiter);
         }
-        this.buffer.add(record);
+    }
+
+    private int endRecord(long before) {
+        int recordSize = (int) (this.buffer.size() - before);
         setNumOfRecords(this.numOfRecords + 1);
-        setBufferSizeBytes(this.bufferSizeBytes + record.length);
+        setBufferSizeBytes(this.bufferSizeBytes + recordSize);
         return recordSize;
     }
 
@@ -75,14 +104,14 @@ public class BatchRecordBuffer {
     }
 
     public void clear() {
-        this.buffer.clear();
+        this.buffer.release();
         this.numOfRecords = 0;
         this.bufferSizeBytes = 0;
         this.labelName = null;
         this.loadBatchFirstRecord = true;
     }
 
-    public LinkedList<byte[]> getBuffer() {
+    public ChunkedByteBuffer getBuffer() {
         return buffer;
     }
 
@@ -0,0 +1,43 @@
+package com.pufferfishscheduler.plugin.load;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 字节块池：{@link ChunkedByteBuffer} 使用的固定大小字节块在 stream load 完成后归还，供下一批复用，避免大批量导入时反复申请大数组。
+ * 池中最多保留 {@link #MAX_POOLED_CHUNKS} 块，超出部分交给 GC。
+ */
+public final class ByteChunkPool {
+
+    /** 单块大小 64KB */
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    /** 最多缓存的块数（64MB） */
+    public static final int MAX_POOLED_CHUNKS = 1024;
+
+    private static final ConcurrentLinkedQueue<byte[]> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
+
+    private ByteChunkPool() {
+    }
+
+    public static byte[] acquire() {
+        byte[] chunk = POOL.poll();
+        if (chunk == null) {
+            return new byte[CHUNK_SIZE];
+        }
+        POOLED.decrementAndGet();
+        return chunk;
+    }
+
+    public static void release(byte[] chunk) {
+        if (chunk == null || chunk.length != CHUNK_SIZE) {
+            return;
+        }
+        if (POOLED.incrementAndGet() > MAX_POOLED_CHUNKS) {
+            POOLED.decrementAndGet();
+            return;
+        }
+        POOL.offer(chunk);
+    }
+}
@@ -0,0 +1,334 @@
+package com.pufferfishscheduler.plugin.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 分块字节缓冲区：序列化结果直接写入池化的固定大小字节块，不为每行生成 byte[]；发送时按块写出。
+ * 非线程安全，写入由步骤线程完成，交给 load 线程后只读。
+ * 合并缓冲区时整块移交，被移交之前的最后一块可能未写满，因此每块的有效长度单独记录。
+ */
+public class ChunkedByteBuffer {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final List<byte[]> chunks = new ArrayList<>();
+
+    /** 除最后一块外各块的有效长度，下标与 chunks 对应 */
+    private int[] limits = new int[16];
+
+    /** 最后一块已写入的长度 */
+    private int position = ByteChunkPool.CHUNK_SIZE;
+
+    private long size;
+
+    private byte[] current;
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void write(int b) {
+        if (position == ByteChunkPool.CHUNK_SIZE) {
+            nextChunk();
+        }
+        current[position++] = (byte) b;
+        size++;
+    }
+
+    public void write(byte[] bytes) {
+        write(bytes, 0, bytes.length);
+    }
+
+    public void write(byte[] bytes, int off, int len) {
+        while (len > 0) {
+            if (position == ByteChunkPool.CHUNK_SIZE) {
+                nextChunk();
+            }
+            int n = Math.min(len, ByteChunkPool.CHUNK_SIZE - position);
+            System.arraycopy(bytes, off, current, position, n);
+            position += n;
+            off += n;
+            len -= n;
+            size += n;
+        }
+    }
+
+    /**
+     * 写入十进制整数，不经过字符串
+     */
+    public void writeLong(long v) {
+        if (v == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        if (v < 0) {
+            write('-');
+            v = -v;
+        }
+        long div = 1;
+        while (div <= v / 10) {
+            div *= 10;
+        }
+        while (div > 0) {
+            write((int) ('0' + v / div));
+            v %= div;
+            div /= 10;
+        }
+    }
+
+    /**
+     * 写入定宽补零的十进制数（日期时间字段）
+     */
+    public void writePadded(int v, int width) {
+        int div = 1;
+        for (int i = 1; i < width; i++) {
+            div *= 10;
+        }
+        while (div > 0) {
+            write('0' + (v / div) % 10);
+            div /= 10;
+        }
+    }
+
+    public void writeAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            write(s.charAt(i));
+        }
+    }
+
+    /**
+     * 按 UTF-8 写入字符串
+     *
+     * @param s          字符串
+     * @param jsonEscape 是否按 JSON 字符串转义（引号、反斜杠、控制字符）
+     */
+    public void writeUtf8(CharSequence s, boolean jsonEscape) {
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                if (jsonEscape && (c < 0x20 || c == '"' || c == '\\')) {
+                    writeJsonEscape(c);
+                } else {
+                    write(c);
+                }
+            } else if (c < 0x800) {
+                write(0xC0 | (c >> 6));
+                write(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                write(0xF0 | (cp >> 18));
+                write(0x80 | ((cp >> 12) & 0x3F));
+                write(0x80 | ((cp >> 6) & 0x3F));
+                write(0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理字符，与 String.getBytes(UTF_8) 一致替换为 '?'
+                write('?');
+            } else {
+                write(0xE0 | (c >> 12));
+                write(0x80 | ((c >> 6) & 0x3F));
+                write(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void writeJsonEscape(char c) {
+        write('\\');
+        switch (c) {
+            case '"':
+                write('"');
+                break;
+            case '\\':
+                write('\\');
+                break;
+            case '\n':
+                write('n');
+                break;
+            case '\r':
+                write('r');
+                break;
+            case '\t':
+                write('t');
+                break;
+            case '\b':
+                write('b');
+                break;
+            case '\f':
+                write('f');
+                break;
+            default:
+                write('u');
+                write('0');
+                write('0');
+                write(HEX[(c >> 4) & 0xF]);
+                write(HEX[c & 0xF]);
+                break;
+        }
+    }
+
+    /**
+     * 把另一个缓冲区的数据移入当前缓冲区，other 随后为空
+     * <p>
+     * other 能放进当前最后一块的剩余空间时直接复制（只有一个未写满的尾块）；否则当前最后一块按已写长度封口，
+     * other 的块整体移入，不复制数据。
+     * </p>
+     */
+    public void transferFrom(ChunkedByteBuffer other) {
+        if (other.isEmpty()) {
+            return;
+        }
+        if (current != null && other.chunks.size() == 1 && other.position <= ByteChunkPool.CHUNK_SIZE - position) {
+            write(other.current, 0, other.position);
+            other.release();
+            return;
+        }
+        if (current != null) {
+            seal(chunks.size() - 1, position);
+        }
+        int base = chunks.size();
+        int otherLast = other.chunks.size() - 1;
+        for (int i = 0; i < otherLast; i++) {
+            seal(base + i, other.limits[i]);
+        }
+        chunks.addAll(other.chunks);
+        current = other.current;
+        position = other.position;
+        size += other.size;
+        other.chunks.clear();
+        other.reset();
+    }
+
+    /**
+     * 截断到指定长度，多余的块归还
+     */
+    public void truncate(long newSize) {
+        if (newSize >= size) {
+            return;
+        }
+        if (newSize == 0) {
+            release();
+            return;
+        }
+        long remove = size - newSize;
+        while (remove >= position) {
+            remove -= position;
+            ByteChunkPool.release(chunks.remove(chunks.size() - 1));
+            int last = chunks.size() - 1;
+            current = chunks.get(last);
+            position = limits[last];
+        }
+        position -= (int) remove;
+        size = newSize;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        for (int i = 0; i < chunks.size(); i++) {
+            out.write(chunks.get(i), 0, limitOf(i));
+        }
+    }
+
+    /**
+     * 复制为数组（调试与兼容旧接口使用）
+     */
+    public byte[] toByteArray() {
+        byte[] result = new byte[(int) size];
+        int off = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            int len = limitOf(i);
+            System.arraycopy(chunks.get(i), 0, result, off, len);
+            off += len;
+        }
+        return result;
+    }
+
+    public InputStream newInputStream() {
+        return new ChunkInputStream();
+    }
+
+    /**
+     * 归还所有块并清空
+     */
+    public void release() {
+        for (byte[] chunk : chunks) {
+            ByteChunkPool.release(chunk);
+        }
+        chunks.clear();
+        reset();
+    }
+
+    private void reset() {
+        current = null;
+        position = ByteChunkPool.CHUNK_SIZE;
+        size = 0;
+    }
+
+    private void nextChunk() {
+        if (current != null) {
+            seal(chunks.size() - 1, position);
+        }
+        current = ByteChunkPool.acquire();
+        chunks.add(current);
+        position = 0;
+    }
+
+    /**
+     * 记录非最后一块的有效长度
+     */
+    private void seal(int index, int limit) {
+        if (index >= limits.length) {
+            limits = Arrays.copyOf(limits, Math.max(limits.length * 2, index + 1));
+        }
+        limits[index] = limit;
+    }
+
+    private int limitOf(int index) {
+        return index == chunks.size() - 1 ? position : limits[index];
+    }
+
+    private class ChunkInputStream extends InputStream {
+        private int chunkIndex;
+        private int chunkPos;
+
+        @Override
+        public int read() {
+            while (chunkIndex < chunks.size()) {
+                if (chunkPos < limitOf(chunkIndex)) {
+                    return chunks.get(chunkIndex)[chunkPos++] & 0xFF;
+                }
+                chunkIndex++;
+                chunkPos = 0;
+            }
+            return -1;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int read = 0;
+            while (read < len && chunkIndex < chunks.size()) {
+                int limit = limitOf(chunkIndex);
+                if (chunkPos == limit) {
+                    chunkIndex++;
+                    chunkPos = 0;
+                    continue;
+                }
+                int n = Math.min(len - read, limit - chunkPos);
+                System.arraycopy(chunks.get(chunkIndex), chunkPos, buf, off + read, n);
+                chunkPos += n;
+                read += n;
+            }
+            return read == 0 ? -1 : read;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import java.net.URL;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Condition;
@@ -46,7 +47,13 @@ import static com.pufferfishscheduler.plugin.load.LoadConstants.*;
 import static com.pufferfishscheduler.plugin.load.LoadStatus.PUBLISH_TIMEOUT;
 import static com.pufferfishscheduler.plugin.load.LoadStatus.SUCCESS;
 
-/** async stream load. */
+/**
+ * async stream load.
+ * <p>
+ * 写入线程只负责把写满的缓冲区无锁移交到 flushQueue，loadConcurrency 个导入线程并发消费，
+ * 每次导入按轮询选择 FE/BE 节点，失败节点退避；同一批次重试始终使用同一个标签，保证幂等。
+ * </p>
+ */
 public class DorisBatchStreamLoad implements Serializable {
     private static final long serialVersionUID = 1L;
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
@@ -57,17 +64,22 @@ public class DorisBatchStreamLoad implements Serializable {
     private final byte[] lineDelimiter;
     private static final String LOAD_URL_PATTERN1 = "http://%s/api/%s/%s/_stream_load";
     private static final String LOAD_URL_PATTERN2 = "%s/api/%s/%s/_stream_load";
-    private String loadUrl;
-    private String hostPort;
+    private static final long RETRY_INTERVAL_MS = 1000L;
+    private static final long MAX_RETRY_INTERVAL_MS = 10 * 1000L;
+    private static final List<String> LABEL_FINISHED_STATUS = Arrays.asList("FINISHED", "VISIBLE", "COMMITTED");
+    private final LoadEndpointSelector endpointSelector;
+    private final int loadConcurrency;
     private final String username;
     private final String password;
     private final Properties loadProps;
     private Map<String, BatchRecordBuffer> bufferMap = new ConcurrentHashMap<>();
     private ExecutorService loadExecutorService;
-    private LoadAsyncExecutor loadAsyncExecutor;
     private BlockingQueue<BatchRecordBuffer> flushQueue;
     private final AtomicBoolean started;
-    private volatile boolean loadThreadAlive = false;
+    // 存活的导入线程数
+    private final AtomicInteger aliveLoadThreads = new AtomicInteger(0);
+    // 已移交但尚未导入完成的批次数
+    private final AtomicInteger pendingLoads = new AtomicInteger(0);
     private AtomicReference<Throwable> exception = new AtomicReference<>(null);
     private HttpClientBuilder httpClientBuilder = new HttpUtil().getHttpClientBuilderForBatch();
     private boolean enableGroupCommit;
@@ -90,7 +102,7 @@ public class DorisBatchStreamLoad implements Serializable {
     public DorisBatchStreamLoad(DorisOptions options, LogChannelInterface log) throws KettleStepException {
         this.log = log;
         this.options = options;
-        this.hostPort = getAvailableHost(options.getFenodes());
+        this.endpointSelector = createEndpointSelector(options);
         this.username = options.getUsername();
         this.password = options.getPassword();
         this.loadProps = options.getStreamLoadProp();
@@ -119,22 +131,26 @@ public class DorisBatchStreamLoad implements Serializable {
                                 .getProperty(GROUP_COMMIT)
                                 .equalsIgnoreCase(GROUP_COMMIT_OFF_MODE);
         this.enableGzCompress = loadProps.getProperty(COMPRESS_TYPE, "").equals(COMPRESS_TYPE_GZ);
-        this.flushQueue = new LinkedBlockingDeque<>(FLUSH_QUEUE_SIZE);
-        // maxBlockedBytes ensures that a buffer can be written even if the queue is full
-        this.maxBlockedBytes = options.getBufferFlushMaxBytes() * (FLUSH_QUEUE_SIZE + 1);
-        this.loadUrl = String.format(isStartWithHttp(hostPort) ? LOAD_URL_PATTERN2 : LOAD_URL_PATTERN1, hostPort, options.getDatabase(), options.getTable());
-        this.loadAsyncExecutor = new LoadAsyncExecutor(FLUSH_QUEUE_SIZE);
+        this.loadConcurrency = Math.max(1, options.getLoadConcurrency());
+        // 写入线程只做无锁移交，内存上限由 currentCacheBytes/maxBlockedBytes 控制
+        this.flushQueue = new LinkedTransferQueue<>();
+        // maxBlockedBytes ensures that a buffer can be written even if all load threads are busy
+        this.maxBlockedBytes = options.getBufferFlushMaxBytes() * (FLUSH_QUEUE_SIZE + loadConcurrency);
+        this.httpClientBuilder.setConnectionTimeToLive(connectTimeout, TimeUnit.MILLISECONDS);
         this.loadExecutorService =
                 new ThreadPoolExecutor(
-                        1,
-                        1,
+                        loadConcurrency,
+                        loadConcurrency,
                         0L,
                         TimeUnit.MILLISECONDS,
-                        new LinkedBlockingQueue<>(1),
+                        new LinkedBlockingQueue<>(loadConcurrency),
                         new DefaultThreadFactory("streamload-executor"),
                         new ThreadPoolExecutor.AbortPolicy());
         this.started = new AtomicBoolean(true);
-        this.loadExecutorService.execute(loadAsyncExecutor);
+        for (int i = 0; i < loadConcurrency; i++) {
+            aliveLoadThreads.incrementAndGet();
+            this.loadExecutorService.execute(new LoadAsyncExecutor(FLUSH_QUEUE_SIZE));
+        }
     }
 
     // 设置异常处理
@@ -142,18 +158,33 @@ public class DorisBatchStreamLoad implements Serializable {
         this.exceptionHandler = exceptionHandler;
     }
 
-    private String getAvailableHost(String fenodes) throws KettleStepException {
-        List<String> nodes =
-                Arrays.stream(fenodes.split(",")).map(String::trim).collect(Collectors.toList());
-        Collections.shuffle(nodes);
-        for (String node : nodes) {
-            if (tryHttpConnection(node)) {
-                return node;
+    /**
+     * 配置了 BE 地址且可连通时直接轮询 BE 导入，否则轮询 FE（由 FE 重定向到 BE）
+     */
+    private LoadEndpointSelector createEndpointSelector(DorisOptions options) throws KettleStepException {
+        if (StringUtils.isNotBlank(options.getBenodes())) {
+            LoadEndpointSelector selector = new LoadEndpointSelector(splitNodes(options.getBenodes()), this::tryHttpConnection);
+            if (selector.probeAny()) {
+                log.logDetailed("stream load to BE " + options.getBenodes() + ", load concurrency " + options.getLoadConcurrency());
+                return selector;
             }
+            log.logBasic("No Doris BE is available, stream load through FE instead");
+        }
+        LoadEndpointSelector selector = new LoadEndpointSelector(splitNodes(options.getFenodes()), this::tryHttpConnection);
+        if (!selector.probeAny()) {
+            String errMsg = "No Doris FE is available, please check configuration";
+            log.logError(errMsg);
+            throw new KettleStepException(errMsg);
         }
-        String errMsg = "No Doris FE is available, please check configuration";
-        log.logError(errMsg);
-        throw new KettleStepException(errMsg);
+        log.logDetailed("stream load to FE " + options.getFenodes() + ", load concurrency " + options.getLoadConcurrency());
+        return selector;
+    }
+
+    private List<String> splitNodes(String nodes) {
+        return Arrays.stream(nodes.split(","))
+                .map(String::trim)
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toList());
     }
 
     public boolean tryHttpConnection(String host) {
@@ -197,17 +228,44 @@ public class DorisBatchStreamLoad implements Serializable {
     public void writeRecord(String database, String table, byte[] record) throws KettleStepException {
         checkFlushException();
         String bufferKey = getTableIdentifier(database, table);
-        BatchRecordBuffer buffer =
-                bufferMap.computeIfAbsent(
-                        bufferKey,
-                        k ->
-                                new BatchRecordBuffer(
-                                        database,
-                                        table,
-                                        this.lineDelimiter,
-                                        1000));
-
-        int bytes = buffer.insert(record);
+        BatchRecordBuffer buffer = getOrCreateBuffer(bufferKey, database, table);
+        afterInsert(bufferKey, buffer, buffer.insert(record));
+    }
+
+    /**
+     * write record into cache, encoding it directly into the buffer chunks.
+     *
+     * @param encoder row encoder
+     * @param row     input row
+     */
+    public void writeRecord(String database, String table, RowEncoder encoder, Object[] row)
+            throws KettleStepException {
+        checkFlushException();
+        String bufferKey = getTableIdentifier(database, table);
+        BatchRecordBuffer buffer = getOrCreateBuffer(bufferKey, database, table);
+        int bytes;
+        try {
+            bytes = buffer.insert(encoder, row);
+        } catch (KettleStepException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new KettleStepException(e);
+        }
+        afterInsert(bufferKey, buffer, bytes);
+    }
+
+    private BatchRecordBuffer getOrCreateBuffer(String bufferKey, String database, String table) {
+        return bufferMap.computeIfAbsent(
+                bufferKey,
+                k ->
+                        new BatchRecordBuffer(
+                                database,
+                                table,
+                                this.lineDelimiter,
+                                1000));
+    }
+
+    private void afterInsert(String bufferKey, BatchRecordBuffer buffer, int bytes) throws KettleStepException {
         currentCacheBytes.addAndGet(bytes);
         if (currentCacheBytes.get() > maxBlockedBytes) {
             lock.lock();
@@ -227,8 +285,8 @@ public class DorisBatchStreamLoad implements Serializable {
             }
         }
 
-        // queue has space, flush according to the bufferMaxRows/bufferMaxBytes
-        if (flushQueue.size() < FLUSH_QUEUE_SIZE
+        // load threads have capacity, flush according to the bufferMaxRows/bufferMaxBytes
+        if (hasLoadCapacity()
                 && (buffer.getBufferSizeBytes() >= options.getBufferFlushMaxBytes()
                         || buffer.getNumOfRecords() >= options.getBufferFlushMaxRows())) {
             boolean flush = bufferFullFlush(bufferKey);
@@ -242,6 +300,10 @@ public class DorisBatchStreamLoad implements Serializable {
         }
     }
 
+    private boolean hasLoadCapacity() {
+        return pendingLoads.get() < FLUSH_QUEUE_SIZE + loadConcurrency;
+    }
+
     public boolean bufferFullFlush(String bufferKey) throws KettleStepException {
         return doFlush(bufferKey, false, true);
     }
@@ -254,20 +316,20 @@ public class DorisBatchStreamLoad implements Serializable {
         return doFlush(null, true, false);
     }
 
-    private synchronized boolean doFlush(
+    private boolean doFlush(
             String bufferKey, boolean waitUtilDone, boolean bufferFull) throws KettleStepException {
         checkFlushException();
         if (waitUtilDone || bufferFull) {
             boolean flush = flush(bufferKey, waitUtilDone);
             return flush;
-        } else if (flushQueue.size() < FLUSH_QUEUE_SIZE) {
+        } else if (hasLoadCapacity()) {
             boolean flush = flush(bufferKey, false);
             return flush;
         }
         return false;
     }
 
-    private synchronized boolean flush(String bufferKey, boolean waitUtilDone) throws KettleStepException {
+    private boolean flush(String bufferKey, boolean waitUtilDone) throws KettleStepException {
         if (bufferMap.isEmpty()) {
             // bufferMap may have been flushed by other threads
             return false;
@@ -276,7 +338,7 @@ public class DorisBatchStreamLoad implements Serializable {
             boolean flush = false;
             for (String key : bufferMap.keySet()) {
                 BatchRecordBuffer buffer = bufferMap.get(key);
-                if (waitUtilDone || buffer.shouldFlush()) {
+                if (buffer != null && (waitUtilDone || buffer.shouldFlush())) {
                     // Ensure that the interval satisfies intervalMS
                     flushBuffer(key);
                     flush = true;
@@ -296,25 +358,26 @@ public class DorisBatchStreamLoad implements Serializable {
         return true;
     }
 
-    private synchronized void flushBuffer(String bufferKey) throws KettleStepException {
-        BatchRecordBuffer buffer = bufferMap.get(bufferKey);
+    private void flushBuffer(String bufferKey) throws KettleStepException {
+        // 先从 bufferMap 原子摘除再移交，之后写入的数据进入新的缓冲区
+        BatchRecordBuffer buffer = bufferMap.remove(bufferKey);
+        if (buffer == null) {
+            return;
+        }
         String label = String.format("%s_%s_%s", "kettle", buffer.getTable(), UUID.randomUUID());
         buffer.setLabelName(label);
         log.logDetailed("Flush buffer, table " + bufferKey + ", records " + buffer.getNumOfRecords());
         putRecordToFlushQueue(buffer);
-        bufferMap.remove(bufferKey);
     }
 
     private void putRecordToFlushQueue(BatchRecordBuffer buffer) throws KettleStepException {
         checkFlushException();
-        if (!loadThreadAlive) {
+        if (!isLoadThreadAlive()) {
             throw new KettleStepException("load thread already exit, write was interrupted");
         }
-        try {
-            flushQueue.put(buffer);
-        } catch (InterruptedException e) {
-            throw new KettleStepException("Failed to put record buffer to flush queue");
-        }
+        pendingLoads.incrementAndGet();
+        // 无界无锁队列，有空闲导入线程时直接移交
+        flushQueue.offer(buffer);
     }
 
     private void checkFlushException() throws KettleStepException {
@@ -324,11 +387,34 @@ public class DorisBatchStreamLoad implements Serializable {
     }
 
     private void waitAsyncLoadFinish() throws KettleStepException {
-        // Because the flush thread will drainTo once after polling is completed
-        // if queue_size is 2, at least 4 empty queues must be consumed to ensure that flush has been completed
-        for (int i = 0; i < FLUSH_QUEUE_SIZE * 2; i++) {
-            BatchRecordBuffer empty = new BatchRecordBuffer();
-            putRecordToFlushQueue(empty);
+        lock.lock();
+        try {
+            while (pendingLoads.get() > 0) {
+                checkFlushException();
+                if (!isLoadThreadAlive()) {
+                    throw new KettleStepException("load thread already exit, write was interrupted");
+                }
+                block.await(1, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KettleStepException("Interrupted while waiting for stream load to finish", e);
+        } finally {
+            lock.unlock();
+        }
+        checkFlushException();
+    }
+
+    /**
+     * 批次导入结束（成功或放弃），唤醒等待缓存空间或等待导入完成的写入线程
+     */
+    private void onLoadFinished(int batches) {
+        pendingLoads.addAndGet(-batches);
+        lock.lock();
+        try {
+            block.signalAll();
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -338,8 +424,8 @@ public class DorisBatchStreamLoad implements Serializable {
 
     public void close() {
         // close async executor
-        this.loadExecutorService.shutdown();
         this.started.set(false);
+        this.loadExecutorService.shutdown();
         // clear buffer
         this.flushQueue.clear();
     }
@@ -378,12 +464,13 @@ public class DorisBatchStreamLoad implements Serializable {
             return false;
         }
         if (!mergeBuffer.getBuffer().isEmpty()) {
-            mergeBuffer.getBuffer().add(mergeBuffer.getLineDelimiter());
+            mergeBuffer.getBuffer().write(mergeBuffer.getLineDelimiter());
             mergeBuffer.setBufferSizeBytes(
                     mergeBuffer.getBufferSizeBytes() + mergeBuffer.getLineDelimiter().length);
             currentCacheBytes.addAndGet(buffer.getLineDelimiter().length);
         }
-        mergeBuffer.getBuffer().addAll(buffer.getBuffer());
+        // 块整体移交，不复制数据
+        mergeBuffer.getBuffer().transferFrom(buffer.getBuffer());
         mergeBuffer.setNumOfRecords(mergeBuffer.getNumOfRecords() + buffer.getNumOfRecords());
         mergeBuffer.setBufferSizeBytes(
                 mergeBuffer.getBufferSizeBytes() + buffer.getBufferSizeBytes());
@@ -401,51 +488,58 @@ public class DorisBatchStreamLoad implements Serializable {
         @Override
         public void run() {
             log.logDetailed("LoadAsyncExecutor start");
-            loadThreadAlive = true;
             List<BatchRecordBuffer> recordList = new ArrayList<>(flushQueueSize);
-            while (started.get()) {
-                recordList.clear();
-                try {
-                    BatchRecordBuffer buffer = flushQueue.poll(2000L, TimeUnit.MILLISECONDS);
-                    if (buffer == null || buffer.getLabelName() == null) {
-                        // label is empty and does not need to load. It is the flag of waitUtilDone
+            try {
+                while (started.get()) {
+                    recordList.clear();
+                    BatchRecordBuffer buffer;
+                    try {
+                        buffer = flushQueue.poll(2000L, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    if (buffer == null) {
                         continue;
                     }
                     recordList.add(buffer);
-                    boolean merge = false;
-                    if (!flushQueue.isEmpty()) {
-                        flushQueue.drainTo(recordList, flushQueueSize - 1);
-                        if (mergeBuffer(recordList, buffer)) {
-                            // 加载数据
+                    try {
+                        // 单线程导入时合并排队的批次；多线程时各线程各取一批，保持并发
+                        if (loadConcurrency == 1 && !flushQueue.isEmpty()) {
+                            flushQueue.drainTo(recordList, flushQueueSize - 1);
+                        }
+                        if (recordList.size() > 1 && mergeBuffer(recordList, buffer)) {
                             load(buffer.getLabelName(), buffer);
-                            merge = true;
+                        } else {
+                            for (BatchRecordBuffer bf : recordList) {
+                                if (bf == null || bf.getLabelName() == null) {
+                                    continue;
+                                }
+                                load(bf.getLabelName(), bf);
+                            }
                         }
-                    }
+                    } catch (Exception e) {
+                        log.logError("worker running error", e);
+                        exception.compareAndSet(null, e);
 
-                    if (!merge) {
-                        for (BatchRecordBuffer bf : recordList) {
-                            if (bf == null || bf.getLabelName() == null) {
-                                continue;
-                            }
-                            load(bf.getLabelName(), bf);
+                        asyncException = e;
+                        if (exceptionHandler != null) {
+                            exceptionHandler.accept(e); // 触发回调
                         }
-                    }
-                } catch (Exception e) {
-                    log.logError("worker running error", e);
-                    exception.set(e);
 
-                    asyncException = e;
-                    if (exceptionHandler != null) {
-                        exceptionHandler.accept(e); // 触发回调
+                        // 停止所有导入线程，并清空队列避免写入线程阻塞
+                        started.set(false);
+                        flushQueue.clear();
+                        break;
+                    } finally {
+                        onLoadFinished(recordList.size());
                     }
-
-                    // clear queue to avoid writer thread blocking
-                    flushQueue.clear();
-                    break;
                 }
+            } finally {
+                log.logDetailed("LoadAsyncExecutor stop");
+                aliveLoadThreads.decrementAndGet();
+                onLoadFinished(0);
             }
-            log.logDetailed("LoadAsyncExecutor stop");
-            loadThreadAlive = false;
         }
 
         /** execute stream load. */
@@ -453,13 +547,11 @@ public class DorisBatchStreamLoad implements Serializable {
             if (enableGroupCommit) {
                 label = null;
             }
-            refreshLoadUrl(buffer.getDatabase(), buffer.getTable());
 
             BatchBufferHttpEntity entity = new BatchBufferHttpEntity(buffer);
             HttpPutBuilder putBuilder = new HttpPutBuilder();
 
             putBuilder
-                    .setUrl(loadUrl)
                     .baseAuth(username, password)
                     .setLabel(label)
                     .addCommonHeader()
@@ -472,43 +564,40 @@ public class DorisBatchStreamLoad implements Serializable {
             }
             int retry = 0;
             Throwable lastException = null;
-            while (retry <= options.getMaxRetries()) {
-                if (enableGroupCommit) {
-                    log.logDetailed("stream load started with group commit on host " + hostPort);
-                } else {
-                    log.logDetailed("stream load started for " + putBuilder.getLabel() + " on host " + hostPort);
-                }
-
-                // 设置超时时间
-                httpClientBuilder.setConnectionTimeToLive(connectTimeout,TimeUnit.MILLISECONDS);
+            try (CloseableHttpClient httpClient = httpClientBuilder.build()) {
+                while (retry <= options.getMaxRetries()) {
+                    // 每次尝试重新选择节点，重试时标签不变
+                    LoadEndpointSelector.Endpoint endpoint = endpointSelector.select();
+                    String host = endpoint.getHost();
+                    putBuilder.setUrl(buildLoadUrl(host, buffer.getDatabase(), buffer.getTable()));
+                    if (enableGroupCommit) {
+                        log.logDetailed("stream load started with group commit on host " + host);
+                    } else {
+                        log.logDetailed("stream load started for " + putBuilder.getLabel() + " on host " + host);
+                    }
 
-                try (CloseableHttpClient httpClient = httpClientBuilder.build()) {
                     try (CloseableHttpResponse response = httpClient.execute(putBuilder.build())) {
                         int statusCode = response.getStatusLine().getStatusCode();
                         String reason = response.getStatusLine().toString();
                         if (statusCode == 200 && response.getEntity() != null) {
+                            endpointSelector.markSuccess(endpoint);
                             String loadResult = EntityUtils.toString(response.getEntity());
                             log.logDetailed("load Result " + loadResult);
                             RespContent respContent =
                                     OBJECT_MAPPER.readValue(loadResult, RespContent.class);
                             if (DORIS_SUCCESS_STATUS.contains(respContent.getStatus())) {
-                                long cacheByteBeforeFlush =
-                                        currentCacheBytes.getAndAdd(-respContent.getLoadBytes());
-                                log.logDetailed("load success, cacheBeforeFlushBytes: " + cacheByteBeforeFlush + ", currentCacheBytes : " + currentCacheBytes.get());
-                                // 上锁
-                                lock.lock();
-                                try {
-                                    // 唤醒等待线程
-                                    block.signal();
-                                } finally {
-                                    // 开锁
-                                    lock.unlock();
-                                }
+                                loadSuccess(buffer);
                                 return;
                             } else if (LoadStatus.LABEL_ALREADY_EXIST.equals(
                                     respContent.getStatus())) {
-                                // todo: need to abort transaction when JobStatus not finished
-                                putBuilder.setLabel(label + "_" + retry);
+                                // 上一次尝试实际已提交（如响应超时），按成功处理，避免换标签重复导入
+                                if (LABEL_FINISHED_STATUS.contains(respContent.getExistingJobStatus())) {
+                                    log.logDetailed("label " + label + " already loaded, job status "
+                                            + respContent.getExistingJobStatus());
+                                    loadSuccess(buffer);
+                                    return;
+                                }
+                                // 同标签的导入仍在进行，等待后以同一标签重试
                                 reason = respContent.getMessage();
                             } else {
                                 String errMsg = StringUtils.isBlank(respContent.getMessage()) &&
@@ -519,13 +608,20 @@ public class DorisBatchStreamLoad implements Serializable {
 
                                 throw new KettleStepException(errMsg);
                             }
+                        } else {
+                            endpointSelector.markFailure(endpoint);
                         }
                         log.logError(String.format("stream load failed with %s, reason %s, to retry",
-                                hostPort, reason));
+                                host, reason));
                         lastException = new KettleStepException("stream load failed with: " + reason);
+                    } catch (IOException ex) {
+                        // 连接/读写失败，节点进入退避
+                        endpointSelector.markFailure(endpoint);
+                        lastException = ex;
+                        log.logError("stream load error with " + host + ", to retry, cause by", ex);
                     } catch (Exception ex) {
                         lastException = ex;
-                        log.logError("stream load error with " + hostPort + ", to retry, cause by", ex);
+                        log.logError("stream load error with " + host + ", to retry, cause by", ex);
                     }
 
                     retry++;
@@ -538,16 +634,31 @@ public class DorisBatchStreamLoad implements Serializable {
                                 options.getMaxRetries() + ")", lastException);
                     }
 
-                    // get available backend retry
-                    refreshLoadUrl(buffer.getDatabase(), buffer.getTable());
-                    putBuilder.setUrl(loadUrl);
+                    sleepBeforeRetry(retry);
                 }
             }
         }
 
-        private void refreshLoadUrl(String database, String table) throws KettleStepException {
-            hostPort = getAvailableHost(options.getFenodes());
-            loadUrl = String.format(isStartWithHttp(hostPort) ? LOAD_URL_PATTERN2 : LOAD_URL_PATTERN1, hostPort, database, table);
+        private void loadSuccess(BatchRecordBuffer buffer) {
+            // 按缓冲区实际计入的字节数回收，与写入时的累加保持一致
+            long cacheByteBeforeFlush =
+                    currentCacheBytes.getAndAdd(-buffer.getBufferSizeBytes());
+            log.logDetailed("load success, cacheBeforeFlushBytes: " + cacheByteBeforeFlush + ", currentCacheBytes : " + currentCacheBytes.get());
+            // 归还缓冲块供后续批次复用
+            buffer.clear();
+        }
+
+        private void sleepBeforeRetry(int retry) throws KettleStepException {
+            try {
+                Thread.sleep(Math.min(RETRY_INTERVAL_MS * retry, MAX_RETRY_INTERVAL_MS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new KettleStepException("Interrupted while waiting to retry stream load", e);
+            }
+        }
+
+        private String buildLoadUrl(String host, String database, String table) {
+            return String.format(isStartWithHttp(host) ? LOAD_URL_PATTERN2 : LOAD_URL_PATTERN1, host, database, table);
         }
     }
 
@@ -578,6 +689,6 @@ public class DorisBatchStreamLoad implements Serializable {
     }
 
     public boolean isLoadThreadAlive() {
-        return loadThreadAlive;
+        return aliveLoadThreads.get() > 0;
     }
 }
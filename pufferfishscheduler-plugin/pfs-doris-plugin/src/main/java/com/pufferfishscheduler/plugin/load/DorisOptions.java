@@ -25,8 +25,11 @@ public class DorisOptions {
     public static final int DEFAULT_BUFFER_FLUSH_MAX_BYTES = 100 * 1024 * 1024;
     public static final int DEFAULT_BUFFER_FLUSH_MAX_ROWS = 50000;
     public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final int DEFAULT_LOAD_CONCURRENCY = 1;
 
     private String fenodes;
+    // BE http地址，配置后直接轮询BE导入，不经过FE重定向
+    private String benodes;
     private String username;
     private String password;
     private String database;
@@ -35,6 +38,7 @@ public class DorisOptions {
     private long bufferFlushMaxBytes;
     private Properties streamLoadProp;
     private int maxRetries;
+    private int loadConcurrency;
     private boolean deletable;
 
     private long scanningFrequency;
@@ -42,7 +46,12 @@ public class DorisOptions {
     private long loadTimeout;
 
     public DorisOptions(String fenodes, String username, String password, String database, String table, long bufferFlushMaxRows, long bufferFlushMaxBytes, Properties streamLoadProp, int maxRetries, boolean deletable, long scanningFrequency, long connectTimeout, long loadTimeout) {
+        this(fenodes, null, username, password, database, table, bufferFlushMaxRows, bufferFlushMaxBytes, streamLoadProp, maxRetries, DEFAULT_LOAD_CONCURRENCY, deletable, scanningFrequency, connectTimeout, loadTimeout);
+    }
+
+    public DorisOptions(String fenodes, String benodes, String username, String password, String database, String table, long bufferFlushMaxRows, long bufferFlushMaxBytes, Properties streamLoadProp, int maxRetries, int loadConcurrency, boolean deletable, long scanningFrequency, long connectTimeout, long loadTimeout) {
         this.fenodes = fenodes;
+        this.benodes = benodes;
         this.username = username;
         this.password = password;
         this.database = database;
@@ -51,6 +60,7 @@ public class DorisOptions {
         this.bufferFlushMaxBytes = bufferFlushMaxBytes;
         this.streamLoadProp = streamLoadProp;
         this.maxRetries = maxRetries;
+        this.loadConcurrency = loadConcurrency;
         this.deletable = deletable;
         this.scanningFrequency = scanningFrequency;
         this.connectTimeout = connectTimeout;
@@ -61,6 +71,10 @@ public class DorisOptions {
         return fenodes;
     }
 
+    public String getBenodes() {
+        return benodes;
+    }
+
     public String getUsername() {
         return username;
     }
@@ -93,6 +107,10 @@ public class DorisOptions {
         return maxRetries;
     }
 
+    public int getLoadConcurrency() {
+        return loadConcurrency;
+    }
+
     public boolean isDeletable() {
         return deletable;
     }
@@ -113,6 +131,7 @@ public class DorisOptions {
     public String toString() {
         return "DorisOptions{" +
                 "fenodes='" + fenodes + '\'' +
+                ", benodes='" + benodes + '\'' +
                 ", username='" + username + '\'' +
                 ", password='" + password + '\'' +
                 ", database='" + database + '\'' +
@@ -121,6 +140,7 @@ public class DorisOptions {
                 ", bufferFlushMaxBytes=" + bufferFlushMaxBytes +
                 ", streamLoadProp=" + streamLoadProp +
                 ", maxRetries=" + maxRetries +
+                ", loadConcurrency=" + loadConcurrency +
                 ", deletable=" + deletable +
                 ", scanningFrequency=" + scanningFrequency +
                 ", connectTimeout=" + connectTimeout +
@@ -134,6 +154,7 @@ public class DorisOptions {
 
     public static class Builder {
         private String fenodes;
+        private String benodes;
         private String username;
         private String password;
         private String database;
@@ -141,6 +162,7 @@ public class DorisOptions {
         private long bufferFlushMaxRows = DEFAULT_BUFFER_FLUSH_MAX_ROWS;
         private long bufferFlushMaxBytes = DEFAULT_BUFFER_FLUSH_MAX_BYTES;
         private int maxRetries = DEFAULT_MAX_RETRIES;
+        private int loadConcurrency = DEFAULT_LOAD_CONCURRENCY;
         private Properties streamLoadProp = new Properties();
         private boolean deletable = false;
 
@@ -153,6 +175,11 @@ public class DorisOptions {
             return this;
         }
 
+        public Builder withBenodes(String benodes) {
+            this.benodes = benodes;
+            return this;
+        }
+
         public Builder withUsername(String username) {
             this.username = username;
             return this;
@@ -193,6 +220,11 @@ public class DorisOptions {
             return this;
         }
 
+        public Builder withLoadConcurrency(int loadConcurrency) {
+            this.loadConcurrency = loadConcurrency;
+            return this;
+        }
+
         public Builder withDeletable(boolean deletable) {
             this.deletable = deletable;
             return this;
@@ -222,11 +254,12 @@ public class DorisOptions {
             Preconditions.checkArgument(bufferFlushMaxRows >= 1000, "最大批次记录数不能小于1000!");
             Preconditions.checkArgument(bufferFlushMaxBytes >= 10 * 1024 * 1024, "一次导入最大量不能小于10MB!");
             Preconditions.checkArgument(maxRetries >= 0, "重试次数不能小于等于0!");
+            Preconditions.checkArgument(loadConcurrency >= 1, "并发导入线程数不能小于1!");
 
             Preconditions.checkArgument(scanningFrequency >= 0, "刷新频率不能小于等于0毫秒!");
             Preconditions.checkArgument(loadTimeout >= 0, "Stream Load载入数据超时时间不能小于等于0秒!");
             Preconditions.checkArgument(connectTimeout >= 0, "连接超时时间不能小于等于0秒!");
-            return new DorisOptions(fenodes, username, password, database, table, bufferFlushMaxRows, bufferFlushMaxBytes, streamLoadProp, maxRetries, deletable, scanningFrequency,connectTimeout,loadTimeout);
+            return new DorisOptions(fenodes, benodes, username, password, database, table, bufferFlushMaxRows, bufferFlushMaxBytes, streamLoadProp, maxRetries, loadConcurrency, deletable, scanningFrequency,connectTimeout,loadTimeout);
         }
     }
 }
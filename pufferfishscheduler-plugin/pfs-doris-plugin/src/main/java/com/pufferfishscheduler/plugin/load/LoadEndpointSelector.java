@@ -0,0 +1,159 @@
+package com.pufferfishscheduler.plugin.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Stream Load 导入节点选择：在多个 FE/BE 节点间轮询，多个导入线程同时选择时互不加锁。
+ * 导入失败的节点按失败次数指数退避，退避期间不参与轮询；退避结束后由一个线程先探活，探活通过才重新使用。
+ * 所有节点都在退避中时选择最早结束退避的节点，由调用方的重试次数兜底。
+ */
+public class LoadEndpointSelector {
+
+    private static final long INITIAL_BACKOFF_MS = 1000L;
+    private static final long MAX_BACKOFF_MS = 60 * 1000L;
+
+    private final List<Endpoint> endpoints;
+
+    private final Predicate<String> healthCheck;
+
+    private final LongSupplier clock;
+
+    /**
+     * 轮询游标，初始值随机，使多个步骤副本从不同节点开始
+     */
+    private final AtomicInteger next;
+
+    public LoadEndpointSelector(List<String> hosts, Predicate<String> healthCheck) {
+        this(hosts, healthCheck, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock 毫秒时钟，测试时可替换以控制退避时间
+     */
+    LoadEndpointSelector(List<String> hosts, Predicate<String> healthCheck, LongSupplier clock) {
+        List<Endpoint> list = new ArrayList<>(hosts.size());
+        for (String host : hosts) {
+            list.add(new Endpoint(host));
+        }
+        this.endpoints = Collections.unmodifiableList(list);
+        this.healthCheck = healthCheck;
+        this.clock = clock;
+        this.next = new AtomicInteger(list.isEmpty() ? 0 : ThreadLocalRandom.current().nextInt(list.size()));
+    }
+
+    /**
+     * 启动时探活：按随机顺序探测，找到一个可用节点即返回，不可用的节点进入退避
+     *
+     * @return 是否存在可用节点
+     */
+    public boolean probeAny() {
+        List<Endpoint> shuffled = new ArrayList<>(endpoints);
+        Collections.shuffle(shuffled);
+        for (Endpoint endpoint : shuffled) {
+            if (healthCheck.test(endpoint.host)) {
+                endpoint.markSuccess();
+                return true;
+            }
+            endpoint.markFailure(clock.getAsLong());
+        }
+        return false;
+    }
+
+    /**
+     * 选择下一个导入节点
+     */
+    public Endpoint select() {
+        int size = endpoints.size();
+        long now = clock.getAsLong();
+        for (int i = 0; i < size; i++) {
+            Endpoint endpoint = endpoints.get(Math.floorMod(next.getAndIncrement(), size));
+            if (endpoint.isHealthy()) {
+                return endpoint;
+            }
+            if (endpoint.retryAt <= now && endpoint.probing.compareAndSet(false, true)) {
+                // 退避结束，由抢到探活标记的线程探测，其余线程继续轮询其他节点
+                try {
+                    if (healthCheck.test(endpoint.host)) {
+                        endpoint.markSuccess();
+                        return endpoint;
+                    }
+                    endpoint.markFailure(now);
+                } finally {
+                    endpoint.probing.set(false);
+                }
+            }
+        }
+        Endpoint earliest = endpoints.get(0);
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.retryAt < earliest.retryAt) {
+                earliest = endpoint;
+            }
+        }
+        return earliest;
+    }
+
+    /**
+     * 导入成功，清除退避
+     */
+    public void markSuccess(Endpoint endpoint) {
+        endpoint.markSuccess();
+    }
+
+    /**
+     * 连接失败或节点返回非 200，节点进入退避
+     */
+    public void markFailure(Endpoint endpoint) {
+        endpoint.markFailure(clock.getAsLong());
+    }
+
+    public int size() {
+        return endpoints.size();
+    }
+
+    public static final class Endpoint {
+        private final String host;
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private final AtomicBoolean probing = new AtomicBoolean(false);
+
+        /**
+         * 退避结束时间，0 表示节点健康
+         */
+        private volatile long retryAt;
+
+        private Endpoint(String host) {
+            this.host = host;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        private boolean isHealthy() {
+            return retryAt == 0;
+        }
+
+        private void markSuccess() {
+            failures.set(0);
+            retryAt = 0;
+        }
+
+        private void markFailure(long now) {
+            int times = Math.min(failures.incrementAndGet(), 16);
+            retryAt = now + Math.min(INITIAL_BACKOFF_MS << (times - 1), MAX_BACKOFF_MS);
+        }
+
+        @Override
+        public String toString() {
+            return host;
+        }
+    }
+}
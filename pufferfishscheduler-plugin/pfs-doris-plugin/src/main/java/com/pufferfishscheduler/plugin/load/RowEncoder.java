@@ -0,0 +1,18 @@
+package com.pufferfishscheduler.plugin.load;
+
+import org.pentaho.di.core.exception.KettleException;
+
+/**
+ * 行编码器：把一行数据直接编码到 {@link ChunkedByteBuffer}
+ */
+public interface RowEncoder {
+
+    /**
+     * 编码一行
+     *
+     * @param row 行数据
+     * @param out 输出缓冲区
+     * @throws KettleException 编码失败
+     */
+    void encode(Object[] row, ChunkedByteBuffer out) throws KettleException;
+}
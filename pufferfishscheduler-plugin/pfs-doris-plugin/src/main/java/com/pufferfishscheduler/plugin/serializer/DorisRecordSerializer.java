@@ -1,32 +1,73 @@
 package com.pufferfishscheduler.plugin.serializer;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Preconditions;
+import com.pufferfishscheduler.plugin.load.ChunkedByteBuffer;
 import com.pufferfishscheduler.plugin.load.EscapeHandler;
 import com.pufferfishscheduler.plugin.load.LoadConstants;
+import com.pufferfishscheduler.plugin.load.RowEncoder;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 
-import java.io.IOException;
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
-import java.util.*;
+import java.util.Calendar;
+import java.util.Date;
 
 
-/** Serializer for RowData. */
-public class DorisRecordSerializer {
+/**
+ * Serializer for RowData.
+ * <p>
+ * 直接把 Object[] 编码为 CSV/JSON 写入 {@link ChunkedByteBuffer}：字段名前缀、分隔符、空值等在构建时预先编码为字节，
+ * 整数、日期逐位写出，字符串按 UTF-8 编码时同时完成 JSON 转义，每行不再创建 Map、装箱对象、中间字符串与 byte[]。
+ * 输出格式与原实现一致：JSON 值均为字符串（空值为 null），日期按 java.sql.Date/Timestamp 的 toString 格式。
+ * 非线程安全，每个步骤副本使用独立实例。
+ * </p>
+ */
+public class DorisRecordSerializer implements RowEncoder {
+    private static final byte[] TRUE_BYTES = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE_BYTES = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JSON_NULL_BYTES = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CSV_NULL_BYTES = LoadConstants.NULL_VALUE.getBytes(StandardCharsets.UTF_8);
+
     String[] fieldNames;
     String type;
-    private ObjectMapper objectMapper;
     private final String fieldDelimiter;
     private final ValueMetaInterface[] formatMeta;
     private LogChannelInterface log;
     private final boolean deletable;
 
+    /**
+     * 字段在输入行中的下标，为空时按位置取值
+     */
+    private final int[] fieldIndexes;
+
+    private final boolean json;
+
+    /**
+     * JSON：每个字段的 {"name": / ,"name": 前缀；CSV：不使用
+     */
+    private final byte[][] jsonPrefixes;
+
+    private final byte[] delimiterBytes;
+
+    /**
+     * 删除标记后缀
+     */
+    private final byte[] deleteSuffix;
+
+    private final Calendar calendar = Calendar.getInstance();
+
+    /**
+     * serialize() 与行级日志使用的临时缓冲区
+     */
+    private final ChunkedByteBuffer scratch = new ChunkedByteBuffer();
+
     private DorisRecordSerializer(
             String[] fieldNames,
             ValueMetaInterface[] formatMeta,
+            int[] fieldIndexes,
             String type,
             String fieldDelimiter,
             LogChannelInterface log,
@@ -34,115 +75,253 @@ public class DorisRecordSerializer {
         this.fieldNames = fieldNames;
         this.type = type;
         this.fieldDelimiter = fieldDelimiter;
-        if (LoadConstants.JSON.equals(type)) {
-            objectMapper = new ObjectMapper();
-        }
         this.formatMeta = formatMeta;
+        this.fieldIndexes = fieldIndexes;
         this.log = log;
         this.deletable = deletable;
-    }
 
-
-    public byte[] serialize(Object[] record) throws IOException, KettleException {
-        int maxIndex = Math.min(record.length, fieldNames.length);
-        String valString;
         if (LoadConstants.JSON.equals(type)) {
-            valString = buildJsonString(record, maxIndex);
+            this.json = true;
+            this.jsonPrefixes = new byte[fieldNames.length][];
+            for (int i = 0; i < fieldNames.length; i++) {
+                this.jsonPrefixes[i] = ((i == 0 ? "{" : ",") + "\"" + escapeJson(fieldNames[i]) + "\":")
+                        .getBytes(StandardCharsets.UTF_8);
+            }
+            this.delimiterBytes = null;
+            this.deleteSuffix = (",\"" + LoadConstants.DORIS_DELETE_SIGN + "\":\"1\"")
+                    .getBytes(StandardCharsets.UTF_8);
         } else if (LoadConstants.CSV.equals(type)) {
-            valString = buildCSVString(record, maxIndex);
+            this.json = false;
+            this.jsonPrefixes = null;
+            this.delimiterBytes = fieldDelimiter.getBytes(StandardCharsets.UTF_8);
+            this.deleteSuffix = (fieldDelimiter + "1").getBytes(StandardCharsets.UTF_8);
         } else {
             throw new IllegalArgumentException("The type " + type + " is not supported!");
         }
-        log.logRowlevel("Serialized record: " + valString);
-        return valString.getBytes(StandardCharsets.UTF_8);
     }
 
-
-    public String buildJsonString(Object[] record, int maxIndex) throws IOException, KettleException {
-        int fieldIndex = 0;
-        Map<String, String> valueMap = new HashMap<>();
-        while (fieldIndex < maxIndex) {
-            Object field = convertExternal(record[fieldIndex], formatMeta[fieldIndex]);
-            String value = field != null ? field.toString() : null;
-            valueMap.put(fieldNames[fieldIndex], value);
-            fieldIndex++;
-        }
-        if (deletable) {
-            // All load data will be deleted
-            valueMap.put(LoadConstants.DORIS_DELETE_SIGN, "1");
+    /**
+     * 序列化为数组（兼容旧接口，批量写入请使用 {@link #encode}）
+     */
+    public byte[] serialize(Object[] record) throws KettleException {
+        scratch.release();
+        try {
+            encodeRow(record, scratch);
+            byte[] bytes = scratch.toByteArray();
+            if (log != null && log.isRowLevel()) {
+                log.logRowlevel("Serialized record: " + new String(bytes, StandardCharsets.UTF_8));
+            }
+            return bytes;
+        } finally {
+            scratch.release();
         }
-        return objectMapper.writeValueAsString(valueMap);
     }
 
-    public String buildCSVString(Object[] record, int maxIndex) throws IOException, KettleException {
-        int fieldIndex = 0;
-        StringJoiner joiner = new StringJoiner(fieldDelimiter);
-        while (fieldIndex < maxIndex) {
-            Object field = convertExternal(record[fieldIndex], formatMeta[fieldIndex]);
-            String value = field != null ? field.toString() : LoadConstants.NULL_VALUE;
-            joiner.add(value);
-            fieldIndex++;
+    @Override
+    public void encode(Object[] record, ChunkedByteBuffer out) throws KettleException {
+        if (log != null && log.isRowLevel()) {
+            out.write(serialize(record));
+            return;
         }
-        if (deletable) {
-            // All load data will be deleted
-            joiner.add("1");
-        }
-        return joiner.toString();
+        encodeRow(record, out);
     }
 
-    private Object convertExternal(Object r, ValueMetaInterface sourceMeta) throws KettleException {
-        if (r == null) {
-            return null;
+    private void encodeRow(Object[] record, ChunkedByteBuffer out) throws KettleException {
+        int maxIndex = Math.min(fieldIndexes != null ? fieldIndexes.length : record.length, fieldNames.length);
+        if (json) {
+            if (maxIndex == 0) {
+                out.write('{');
+            }
+            for (int i = 0; i < maxIndex; i++) {
+                out.write(jsonPrefixes[i]);
+                Object value = fieldIndexes != null ? record[fieldIndexes[i]] : record[i];
+                if (value == null) {
+                    out.write(JSON_NULL_BYTES);
+                } else {
+                    writeValue(value, formatMeta[i], out);
+                }
+            }
+            if (deletable) {
+                // All load data will be deleted
+                out.write(deleteSuffix);
+            }
+            out.write('}');
+        } else {
+            for (int i = 0; i < maxIndex; i++) {
+                if (i > 0) {
+                    out.write(delimiterBytes);
+                }
+                Object value = fieldIndexes != null ? record[fieldIndexes[i]] : record[i];
+                if (value == null) {
+                    out.write(CSV_NULL_BYTES);
+                } else {
+                    writeValue(value, formatMeta[i], out);
+                }
+            }
+            if (deletable) {
+                // All load data will be deleted
+                out.write(deleteSuffix);
+            }
         }
+    }
+
+    /**
+     * 按字段类型写出非空值，JSON 时带引号；转换结果为空时按空值写出
+     */
+    private void writeValue(Object r, ValueMetaInterface sourceMeta, ChunkedByteBuffer out) throws KettleException {
         try {
+            boolean normal = sourceMeta.isStorageNormal();
             switch (sourceMeta.getType()) {
-                case ValueMetaInterface.TYPE_BOOLEAN:
-                    return sourceMeta.getBoolean(r);
-                case ValueMetaInterface.TYPE_INTEGER:
-                    return sourceMeta.getInteger(r);
-                case ValueMetaInterface.TYPE_NUMBER:
-                    return sourceMeta.getNumber(r);
-                case ValueMetaInterface.TYPE_BIGNUMBER:
-                    return sourceMeta.getBigNumber(r);
-                case ValueMetaInterface.TYPE_DATE:
-//                    return sourceMeta.getDate(r);
-                    Date dateValue = sourceMeta.getDate(r);
-                    // 检查是否包含时间部分
-                    if (hasTimeComponent(dateValue)) {
-                        // 包含时分秒，返回 Timestamp
-                        return new Timestamp(dateValue.getTime());
+                case ValueMetaInterface.TYPE_BOOLEAN: {
+                    Boolean b = normal && r instanceof Boolean ? (Boolean) r : sourceMeta.getBoolean(r);
+                    writeNullable(b == null ? null : (b ? TRUE_BYTES : FALSE_BYTES), out);
+                    return;
+                }
+                case ValueMetaInterface.TYPE_INTEGER: {
+                    Long l = normal && r instanceof Long ? (Long) r : sourceMeta.getInteger(r);
+                    if (l == null) {
+                        writeNullable(null, out);
                     } else {
-                        // 纯日期，返回 Date
-                        return new java.sql.Date(dateValue.getTime());
+                        quote(out);
+                        out.writeLong(l);
+                        quote(out);
                     }
-                case ValueMetaInterface.TYPE_TIMESTAMP:
-                    return (Timestamp) sourceMeta.getDate(r);
+                    return;
+                }
+                case ValueMetaInterface.TYPE_NUMBER: {
+                    Double d = normal && r instanceof Double ? (Double) r : sourceMeta.getNumber(r);
+                    writeString(d == null ? null : d.toString(), out);
+                    return;
+                }
+                case ValueMetaInterface.TYPE_BIGNUMBER: {
+                    BigDecimal bd = normal && r instanceof BigDecimal ? (BigDecimal) r : sourceMeta.getBigNumber(r);
+                    // BigDecimal 内部缓存 toString 结果
+                    writeString(bd == null ? null : bd.toString(), out);
+                    return;
+                }
+                case ValueMetaInterface.TYPE_DATE: {
+                    Date date = normal && r instanceof Date ? (Date) r : sourceMeta.getDate(r);
+                    if (date == null) {
+                        writeNullable(null, out);
+                        return;
+                    }
+                    // 包含时分秒按 Timestamp 输出，纯日期按 Date 输出
+                    quote(out);
+                    writeDate(date.getTime(), -1, out);
+                    quote(out);
+                    return;
+                }
+                case ValueMetaInterface.TYPE_TIMESTAMP: {
+                    Date date = normal && r instanceof Date ? (Date) r : sourceMeta.getDate(r);
+                    if (date == null) {
+                        writeNullable(null, out);
+                        return;
+                    }
+                    int nanos = date instanceof Timestamp
+                            ? ((Timestamp) date).getNanos()
+                            : (int) Math.floorMod(date.getTime(), 1000L) * 1_000_000;
+                    quote(out);
+                    writeDate(date.getTime(), nanos, out);
+                    quote(out);
+                    return;
+                }
                 case ValueMetaInterface.TYPE_BINARY:
-                case ValueMetaInterface.TYPE_STRING:
-                    return sourceMeta.getString(r);
+                case ValueMetaInterface.TYPE_STRING: {
+                    String s = normal && r instanceof String ? (String) r : sourceMeta.getString(r);
+                    writeString(s, out);
+                    return;
+                }
                 default:
                     // Unknow type, use origin value
-                    return r;
+                    writeString(r.toString(), out);
             }
         } catch (Exception e) {
             throw new KettleException("Error serializing rows of data to the Doris: ", e);
         }
     }
 
+    private void writeString(String s, ChunkedByteBuffer out) {
+        if (s == null) {
+            writeNullable(null, out);
+            return;
+        }
+        quote(out);
+        out.writeUtf8(s, json);
+        quote(out);
+    }
+
+    private void writeNullable(byte[] bytes, ChunkedByteBuffer out) {
+        if (bytes == null) {
+            out.write(json ? JSON_NULL_BYTES : CSV_NULL_BYTES);
+            return;
+        }
+        quote(out);
+        out.write(bytes);
+        quote(out);
+    }
+
+    private void quote(ChunkedByteBuffer out) {
+        if (json) {
+            out.write('"');
+        }
+    }
+
     /**
-     * 检查日期是否包含时间部分（非00:00:00.000）
+     * 日期写出为 yyyy-MM-dd 或 yyyy-MM-dd HH:mm:ss.f（与 java.sql.Date / Timestamp 的 toString 一致）
+     *
+     * @param millis 毫秒时间
+     * @param nanos  纳秒部分；-1 表示按日期类型处理（无时分秒时只输出日期）
      */
-    private boolean hasTimeComponent(Date date) {
-        if (date == null) return false;
+    private void writeDate(long millis, int nanos, ChunkedByteBuffer out) {
+        calendar.setTimeInMillis(millis);
+        int hour = calendar.get(Calendar.HOUR_OF_DAY);
+        int minute = calendar.get(Calendar.MINUTE);
+        int second = calendar.get(Calendar.SECOND);
+        int milli = calendar.get(Calendar.MILLISECOND);
 
-        // 方法1：使用Calendar检查（兼容旧Java版本）
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(date);
+        out.writePadded(calendar.get(Calendar.YEAR), 4);
+        out.write('-');
+        out.writePadded(calendar.get(Calendar.MONTH) + 1, 2);
+        out.write('-');
+        out.writePadded(calendar.get(Calendar.DAY_OF_MONTH), 2);
+        if (nanos < 0) {
+            if (hour == 0 && minute == 0 && second == 0 && milli == 0) {
+                return;
+            }
+            nanos = milli * 1_000_000;
+        }
+        out.write(' ');
+        out.writePadded(hour, 2);
+        out.write(':');
+        out.writePadded(minute, 2);
+        out.write(':');
+        out.writePadded(second, 2);
+        out.write('.');
+        if (nanos == 0) {
+            out.write('0');
+            return;
+        }
+        int width = 9;
+        while (nanos % 10 == 0) {
+            nanos /= 10;
+            width--;
+        }
+        out.writePadded(nanos, width);
+    }
 
-        return cal.get(Calendar.HOUR_OF_DAY) != 0 ||
-                cal.get(Calendar.MINUTE) != 0 ||
-                cal.get(Calendar.SECOND) != 0 ||
-                cal.get(Calendar.MILLISECOND) != 0;
+    private static String escapeJson(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 8);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
     }
 
     public static Builder builder() {
@@ -153,6 +332,7 @@ public class DorisRecordSerializer {
     public static class Builder {
         private String[] fieldNames;
         private ValueMetaInterface[] formatMeta;
+        private int[] fieldIndexes;
         private String type;
         private String fieldDelimiter;
         private LogChannelInterface log;
@@ -168,6 +348,14 @@ public class DorisRecordSerializer {
             return this;
         }
 
+        /**
+         * 字段在输入行中的下标，设置后直接从输入行取值，不必为每行复制 Object[]
+         */
+        public Builder setFieldIndexes(int[] fieldIndexes) {
+            this.fieldIndexes = fieldIndexes;
+            return this;
+        }
+
         public Builder setType(String type) {
             this.type = type;
             return this;
@@ -195,7 +383,7 @@ public class DorisRecordSerializer {
             Preconditions.checkNotNull(formatMeta);
             Preconditions.checkNotNull(fieldNames);
 
-            return new DorisRecordSerializer(fieldNames, formatMeta, type, fieldDelimiter, log, deletable);
+            return new DorisRecordSerializer(fieldNames, formatMeta, fieldIndexes, type, fieldDelimiter, log, deletable);
         }
     }
 }
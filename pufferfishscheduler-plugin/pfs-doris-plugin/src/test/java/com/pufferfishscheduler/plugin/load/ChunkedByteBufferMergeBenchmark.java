@@ -0,0 +1,103 @@
+package com.pufferfishscheduler.plugin.load;
+
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 批次合并吞吐：与 DorisBatchStreamLoad.merge 相同，每次合并前写入行分隔符，使目标最后一块未写满；
+ * 对比改造前按字节复制被合并缓冲区与整块移交。两种方式都包含构造被合并批次的写入开销。
+ * <p>
+ * 运行：在测试类路径下执行 {@link #main(String[])}，结果单位为每秒合并的批次数。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkedByteBufferMergeBenchmark {
+
+    private static final int BATCHES_PER_OP = 32;
+
+    private static final byte[] DELIMITER = {'\n'};
+
+    /**
+     * 单个批次大小（字节）
+     */
+    @Param({"16384", "1048576", "8388608"})
+    public int batchBytes;
+
+    private byte[] batch;
+
+    private final byte[] scratch = new byte[ByteChunkPool.CHUNK_SIZE];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        batch = new byte[batchBytes];
+        new Random(42).nextBytes(batch);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCHES_PER_OP)
+    public long copyMerge() throws Exception {
+        ChunkedByteBuffer merged = new ChunkedByteBuffer();
+        for (int i = 0; i < BATCHES_PER_OP; i++) {
+            ChunkedByteBuffer other = nextBatch(merged);
+            try (InputStream in = other.newInputStream()) {
+                int n;
+                while ((n = in.read(scratch, 0, scratch.length)) != -1) {
+                    merged.write(scratch, 0, n);
+                }
+            }
+            other.release();
+        }
+        return release(merged);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCHES_PER_OP)
+    public long transferMerge() {
+        ChunkedByteBuffer merged = new ChunkedByteBuffer();
+        for (int i = 0; i < BATCHES_PER_OP; i++) {
+            merged.transferFrom(nextBatch(merged));
+        }
+        return release(merged);
+    }
+
+    private ChunkedByteBuffer nextBatch(ChunkedByteBuffer merged) {
+        if (!merged.isEmpty()) {
+            merged.write(DELIMITER);
+        }
+        ChunkedByteBuffer other = new ChunkedByteBuffer();
+        other.write(batch);
+        return other;
+    }
+
+    private static long release(ChunkedByteBuffer merged) {
+        long size = merged.size();
+        merged.release();
+        return size;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(ChunkedByteBufferMergeBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,144 @@
+package com.pufferfishscheduler.plugin.load;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 分块字节缓冲区：合并时整块移交后，写出、读取、截断和继续写入的结果与按字节拼接一致
+ */
+class ChunkedByteBufferTest {
+
+    private static final int CHUNK = ByteChunkPool.CHUNK_SIZE;
+
+    private final Random random = new Random(7);
+
+    @Test
+    void transferIntoPartialLastChunkKeepsOrder() throws IOException {
+        byte[] head = bytes(CHUNK + 100);
+        byte[] tail = bytes(3 * CHUNK + 17);
+        ChunkedByteBuffer target = buffer(head);
+        ChunkedByteBuffer other = buffer(tail);
+
+        target.transferFrom(other);
+
+        assertTrue(other.isEmpty());
+        assertContent(concat(head, tail), target);
+    }
+
+    @Test
+    void transferIntoFullLastChunkAndIntoEmptyBuffer() throws IOException {
+        byte[] head = bytes(2 * CHUNK);
+        byte[] tail = bytes(CHUNK + 1);
+        ChunkedByteBuffer target = buffer(head);
+        target.transferFrom(buffer(tail));
+        assertContent(concat(head, tail), target);
+
+        ChunkedByteBuffer empty = new ChunkedByteBuffer();
+        empty.transferFrom(buffer(tail));
+        assertContent(tail, empty);
+    }
+
+    @Test
+    void smallTailIsCopiedIntoRemainingSpace() throws IOException {
+        byte[] head = bytes(100);
+        byte[] tail = bytes(CHUNK - 100);
+        ChunkedByteBuffer target = buffer(head);
+        ChunkedByteBuffer other = buffer(tail);
+
+        target.transferFrom(other);
+
+        assertTrue(other.isEmpty());
+        assertContent(concat(head, tail), target);
+    }
+
+    @Test
+    void repeatedMergesWithDelimiterMatchConcatenation() throws IOException {
+        byte[] delimiter = {'\n'};
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        ChunkedByteBuffer merged = new ChunkedByteBuffer();
+        int[] sizes = {10, CHUNK - 1, CHUNK, CHUNK + 1, 3, 5 * CHUNK + 333, 1, 2 * CHUNK - 2};
+        for (int size : sizes) {
+            byte[] batch = bytes(size);
+            if (!merged.isEmpty()) {
+                merged.write(delimiter);
+                expected.write(delimiter);
+            }
+            // 被合并方自身也可能是合并结果，含未写满的中间块
+            ChunkedByteBuffer other = new ChunkedByteBuffer();
+            ChunkedByteBuffer half = buffer(Arrays.copyOfRange(batch, 0, size / 2));
+            other.transferFrom(half);
+            ChunkedByteBuffer rest = buffer(Arrays.copyOfRange(batch, size / 2, size));
+            other.transferFrom(rest);
+
+            merged.transferFrom(other);
+            expected.write(batch);
+            assertContent(expected.toByteArray(), merged);
+        }
+    }
+
+    @Test
+    void truncateAcrossSealedChunksThenContinueWriting() throws IOException {
+        byte[] head = bytes(CHUNK + 10);
+        byte[] tail = bytes(2 * CHUNK);
+        ChunkedByteBuffer target = buffer(head);
+        target.transferFrom(buffer(tail));
+        byte[] all = concat(head, tail);
+
+        // 截断到封口的未写满块中间，再继续写入
+        int keep = CHUNK + 5;
+        target.truncate(keep);
+        byte[] more = bytes(CHUNK + 50);
+        target.write(more);
+        assertContent(concat(Arrays.copyOf(all, keep), more), target);
+
+        target.truncate(0);
+        assertTrue(target.isEmpty());
+        assertEquals(0, target.toByteArray().length);
+    }
+
+    private ChunkedByteBuffer buffer(byte[] data) {
+        ChunkedByteBuffer buffer = new ChunkedByteBuffer();
+        buffer.write(data);
+        return buffer;
+    }
+
+    private byte[] bytes(int size) {
+        byte[] data = new byte[size];
+        random.nextBytes(data);
+        return data;
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static void assertContent(byte[] expected, ChunkedByteBuffer buffer) throws IOException {
+        assertEquals(expected.length, buffer.size());
+        assertArrayEquals(expected, buffer.toByteArray());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffer.writeTo(out);
+        assertArrayEquals(expected, out.toByteArray());
+
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        try (InputStream in = buffer.newInputStream()) {
+            byte[] buf = new byte[4096 + 3];
+            int n;
+            while ((n = in.read(buf, 0, buf.length)) != -1) {
+                read.write(buf, 0, n);
+            }
+        }
+        assertArrayEquals(expected, read.toByteArray());
+    }
+}
@@ -0,0 +1,156 @@
+package com.pufferfishscheduler.plugin.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pentaho.di.core.logging.LogChannelInterface;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * 批量 Stream Load：同一标签已完成导入时按成功处理，不换标签重复导入；同一标签的导入仍在进行时以同一标签重试
+ */
+class DorisBatchStreamLoadTest {
+
+    private static final String DATABASE = "db";
+
+    private static final String TABLE = "tbl";
+
+    private HttpServer server;
+
+    /**
+     * 依次返回给 Stream Load 请求的响应体
+     */
+    private final ConcurrentLinkedQueue<String> responses = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 收到的 Stream Load 请求的标签
+     */
+    private final List<String> labels = new CopyOnWriteArrayList<>();
+
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void finishedLabelIsTreatedAsSuccess() throws Exception {
+        responses.add(response(LoadStatus.LABEL_ALREADY_EXIST, "FINISHED"));
+
+        DorisBatchStreamLoad load = new DorisBatchStreamLoad(options(), log());
+        try {
+            load.writeRecord(DATABASE, TABLE, "1,a".getBytes(StandardCharsets.UTF_8));
+            assertTrue(load.forceFlush());
+            assertNull(load.getException().get());
+        } finally {
+            load.close();
+        }
+
+        assertEquals(1, labels.size());
+        assertNotNull(labels.get(0));
+        assertTrue(responses.isEmpty());
+    }
+
+    @Test
+    void runningLabelIsRetriedWithSameLabel() throws Exception {
+        responses.add(response(LoadStatus.LABEL_ALREADY_EXIST, "RUNNING"));
+        responses.add(response(LoadStatus.SUCCESS, null));
+
+        DorisBatchStreamLoad load = new DorisBatchStreamLoad(options(), log());
+        try {
+            load.writeRecord(DATABASE, TABLE, "1,a".getBytes(StandardCharsets.UTF_8));
+            load.writeRecord(DATABASE, TABLE, "2,b".getBytes(StandardCharsets.UTF_8));
+            assertTrue(load.forceFlush());
+            assertNull(load.getException().get());
+        } finally {
+            load.close();
+        }
+
+        assertEquals(2, labels.size());
+        assertEquals(labels.get(0), labels.get(1));
+        // 重试发送的是同一批数据
+        assertEquals(bodies.get(0), bodies.get(1));
+        assertTrue(bodies.get(1).contains("2,b"));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        String reply = "ok";
+        if ("PUT".equals(exchange.getRequestMethod())
+                && exchange.getRequestURI().getPath().equals("/api/" + DATABASE + "/" + TABLE + "/_stream_load")) {
+            labels.add(exchange.getRequestHeaders().getFirst("label"));
+            bodies.add(new String(body, StandardCharsets.UTF_8));
+            String next = responses.poll();
+            reply = next == null ? response("Fail", null) : next;
+        }
+        byte[] bytes = reply.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String response(String status, String existingJobStatus) {
+        return "{\"Status\":\"" + status + "\""
+                + (existingJobStatus == null ? "" : ",\"ExistingJobStatus\":\"" + existingJobStatus + "\"")
+                + ",\"Message\":\"\"}";
+    }
+
+    private DorisOptions options() {
+        return DorisOptions.builder()
+                .withFenodes("127.0.0.1:" + server.getAddress().getPort())
+                .withUsername("root")
+                .withPassword("")
+                .withDatabase(DATABASE)
+                .withTable(TABLE)
+                .withMaxRetries(2)
+                .withStreamLoadProp(new Properties())
+                .withConnectTimeout(10_000)
+                .build();
+    }
+
+    /**
+     * 不输出任何内容的日志替身
+     */
+    private static LogChannelInterface log() {
+        return (LogChannelInterface) Proxy.newProxyInstance(LogChannelInterface.class.getClassLoader(),
+                new Class<?>[]{LogChannelInterface.class}, (proxy, method, args) -> {
+                    Class<?> type = method.getReturnType();
+                    if (type == boolean.class) {
+                        return false;
+                    }
+                    if (type == int.class) {
+                        return 0;
+                    }
+                    if (type == long.class) {
+                        return 0L;
+                    }
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,198 @@
+package com.pufferfishscheduler.plugin.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 导入节点选择：失败节点在退避期间不参与轮询，退避结束后只由一个线程探活，探活失败退避时间翻倍且不超过上限
+ */
+class LoadEndpointSelectorTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+
+    private final Map<String, AtomicInteger> probes = new ConcurrentHashMap<>();
+
+    @Test
+    void failedEndpointIsSkippedUntilBackoffEnds() {
+        LoadEndpointSelector selector = selector(List.of("a", "b", "c"), host -> true);
+        selector.markFailure(endpoint(selector, "b"));
+
+        now.set(999);
+        for (int i = 0; i < 30; i++) {
+            assertNotEquals("b", selector.select().getHost());
+        }
+        assertEquals(0, probes("b"));
+
+        // 退避结束后探活通过，重新参与轮询
+        now.set(1_000);
+        assertEquals(List.of("a", "b", "c"), sortedHosts(selector, 3));
+        assertEquals(1, probes("b"));
+        assertEquals(List.of("a", "b", "c"), sortedHosts(selector, 3));
+        assertEquals(1, probes("b"));
+    }
+
+    @Test
+    void failedProbeDoublesBackoff() {
+        AtomicBoolean healthy = new AtomicBoolean(false);
+        LoadEndpointSelector selector = selector(List.of("a", "b"), host -> !"b".equals(host) || healthy.get());
+        selector.markFailure(endpoint(selector, "b"));
+
+        // 第一次探活失败：第二次失败退避 2 秒
+        now.set(1_000);
+        hosts(selector, 2);
+        assertEquals(1, probes("b"));
+
+        now.set(2_999);
+        for (int i = 0; i < 4; i++) {
+            assertEquals("a", selector.select().getHost());
+        }
+        assertEquals(1, probes("b"));
+
+        now.set(3_000);
+        healthy.set(true);
+        assertEquals(List.of("a", "b"), sortedHosts(selector, 2));
+        assertEquals(2, probes("b"));
+
+        // 探活通过后清除失败次数，再次失败从 1 秒重新开始退避
+        selector.markFailure(endpoint(selector, "b"));
+        now.set(4_000);
+        assertEquals(List.of("a", "b"), sortedHosts(selector, 2));
+        assertEquals(3, probes("b"));
+    }
+
+    @Test
+    void allBackingOffReturnsEarliestWithoutProbing() {
+        LoadEndpointSelector selector = selector(List.of("a", "b"), host -> true);
+        LoadEndpointSelector.Endpoint a = endpoint(selector, "a");
+        LoadEndpointSelector.Endpoint b = endpoint(selector, "b");
+        selector.markFailure(a);
+        selector.markFailure(a);
+        selector.markFailure(a);
+        selector.markFailure(b);
+        selector.markFailure(b);
+
+        now.set(1_999);
+        for (int i = 0; i < 4; i++) {
+            assertEquals("b", selector.select().getHost());
+        }
+        assertEquals(0, probes("a") + probes("b"));
+    }
+
+    @Test
+    void backoffIsCappedAtOneMinute() {
+        LoadEndpointSelector selector = selector(List.of("a"), host -> true);
+        LoadEndpointSelector.Endpoint a = endpoint(selector, "a");
+        for (int i = 0; i < 10; i++) {
+            selector.markFailure(a);
+        }
+
+        now.set(59_999);
+        assertEquals("a", selector.select().getHost());
+        assertEquals(0, probes("a"));
+
+        now.set(60_000);
+        assertEquals("a", selector.select().getHost());
+        assertEquals(1, probes("a"));
+    }
+
+    @Test
+    void onlyOneThreadProbesAnEndpoint() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        LoadEndpointSelector selector = selector(List.of("a", "b"), host -> {
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        LoadEndpointSelector.Endpoint a = endpoint(selector, "a");
+        LoadEndpointSelector.Endpoint b = endpoint(selector, "b");
+        selector.markFailure(a);
+        selector.markFailure(a);
+        selector.markFailure(b);
+
+        // 只有 b 结束退避：抢到探活标记的线程阻塞在探活上，其余线程不探活，直接返回最早结束退避的 b
+        now.set(1_000);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(pool.submit(() -> selector.select().getHost()));
+        }
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (futures.stream().filter(Future::isDone).count() < threads - 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(threads - 1, futures.stream().filter(Future::isDone).count());
+        assertEquals(1, probes("b"));
+
+        release.countDown();
+        for (Future<String> future : futures) {
+            assertEquals("b", future.get(10, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1, probes("b"));
+        assertEquals(0, probes("a"));
+    }
+
+    private LoadEndpointSelector selector(List<String> hosts, Predicate<String> healthCheck) {
+        return new LoadEndpointSelector(hosts, host -> {
+            probes.computeIfAbsent(host, k -> new AtomicInteger()).incrementAndGet();
+            return healthCheck.test(host);
+        }, now::get);
+    }
+
+    private int probes(String host) {
+        AtomicInteger count = probes.get(host);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * 所有节点健康时按轮询取到指定节点
+     */
+    private static LoadEndpointSelector.Endpoint endpoint(LoadEndpointSelector selector, String host) {
+        for (int i = 0; i < selector.size(); i++) {
+            LoadEndpointSelector.Endpoint endpoint = selector.select();
+            if (endpoint.getHost().equals(host)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException(host);
+    }
+
+    private static List<String> hosts(LoadEndpointSelector selector, int times) {
+        List<String> hosts = new ArrayList<>(times);
+        for (int i = 0; i < times; i++) {
+            hosts.add(selector.select().getHost());
+        }
+        return hosts;
+    }
+
+    /**
+     * 轮询起点随机，按主机名排序后比较
+     */
+    private static List<String> sortedHosts(LoadEndpointSelector selector, int times) {
+        List<String> hosts = hosts(selector, times);
+        hosts.sort(null);
+        return hosts;
+    }
+}
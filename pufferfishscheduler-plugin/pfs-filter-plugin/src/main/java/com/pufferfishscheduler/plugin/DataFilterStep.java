@@ -1,17 +1,12 @@
 package com.pufferfishscheduler.plugin;
 
 import java.math.BigDecimal;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 import com.alibaba.fastjson2.JSONObject;
 import com.pufferfishscheduler.plugin.common.Constants;
-import com.pufferfishscheduler.plugin.common.conditon.ConditionGroup;
-import com.pufferfishscheduler.plugin.common.conditon.ConditionParam;
+import com.pufferfishscheduler.plugin.common.conditon.ConditionCompiler;
+import com.pufferfishscheduler.plugin.common.conditon.ConditionInterpreter;
 import com.pufferfishscheduler.plugin.common.conditon.ConditionTree;
 import org.codehaus.janino.ExpressionEvaluator;
 import org.pentaho.di.core.exception.KettleException;
@@ -40,10 +35,6 @@ public class DataFilterStep extends BaseStep implements StepInterface {
     private String condition;
     private List<String> fieldName;
 
-    // 日期格式常量
-    private static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
-    private static final String SOURCE_DATE_FORMAT = "EEE MMM dd HH:mm:ss zzz yyyy";
-
     public DataFilterStep(StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr,
                           TransMeta transMeta, Trans trans) {
         super(stepMeta, stepDataInterface, copyNr, transMeta, trans);
@@ -90,7 +81,14 @@ public class DataFilterStep extends BaseStep implements StepInterface {
             if (condition == null || condition.trim().isEmpty()) {
                 throw new KettleException("过滤条件不能为空，请检查配置。");
             }
-            keep = evaluateCondition(condition, row);
+            if (meta.isCompileCondition()) {
+                keep = evaluateCompiledCondition(condition, row);
+            } else {
+                if (data.conditionInterpreter == null) {
+                    data.conditionInterpreter = new ConditionInterpreter(fieldName, getLogChannel());
+                }
+                keep = data.conditionInterpreter.evaluate(condition, row);
+            }
         }
 
         // 过滤逻辑：满足条件则输出行
@@ -106,78 +104,14 @@ public class DataFilterStep extends BaseStep implements StepInterface {
     // ===================== 条件求值核心方法（基于 ConditionTree） =====================
 
     /**
-     * 解析 JSON 多条件表达式，并递归求值
-     */
-    private boolean evaluateCondition(String conditionJson, Object[] row) throws KettleStepException {
-        ConditionTree conditionTree = JSONObject.parseObject(conditionJson, ConditionTree.class);
-        if (conditionTree == null) {
-            throw new KettleStepException("无效的多条件配置 JSON。");
-        }
-        return evaluateConditionTree(conditionTree, row);
-    }
-
-    /**
-     * 递归求值条件树（顶层）
-     */
-    private boolean evaluateConditionTree(ConditionTree tree, Object[] row) throws KettleStepException {
-        List<ConditionGroup> groups = tree.getConditionGroups();
-        if (groups == null || groups.isEmpty()) {
-            return true; // 无条件，保留所有行
-        }
-        String logic = tree.getCondition(); // "ALL" 或 "ANY"
-        boolean result = Constants.Condition.ALL.equalsIgnoreCase(logic);
-        for (ConditionGroup group : groups) {
-            boolean groupResult = evaluateConditionGroup(group, row);
-            if (Constants.Condition.ALL.equalsIgnoreCase(logic)) {
-                result = result && groupResult;
-                if (!result) break;
-            } else { // ANY
-                result = result || groupResult;
-                if (result) break;
-            }
-        }
-        return result;
-    }
-
-    /**
-     * 求值单个条件组
-     */
-    private boolean evaluateConditionGroup(ConditionGroup group, Object[] row) throws KettleStepException {
-        List<ConditionParam> params = group.getQueryConditions();
-        if (params == null || params.isEmpty()) {
-            return true;
-        }
-        String logic = group.getCondition(); // "ALL" 或 "ANY"
-        boolean result = Constants.Condition.ALL.equalsIgnoreCase(logic);
-        for (ConditionParam param : params) {
-            boolean paramResult = evaluateConditionParam(param, row);
-            if (Constants.Condition.ALL.equalsIgnoreCase(logic)) {
-                result = result && paramResult;
-                if (!result) break;
-            } else {
-                result = result || paramResult;
-                if (result) break;
-            }
-        }
-        return result;
-    }
-
-    /**
-     * 求值单个条件
+     * 编译模式：首行将条件树编译为行谓词（字段下标、过滤值预先绑定），后续行直接求值
      */
-    private boolean evaluateConditionParam(ConditionParam param, Object[] row) throws KettleStepException {
-        String columnName = param.getColumnName();
-        Object filterValue = param.getFilterValue();
-        String dataType = param.getDataType();
-        String filterCondition = param.getFilterCondition();
-
-        int index = fieldName.indexOf(columnName);
-        if (index < 0) {
-            logError("字段 " + columnName + " 不在当前行元数据中。");
-            return false;
+    private boolean evaluateCompiledCondition(String conditionJson, Object[] row) throws KettleStepException {
+        if (data.conditionPredicate == null) {
+            ConditionTree conditionTree = JSONObject.parseObject(conditionJson, ConditionTree.class);
+            data.conditionPredicate = ConditionCompiler.compile(conditionTree, fieldName, getLogChannel());
         }
-        Object fieldValue = row[index];
-        return evaluateFieldCondition(fieldValue, filterValue, filterCondition, dataType);
+        return data.conditionPredicate.test(row);
     }
 
     // ===================== Java 表达式求值（Janino） =====================
@@ -269,187 +203,6 @@ public class DataFilterStep extends BaseStep implements StepInterface {
         }
     }
 
-    /**
-     * 映射前端传入的数据类型标识到内部编码
-     */
-    private Integer mapDataType(Object dataType) {
-        String type = String.valueOf(dataType);
-        return switch (type) {
-            case Constants.DataType.TIMESTAMP_CODE -> Constants.DataType.TIMESTAMP_VALUE;
-            case Constants.DataType.STRING_CODE -> Constants.DataType.STRING_VALUE;
-            case Constants.DataType.NUMBER_CODE -> Constants.DataType.NUMBER_VALUE;
-            case Constants.DataType.INTERNET_ADDRESS_CODE -> Constants.DataType.INTERNET_ADDRESS_VALUE;
-            case Constants.DataType.INTEGER_CODE -> Constants.DataType.INTEGER_VALUE;
-            case Constants.DataType.DATE_CODE -> Constants.DataType.DATE_VALUE;
-            case Constants.DataType.BOOLEAN_CODE -> Constants.DataType.BOOLEAN_VALUE;
-            case Constants.DataType.BINARY_CODE -> Constants.DataType.BINARY_VALUE;
-            case Constants.DataType.BIGNUMBER_CODE -> Constants.DataType.BIGNUMBER_VALUE;
-            case Constants.DataType.UNDEFINED_CODE -> Constants.DataType.UNDEFINED_VALUE;
-            default -> null;
-        };
-    }
-
-    // ---------- 比较操作实现 ----------
-
-    private boolean compareEqual(Object field, Object target, Integer dataTypeCode) {
-        if (dataTypeCode == null) return false;
-        return switch (dataTypeCode) {
-            case Constants.DataType.TIMESTAMP_VALUE -> toTimestamp(field) == toTimestamp(target);
-            case Constants.DataType.STRING_VALUE -> String.valueOf(field).equals(String.valueOf(target));
-            case Constants.DataType.NUMBER_VALUE -> Double.compare(toDouble(field), toDouble(target)) == 0;
-            case Constants.DataType.INTEGER_VALUE -> Long.compare(toLong(field), toLong(target)) == 0;
-            case Constants.DataType.DATE_VALUE -> toDateMillis(field) == toDateMillis(target);
-            case Constants.DataType.BOOLEAN_VALUE ->
-                    Boolean.parseBoolean(String.valueOf(field)) == Boolean.parseBoolean(String.valueOf(target));
-            case Constants.DataType.BINARY_VALUE ->
-                    Integer.parseInt(field.toString(), 2) == Integer.parseInt(target.toString(), 2);
-            case Constants.DataType.BIGNUMBER_VALUE -> toBigDecimal(field).compareTo(toBigDecimal(target)) == 0;
-            default -> false;
-        };
-    }
-
-    private boolean compareGreater(Object field, Object target, Integer dataTypeCode) {
-        return switch (dataTypeCode) {
-            case Constants.DataType.TIMESTAMP_VALUE -> toTimestamp(field) > toTimestamp(target);
-            case Constants.DataType.STRING_VALUE -> String.valueOf(field).compareTo(String.valueOf(target)) > 0;
-            case Constants.DataType.NUMBER_VALUE -> Double.compare(toDouble(field), toDouble(target)) > 0;
-            case Constants.DataType.INTEGER_VALUE -> Long.compare(toLong(field), toLong(target)) > 0;
-            case Constants.DataType.DATE_VALUE -> toDateMillis(field) > toDateMillis(target);
-            case Constants.DataType.BINARY_VALUE ->
-                    Integer.parseInt(field.toString(), 2) > Integer.parseInt(target.toString(), 2);
-            case Constants.DataType.BIGNUMBER_VALUE -> toBigDecimal(field).compareTo(toBigDecimal(target)) > 0;
-            default -> false;
-        };
-    }
-
-    private boolean compareLess(Object field, Object target, Integer dataTypeCode) {
-        return switch (dataTypeCode) {
-            case Constants.DataType.TIMESTAMP_VALUE -> toTimestamp(field) < toTimestamp(target);
-            case Constants.DataType.STRING_VALUE -> String.valueOf(field).compareTo(String.valueOf(target)) < 0;
-            case Constants.DataType.NUMBER_VALUE -> Double.compare(toDouble(field), toDouble(target)) < 0;
-            case Constants.DataType.INTEGER_VALUE -> Long.compare(toLong(field), toLong(target)) < 0;
-            case Constants.DataType.DATE_VALUE -> toDateMillis(field) < toDateMillis(target);
-            case Constants.DataType.BINARY_VALUE ->
-                    Integer.parseInt(field.toString(), 2) < Integer.parseInt(target.toString(), 2);
-            case Constants.DataType.BIGNUMBER_VALUE -> toBigDecimal(field).compareTo(toBigDecimal(target)) < 0;
-            default -> false;
-        };
-    }
-
-    private boolean compareGreaterOrEqual(Object field, Object target, Integer dataTypeCode) {
-        return switch (dataTypeCode) {
-            case Constants.DataType.TIMESTAMP_VALUE -> toTimestamp(field) >= toTimestamp(target);
-            case Constants.DataType.STRING_VALUE -> String.valueOf(field).compareTo(String.valueOf(target)) >= 0;
-            case Constants.DataType.NUMBER_VALUE -> Double.compare(toDouble(field), toDouble(target)) >= 0;
-            case Constants.DataType.INTEGER_VALUE -> Long.compare(toLong(field), toLong(target)) >= 0;
-            case Constants.DataType.DATE_VALUE -> toDateMillis(field) >= toDateMillis(target);
-            case Constants.DataType.BINARY_VALUE ->
-                    Integer.parseInt(field.toString(), 2) >= Integer.parseInt(target.toString(), 2);
-            case Constants.DataType.BIGNUMBER_VALUE -> toBigDecimal(field).compareTo(toBigDecimal(target)) >= 0;
-            default -> false;
-        };
-    }
-
-    private boolean compareLessOrEqual(Object field, Object target, Integer dataTypeCode) {
-        return switch (dataTypeCode) {
-            case Constants.DataType.TIMESTAMP_VALUE -> toTimestamp(field) <= toTimestamp(target);
-            case Constants.DataType.STRING_VALUE -> String.valueOf(field).compareTo(String.valueOf(target)) <= 0;
-            case Constants.DataType.NUMBER_VALUE -> Double.compare(toDouble(field), toDouble(target)) <= 0;
-            case Constants.DataType.INTEGER_VALUE -> Long.compare(toLong(field), toLong(target)) <= 0;
-            case Constants.DataType.DATE_VALUE -> toDateMillis(field) <= toDateMillis(target);
-            case Constants.DataType.BINARY_VALUE ->
-                    Integer.parseInt(field.toString(), 2) <= Integer.parseInt(target.toString(), 2);
-            case Constants.DataType.BIGNUMBER_VALUE -> toBigDecimal(field).compareTo(toBigDecimal(target)) <= 0;
-            default -> false;
-        };
-    }
-
-    // ---------- 类型转换辅助 ----------
-
-    private double toDouble(Object obj) {
-        return Double.parseDouble(obj.toString());
-    }
-
-    private long toLong(Object obj) {
-        return Long.parseLong(obj.toString());
-    }
-
-    private BigDecimal toBigDecimal(Object obj) {
-        return new BigDecimal(obj.toString());
-    }
-
-    /**
-     * 将对象转换为时间戳（毫秒）
-     */
-    private long toTimestamp(Object obj) {
-        if (obj instanceof Date) {
-            return ((Date) obj).getTime();
-        }
-        String str = obj.toString().replace(".0", ""); // 处理可能的时间戳格式
-        LocalDateTime ldt = parseLocalDateTime(str);
-        return ldt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
-    }
-
-    /**
-     * 将对象解析为 LocalDateTime，支持常见格式
-     */
-    private LocalDateTime parseLocalDateTime(String str) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DEFAULT_DATE_FORMAT);
-        // 如果只包含日期，补上时间
-        if (str.length() <= 10) {
-            str += " 00:00:00";
-        }
-        return LocalDateTime.parse(str, formatter);
-    }
-
-    /**
-     * 将对象转换为日期毫秒数（用于 Date 类型比较）
-     */
-    private long toDateMillis(Object obj) {
-        if (obj instanceof Date) {
-            return ((Date) obj).getTime();
-        }
-        String str = obj.toString();
-        // 尝试解析原始格式
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat(SOURCE_DATE_FORMAT, Locale.ENGLISH);
-            Date date = sdf.parse(str);
-            return date.getTime();
-        } catch (ParseException e) {
-            // 如果失败，使用默认格式解析
-            return parseLocalDateTime(str).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
-        }
-    }
-
-    /**
-     * 字段条件求值（根据操作符和数据类型进行比较）
-     * 该方法是原有的核心比较逻辑，被 evaluateConditionParam 复用。
-     */
-    private boolean evaluateFieldCondition(Object fieldValue, Object targetValue, String operator, String dataType) {
-        if (fieldValue == null) {
-            // 对于 NULL 值的处理，可根据业务决定，这里假设 NULL 只匹配 "=" 和 "!="
-            return (Constants.OperatorType.equal.equals(operator) && targetValue == null) ||
-                    (Constants.OperatorType.notEqual.equals(operator) && targetValue != null);
-        }
-
-        Integer dataTypeCode = mapDataType(dataType);
-        return switch (operator) {
-            case Constants.OperatorType.equal -> compareEqual(fieldValue, targetValue, dataTypeCode);
-            case Constants.OperatorType.notEqual -> !compareEqual(fieldValue, targetValue, dataTypeCode);
-            case Constants.OperatorType.great -> compareGreater(fieldValue, targetValue, dataTypeCode);
-            case Constants.OperatorType.less -> compareLess(fieldValue, targetValue, dataTypeCode);
-            case Constants.OperatorType.greatEqual -> compareGreaterOrEqual(fieldValue, targetValue, dataTypeCode);
-            case Constants.OperatorType.lessEqual -> compareLessOrEqual(fieldValue, targetValue, dataTypeCode);
-            case Constants.OperatorType.startWith -> String.valueOf(fieldValue).startsWith(String.valueOf(targetValue));
-            case Constants.OperatorType.endWith -> String.valueOf(fieldValue).endsWith(String.valueOf(targetValue));
-            case Constants.OperatorType.contains -> String.valueOf(fieldValue).contains(String.valueOf(targetValue));
-            default -> {
-                logError("不支持的操作符: " + operator);
-                yield false;
-            }
-        };
-    }
-
     @Override
     public void dispose(StepMetaInterface smi, StepDataInterface sdi) {
         super.dispose(smi, sdi);
@@ -1,6 +1,9 @@
 package com.pufferfishscheduler.plugin;
 
 import java.util.List;
+
+import com.pufferfishscheduler.plugin.common.conditon.ConditionCompiler;
+import com.pufferfishscheduler.plugin.common.conditon.ConditionInterpreter;
 import org.codehaus.janino.ExpressionEvaluator;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
@@ -14,4 +17,6 @@ public class DataFilterStepData extends BaseStepData implements StepDataInterfac
     public ExpressionEvaluator expressionEvaluator;
     public Object[] argumentData;
     public List<Integer> argumentIndexes;
+    public ConditionCompiler.RowPredicate conditionPredicate;
+    public ConditionInterpreter conditionInterpreter;
 }
@@ -37,6 +37,7 @@ public class DataFilterStepMeta extends BaseStepMeta implements StepMetaInterfac
     private String filterType;
     private String javaCode;
     private String condition;
+    private boolean compileCondition;
 
     public String getName() {
         return this.name;
@@ -78,12 +79,21 @@ public class DataFilterStepMeta extends BaseStepMeta implements StepMetaInterfac
         this.condition = condition;
     }
 
+    public boolean isCompileCondition() {
+        return this.compileCondition;
+    }
+
+    public void setCompileCondition(boolean compileCondition) {
+        this.compileCondition = compileCondition;
+    }
+
     public void allocate(int nrkeys) {
         this.name = "";
         this.describe = "";
         this.javaCode = "";
         this.condition = "";
         this.filterType = "0";
+        this.compileCondition = true;
     }
 
     public void setDefault() {
@@ -109,6 +119,7 @@ public class DataFilterStepMeta extends BaseStepMeta implements StepMetaInterfac
         retval.append("        ").append(XMLHandler.addTagValue("filterType", this.filterType));
         retval.append("        ").append(XMLHandler.addTagValue("javaCode", this.javaCode));
         retval.append("        ").append(XMLHandler.addTagValue("condition", this.condition));
+        retval.append("        ").append(XMLHandler.addTagValue("compileCondition", this.compileCondition));
         return retval.toString();
     }
 
@@ -119,6 +130,7 @@ public class DataFilterStepMeta extends BaseStepMeta implements StepMetaInterfac
             rep.saveStepAttribute(id_transformation, id_step, "describe", this.describe);
             rep.saveStepAttribute(id_transformation, id_step, "filterType", this.filterType);
             rep.saveStepAttribute(id_transformation, id_step, "javaCode", this.javaCode);
+            rep.saveStepAttribute(id_transformation, id_step, "compileCondition", this.compileCondition);
         } catch (Exception e) {
             throw new KettleException("过滤步骤组件保存失败: " + id_step, e);
         }
@@ -135,6 +147,9 @@ public class DataFilterStepMeta extends BaseStepMeta implements StepMetaInterfac
             this.describe = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepnode, "describe"));
             this.filterType = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepnode, "filterType"));
             this.javaCode = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepnode, "javaCode"));
+            // 旧版本流程无此节点，默认启用编译模式
+            String compile = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepnode, "compileCondition"));
+            this.compileCondition = compile == null || "Y".equalsIgnoreCase(compile);
         } catch (Exception var6) {
             throw new KettleXMLException("过滤步骤组件读取失败！", var6);
         }
@@ -149,6 +164,7 @@ public class DataFilterStepMeta extends BaseStepMeta implements StepMetaInterfac
             this.describe = rep.getStepAttributeString(id_step, "describe");
             this.filterType = rep.getStepAttributeString(id_step, "filterType");
             this.javaCode = rep.getStepAttributeString(id_step, "javaCode");
+            this.compileCondition = rep.getStepAttributeBoolean(id_step, 0, "compileCondition", true);
         } catch (Exception var7) {
             throw new KettleException("过滤步骤组件读取失败！", var7);
         }
@@ -53,6 +53,7 @@ public interface Constants {
      */
     interface Condition {
         String ALL = "ALL";
+        String ANY = "ANY";
         String AND = " AND ";
         String OR = " OR ";
     }
@@ -0,0 +1,336 @@
+package com.pufferfishscheduler.plugin.common.conditon;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import com.pufferfishscheduler.plugin.common.Constants;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+
+/**
+ * 条件树编译器
+ * <p>
+ * 将 {@link ConditionTree} 一次性编译为类型化的行谓词：字段下标、数据类型、操作符和过滤值在编译期完成解析与绑定，
+ * 逐行求值时不再解析 JSON、查找字段下标或匹配字符串操作符。求值语义与 {@link ConditionInterpreter} 保持一致，
+ * 包括字段值、过滤值为空时的处理（见 ConditionCompilerTest 的对照用例）。
+ * </p>
+ */
+public final class ConditionCompiler {
+
+    private static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+    private static final String SOURCE_DATE_FORMAT = "EEE MMM dd HH:mm:ss zzz yyyy";
+    private static final DateTimeFormatter DEFAULT_FORMATTER = DateTimeFormatter.ofPattern(DEFAULT_DATE_FORMAT);
+
+    private static final RowPredicate ALWAYS_TRUE = row -> true;
+    private static final RowPredicate ALWAYS_FALSE = row -> false;
+
+    /**
+     * 编译后的行谓词
+     */
+    @FunctionalInterface
+    public interface RowPredicate {
+        boolean test(Object[] row);
+    }
+
+    private final List<String> fieldNames;
+    private final LogChannelInterface log;
+
+    /**
+     * 非线程安全，每个步骤副本各自持有
+     */
+    private final SimpleDateFormat sourceDateFormat = new SimpleDateFormat(SOURCE_DATE_FORMAT, Locale.ENGLISH);
+
+    private ConditionCompiler(List<String> fieldNames, LogChannelInterface log) {
+        this.fieldNames = fieldNames;
+        this.log = log;
+    }
+
+    /**
+     * 编译条件树
+     *
+     * @param tree       条件树
+     * @param fieldNames 输入行字段名（与行数据下标一一对应）
+     * @param log        日志通道，用于输出编译期发现的配置问题
+     * @return 行谓词
+     */
+    public static RowPredicate compile(ConditionTree tree, List<String> fieldNames, LogChannelInterface log)
+            throws KettleStepException {
+        if (tree == null) {
+            throw new KettleStepException("无效的多条件配置 JSON。");
+        }
+        return new ConditionCompiler(fieldNames, log).compileTree(tree);
+    }
+
+    private RowPredicate compileTree(ConditionTree tree) throws KettleStepException {
+        List<ConditionGroup> groups = tree.getConditionGroups();
+        if (groups == null || groups.isEmpty()) {
+            return ALWAYS_TRUE;
+        }
+        List<RowPredicate> children = new ArrayList<>(groups.size());
+        for (ConditionGroup group : groups) {
+            children.add(compileGroup(group));
+        }
+        return combine(children, Constants.Condition.ALL.equalsIgnoreCase(tree.getCondition()));
+    }
+
+    private RowPredicate compileGroup(ConditionGroup group) throws KettleStepException {
+        List<ConditionParam> params = group.getQueryConditions();
+        if (params == null || params.isEmpty()) {
+            return ALWAYS_TRUE;
+        }
+        List<RowPredicate> children = new ArrayList<>(params.size());
+        for (ConditionParam param : params) {
+            children.add(compileParam(param));
+        }
+        return combine(children, Constants.Condition.ALL.equalsIgnoreCase(group.getCondition()));
+    }
+
+    /**
+     * 组合子谓词，保持短路求值
+     */
+    private static RowPredicate combine(List<RowPredicate> children, boolean all) {
+        if (children.size() == 1) {
+            return children.get(0);
+        }
+        if (children.size() == 2) {
+            RowPredicate left = children.get(0);
+            RowPredicate right = children.get(1);
+            return all ? row -> left.test(row) && right.test(row) : row -> left.test(row) || right.test(row);
+        }
+        RowPredicate[] array = children.toArray(new RowPredicate[0]);
+        if (all) {
+            return row -> {
+                for (RowPredicate predicate : array) {
+                    if (!predicate.test(row)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+        return row -> {
+            for (RowPredicate predicate : array) {
+                if (predicate.test(row)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private RowPredicate compileParam(ConditionParam param) throws KettleStepException {
+        String columnName = param.getColumnName();
+        String operator = param.getFilterCondition();
+        Object target = param.getFilterValue();
+
+        int index = fieldNames.indexOf(columnName);
+        if (index < 0) {
+            log.logError("字段 " + columnName + " 不在当前行元数据中。");
+            return ALWAYS_FALSE;
+        }
+        if (operator == null) {
+            log.logError("不支持的操作符: null");
+            return ALWAYS_FALSE;
+        }
+
+        // NULL 值只匹配 "=" 和 "!="
+        boolean nullResult = (Constants.OperatorType.equal.equals(operator) && target == null)
+                || (Constants.OperatorType.notEqual.equals(operator) && target != null);
+
+        RowPredicate valuePredicate = switch (operator) {
+            case Constants.OperatorType.equal -> compileCompare(index, target, param, 0, true);
+            case Constants.OperatorType.notEqual -> negate(compileCompare(index, target, param, 0, true));
+            case Constants.OperatorType.great -> compileCompare(index, target, param, 1, false);
+            case Constants.OperatorType.less -> compileCompare(index, target, param, -1, false);
+            case Constants.OperatorType.greatEqual -> compileCompare(index, target, param, 2, false);
+            case Constants.OperatorType.lessEqual -> compileCompare(index, target, param, -2, false);
+            case Constants.OperatorType.startWith -> {
+                String text = String.valueOf(target);
+                yield row -> String.valueOf(row[index]).startsWith(text);
+            }
+            case Constants.OperatorType.endWith -> {
+                String text = String.valueOf(target);
+                yield row -> String.valueOf(row[index]).endsWith(text);
+            }
+            case Constants.OperatorType.contains -> {
+                String text = String.valueOf(target);
+                yield row -> String.valueOf(row[index]).contains(text);
+            }
+            default -> {
+                log.logError("不支持的操作符: " + operator);
+                yield ALWAYS_FALSE;
+            }
+        };
+
+        if (nullResult) {
+            return row -> row[index] == null || valuePredicate.test(row);
+        }
+        return row -> row[index] != null && valuePredicate.test(row);
+    }
+
+    private static RowPredicate negate(RowPredicate predicate) {
+        return row -> !predicate.test(row);
+    }
+
+    /**
+     * 编译比较谓词，过滤值按数据类型预先解析
+     *
+     * @param mode  0: 等于；1: 大于；-1: 小于；2: 大于等于；-2: 小于等于
+     * @param equal 是否为等值比较（布尔类型只支持等值比较）
+     */
+    private RowPredicate compileCompare(int index, Object target, ConditionParam param, int mode, boolean equal)
+            throws KettleStepException {
+        Integer dataTypeCode = mapDataType(param.getDataType());
+        if (dataTypeCode == null) {
+            if (equal) {
+                return ALWAYS_FALSE;
+            }
+            throw new KettleStepException("字段 " + param.getColumnName() + " 的数据类型不支持比较: " + param.getDataType());
+        }
+        if (target == null && dataTypeCode != Constants.DataType.STRING_VALUE
+                && dataTypeCode != Constants.DataType.BOOLEAN_VALUE
+                && dataTypeCode != Constants.DataType.INTERNET_ADDRESS_VALUE
+                && dataTypeCode != Constants.DataType.UNDEFINED_VALUE) {
+            // 过滤值为空时比较不成立，不中断转换
+            log.logError("字段 " + param.getColumnName() + " 的过滤值为空，比较条件不成立。");
+            return ALWAYS_FALSE;
+        }
+
+        switch (dataTypeCode) {
+            case Constants.DataType.TIMESTAMP_VALUE: {
+                long value = toTimestamp(target);
+                return row -> matches(Long.compare(toTimestamp(row[index]), value), mode);
+            }
+            case Constants.DataType.STRING_VALUE: {
+                String value = String.valueOf(target);
+                if (equal) {
+                    return row -> String.valueOf(row[index]).equals(value);
+                }
+                return row -> matches(String.valueOf(row[index]).compareTo(value), mode);
+            }
+            case Constants.DataType.NUMBER_VALUE: {
+                double value = toDouble(target);
+                return row -> matches(Double.compare(toDouble(row[index]), value), mode);
+            }
+            case Constants.DataType.INTEGER_VALUE: {
+                long value = toLong(target);
+                return row -> matches(Long.compare(toLong(row[index]), value), mode);
+            }
+            case Constants.DataType.DATE_VALUE: {
+                long value = toDateMillis(target);
+                return row -> matches(Long.compare(toDateMillis(row[index]), value), mode);
+            }
+            case Constants.DataType.BOOLEAN_VALUE: {
+                if (!equal) {
+                    return ALWAYS_FALSE;
+                }
+                boolean value = Boolean.parseBoolean(String.valueOf(target));
+                return row -> Boolean.parseBoolean(String.valueOf(row[index])) == value;
+            }
+            case Constants.DataType.BINARY_VALUE: {
+                int value = Integer.parseInt(target.toString(), 2);
+                return row -> matches(Integer.compare(Integer.parseInt(row[index].toString(), 2), value), mode);
+            }
+            case Constants.DataType.BIGNUMBER_VALUE: {
+                BigDecimal value = toBigDecimal(target);
+                return row -> matches(toBigDecimal(row[index]).compareTo(value), mode);
+            }
+            default:
+                return ALWAYS_FALSE;
+        }
+    }
+
+    private static boolean matches(int cmp, int mode) {
+        return switch (mode) {
+            case 0 -> cmp == 0;
+            case 1 -> cmp > 0;
+            case -1 -> cmp < 0;
+            case 2 -> cmp >= 0;
+            case -2 -> cmp <= 0;
+            default -> false;
+        };
+    }
+
+    /**
+     * 映射前端传入的数据类型标识到内部编码
+     */
+    private static Integer mapDataType(String type) {
+        return switch (String.valueOf(type)) {
+            case Constants.DataType.TIMESTAMP_CODE -> Constants.DataType.TIMESTAMP_VALUE;
+            case Constants.DataType.STRING_CODE -> Constants.DataType.STRING_VALUE;
+            case Constants.DataType.NUMBER_CODE -> Constants.DataType.NUMBER_VALUE;
+            case Constants.DataType.INTERNET_ADDRESS_CODE -> Constants.DataType.INTERNET_ADDRESS_VALUE;
+            case Constants.DataType.INTEGER_CODE -> Constants.DataType.INTEGER_VALUE;
+            case Constants.DataType.DATE_CODE -> Constants.DataType.DATE_VALUE;
+            case Constants.DataType.BOOLEAN_CODE -> Constants.DataType.BOOLEAN_VALUE;
+            case Constants.DataType.BINARY_CODE -> Constants.DataType.BINARY_VALUE;
+            case Constants.DataType.BIGNUMBER_CODE -> Constants.DataType.BIGNUMBER_VALUE;
+            case Constants.DataType.UNDEFINED_CODE -> Constants.DataType.UNDEFINED_VALUE;
+            default -> null;
+        };
+    }
+
+    // ---------- 类型转换辅助（已是目标类型时跳过字符串往返） ----------
+
+    private static double toDouble(Object obj) {
+        if (obj instanceof Double) {
+            return (Double) obj;
+        }
+        if (obj instanceof Long) {
+            return (Long) obj;
+        }
+        return Double.parseDouble(obj.toString());
+    }
+
+    private static long toLong(Object obj) {
+        if (obj instanceof Long) {
+            return (Long) obj;
+        }
+        return Long.parseLong(obj.toString());
+    }
+
+    private static BigDecimal toBigDecimal(Object obj) {
+        if (obj instanceof BigDecimal) {
+            return (BigDecimal) obj;
+        }
+        if (obj instanceof Long) {
+            return BigDecimal.valueOf((Long) obj);
+        }
+        return new BigDecimal(obj.toString());
+    }
+
+    private static long toTimestamp(Object obj) {
+        if (obj instanceof Date) {
+            return ((Date) obj).getTime();
+        }
+        String str = obj.toString().replace(".0", "");
+        return parseLocalDateTime(str).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime parseLocalDateTime(String str) {
+        if (str.length() <= 10) {
+            str += " 00:00:00";
+        }
+        return LocalDateTime.parse(str, DEFAULT_FORMATTER);
+    }
+
+    private long toDateMillis(Object obj) {
+        if (obj instanceof Date) {
+            return ((Date) obj).getTime();
+        }
+        String str = obj.toString();
+        try {
+            return sourceDateFormat.parse(str).getTime();
+        } catch (ParseException e) {
+            return parseLocalDateTime(str).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+    }
+}
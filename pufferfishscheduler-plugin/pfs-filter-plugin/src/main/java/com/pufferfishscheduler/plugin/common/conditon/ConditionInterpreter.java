@@ -0,0 +1,324 @@
+package com.pufferfishscheduler.plugin.common.conditon;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.pufferfishscheduler.plugin.common.Constants;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+
+/**
+ * 条件树解释器
+ * <p>
+ * 每行解析一次条件 JSON 并逐个条件求值，对应 DataFilterStep 的解释模式（compileCondition=false）。
+ * 编译模式见 {@link ConditionCompiler}，两者求值语义保持一致：字段值为空时只有 "=" 和 "!=" 可能成立；
+ * 数值、日期、二进制类型的过滤值为空时比较不成立（"!=" 成立），不抛出异常。
+ * </p>
+ */
+public class ConditionInterpreter {
+
+    // 日期格式常量
+    private static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+    private static final String SOURCE_DATE_FORMAT = "EEE MMM dd HH:mm:ss zzz yyyy";
+
+    private final List<String> fieldNames;
+    private final LogChannelInterface log;
+
+    /**
+     * @param fieldNames 输入行字段名（与行数据下标一一对应）
+     * @param log        日志通道
+     */
+    public ConditionInterpreter(List<String> fieldNames, LogChannelInterface log) {
+        this.fieldNames = fieldNames;
+        this.log = log;
+    }
+
+    /**
+     * 解析 JSON 多条件表达式，并递归求值
+     *
+     * @param conditionJson 条件树 JSON
+     * @param row           行数据
+     * @return 是否满足条件
+     */
+    public boolean evaluate(String conditionJson, Object[] row) throws KettleStepException {
+        ConditionTree conditionTree = JSONObject.parseObject(conditionJson, ConditionTree.class);
+        if (conditionTree == null) {
+            throw new KettleStepException("无效的多条件配置 JSON。");
+        }
+        return evaluateConditionTree(conditionTree, row);
+    }
+
+    /**
+     * 递归求值条件树（顶层）
+     */
+    private boolean evaluateConditionTree(ConditionTree tree, Object[] row) throws KettleStepException {
+        List<ConditionGroup> groups = tree.getConditionGroups();
+        if (groups == null || groups.isEmpty()) {
+            return true; // 无条件，保留所有行
+        }
+        String logic = tree.getCondition(); // "ALL" 或 "ANY"
+        boolean result = Constants.Condition.ALL.equalsIgnoreCase(logic);
+        for (ConditionGroup group : groups) {
+            boolean groupResult = evaluateConditionGroup(group, row);
+            if (Constants.Condition.ALL.equalsIgnoreCase(logic)) {
+                result = result && groupResult;
+                if (!result) break;
+            } else { // ANY
+                result = result || groupResult;
+                if (result) break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 求值单个条件组
+     */
+    private boolean evaluateConditionGroup(ConditionGroup group, Object[] row) throws KettleStepException {
+        List<ConditionParam> params = group.getQueryConditions();
+        if (params == null || params.isEmpty()) {
+            return true;
+        }
+        String logic = group.getCondition(); // "ALL" 或 "ANY"
+        boolean result = Constants.Condition.ALL.equalsIgnoreCase(logic);
+        for (ConditionParam param : params) {
+            boolean paramResult = evaluateConditionParam(param, row);
+            if (Constants.Condition.ALL.equalsIgnoreCase(logic)) {
+                result = result && paramResult;
+                if (!result) break;
+            } else {
+                result = result || paramResult;
+                if (result) break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 求值单个条件
+     */
+    private boolean evaluateConditionParam(ConditionParam param, Object[] row) throws KettleStepException {
+        String columnName = param.getColumnName();
+        Object filterValue = param.getFilterValue();
+        String dataType = param.getDataType();
+        String filterCondition = param.getFilterCondition();
+
+        int index = fieldNames.indexOf(columnName);
+        if (index < 0) {
+            log.logError("字段 " + columnName + " 不在当前行元数据中。");
+            return false;
+        }
+        Object fieldValue = row[index];
+        return evaluateFieldCondition(fieldValue, filterValue, filterCondition, dataType);
+    }
+
+    /**
+     * 映射前端传入的数据类型标识到内部编码
+     */
+    private Integer mapDataType(Object dataType) {
+        String type = String.valueOf(dataType);
+        return switch (type) {
+            case Constants.DataType.TIMESTAMP_CODE -> Constants.DataType.TIMESTAMP_VALUE;
+            case Constants.DataType.STRING_CODE -> Constants.DataType.STRING_VALUE;
+            case Constants.DataType.NUMBER_CODE -> Constants.DataType.NUMBER_VALUE;
+            case Constants.DataType.INTERNET_ADDRESS_CODE -> Constants.DataType.INTERNET_ADDRESS_VALUE;
+            case Constants.DataType.INTEGER_CODE -> Constants.DataType.INTEGER_VALUE;
+            case Constants.DataType.DATE_CODE -> Constants.DataType.DATE_VALUE;
+            case Constants.DataType.BOOLEAN_CODE -> Constants.DataType.BOOLEAN_VALUE;
+            case Constants.DataType.BINARY_CODE -> Constants.DataType.BINARY_VALUE;
+            case Constants.DataType.BIGNUMBER_CODE -> Constants.DataType.BIGNUMBER_VALUE;
+            case Constants.DataType.UNDEFINED_CODE -> Constants.DataType.UNDEFINED_VALUE;
+            default -> null;
+        };
+    }
+
+    // ---------- 比较操作实现 ----------
+
+    private boolean compareEqual(Object field, Object target, Integer dataTypeCode) {
+        if (dataTypeCode == null) return false;
+        return switch (dataTypeCode) {
+            case Constants.DataType.TIMESTAMP_VALUE -> toTimestamp(field) == toTimestamp(target);
+            case Constants.DataType.STRING_VALUE -> String.valueOf(field).equals(String.valueOf(target));
+            case Constants.DataType.NUMBER_VALUE -> Double.compare(toDouble(field), toDouble(target)) == 0;
+            case Constants.DataType.INTEGER_VALUE -> Long.compare(toLong(field), toLong(target)) == 0;
+            case Constants.DataType.DATE_VALUE -> toDateMillis(field) == toDateMillis(target);
+            case Constants.DataType.BOOLEAN_VALUE ->
+                    Boolean.parseBoolean(String.valueOf(field)) == Boolean.parseBoolean(String.valueOf(target));
+            case Constants.DataType.BINARY_VALUE ->
+                    Integer.parseInt(field.toString(), 2) == Integer.parseInt(target.toString(), 2);
+            case Constants.DataType.BIGNUMBER_VALUE -> toBigDecimal(field).compareTo(toBigDecimal(target)) == 0;
+            default -> false;
+        };
+    }
+
+    private boolean compareGreater(Object field, Object target, Integer dataTypeCode) {
+        return switch (dataTypeCode) {
+            case Constants.DataType.TIMESTAMP_VALUE -> toTimestamp(field) > toTimestamp(target);
+            case Constants.DataType.STRING_VALUE -> String.valueOf(field).compareTo(String.valueOf(target)) > 0;
+            case Constants.DataType.NUMBER_VALUE -> Double.compare(toDouble(field), toDouble(target)) > 0;
+            case Constants.DataType.INTEGER_VALUE -> Long.compare(toLong(field), toLong(target)) > 0;
+            case Constants.DataType.DATE_VALUE -> toDateMillis(field) > toDateMillis(target);
+            case Constants.DataType.BINARY_VALUE ->
+                    Integer.parseInt(field.toString(), 2) > Integer.parseInt(target.toString(), 2);
+            case Constants.DataType.BIGNUMBER_VALUE -> toBigDecimal(field).compareTo(toBigDecimal(target)) > 0;
+            default -> false;
+        };
+    }
+
+    private boolean compareLess(Object field, Object target, Integer dataTypeCode) {
+        return switch (dataTypeCode) {
+            case Constants.DataType.TIMESTAMP_VALUE -> toTimestamp(field) < toTimestamp(target);
+            case Constants.DataType.STRING_VALUE -> String.valueOf(field).compareTo(String.valueOf(target)) < 0;
+            case Constants.DataType.NUMBER_VALUE -> Double.compare(toDouble(field), toDouble(target)) < 0;
+            case Constants.DataType.INTEGER_VALUE -> Long.compare(toLong(field), toLong(target)) < 0;
+            case Constants.DataType.DATE_VALUE -> toDateMillis(field) < toDateMillis(target);
+            case Constants.DataType.BINARY_VALUE ->
+                    Integer.parseInt(field.toString(), 2) < Integer.parseInt(target.toString(), 2);
+            case Constants.DataType.BIGNUMBER_VALUE -> toBigDecimal(field).compareTo(toBigDecimal(target)) < 0;
+            default -> false;
+        };
+    }
+
+    private boolean compareGreaterOrEqual(Object field, Object target, Integer dataTypeCode) {
+        return switch (dataTypeCode) {
+            case Constants.DataType.TIMESTAMP_VALUE -> toTimestamp(field) >= toTimestamp(target);
+            case Constants.DataType.STRING_VALUE -> String.valueOf(field).compareTo(String.valueOf(target)) >= 0;
+            case Constants.DataType.NUMBER_VALUE -> Double.compare(toDouble(field), toDouble(target)) >= 0;
+            case Constants.DataType.INTEGER_VALUE -> Long.compare(toLong(field), toLong(target)) >= 0;
+            case Constants.DataType.DATE_VALUE -> toDateMillis(field) >= toDateMillis(target);
+            case Constants.DataType.BINARY_VALUE ->
+                    Integer.parseInt(field.toString(), 2) >= Integer.parseInt(target.toString(), 2);
+            case Constants.DataType.BIGNUMBER_VALUE -> toBigDecimal(field).compareTo(toBigDecimal(target)) >= 0;
+            default -> false;
+        };
+    }
+
+    private boolean compareLessOrEqual(Object field, Object target, Integer dataTypeCode) {
+        return switch (dataTypeCode) {
+            case Constants.DataType.TIMESTAMP_VALUE -> toTimestamp(field) <= toTimestamp(target);
+            case Constants.DataType.STRING_VALUE -> String.valueOf(field).compareTo(String.valueOf(target)) <= 0;
+            case Constants.DataType.NUMBER_VALUE -> Double.compare(toDouble(field), toDouble(target)) <= 0;
+            case Constants.DataType.INTEGER_VALUE -> Long.compare(toLong(field), toLong(target)) <= 0;
+            case Constants.DataType.DATE_VALUE -> toDateMillis(field) <= toDateMillis(target);
+            case Constants.DataType.BINARY_VALUE ->
+                    Integer.parseInt(field.toString(), 2) <= Integer.parseInt(target.toString(), 2);
+            case Constants.DataType.BIGNUMBER_VALUE -> toBigDecimal(field).compareTo(toBigDecimal(target)) <= 0;
+            default -> false;
+        };
+    }
+
+    // ---------- 类型转换辅助 ----------
+
+    private double toDouble(Object obj) {
+        return Double.parseDouble(obj.toString());
+    }
+
+    private long toLong(Object obj) {
+        return Long.parseLong(obj.toString());
+    }
+
+    private BigDecimal toBigDecimal(Object obj) {
+        return new BigDecimal(obj.toString());
+    }
+
+    /**
+     * 将对象转换为时间戳（毫秒）
+     */
+    private long toTimestamp(Object obj) {
+        if (obj instanceof Date) {
+            return ((Date) obj).getTime();
+        }
+        String str = obj.toString().replace(".0", ""); // 处理可能的时间戳格式
+        LocalDateTime ldt = parseLocalDateTime(str);
+        return ldt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 将对象解析为 LocalDateTime，支持常见格式
+     */
+    private LocalDateTime parseLocalDateTime(String str) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DEFAULT_DATE_FORMAT);
+        // 如果只包含日期，补上时间
+        if (str.length() <= 10) {
+            str += " 00:00:00";
+        }
+        return LocalDateTime.parse(str, formatter);
+    }
+
+    /**
+     * 将对象转换为日期毫秒数（用于 Date 类型比较）
+     */
+    private long toDateMillis(Object obj) {
+        if (obj instanceof Date) {
+            return ((Date) obj).getTime();
+        }
+        String str = obj.toString();
+        // 尝试解析原始格式
+        try {
+            SimpleDateFormat sdf = new SimpleDateFormat(SOURCE_DATE_FORMAT, Locale.ENGLISH);
+            Date date = sdf.parse(str);
+            return date.getTime();
+        } catch (ParseException e) {
+            // 如果失败，使用默认格式解析
+            return parseLocalDateTime(str).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+    }
+
+    private static boolean isComparison(String operator) {
+        return Constants.OperatorType.equal.equals(operator) || Constants.OperatorType.notEqual.equals(operator)
+                || Constants.OperatorType.great.equals(operator) || Constants.OperatorType.less.equals(operator)
+                || Constants.OperatorType.greatEqual.equals(operator) || Constants.OperatorType.lessEqual.equals(operator);
+    }
+
+    /**
+     * 数值、日期、二进制类型的比较需要非空过滤值，字符串、布尔等类型按 "null" 文本比较
+     */
+    private static boolean requiresTarget(Integer dataTypeCode) {
+        return dataTypeCode != null
+                && dataTypeCode != Constants.DataType.STRING_VALUE
+                && dataTypeCode != Constants.DataType.BOOLEAN_VALUE
+                && dataTypeCode != Constants.DataType.INTERNET_ADDRESS_VALUE
+                && dataTypeCode != Constants.DataType.UNDEFINED_VALUE;
+    }
+
+    /**
+     * 字段条件求值（根据操作符和数据类型进行比较）
+     * 该方法是原有的核心比较逻辑，被 evaluateConditionParam 复用。
+     */
+    private boolean evaluateFieldCondition(Object fieldValue, Object targetValue, String operator, String dataType) {
+        if (fieldValue == null) {
+            // 对于 NULL 值的处理，可根据业务决定，这里假设 NULL 只匹配 "=" 和 "!="
+            return (Constants.OperatorType.equal.equals(operator) && targetValue == null) ||
+                    (Constants.OperatorType.notEqual.equals(operator) && targetValue != null);
+        }
+
+        Integer dataTypeCode = mapDataType(dataType);
+        if (targetValue == null && isComparison(operator) && requiresTarget(dataTypeCode)) {
+            // 过滤值为空时比较不成立（"!=" 成立），与编译模式一致，不中断转换
+            return Constants.OperatorType.notEqual.equals(operator);
+        }
+        return switch (operator) {
+            case Constants.OperatorType.equal -> compareEqual(fieldValue, targetValue, dataTypeCode);
+            case Constants.OperatorType.notEqual -> !compareEqual(fieldValue, targetValue, dataTypeCode);
+            case Constants.OperatorType.great -> compareGreater(fieldValue, targetValue, dataTypeCode);
+            case Constants.OperatorType.less -> compareLess(fieldValue, targetValue, dataTypeCode);
+            case Constants.OperatorType.greatEqual -> compareGreaterOrEqual(fieldValue, targetValue, dataTypeCode);
+            case Constants.OperatorType.lessEqual -> compareLessOrEqual(fieldValue, targetValue, dataTypeCode);
+            case Constants.OperatorType.startWith -> String.valueOf(fieldValue).startsWith(String.valueOf(targetValue));
+            case Constants.OperatorType.endWith -> String.valueOf(fieldValue).endsWith(String.valueOf(targetValue));
+            case Constants.OperatorType.contains -> String.valueOf(fieldValue).contains(String.valueOf(targetValue));
+            default -> {
+                log.logError("不支持的操作符: " + operator);
+                yield false;
+            }
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package com.pufferfishscheduler.plugin.common.conditon;
+
+import static com.pufferfishscheduler.plugin.common.conditon.Conditions.group;
+import static com.pufferfishscheduler.plugin.common.conditon.Conditions.param;
+import static com.pufferfishscheduler.plugin.common.conditon.Conditions.tree;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.pufferfishscheduler.plugin.common.Constants;
+
+/**
+ * 条件编译：过滤值为空时不中断转换，编译结果与逐行解释求值一致
+ */
+class ConditionCompilerTest {
+
+    private static final List<String> FIELDS = List.of("id", "name", "amount", "price", "created");
+
+    private static final String[] OPERATORS = {
+            Constants.OperatorType.equal, Constants.OperatorType.notEqual, Constants.OperatorType.great,
+            Constants.OperatorType.less, Constants.OperatorType.greatEqual, Constants.OperatorType.lessEqual
+    };
+
+    private final List<String> errors = new ArrayList<>();
+
+    private final LogChannelInterface log = Conditions.log(errors);
+
+    @Test
+    void nullNumericTargetCompilesToFalseComparison() throws KettleStepException {
+        Object[] row = {7L, "a", 10.5D, new BigDecimal("1.5"), "2024-01-05 10:00:00"};
+        for (String type : new String[]{Constants.DataType.NUMBER_CODE, Constants.DataType.INTEGER_CODE,
+                Constants.DataType.BIGNUMBER_CODE, Constants.DataType.TIMESTAMP_CODE, Constants.DataType.DATE_CODE}) {
+            String column = column(type);
+            for (String operator : OPERATORS) {
+                ConditionCompiler.RowPredicate predicate = compile(
+                        tree(Constants.Condition.ALL, group(Constants.Condition.ALL, param(column, type, operator, null))));
+                boolean expected = Constants.OperatorType.notEqual.equals(operator);
+                assertEquals(expected, predicate.test(row), type + " " + operator);
+            }
+        }
+        assertFalse(errors.isEmpty());
+    }
+
+    @Test
+    void nullNumericTargetStillMatchesNullFieldOnEqual() throws KettleStepException {
+        ConditionCompiler.RowPredicate predicate = compile(tree(Constants.Condition.ALL, group(Constants.Condition.ALL,
+                param("amount", Constants.DataType.NUMBER_CODE, Constants.OperatorType.equal, null))));
+
+        assertTrue(predicate.test(new Object[]{1L, "a", null, null, null}));
+        assertFalse(predicate.test(new Object[]{1L, "a", 3.0D, null, null}));
+    }
+
+    @Test
+    void compiledPredicateMatchesInterpreter() throws KettleStepException {
+        Object[][] rows = {
+                {1L, "alpha", 10.0D, new BigDecimal("9.99"), "2024-01-01 00:00:00"},
+                {5L, "beta", 50.5D, new BigDecimal("100.00"), "2024-06-15 12:30:00"},
+                {9L, "gamma", 99.9D, new BigDecimal("0.01"), "2025-03-01 08:00:00"},
+                {5L, null, null, null, null},
+                {null, "delta", 50.5D, new BigDecimal("100"), "2024-06-15"},
+        };
+        Object[][] targets = {
+                {"id", Constants.DataType.INTEGER_CODE, "5"},
+                {"name", Constants.DataType.STRING_CODE, "beta"},
+                {"amount", Constants.DataType.NUMBER_CODE, "50.5"},
+                {"price", Constants.DataType.BIGNUMBER_CODE, "100"},
+                {"created", Constants.DataType.TIMESTAMP_CODE, "2024-06-15 12:30:00"},
+        };
+        ConditionInterpreter interpreter = new ConditionInterpreter(FIELDS, log);
+        for (Object[] target : targets) {
+            for (String operator : OPERATORS) {
+                ConditionTree tree = tree(Constants.Condition.ANY, group(Constants.Condition.ALL,
+                        param((String) target[0], (String) target[1], operator, target[2])));
+                ConditionCompiler.RowPredicate predicate = compile(tree);
+                String json = JSONObject.toJSONString(tree);
+                for (Object[] row : rows) {
+                    assertEquals(interpreter.evaluate(json, row), predicate.test(row),
+                            target[0] + " " + operator + " " + target[2] + " on " + row[FIELDS.indexOf((String) target[0])]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void compiledPredicateMatchesInterpreterOnNullValues() throws KettleStepException {
+        Object[][] rows = {
+                {5L, "beta", 50.5D, new BigDecimal("100"), "2024-06-15 12:30:00"},
+                {null, null, null, null, null},
+        };
+        String[] types = {Constants.DataType.INTEGER_CODE, Constants.DataType.STRING_CODE, Constants.DataType.NUMBER_CODE,
+                Constants.DataType.BIGNUMBER_CODE, Constants.DataType.TIMESTAMP_CODE, Constants.DataType.DATE_CODE,
+                Constants.DataType.BOOLEAN_CODE};
+        String[] operators = {
+                Constants.OperatorType.equal, Constants.OperatorType.notEqual, Constants.OperatorType.great,
+                Constants.OperatorType.less, Constants.OperatorType.greatEqual, Constants.OperatorType.lessEqual,
+                Constants.OperatorType.startWith, Constants.OperatorType.endWith, Constants.OperatorType.contains
+        };
+        ConditionInterpreter interpreter = new ConditionInterpreter(FIELDS, log);
+        for (String type : types) {
+            String column = Constants.DataType.STRING_CODE.equals(type) || Constants.DataType.BOOLEAN_CODE.equals(type)
+                    ? "name" : column(type);
+            for (String operator : operators) {
+                ConditionTree tree = tree(Constants.Condition.ALL,
+                        group(Constants.Condition.ALL, param(column, type, operator, null)));
+                ConditionCompiler.RowPredicate predicate = compile(tree);
+                String json = JSONObject.toJSONString(tree);
+                for (Object[] row : rows) {
+                    assertEquals(interpreter.evaluate(json, row), predicate.test(row),
+                            type + " " + operator + " null on " + row[FIELDS.indexOf(column)]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void groupsCombineWithShortCircuit() throws KettleStepException {
+        ConditionTree tree = tree(Constants.Condition.ANY,
+                group(Constants.Condition.ALL,
+                        param("id", Constants.DataType.INTEGER_CODE, Constants.OperatorType.greatEqual, "5"),
+                        param("name", Constants.DataType.STRING_CODE, Constants.OperatorType.startWith, "b")),
+                group(Constants.Condition.ALL,
+                        param("amount", Constants.DataType.NUMBER_CODE, Constants.OperatorType.less, "20")));
+        ConditionCompiler.RowPredicate predicate = compile(tree);
+
+        assertTrue(predicate.test(new Object[]{5L, "beta", 99.0D, null, null}));
+        assertTrue(predicate.test(new Object[]{1L, "alpha", 10.0D, null, null}));
+        assertFalse(predicate.test(new Object[]{9L, "gamma", 99.0D, null, null}));
+    }
+
+    private ConditionCompiler.RowPredicate compile(ConditionTree tree) throws KettleStepException {
+        return ConditionCompiler.compile(tree, FIELDS, log);
+    }
+
+    private static String column(String type) {
+        return switch (type) {
+            case Constants.DataType.INTEGER_CODE -> "id";
+            case Constants.DataType.BIGNUMBER_CODE -> "price";
+            case Constants.DataType.TIMESTAMP_CODE, Constants.DataType.DATE_CODE -> "created";
+            default -> "amount";
+        };
+    }
+}
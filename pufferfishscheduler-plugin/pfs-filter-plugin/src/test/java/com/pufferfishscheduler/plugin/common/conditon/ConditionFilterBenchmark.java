@@ -0,0 +1,131 @@
+package com.pufferfishscheduler.plugin.common.conditon;
+
+import static com.pufferfishscheduler.plugin.common.conditon.Conditions.group;
+import static com.pufferfishscheduler.plugin.common.conditon.Conditions.param;
+import static com.pufferfishscheduler.plugin.common.conditon.Conditions.tree;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.pentaho.di.core.logging.LogChannelInterface;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.pufferfishscheduler.plugin.common.Constants;
+
+/**
+ * 数据过滤吞吐：改造前逐行解析条件 JSON 并解释求值，与编译后的行谓词对比；条件集为单条件以及多组多类型混合条件。
+ * <p>
+ * 运行：在测试类路径下执行 {@link #main(String[])}，结果单位为每秒过滤的输入行数。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConditionFilterBenchmark {
+
+    private static final int ROWS_PER_OP = 1_024;
+
+    private static final List<String> FIELDS = List.of("order_id", "customer", "amount", "price", "created", "paid");
+
+    /**
+     * single：一个整数比较；mixed：两组共六个条件，覆盖整数、字符串、浮点、大数、时间戳与布尔
+     */
+    @Param({"single", "mixed"})
+    public String conditions;
+
+    private String json;
+
+    private ConditionInterpreter interpreter;
+
+    private ConditionCompiler.RowPredicate predicate;
+
+    private Object[][] rows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ConditionTree conditionTree = "single".equals(conditions)
+                ? tree(Constants.Condition.ALL, group(Constants.Condition.ALL,
+                        param("order_id", Constants.DataType.INTEGER_CODE, Constants.OperatorType.greatEqual, "500")))
+                : tree(Constants.Condition.ANY,
+                        group(Constants.Condition.ALL,
+                                param("amount", Constants.DataType.NUMBER_CODE, Constants.OperatorType.great, "300.5"),
+                                param("created", Constants.DataType.TIMESTAMP_CODE, Constants.OperatorType.less,
+                                        "2024-07-01 00:00:00"),
+                                param("paid", Constants.DataType.BOOLEAN_CODE, Constants.OperatorType.equal, "true")),
+                        group(Constants.Condition.ANY,
+                                param("customer", Constants.DataType.STRING_CODE, Constants.OperatorType.startWith,
+                                        "vip_"),
+                                param("price", Constants.DataType.BIGNUMBER_CODE, Constants.OperatorType.lessEqual,
+                                        "9.90"),
+                                param("order_id", Constants.DataType.INTEGER_CODE, Constants.OperatorType.notEqual,
+                                        "0")));
+        json = JSONObject.toJSONString(conditionTree);
+
+        LogChannelInterface log = Conditions.log(new ArrayList<>());
+        interpreter = new ConditionInterpreter(FIELDS, log);
+        predicate = ConditionCompiler.compile(conditionTree, FIELDS, log);
+
+        Random random = new Random(42);
+        rows = new Object[ROWS_PER_OP][];
+        for (int i = 0; i < ROWS_PER_OP; i++) {
+            rows[i] = new Object[]{
+                    (long) random.nextInt(1_000),
+                    (random.nextInt(10) == 0 ? "vip_" : "c_") + random.nextInt(10_000),
+                    random.nextInt(100_000) / 100.0D,
+                    BigDecimal.valueOf(random.nextInt(2_000), 2),
+                    String.format("2024-%02d-%02d %02d:00:00", 1 + random.nextInt(12), 1 + random.nextInt(28),
+                            random.nextInt(24)),
+                    random.nextBoolean()
+            };
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_OP)
+    public int interpreted() throws Exception {
+        int kept = 0;
+        for (Object[] row : rows) {
+            if (interpreter.evaluate(json, row)) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_OP)
+    public int compiled() {
+        int kept = 0;
+        for (Object[] row : rows) {
+            if (predicate.test(row)) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(ConditionFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,59 @@
+package com.pufferfishscheduler.plugin.common.conditon;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+
+import org.pentaho.di.core.logging.LogChannelInterface;
+
+/**
+ * 测试用条件树构造与日志替身，无需初始化 Kettle 环境
+ */
+final class Conditions {
+
+    private Conditions() {
+    }
+
+    static ConditionParam param(String columnName, String dataType, String operator, Object filterValue) {
+        ConditionParam param = new ConditionParam();
+        param.setColumnName(columnName);
+        param.setDataType(dataType);
+        param.setFilterCondition(operator);
+        param.setFilterValue(filterValue);
+        return param;
+    }
+
+    static ConditionGroup group(String condition, ConditionParam... params) {
+        ConditionGroup group = new ConditionGroup();
+        group.setCondition(condition);
+        group.setQueryConditions(Arrays.asList(params));
+        return group;
+    }
+
+    static ConditionTree tree(String condition, ConditionGroup... groups) {
+        ConditionTree tree = new ConditionTree();
+        tree.setCondition(condition);
+        tree.setConditionGroups(Arrays.asList(groups));
+        return tree;
+    }
+
+    /**
+     * 记录 logError 消息的日志通道，其余方法返回默认值
+     */
+    static LogChannelInterface log(List<String> errors) {
+        return (LogChannelInterface) Proxy.newProxyInstance(LogChannelInterface.class.getClassLoader(),
+                new Class<?>[]{LogChannelInterface.class}, (proxy, method, args) -> {
+                    if ("logError".equals(method.getName()) && args != null && args.length > 0) {
+                        errors.add(String.valueOf(args[0]));
+                    }
+                    Class<?> type = method.getReturnType();
+                    if (type == boolean.class) {
+                        return false;
+                    }
+                    if (type == int.class) {
+                        return 0;
+                    }
+                    return null;
+                });
+    }
+}
@@ -7,9 +7,12 @@ import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 
 /**
- * 构建 Kafka Producer；认证参数通过 {@link KafkaProducerOutputMeta#getConfig()} 合并进客户端配置。
+ * 构建 Kafka Producer；吞吐参数、投递保证按元数据设置，认证等参数通过 {@link KafkaProducerOutputMeta#getConfig()}
+ * 合并进客户端配置（高级参数优先）。
  */
 public class KafkaFactory {
+    private static final int MAX_IDEMPOTENT_IN_FLIGHT = 5;
+
     private final Function<Map<String, Object>, Producer<Object, Object>> producerFunction;
 
     public static KafkaFactory defaultFactory() {
@@ -26,17 +29,65 @@ public class KafkaFactory {
 
     public Producer<Object, Object> producer(KafkaProducerOutputMeta meta, Function<String, String> variablesFunction,
             KafkaTypes.Serde keySerializerType, KafkaTypes.Serde msgSerializerType) {
+        return producer(meta, variablesFunction, keySerializerType, msgSerializerType, null);
+    }
+
+    /**
+     * @param transactionalId 事务模式下的 transactional.id，其他模式忽略
+     */
+    public Producer<Object, Object> producer(KafkaProducerOutputMeta meta, Function<String, String> variablesFunction,
+            KafkaTypes.Serde keySerializerType, KafkaTypes.Serde msgSerializerType, String transactionalId) {
         Function<String, String> substitute = variablesFunction.andThen(KafkaFactory::nullToEmpty);
         HashMap<String, Object> kafkaConfig = new HashMap<>();
         kafkaConfig.put("bootstrap.servers", substitute.apply(meta.getBootstrapServers()));
         kafkaConfig.put("client.id", substitute.apply(meta.getClientId()));
         kafkaConfig.put("value.serializer", msgSerializerType.getKafkaSerializerClass());
         kafkaConfig.put("key.serializer", keySerializerType.getKafkaSerializerClass());
+        applyThroughput(meta, substitute, kafkaConfig);
+        applyDeliveryGuarantee(meta, transactionalId, kafkaConfig);
         meta.getConfig().entrySet().forEach(entry ->
                 kafkaConfig.put(entry.getKey(), substitute.apply(entry.getValue())));
         return this.producerFunction.apply(kafkaConfig);
     }
 
+    private static void applyThroughput(KafkaProducerOutputMeta meta, Function<String, String> substitute,
+            Map<String, Object> kafkaConfig) {
+        if (meta.getBatchSize() > 0) {
+            kafkaConfig.put("batch.size", meta.getBatchSize());
+        }
+        if (meta.getLingerMs() >= 0) {
+            kafkaConfig.put("linger.ms", meta.getLingerMs());
+        }
+        String compression = substitute.apply(meta.getCompressionType()).trim();
+        if (!compression.isEmpty()) {
+            kafkaConfig.put("compression.type", compression);
+        }
+        if (meta.getMaxInFlightRequests() > 0) {
+            kafkaConfig.put("max.in.flight.requests.per.connection", meta.getMaxInFlightRequests());
+        }
+    }
+
+    private static void applyDeliveryGuarantee(KafkaProducerOutputMeta meta, String transactionalId,
+            Map<String, Object> kafkaConfig) {
+        KafkaProducerOutputMeta.DeliveryGuarantee guarantee = meta.getDeliveryGuarantee();
+        if (guarantee == KafkaProducerOutputMeta.DeliveryGuarantee.DEFAULT) {
+            return;
+        }
+        kafkaConfig.put("enable.idempotence", "true");
+        kafkaConfig.put("acks", "all");
+        // 幂等生产者要求未确认请求数不超过 5
+        if (meta.getMaxInFlightRequests() > MAX_IDEMPOTENT_IN_FLIGHT) {
+            kafkaConfig.put("max.in.flight.requests.per.connection", MAX_IDEMPOTENT_IN_FLIGHT);
+        }
+        if (guarantee == KafkaProducerOutputMeta.DeliveryGuarantee.TRANSACTIONAL && transactionalId != null) {
+            kafkaConfig.put("transactional.id", transactionalId);
+            // 未设置提交行数时整个运行是一个事务，客户端默认的 60 秒超时会使较长的运行被 broker 中止
+            if (meta.getTransactionTimeoutMs() > 0) {
+                kafkaConfig.put("transaction.timeout.ms", meta.getTransactionTimeoutMs());
+            }
+        }
+    }
+
     private static String nullToEmpty(String value) {
         return value == null ? "" : value;
     }
@@ -1,6 +1,7 @@
 package com.pufferfishscheduler.plugin;
 
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.util.StringUtil;
@@ -13,10 +14,19 @@ import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
 
 /**
- * Kafka 输出步骤：按行将 key/message 字段发送到指定 topic。
+ * Kafka 输出步骤：按行将 key/message 字段异步发送到指定 topic。
+ * <p>
+ * 发送结果由回调统计，失败数计入步骤错误并停止转换；步骤结束时 flush 等待全部确认。
+ * 事务模式下在事务内发送，步骤结束（或达到提交行数）时提交，发送失败或停止时回滚。
+ * </p>
  */
 public class KafkaProducerOutput extends BaseStep implements StepInterface {
 
+    /**
+     * 引擎为每次运行设置的内置参数（运行实例 id）
+     */
+    private static final String RUN_INSTANCE_VARIABLE = "instanceId";
+
     private KafkaProducerOutputMeta meta;
     private KafkaProducerOutputData data;
     private KafkaFactory kafkaFactory;
@@ -44,10 +54,8 @@ public class KafkaProducerOutput extends BaseStep implements StepInterface {
         ProducerRecord<Object, Object> producerRecord;
         Object[] r = getRow();
         if (r == null) {
+            finish();
             setOutputDone();
-            if (this.data.kafkaProducer != null) {
-                this.data.kafkaProducer.close();
-            }
             return false;
         }
         if (this.first) {
@@ -55,34 +63,182 @@ public class KafkaProducerOutput extends BaseStep implements StepInterface {
             this.data.messageFieldIndex = getInputRowMeta().indexOfValue(environmentSubstitute(this.meta.getMessageField()));
             ValueMetaInterface keyValueMeta = getInputRowMeta().getValueMeta(this.data.keyFieldIndex);
             ValueMetaInterface msgValueMeta = getInputRowMeta().getValueMeta(this.data.messageFieldIndex);
+            this.data.topic = environmentSubstitute(this.meta.getTopic());
+            this.data.transactional =
+                    this.meta.getDeliveryGuarantee() == KafkaProducerOutputMeta.DeliveryGuarantee.TRANSACTIONAL;
+            this.data.transactionCommitRows = this.meta.getTransactionCommitRows();
+            this.data.callback = (metadata, exception) -> {
+                if (exception != null) {
+                    this.data.firstFailure.compareAndSet(null, exception);
+                    this.data.failedSends.incrementAndGet();
+                }
+            };
             this.data.kafkaProducer = this.kafkaFactory.producer(this.meta, this::environmentSubstitute,
                     KafkaTypes.Serde.fromValueMetaInterface(keyValueMeta),
-                    KafkaTypes.Serde.fromValueMetaInterface(msgValueMeta));
+                    KafkaTypes.Serde.fromValueMetaInterface(msgValueMeta),
+                    this.data.transactional ? buildTransactionalId() : null);
             this.data.isOpen = true;
             this.first = false;
+            if (this.data.transactional) {
+                try {
+                    this.data.kafkaProducer.initTransactions();
+                    this.data.kafkaProducer.beginTransaction();
+                } catch (KafkaException e) {
+                    fail(e, 1);
+                    return false;
+                }
+            }
         }
         if (!this.data.isOpen) {
             return false;
         }
+        if (hasFailedSends()) {
+            return false;
+        }
         if (this.data.keyFieldIndex < 0 || r[this.data.keyFieldIndex] == null
                 || StringUtil.isEmpty(r[this.data.keyFieldIndex].toString())) {
-            producerRecord = new ProducerRecord<>(environmentSubstitute(this.meta.getTopic()), r[this.data.messageFieldIndex]);
+            producerRecord = new ProducerRecord<>(this.data.topic, r[this.data.messageFieldIndex]);
         } else {
-            producerRecord = new ProducerRecord<>(environmentSubstitute(this.meta.getTopic()),
+            producerRecord = new ProducerRecord<>(this.data.topic,
                     r[this.data.keyFieldIndex], r[this.data.messageFieldIndex]);
         }
-        this.data.kafkaProducer.send(producerRecord);
+        try {
+            this.data.kafkaProducer.send(producerRecord, this.data.callback);
+        } catch (KafkaException e) {
+            // 序列化失败、缓冲区等待超时、生产者被隔离等同步异常
+            fail(e, this.data.failedSends.get() + 1);
+            return false;
+        }
         incrementLinesOutput();
+        if (this.data.transactional && this.data.transactionCommitRows > 0
+                && ++this.data.rowsInTransaction >= this.data.transactionCommitRows) {
+            if (!commitTransaction(true)) {
+                return false;
+            }
+        }
         putRow(getInputRowMeta(), r);
         return true;
     }
 
-    @Override
-    public void stopRunning(StepMetaInterface stepMetaInterface, StepDataInterface stepDataInterface) {
-        if (this.data != null && this.data.kafkaProducer != null && this.data.isOpen) {
-            this.data.isOpen = false;
-            this.data.kafkaProducer.flush();
+    /**
+     * 输入结束：事务模式提交事务，否则 flush 等待全部确认，然后关闭生产者
+     */
+    private void finish() {
+        if (this.data == null || this.data.kafkaProducer == null || !this.data.isOpen) {
+            return;
+        }
+        if (this.data.transactional) {
+            if (!commitTransaction(false)) {
+                return;
+            }
+        } else {
+            try {
+                this.data.kafkaProducer.flush();
+            } catch (KafkaException e) {
+                fail(e, this.data.failedSends.get() + 1);
+                return;
+            }
+            if (hasFailedSends()) {
+                return;
+            }
+        }
+        this.data.isOpen = false;
+        this.data.kafkaProducer.close();
+    }
+
+    /**
+     * 提交当前事务
+     *
+     * @param beginNext 是否开启下一个事务
+     * @return 是否提交成功
+     */
+    private boolean commitTransaction(boolean beginNext) {
+        try {
+            // 提交前会先 flush，任一发送失败时提交抛出异常
+            this.data.kafkaProducer.commitTransaction();
+        } catch (KafkaException e) {
+            fail(e, Math.max(1, this.data.failedSends.get()));
+            return false;
+        }
+        if (hasFailedSends()) {
+            return false;
+        }
+        this.data.rowsInTransaction = 0;
+        if (beginNext) {
+            try {
+                this.data.kafkaProducer.beginTransaction();
+            } catch (KafkaException e) {
+                fail(e, 1);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 检查回调记录的发送失败，有失败时停止步骤
+     */
+    private boolean hasFailedSends() {
+        long failed = this.data.failedSends.get();
+        if (failed <= 0) {
+            return false;
+        }
+        fail(this.data.firstFailure.get(), failed);
+        return true;
+    }
+
+    /**
+     * 发送失败：计入错误数，回滚事务、关闭生产者并停止转换
+     */
+    private void fail(Exception e, long errors) {
+        logError("Kafka 发送失败，topic=" + this.data.topic + "，失败数=" + errors
+                + (e != null ? "，原因：" + e.getMessage() : ""), e);
+        setErrors(getErrors() + Math.max(1, errors));
+        closeProducer(true);
+        stopAll();
+        setOutputDone();
+    }
+
+    private void closeProducer(boolean abort) {
+        if (this.data == null || this.data.kafkaProducer == null || !this.data.isOpen) {
+            return;
+        }
+        this.data.isOpen = false;
+        try {
+            if (this.data.transactional) {
+                if (abort) {
+                    this.data.kafkaProducer.abortTransaction();
+                }
+            } else {
+                this.data.kafkaProducer.flush();
+            }
+        } catch (Exception e) {
+            logError("Kafka 生产者收尾失败：" + e.getMessage());
+        } finally {
             this.data.kafkaProducer.close();
         }
     }
+
+    /**
+     * transactional.id：前缀 + 转换名 + 步骤名 + 副本号 + 运行实例 id。
+     * <p>
+     * 同一转换的多次运行可能并发，带上运行实例 id 后各运行的生产者互不隔离；
+     * 异常退出的运行留下的未完成事务由 broker 在事务超时后中止。没有实例 id（如在 Spoon 中运行）时使用转换的日志通道 id。
+     * </p>
+     */
+    private String buildTransactionalId() {
+        String prefix = environmentSubstitute(this.meta.getTransactionalIdPrefix());
+        String runId = getVariable(RUN_INSTANCE_VARIABLE);
+        if (StringUtil.isEmpty(runId)) {
+            runId = getTrans().getLogChannelId();
+        }
+        String id = getTransMeta().getName() + "-" + getStepname() + "-" + getCopy() + "-" + runId;
+        return StringUtil.isEmpty(prefix) ? id : prefix + "-" + id;
+    }
+
+    @Override
+    public void stopRunning(StepMetaInterface stepMetaInterface, StepDataInterface stepDataInterface) {
+        // 手动停止时未提交的事务回滚，非事务模式 flush 已发送的数据
+        closeProducer(true);
+    }
 }
@@ -1,5 +1,8 @@
 package com.pufferfishscheduler.plugin;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.Producer;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -9,4 +12,17 @@ public class KafkaProducerOutputData extends BaseStepData implements StepDataInt
     int keyFieldIndex;
     int messageFieldIndex;
     boolean isOpen;
+    /**
+     * 变量替换后的 topic，首行解析一次
+     */
+    String topic;
+    boolean transactional;
+    long transactionCommitRows;
+    long rowsInTransaction;
+    /**
+     * 发送回调（在生产者 IO 线程执行）记录的失败数与第一个异常
+     */
+    final AtomicLong failedSends = new AtomicLong();
+    final AtomicReference<Exception> firstFailure = new AtomicReference<>();
+    Callback callback;
 }
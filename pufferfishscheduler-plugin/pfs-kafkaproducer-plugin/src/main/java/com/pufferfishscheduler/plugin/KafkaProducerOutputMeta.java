@@ -44,6 +44,19 @@ public class KafkaProducerOutputMeta extends BaseStepMeta implements StepMetaInt
     public static final String KEY_FIELD = "keyField";
     public static final String MESSAGE_FIELD = "messageField";
     public static final String ADVANCED_CONFIG = "advancedConfig";
+    public static final String BATCH_SIZE = "batchSize";
+    public static final String LINGER_MS = "lingerMs";
+    public static final String COMPRESSION_TYPE = "compressionType";
+    public static final String MAX_IN_FLIGHT_REQUESTS = "maxInFlightRequests";
+    public static final String DELIVERY_GUARANTEE = "deliveryGuarantee";
+    public static final String TRANSACTIONAL_ID_PREFIX = "transactionalIdPrefix";
+    public static final String TRANSACTION_COMMIT_ROWS = "transactionCommitRows";
+    public static final String TRANSACTION_TIMEOUT_MS = "transactionTimeoutMs";
+
+    /**
+     * 默认事务超时，与 broker 端 transaction.max.timeout.ms 的默认值（15 分钟）一致
+     */
+    public static final int DEFAULT_TRANSACTION_TIMEOUT_MS = 15 * 60 * 1000;
 
     @Injection(name = "DIRECT_BOOTSTRAP_SERVERS")
     private String directBootstrapServers;
@@ -72,6 +85,52 @@ public class KafkaProducerOutputMeta extends BaseStepMeta implements StepMetaInt
     @Injection(name = "CONNECTION_TYPE")
     private ConnectionType connectionType = ConnectionType.DIRECT;
 
+    /**
+     * 批次大小（字节），小于等于 0 时使用客户端默认值
+     */
+    @Injection(name = "BATCH_SIZE")
+    private int batchSize;
+
+    /**
+     * 批次等待时间（毫秒），小于 0 时使用客户端默认值
+     */
+    @Injection(name = "LINGER_MS")
+    private int lingerMs = -1;
+
+    /**
+     * 压缩方式：none/gzip/snappy/lz4/zstd，为空时使用客户端默认值
+     */
+    @Injection(name = "COMPRESSION_TYPE")
+    private String compressionType;
+
+    /**
+     * 单连接未确认请求数上限，小于等于 0 时使用客户端默认值；幂等、事务模式下不超过 5
+     */
+    @Injection(name = "MAX_IN_FLIGHT_REQUESTS")
+    private int maxInFlightRequests;
+
+    @Injection(name = "DELIVERY_GUARANTEE")
+    private DeliveryGuarantee deliveryGuarantee = DeliveryGuarantee.DEFAULT;
+
+    /**
+     * 事务 id 前缀，实际 transactional.id = 前缀 + 转换名 + 步骤名 + 副本号 + 运行实例 id；为空时不加前缀
+     */
+    @Injection(name = "TRANSACTIONAL_ID_PREFIX")
+    private String transactionalIdPrefix;
+
+    /**
+     * 事务模式下每发送多少行提交一次，小于等于 0 时只在步骤结束时提交
+     */
+    @Injection(name = "TRANSACTION_COMMIT_ROWS")
+    private long transactionCommitRows;
+
+    /**
+     * 事务超时（毫秒），即 transaction.timeout.ms；一个事务从开启到提交不能超过该时间，
+     * 且不能超过 broker 的 transaction.max.timeout.ms。小于等于 0 时使用客户端默认值（60 秒）
+     */
+    @Injection(name = "TRANSACTION_TIMEOUT_MS")
+    private int transactionTimeoutMs = DEFAULT_TRANSACTION_TIMEOUT_MS;
+
     private Map<String, String> config = new LinkedHashMap<>();
 
     public enum ConnectionType {
@@ -79,6 +138,35 @@ public class KafkaProducerOutputMeta extends BaseStepMeta implements StepMetaInt
         CLUSTER
     }
 
+    /**
+     * 投递保证
+     */
+    public enum DeliveryGuarantee {
+        /**
+         * 使用客户端默认配置（acks、重试由高级参数决定）
+         */
+        DEFAULT,
+        /**
+         * 幂等生产者：acks=all，重试不产生重复
+         */
+        IDEMPOTENT,
+        /**
+         * 事务生产者：在幂等基础上按事务提交，步骤结束时提交，失败或停止时回滚
+         */
+        TRANSACTIONAL;
+
+        public static DeliveryGuarantee parse(String value) {
+            if (value == null || value.isEmpty()) {
+                return DEFAULT;
+            }
+            try {
+                return valueOf(value);
+            } catch (IllegalArgumentException e) {
+                return DEFAULT;
+            }
+        }
+    }
+
     @Override
     public void loadXML(Node stepnode, List<DatabaseMeta> databases, IMetaStore metaStore) {
         readData(stepnode);
@@ -97,6 +185,15 @@ public class KafkaProducerOutputMeta extends BaseStepMeta implements StepMetaInt
         setTopic(XMLHandler.getTagValue(stepnode, TOPIC));
         setKeyField(XMLHandler.getTagValue(stepnode, KEY_FIELD));
         setMessageField(XMLHandler.getTagValue(stepnode, MESSAGE_FIELD));
+        setBatchSize(Const.toInt(XMLHandler.getTagValue(stepnode, BATCH_SIZE), 0));
+        setLingerMs(Const.toInt(XMLHandler.getTagValue(stepnode, LINGER_MS), -1));
+        setCompressionType(XMLHandler.getTagValue(stepnode, COMPRESSION_TYPE));
+        setMaxInFlightRequests(Const.toInt(XMLHandler.getTagValue(stepnode, MAX_IN_FLIGHT_REQUESTS), 0));
+        setDeliveryGuarantee(DeliveryGuarantee.parse(XMLHandler.getTagValue(stepnode, DELIVERY_GUARANTEE)));
+        setTransactionalIdPrefix(XMLHandler.getTagValue(stepnode, TRANSACTIONAL_ID_PREFIX));
+        setTransactionCommitRows(Const.toLong(XMLHandler.getTagValue(stepnode, TRANSACTION_COMMIT_ROWS), 0L));
+        setTransactionTimeoutMs(Const.toInt(XMLHandler.getTagValue(stepnode, TRANSACTION_TIMEOUT_MS),
+                DEFAULT_TRANSACTION_TIMEOUT_MS));
         this.config = new LinkedHashMap<>();
         org.w3c.dom.Node advancedNode = XMLHandler.getSubNode(stepnode, ADVANCED_CONFIG);
         if (advancedNode != null) {
@@ -125,6 +222,14 @@ public class KafkaProducerOutputMeta extends BaseStepMeta implements StepMetaInt
         this.topicVal = "";
         this.keyField = "";
         this.messageField = "message";
+        this.batchSize = 0;
+        this.lingerMs = -1;
+        this.compressionType = null;
+        this.maxInFlightRequests = 0;
+        this.deliveryGuarantee = DeliveryGuarantee.DEFAULT;
+        this.transactionalIdPrefix = null;
+        this.transactionCommitRows = 0L;
+        this.transactionTimeoutMs = DEFAULT_TRANSACTION_TIMEOUT_MS;
         this.config = new LinkedHashMap<>();
     }
 
@@ -143,6 +248,16 @@ public class KafkaProducerOutputMeta extends BaseStepMeta implements StepMetaInt
         setTopic(rep.getStepAttributeString(stepId, TOPIC));
         setKeyField(rep.getStepAttributeString(stepId, KEY_FIELD));
         setMessageField(rep.getStepAttributeString(stepId, MESSAGE_FIELD));
+        setBatchSize((int) rep.getStepAttributeInteger(stepId, BATCH_SIZE));
+        String linger = rep.getStepAttributeString(stepId, LINGER_MS);
+        setLingerMs(Const.toInt(linger, -1));
+        setCompressionType(rep.getStepAttributeString(stepId, COMPRESSION_TYPE));
+        setMaxInFlightRequests((int) rep.getStepAttributeInteger(stepId, MAX_IN_FLIGHT_REQUESTS));
+        setDeliveryGuarantee(DeliveryGuarantee.parse(rep.getStepAttributeString(stepId, DELIVERY_GUARANTEE)));
+        setTransactionalIdPrefix(rep.getStepAttributeString(stepId, TRANSACTIONAL_ID_PREFIX));
+        setTransactionCommitRows(rep.getStepAttributeInteger(stepId, TRANSACTION_COMMIT_ROWS));
+        setTransactionTimeoutMs(Const.toInt(rep.getStepAttributeString(stepId, TRANSACTION_TIMEOUT_MS),
+                DEFAULT_TRANSACTION_TIMEOUT_MS));
         this.config = new LinkedHashMap<>();
         int n = (int) rep.getStepAttributeInteger(stepId, ADVANCED_CONFIG + "_COUNT");
         for (int i = 0; i < n; i++) {
@@ -162,6 +277,14 @@ public class KafkaProducerOutputMeta extends BaseStepMeta implements StepMetaInt
         rep.saveStepAttribute(transformationId, stepId, TOPIC, this.topicVal);
         rep.saveStepAttribute(transformationId, stepId, KEY_FIELD, this.keyField);
         rep.saveStepAttribute(transformationId, stepId, MESSAGE_FIELD, this.messageField);
+        rep.saveStepAttribute(transformationId, stepId, BATCH_SIZE, this.batchSize);
+        rep.saveStepAttribute(transformationId, stepId, LINGER_MS, String.valueOf(this.lingerMs));
+        rep.saveStepAttribute(transformationId, stepId, COMPRESSION_TYPE, this.compressionType);
+        rep.saveStepAttribute(transformationId, stepId, MAX_IN_FLIGHT_REQUESTS, this.maxInFlightRequests);
+        rep.saveStepAttribute(transformationId, stepId, DELIVERY_GUARANTEE, this.deliveryGuarantee.name());
+        rep.saveStepAttribute(transformationId, stepId, TRANSACTIONAL_ID_PREFIX, this.transactionalIdPrefix);
+        rep.saveStepAttribute(transformationId, stepId, TRANSACTION_COMMIT_ROWS, this.transactionCommitRows);
+        rep.saveStepAttribute(transformationId, stepId, TRANSACTION_TIMEOUT_MS, String.valueOf(this.transactionTimeoutMs));
         Map<String, String> cfg = getConfig();
         rep.saveStepAttribute(transformationId, stepId, ADVANCED_CONFIG + "_COUNT", cfg.size());
         int i = 0;
@@ -182,6 +305,14 @@ public class KafkaProducerOutputMeta extends BaseStepMeta implements StepMetaInt
         xml.append("    ").append(XMLHandler.addTagValue(CLIENT_ID, this.clientId));
         xml.append("    ").append(XMLHandler.addTagValue(KEY_FIELD, this.keyField));
         xml.append("    ").append(XMLHandler.addTagValue(MESSAGE_FIELD, this.messageField));
+        xml.append("    ").append(XMLHandler.addTagValue(BATCH_SIZE, this.batchSize));
+        xml.append("    ").append(XMLHandler.addTagValue(LINGER_MS, this.lingerMs));
+        xml.append("    ").append(XMLHandler.addTagValue(COMPRESSION_TYPE, this.compressionType));
+        xml.append("    ").append(XMLHandler.addTagValue(MAX_IN_FLIGHT_REQUESTS, this.maxInFlightRequests));
+        xml.append("    ").append(XMLHandler.addTagValue(DELIVERY_GUARANTEE, this.deliveryGuarantee.name()));
+        xml.append("    ").append(XMLHandler.addTagValue(TRANSACTIONAL_ID_PREFIX, this.transactionalIdPrefix));
+        xml.append("    ").append(XMLHandler.addTagValue(TRANSACTION_COMMIT_ROWS, this.transactionCommitRows));
+        xml.append("    ").append(XMLHandler.addTagValue(TRANSACTION_TIMEOUT_MS, this.transactionTimeoutMs));
         xml.append("    ").append(XMLHandler.openTag(ADVANCED_CONFIG)).append(Const.CR);
         for (Map.Entry<String, String> entry : getConfig().entrySet()) {
             xml.append("        ").append(XMLHandler.addTagValue(
@@ -269,6 +400,70 @@ public class KafkaProducerOutputMeta extends BaseStepMeta implements StepMetaInt
         this.clusterName = clusterName;
     }
 
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getLingerMs() {
+        return this.lingerMs;
+    }
+
+    public void setLingerMs(int lingerMs) {
+        this.lingerMs = lingerMs;
+    }
+
+    public String getCompressionType() {
+        return this.compressionType;
+    }
+
+    public void setCompressionType(String compressionType) {
+        this.compressionType = compressionType;
+    }
+
+    public int getMaxInFlightRequests() {
+        return this.maxInFlightRequests;
+    }
+
+    public void setMaxInFlightRequests(int maxInFlightRequests) {
+        this.maxInFlightRequests = maxInFlightRequests;
+    }
+
+    public DeliveryGuarantee getDeliveryGuarantee() {
+        return this.deliveryGuarantee;
+    }
+
+    public void setDeliveryGuarantee(DeliveryGuarantee deliveryGuarantee) {
+        this.deliveryGuarantee = deliveryGuarantee != null ? deliveryGuarantee : DeliveryGuarantee.DEFAULT;
+    }
+
+    public String getTransactionalIdPrefix() {
+        return this.transactionalIdPrefix;
+    }
+
+    public void setTransactionalIdPrefix(String transactionalIdPrefix) {
+        this.transactionalIdPrefix = transactionalIdPrefix;
+    }
+
+    public long getTransactionCommitRows() {
+        return this.transactionCommitRows;
+    }
+
+    public void setTransactionCommitRows(long transactionCommitRows) {
+        this.transactionCommitRows = transactionCommitRows;
+    }
+
+    public int getTransactionTimeoutMs() {
+        return this.transactionTimeoutMs;
+    }
+
+    public void setTransactionTimeoutMs(int transactionTimeoutMs) {
+        this.transactionTimeoutMs = transactionTimeoutMs;
+    }
+
     public Map<String, String> getConfig() {
         applyInjectedProperties();
         return this.config;
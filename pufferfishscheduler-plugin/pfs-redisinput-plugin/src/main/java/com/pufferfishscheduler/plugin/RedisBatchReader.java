@@ -0,0 +1,331 @@
+package com.pufferfishscheduler.plugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.ConnectionPool;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
+import redis.clients.jedis.resps.Tuple;
+import redis.clients.jedis.util.JedisClusterCRC16;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * Redis 批量读取：一批 key 用两轮 pipeline 读取，第一轮 TYPE，第二轮按类型读取值。
+ * <p>
+ * 单机模式 String 类型合并为一条 MGET，其余类型使用 HGETALL/LRANGE/SMEMBERS/ZRANGE；
+ * 集群模式按 key 的哈希槽找到所属主节点，每个节点一个 pipeline（跨槽不能 MGET，String 使用 GET）。
+ * 槽位分布来自 CLUSTER SLOTS，遇到 MOVED/ASK 或节点不可用时刷新槽位，受影响的 key 交给
+ * {@link JedisCluster} 逐条读取。
+ * </p>
+ */
+public class RedisBatchReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisBatchReader.class);
+
+    private static final int SLOT_COUNT = 16384;
+
+    // Redis数据类型常量
+    private static final String TYPE_STRING = "string";
+    private static final String TYPE_HASH = "hash";
+    private static final String TYPE_LIST = "list";
+    private static final String TYPE_SET = "set";
+    private static final String TYPE_ZSET = "zset";
+    private static final String TYPE_NONE = "none";
+
+    private static final String KEY_VALUE_SEPARATOR = "=";
+    private static final String EMPTY_STRING = "";
+
+    private final Jedis jedis;
+    private final JedisCluster jedisCluster;
+    private final String delimiter;
+
+    /**
+     * 槽位 -> 主节点（host:port），为空表示需要刷新
+     */
+    private String[] slotOwners;
+
+    /**
+     * 最近一次读取的失败数与第一个异常
+     */
+    private int failures;
+    private Exception lastError;
+
+    public RedisBatchReader(Jedis jedis, JedisCluster jedisCluster, String delimiter) {
+        this.jedis = jedis;
+        this.jedisCluster = jedisCluster;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * 批量读取
+     *
+     * @param keys 去重后的非空 key
+     * @return key -> 值，key 不存在时为空字符串；读取失败的 key 不在结果中
+     */
+    public Map<String, String> read(Collection<String> keys) {
+        failures = 0;
+        lastError = null;
+        Map<String, String> values = new HashMap<>(keys.size() * 2);
+        if (keys.isEmpty()) {
+            return values;
+        }
+        if (jedisCluster != null) {
+            readCluster(keys, values);
+        } else if (jedis != null) {
+            try {
+                readPipelined(jedis.pipelined(), keys, values, true, null);
+            } catch (Exception e) {
+                recordError(e, keys.size());
+            }
+        }
+        return values;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    public Exception getLastError() {
+        return lastError;
+    }
+
+    private void readCluster(Collection<String> keys, Map<String, String> values) {
+        if (slotOwners == null) {
+            refreshSlots();
+        }
+        Map<String, List<String>> byNode = new LinkedHashMap<>();
+        List<String> unrouted = new ArrayList<>();
+        for (String key : keys) {
+            String node = slotOwners != null ? slotOwners[JedisClusterCRC16.getSlot(key)] : null;
+            if (node == null) {
+                unrouted.add(key);
+            } else {
+                byNode.computeIfAbsent(node, k -> new ArrayList<>()).add(key);
+            }
+        }
+
+        Map<String, ConnectionPool> pools = jedisCluster.getClusterNodes();
+        for (Map.Entry<String, List<String>> entry : byNode.entrySet()) {
+            ConnectionPool pool = pools.get(entry.getKey());
+            if (pool == null) {
+                unrouted.addAll(entry.getValue());
+                continue;
+            }
+            List<String> redirected = new ArrayList<>();
+            try (Connection connection = pool.getResource()) {
+                readPipelined(new Pipeline(connection), entry.getValue(), values, false, redirected);
+            } catch (Exception e) {
+                LOGGER.warn("Redis cluster pipeline to {} failed, fallback to cluster client: {}",
+                        entry.getKey(), e.getMessage());
+                slotOwners = null;
+                unrouted.addAll(entry.getValue());
+                continue;
+            }
+            if (!redirected.isEmpty()) {
+                slotOwners = null;
+                unrouted.addAll(redirected);
+            }
+        }
+        for (String key : unrouted) {
+            try {
+                values.put(key, readDirect(key));
+            } catch (Exception e) {
+                recordError(e, 1);
+            }
+        }
+    }
+
+    /**
+     * 两轮 pipeline 读取一组 key
+     *
+     * @param useMget    String 类型是否合并为 MGET（仅单机模式）
+     * @param redirected 收集被重定向的 key，为 null 时按失败处理
+     */
+    private void readPipelined(Pipeline pipeline, Collection<String> keys, Map<String, String> values,
+                               boolean useMget, List<String> redirected) {
+        Map<String, Response<String>> types = new LinkedHashMap<>();
+        for (String key : keys) {
+            types.put(key, pipeline.type(key));
+        }
+        pipeline.sync();
+
+        List<String> stringKeys = new ArrayList<>();
+        Map<String, String> keyTypes = new LinkedHashMap<>();
+        Map<String, Response<?>> responses = new LinkedHashMap<>();
+        for (Map.Entry<String, Response<String>> entry : types.entrySet()) {
+            String key = entry.getKey();
+            String type;
+            try {
+                type = entry.getValue().get();
+            } catch (Exception e) {
+                handleFailure(key, e, redirected);
+                continue;
+            }
+            if (TYPE_NONE.equals(type)) {
+                values.put(key, EMPTY_STRING);
+            } else if (TYPE_STRING.equals(type) && useMget) {
+                stringKeys.add(key);
+            } else {
+                Response<?> response = appendRead(pipeline, type, key);
+                if (response != null) {
+                    keyTypes.put(key, type);
+                    responses.put(key, response);
+                } else {
+                    values.put(key, EMPTY_STRING);
+                }
+            }
+        }
+        Response<List<String>> mget = stringKeys.isEmpty()
+                ? null : pipeline.mget(stringKeys.toArray(new String[0]));
+        pipeline.sync();
+
+        if (mget != null) {
+            try {
+                List<String> result = mget.get();
+                for (int i = 0; i < stringKeys.size(); i++) {
+                    String value = result.get(i);
+                    values.put(stringKeys.get(i), value != null ? value : EMPTY_STRING);
+                }
+            } catch (Exception e) {
+                recordError(e, stringKeys.size());
+            }
+        }
+        for (Map.Entry<String, Response<?>> entry : responses.entrySet()) {
+            String key = entry.getKey();
+            try {
+                values.put(key, format(keyTypes.get(key), entry.getValue().get()));
+            } catch (Exception e) {
+                handleFailure(key, e, redirected);
+            }
+        }
+    }
+
+    private Response<?> appendRead(Pipeline pipeline, String type, String key) {
+        switch (type) {
+            case TYPE_STRING:
+                return pipeline.get(key);
+            case TYPE_HASH:
+                return pipeline.hgetAll(key);
+            case TYPE_LIST:
+                return pipeline.lrange(key, 0, -1);
+            case TYPE_SET:
+                return pipeline.smembers(key);
+            case TYPE_ZSET:
+                return pipeline.zrangeWithScores(key, 0, -1);
+            default:
+                LOGGER.debug("Unknown Redis data type: {} for key: {}", type, key);
+                return null;
+        }
+    }
+
+    /**
+     * 通过集群客户端逐条读取（自动处理重定向与重试）
+     */
+    private String readDirect(String key) {
+        String type = jedisCluster.type(key);
+        switch (type) {
+            case TYPE_STRING:
+                return format(type, jedisCluster.get(key));
+            case TYPE_HASH:
+                return format(type, jedisCluster.hgetAll(key));
+            case TYPE_LIST:
+                return format(type, jedisCluster.lrange(key, 0, -1));
+            case TYPE_SET:
+                return format(type, jedisCluster.smembers(key));
+            case TYPE_ZSET:
+                return format(type, jedisCluster.zrangeWithScores(key, 0, -1));
+            default:
+                return EMPTY_STRING;
+        }
+    }
+
+    /**
+     * 将读取结果格式化为字符串：Hash 为 field=value 列表，List/Set/ZSet 为元素列表，均以分隔符连接
+     */
+    @SuppressWarnings("unchecked")
+    private String format(String type, Object result) {
+        if (result == null) {
+            return EMPTY_STRING;
+        }
+        switch (type) {
+            case TYPE_STRING:
+                return (String) result;
+            case TYPE_HASH: {
+                StringJoiner joiner = new StringJoiner(delimiter);
+                for (Map.Entry<String, String> entry : ((Map<String, String>) result).entrySet()) {
+                    joiner.add(entry.getKey() + KEY_VALUE_SEPARATOR + entry.getValue());
+                }
+                return joiner.toString();
+            }
+            case TYPE_LIST:
+                return String.join(delimiter, (List<String>) result);
+            case TYPE_SET:
+                return String.join(delimiter, (Set<String>) result);
+            case TYPE_ZSET: {
+                StringJoiner joiner = new StringJoiner(delimiter);
+                for (Tuple tuple : (List<Tuple>) result) {
+                    joiner.add(tuple.getElement());
+                }
+                return joiner.toString();
+            }
+            default:
+                return EMPTY_STRING;
+        }
+    }
+
+    private void handleFailure(String key, Exception e, List<String> redirected) {
+        if (redirected != null && e instanceof JedisRedirectionException) {
+            redirected.add(key);
+            return;
+        }
+        recordError(e, 1);
+    }
+
+    /**
+     * 通过 CLUSTER SLOTS 刷新槽位分布
+     */
+    @SuppressWarnings("unchecked")
+    private void refreshSlots() {
+        for (Map.Entry<String, ConnectionPool> entry : jedisCluster.getClusterNodes().entrySet()) {
+            try (Connection connection = entry.getValue().getResource()) {
+                List<Object> ranges = new Jedis(connection).clusterSlots();
+                String[] owners = new String[SLOT_COUNT];
+                for (Object range : ranges) {
+                    List<Object> info = (List<Object>) range;
+                    int start = ((Long) info.get(0)).intValue();
+                    int end = ((Long) info.get(1)).intValue();
+                    List<Object> master = (List<Object>) info.get(2);
+                    String node = SafeEncoder.encode((byte[]) master.get(0)) + ":" + master.get(1);
+                    Arrays.fill(owners, start, end + 1, node);
+                }
+                slotOwners = owners;
+                return;
+            } catch (Exception e) {
+                LOGGER.warn("Refresh redis cluster slots from {} failed: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        slotOwners = null;
+    }
+
+    private void recordError(Exception e, int count) {
+        failures += count;
+        if (lastError == null) {
+            lastError = e;
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package com.pufferfishscheduler.plugin;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.StringJoiner;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
@@ -30,11 +31,11 @@ import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
-import redis.clients.jedis.resps.Tuple;
 
 /**
  * Redis输入步骤 - 从Redis读取数据
  * 支持单机和集群模式，支持String、Hash、List、Set、ZSet数据类型
+ * 输入行按批次缓存，批内 key 通过 {@link RedisBatchReader} 以 pipeline 读取，按输入顺序输出；可选本地 LRU 缓存热点 key
  * 适配 Jedis 4.4.3 版本
  */
 public class RedisInputStep extends BaseStep implements StepInterface {
@@ -42,19 +43,9 @@ public class RedisInputStep extends BaseStep implements StepInterface {
     private static final Logger LOGGER = LoggerFactory.getLogger(RedisInputStep.class);
     private static final Class<?> PKG = RedisInputStep.class;
 
-    // Redis数据类型常量
-    private static final String TYPE_STRING = "string";
-    private static final String TYPE_HASH = "hash";
-    private static final String TYPE_LIST = "list";
-    private static final String TYPE_SET = "set";
-    private static final String TYPE_ZSET = "zset";
-    private static final String TYPE_NONE = "none";
-
     // 输出字段数量
     private static final int EXTRA_FIELDS_COUNT = 2;
 
-    // 分隔符常量
-    private static final String KEY_VALUE_SEPARATOR = "=";
     private static final String EMPTY_STRING = "";
 
     // 默认超时时间（毫秒）
@@ -108,6 +99,7 @@ public class RedisInputStep extends BaseStep implements StepInterface {
 
         // 处理数据结束的情况
         if (shouldStopProcessing(currentRow)) {
+            flushLookups();
             closeRedisConnections();
             setOutputDone();
             return false;
@@ -116,17 +108,17 @@ public class RedisInputStep extends BaseStep implements StepInterface {
         // 首次执行初始化
         if (first) {
             initializeFirstRow(currentRow);
+            if (isStopped()) {
+                return false;
+            }
         }
 
-        // 获取Redis Key
-        String redisKey = resolveRedisKey(currentRow);
-
-        // 读取Redis数据
-        String redisValue = readRedisValue(redisKey);
-
-        // 构建并输出结果行
-        Object[] resultRow = buildResultRow(currentRow, redisKey, redisValue);
-        putRow(data.outputRowMeta, resultRow);
+        // 获取Redis Key，加入当前批次，满批读取Redis并输出
+        data.pendingRows.add(currentRow);
+        data.pendingKeys.add(resolveRedisKey(currentRow));
+        if (data.pendingRows.size() >= meta.getBatchSize()) {
+            flushLookups();
+        }
 
         // 输出进度日志
         logProgressIfNeeded();
@@ -167,9 +159,12 @@ public class RedisInputStep extends BaseStep implements StepInterface {
         } else {
             data.inStreamNr = data.inputRowMeta.indexOfValue(meta.getKey());
         }
+        data.constantKey = environmentSubstitute(meta.getKey());
 
         // 初始化Redis连接
         initializeRedisConnection();
+        data.reader = new RedisBatchReader(jedis, jedisCluster, meta.getFieldDelimiter());
+        data.lookupCache = meta.getCacheSize() > 0 ? RedisInputStepData.newLookupCache(meta.getCacheSize()) : null;
 
         first = false;
     }
@@ -216,140 +211,73 @@ public class RedisInputStep extends BaseStep implements StepInterface {
      */
     private String resolveRedisKey(Object[] currentRow) throws KettleValueException {
         if (data.inStreamNr < 0) {
-            return environmentSubstitute(meta.getKey());
+            return data.constantKey;
         }
         return data.inputRowMeta.getString(currentRow, data.inStreamNr);
     }
 
     /**
-     * 从Redis读取值。
+     * 读取当前批次的 key 并按输入顺序输出结果行。
+     * 批内重复 key 只读取一次，命中本地缓存的 key 不再访问Redis；读取失败的 key 输出空值并计入错误数。
      *
-     * @param key Redis Key
-     * @return 从Redis读取到的值
+     * @throws KettleStepException 如果输出过程中发生错误
      */
-    private String readRedisValue(String key) {
-        if (key == null || key.isEmpty()) {
-            return EMPTY_STRING;
+    private void flushLookups() throws KettleStepException {
+        if (data.pendingRows.isEmpty()) {
+            return;
         }
 
-        try {
-            if (jedisCluster != null) {
-                return readFromCluster(key);
-            } else if (jedis != null) {
-                return readFromStandalone(key);
+        Map<String, String> resolved = new HashMap<>(data.pendingKeys.size() * 2);
+        Set<String> missing = collectMissing(data.pendingKeys, data.lookupCache, resolved);
+
+        if (!missing.isEmpty() && data.reader != null) {
+            Map<String, String> values = data.reader.read(missing);
+            if (data.reader.getFailures() > 0) {
+                logError(String.format("Failed to read %d of %d keys from Redis",
+                        data.reader.getFailures(), missing.size()), data.reader.getLastError());
+                setErrors(getErrors() + data.reader.getFailures());
+            }
+            resolved.putAll(values);
+            if (data.lookupCache != null) {
+                data.lookupCache.putAll(values);
             }
-        } catch (Exception e) {
-            logError("Failed to read from Redis, key: " + key, e);
-            // 使用 setErrors 增加错误计数
-            setErrors(getErrors() + 1);
         }
 
-        return EMPTY_STRING;
-    }
-
-    /**
-     * 从Redis集群读取值。
-     *
-     * @param key Redis Key
-     * @return 从Redis集群读取到的值
-     */
-    private String readFromCluster(String key) {
-        String dataType = jedisCluster.type(key);
-        return readByDataType(dataType, key, true);
-    }
-
-    /**
-     * 从Redis独立实例读取值。
-     *
-     * @param key Redis Key
-     * @return 从Redis独立实例读取到的值
-     */
-    private String readFromStandalone(String key) {
-        String dataType = jedis.type(key);
-        return readByDataType(dataType, key, false);
+        for (int i = 0; i < data.pendingRows.size(); i++) {
+            String key = data.pendingKeys.get(i);
+            String value = EMPTY_STRING;
+            if (key != null && !key.isEmpty()) {
+                value = resolved.getOrDefault(key, EMPTY_STRING);
+            }
+            putRow(data.outputRowMeta, buildResultRow(data.pendingRows.get(i), key, value));
+        }
+        data.pendingRows.clear();
+        data.pendingKeys.clear();
     }
 
     /**
-     * 根据Redis数据类型读取值。
+     * 把命中本地缓存的值复制到 resolved，返回需要访问Redis的 key。
+     * 命中值在扫描时就取出，之后写入缓存即使淘汰了这些 key，本批次输出也不受影响。
      *
-     * @param dataType  Redis数据类型
-     * @param key       Redis Key
-     * @param isCluster 是否为集群模式
-     * @return 从Redis读取到的值
+     * @param keys     本批次的 key（可重复、可为空）
+     * @param cache    本地缓存，未启用时为 null
+     * @param resolved 接收命中缓存的值
+     * @return 去重后未命中缓存的非空 key，保持输入顺序
      */
-    private String readByDataType(String dataType, String key, boolean isCluster) {
-        if (TYPE_NONE.equals(dataType)) {
-            LOGGER.debug("Redis key does not exist: {}", key);
-            return EMPTY_STRING;
-        }
-
-        return switch (dataType) {
-            case TYPE_STRING -> readStringValue(key, isCluster);
-            case TYPE_HASH -> readHashValue(key, isCluster);
-            case TYPE_LIST -> readListValue(key, isCluster);
-            case TYPE_SET -> readSetValue(key, isCluster);
-            case TYPE_ZSET -> readZSetValue(key, isCluster);
-            default -> {
-                LOGGER.debug("Unknown Redis data type: {} for key: {}", dataType, key);
-                yield EMPTY_STRING;
+    static Set<String> collectMissing(List<String> keys, Map<String, String> cache, Map<String, String> resolved) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String key : keys) {
+            if (key == null || key.isEmpty() || resolved.containsKey(key) || missing.contains(key)) {
+                continue;
+            }
+            String cached = cache != null ? cache.get(key) : null;
+            if (cached != null) {
+                resolved.put(key, cached);
+            } else {
+                missing.add(key);
             }
-        };
-    }
-
-    private String readStringValue(String key, boolean isCluster) {
-        String value = isCluster ? jedisCluster.get(key) : jedis.get(key);
-        return value != null ? value : EMPTY_STRING;
-    }
-
-    private String readHashValue(String key, boolean isCluster) {
-        Map<String, String> hashData = isCluster ?
-                jedisCluster.hgetAll(key) : jedis.hgetAll(key);
-
-        if (hashData == null || hashData.isEmpty()) {
-            return EMPTY_STRING;
-        }
-
-        StringJoiner joiner = new StringJoiner(meta.getFieldDelimiter());
-        for (Map.Entry<String, String> entry : hashData.entrySet()) {
-            joiner.add(entry.getKey() + KEY_VALUE_SEPARATOR + entry.getValue());
-        }
-        return joiner.toString();
-    }
-
-    private String readListValue(String key, boolean isCluster) {
-        List<String> listData = isCluster ?
-                jedisCluster.lrange(key, 0, -1) : jedis.lrange(key, 0, -1);
-
-        return joinCollection(listData, meta.getFieldDelimiter());
-    }
-
-    private String readSetValue(String key, boolean isCluster) {
-        Set<String> setData = isCluster ?
-                jedisCluster.smembers(key) : jedis.smembers(key);
-
-        return joinCollection(setData, meta.getFieldDelimiter());
-    }
-
-    private String readZSetValue(String key, boolean isCluster) {
-        List<Tuple> zsetData = isCluster ?
-                jedisCluster.zrangeWithScores(key, 0, -1) : jedis.zrangeWithScores(key, 0, -1);
-
-        if (zsetData == null || zsetData.isEmpty()) {
-            return EMPTY_STRING;
-        }
-
-        StringJoiner joiner = new StringJoiner(meta.getFieldDelimiter());
-        for (Tuple tuple : zsetData) {
-            joiner.add(tuple.getElement());
-        }
-        return joiner.toString();
-    }
-
-    private String joinCollection(Iterable<String> collection, String delimiter) {
-        if (collection == null || !collection.iterator().hasNext()) {
-            return EMPTY_STRING;
         }
-        return String.join(delimiter, collection);
+        return missing;
     }
 
     private Object[] buildResultRow(Object[] currentRow, String key, String value) {
@@ -1,5 +1,10 @@
 package com.pufferfishscheduler.plugin;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -8,4 +13,31 @@ public class RedisInputStepData extends BaseStepData implements StepDataInterfac
     public RowMetaInterface inputRowMeta;
     public RowMetaInterface outputRowMeta;
     public int inStreamNr;
+
+    /**
+     * 常量 Key（变量替换只在首行做一次）
+     */
+    public String constantKey;
+
+    /**
+     * 当前批次的输入行与对应的 key，批次查询后按输入顺序输出
+     */
+    public List<Object[]> pendingRows = new ArrayList<>();
+    public List<String> pendingKeys = new ArrayList<>();
+
+    public RedisBatchReader reader;
+
+    /**
+     * 本地 LRU 缓存（按访问顺序淘汰），未开启时为 null
+     */
+    public Map<String, String> lookupCache;
+
+    public static Map<String, String> newLookupCache(final int maxSize) {
+        return new LinkedHashMap<String, String>(Math.min(maxSize, 1 << 16), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
 }
@@ -6,6 +6,7 @@ import java.util.List;
 import org.apache.commons.beanutils.BeanUtils;
 import org.pentaho.di.core.CheckResult;
 import org.pentaho.di.core.CheckResultInterface;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.annotations.Step;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleException;
@@ -53,6 +54,8 @@ public class RedisInputStepMeta extends BaseStepMeta implements StepMetaInterfac
     private static final String XML_TAG_DB_NAME = "dbName";
     private static final String XML_TAG_KEY = "key";
     private static final String XML_TAG_FIELD_DELIMITER = "fieldDelimiter";
+    private static final String XML_TAG_BATCH_SIZE = "batchSize";
+    private static final String XML_TAG_CACHE_SIZE = "cacheSize";
 
     // 默认值常量
     private static final String DEFAULT_HOST = "";
@@ -61,6 +64,8 @@ public class RedisInputStepMeta extends BaseStepMeta implements StepMetaInterfac
     private static final String DEFAULT_DB_NAME = "";
     private static final String DEFAULT_KEY = "";
     private static final String DEFAULT_FIELD_DELIMITER = ",";
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int DEFAULT_CACHE_SIZE = 0;
 
     // 输出字段名常量
     private static final String OUTPUT_FIELD_KEY = "_redis_key";
@@ -74,6 +79,16 @@ public class RedisInputStepMeta extends BaseStepMeta implements StepMetaInterfac
     private String key;
     private String fieldDelimiter;
 
+    /**
+     * 每批查询行数，批内 key 通过 pipeline 一次读取；为 1 时逐行读取
+     */
+    private int batchSize;
+
+    /**
+     * 本地 LRU 缓存的最大 key 数，0 表示不缓存；缓存在步骤运行期间有效，适用于运行期间不变的维表数据
+     */
+    private int cacheSize;
+
     public RedisInputStepMeta() {
         setDefault();
     }
@@ -86,6 +101,8 @@ public class RedisInputStepMeta extends BaseStepMeta implements StepMetaInterfac
         this.dbName = DEFAULT_DB_NAME;
         this.key = DEFAULT_KEY;
         this.fieldDelimiter = DEFAULT_FIELD_DELIMITER;
+        this.batchSize = DEFAULT_BATCH_SIZE;
+        this.cacheSize = DEFAULT_CACHE_SIZE;
     }
 
     @Override
@@ -109,6 +126,8 @@ public class RedisInputStepMeta extends BaseStepMeta implements StepMetaInterfac
         appendXmlTag(xml, XML_TAG_DB_NAME, dbName);
         appendXmlTag(xml, XML_TAG_KEY, key);
         appendXmlTag(xml, XML_TAG_FIELD_DELIMITER, fieldDelimiter);
+        appendXmlTag(xml, XML_TAG_BATCH_SIZE, String.valueOf(batchSize));
+        appendXmlTag(xml, XML_TAG_CACHE_SIZE, String.valueOf(cacheSize));
 
         return xml.toString();
     }
@@ -137,6 +156,8 @@ public class RedisInputStepMeta extends BaseStepMeta implements StepMetaInterfac
             dbName = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepNode, XML_TAG_DB_NAME));
             key = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepNode, XML_TAG_KEY));
             fieldDelimiter = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepNode, XML_TAG_FIELD_DELIMITER));
+            batchSize = Const.toInt(XMLHandler.getTagValue(stepNode, XML_TAG_BATCH_SIZE), DEFAULT_BATCH_SIZE);
+            cacheSize = Const.toInt(XMLHandler.getTagValue(stepNode, XML_TAG_CACHE_SIZE), DEFAULT_CACHE_SIZE);
 
             // 使用默认值处理空值
             applyDefaultIfNeeded();
@@ -149,6 +170,8 @@ public class RedisInputStepMeta extends BaseStepMeta implements StepMetaInterfac
         if (isBlank(host)) host = DEFAULT_HOST;
         if (isBlank(port)) port = DEFAULT_PORT;
         if (isBlank(fieldDelimiter)) fieldDelimiter = DEFAULT_FIELD_DELIMITER;
+        if (batchSize <= 0) batchSize = DEFAULT_BATCH_SIZE;
+        if (cacheSize < 0) cacheSize = DEFAULT_CACHE_SIZE;
     }
 
     @Override
@@ -161,6 +184,8 @@ public class RedisInputStepMeta extends BaseStepMeta implements StepMetaInterfac
             rep.saveStepAttribute(transformationId, stepId, XML_TAG_DB_NAME, dbName);
             rep.saveStepAttribute(transformationId, stepId, XML_TAG_KEY, key);
             rep.saveStepAttribute(transformationId, stepId, XML_TAG_FIELD_DELIMITER, fieldDelimiter);
+            rep.saveStepAttribute(transformationId, stepId, XML_TAG_BATCH_SIZE, batchSize);
+            rep.saveStepAttribute(transformationId, stepId, XML_TAG_CACHE_SIZE, cacheSize);
         } catch (Exception e) {
             throw new KettleException(
                     BaseMessages.getString(PKG, "RedisInputStepMeta.Exception.UnableToSaveStepInfoToRepository"),
@@ -178,6 +203,8 @@ public class RedisInputStepMeta extends BaseStepMeta implements StepMetaInterfac
             dbName = rep.getStepAttributeString(stepId, XML_TAG_DB_NAME);
             key = rep.getStepAttributeString(stepId, XML_TAG_KEY);
             fieldDelimiter = rep.getStepAttributeString(stepId, XML_TAG_FIELD_DELIMITER);
+            batchSize = (int) rep.getStepAttributeInteger(stepId, XML_TAG_BATCH_SIZE);
+            cacheSize = (int) rep.getStepAttributeInteger(stepId, XML_TAG_CACHE_SIZE);
 
             applyDefaultIfNeeded();
         } catch (Exception e) {
@@ -323,4 +350,20 @@ public class RedisInputStepMeta extends BaseStepMeta implements StepMetaInterfac
     public void setFieldDelimiter(String fieldDelimiter) {
         this.fieldDelimiter = fieldDelimiter;
     }
-}
\ No newline at end of file
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+}
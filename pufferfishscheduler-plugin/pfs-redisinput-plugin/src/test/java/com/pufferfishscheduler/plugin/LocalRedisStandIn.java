@@ -0,0 +1,301 @@
+package com.pufferfishscheduler.plugin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 进程内的 Redis 替身：只实现 RESP2 协议下 Redis 输入步骤用到的只读命令
+ * （PING、TYPE、GET、MGET、HGETALL、LRANGE、SMEMBERS、ZRANGE ... WITHSCORES）。
+ * <p>
+ * 每当请求缓冲区读空、准备回写响应时模拟一次网络往返延迟，因此逐条读取与 pipeline 读取的往返次数差异可以直接体现在耗时上。
+ * </p>
+ */
+class LocalRedisStandIn implements AutoCloseable {
+
+    private final Map<String, Object> store = new ConcurrentHashMap<>();
+
+    private final ServerSocket serverSocket;
+
+    private final long roundTripNanos;
+
+    private final AtomicLong roundTrips = new AtomicLong();
+
+    private final AtomicLong commands = new AtomicLong();
+
+    private final List<Socket> clients = new ArrayList<>();
+
+    private volatile boolean running = true;
+
+    /**
+     * @param roundTripMicros 每次往返的模拟延迟（微秒），0 表示不延迟
+     */
+    LocalRedisStandIn(long roundTripMicros) throws IOException {
+        this.roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "redis-stand-in-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    long getRoundTrips() {
+        return roundTrips.get();
+    }
+
+    long getCommands() {
+        return commands.get();
+    }
+
+    void resetCounters() {
+        roundTrips.set(0);
+        commands.set(0);
+    }
+
+    void putString(String key, String value) {
+        store.put(key, value);
+    }
+
+    void putHash(String key, Map<String, String> value) {
+        store.put(key, new LinkedHashMap<>(value));
+    }
+
+    void putList(String key, List<String> value) {
+        store.put(key, new ArrayList<>(value));
+    }
+
+    void putSet(String key, Set<String> value) {
+        store.put(key, new LinkedHashSet<>(value));
+    }
+
+    /**
+     * 有序集合，按传入顺序视为分值递增
+     */
+    void putZset(String key, List<String> members) {
+        store.put(key, new ZSet(new ArrayList<>(members)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        synchronized (clients) {
+            for (Socket client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                synchronized (clients) {
+                    clients.add(socket);
+                }
+                Thread handler = new Thread(() -> serve(socket), "redis-stand-in-client");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (InputStream in = new BufferedInputStream(socket.getInputStream());
+             OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+            while (running) {
+                List<String> command = readCommand(in);
+                if (command == null) {
+                    return;
+                }
+                commands.incrementAndGet();
+                reply(command, out);
+                if (in.available() == 0) {
+                    // 当前批次的请求已全部处理，模拟一次往返后回写
+                    roundTrips.incrementAndGet();
+                    if (roundTripNanos > 0) {
+                        LockSupport.parkNanos(roundTripNanos);
+                    }
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // 客户端断开
+        }
+    }
+
+    private void reply(List<String> command, OutputStream out) throws IOException {
+        String name = command.get(0).toUpperCase();
+        switch (name) {
+            case "PING":
+                writeSimple(out, "PONG");
+                return;
+            case "TYPE":
+                writeSimple(out, typeOf(store.get(command.get(1))));
+                return;
+            case "GET": {
+                Object value = store.get(command.get(1));
+                writeBulk(out, value instanceof String ? (String) value : null);
+                return;
+            }
+            case "MGET": {
+                List<String> values = new ArrayList<>();
+                for (int i = 1; i < command.size(); i++) {
+                    Object value = store.get(command.get(i));
+                    values.add(value instanceof String ? (String) value : null);
+                }
+                writeArray(out, values);
+                return;
+            }
+            case "HGETALL": {
+                List<String> values = new ArrayList<>();
+                Object value = store.get(command.get(1));
+                if (value instanceof Map) {
+                    for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                        values.add((String) entry.getKey());
+                        values.add((String) entry.getValue());
+                    }
+                }
+                writeArray(out, values);
+                return;
+            }
+            case "LRANGE":
+            case "SMEMBERS": {
+                Object value = store.get(command.get(1));
+                List<String> values = new ArrayList<>();
+                if (value instanceof List || value instanceof Set) {
+                    for (Object item : (Iterable<?>) value) {
+                        values.add((String) item);
+                    }
+                }
+                writeArray(out, values);
+                return;
+            }
+            case "ZRANGE": {
+                Object value = store.get(command.get(1));
+                List<String> values = new ArrayList<>();
+                if (value instanceof ZSet) {
+                    List<String> members = ((ZSet) value).members;
+                    boolean withScores = command.size() > 4 && "WITHSCORES".equalsIgnoreCase(command.get(4));
+                    for (int i = 0; i < members.size(); i++) {
+                        values.add(members.get(i));
+                        if (withScores) {
+                            values.add(String.valueOf(i));
+                        }
+                    }
+                }
+                writeArray(out, values);
+                return;
+            }
+            default:
+                out.write(("-ERR unknown command '" + name + "'\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String typeOf(Object value) {
+        if (value == null) {
+            return "none";
+        }
+        if (value instanceof String) {
+            return "string";
+        }
+        if (value instanceof Map) {
+            return "hash";
+        }
+        if (value instanceof List) {
+            return "list";
+        }
+        if (value instanceof ZSet) {
+            return "zset";
+        }
+        return "set";
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        if (first != '*') {
+            throw new IOException("Only RESP arrays are supported");
+        }
+        int count = Integer.parseInt(readLine(in));
+        List<String> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Bulk string expected");
+            }
+            int length = Integer.parseInt(readLine(in));
+            byte[] bytes = in.readNBytes(length);
+            in.skipNBytes(2);
+            args.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return args;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b < 0) {
+                throw new IOException("Unexpected end of stream");
+            }
+            line.append((char) b);
+        }
+        in.read();
+        return line.toString();
+    }
+
+    private static void writeSimple(OutputStream out, String value) throws IOException {
+        out.write(('+' + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBulk(OutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.write(('$' + String.valueOf(bytes.length) + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.write(bytes);
+        out.write('\r');
+        out.write('\n');
+    }
+
+    private static void writeArray(OutputStream out, List<String> values) throws IOException {
+        out.write(('*' + String.valueOf(values.size()) + "\r\n").getBytes(StandardCharsets.UTF_8));
+        for (String value : values) {
+            writeBulk(out, value);
+        }
+    }
+
+    private static final class ZSet {
+        private final List<String> members;
+
+        private ZSet(List<String> members) {
+            this.members = members;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.pufferfishscheduler.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import redis.clients.jedis.Jedis;
+
+class RedisBatchReaderTest {
+
+    private LocalRedisStandIn redis;
+
+    private Jedis jedis;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new LocalRedisStandIn(0);
+        jedis = new Jedis("127.0.0.1", redis.getPort());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        jedis.close();
+        redis.close();
+    }
+
+    @Test
+    void readsEveryTypeInOneBatch() {
+        redis.putString("s", "v1");
+        Map<String, String> hash = new LinkedHashMap<>();
+        hash.put("a", "1");
+        hash.put("b", "2");
+        redis.putHash("h", hash);
+        redis.putList("l", List.of("x", "y"));
+        redis.putSet("set", new LinkedHashSet<>(List.of("p")));
+        redis.putZset("z", List.of("low", "high"));
+
+        RedisBatchReader reader = new RedisBatchReader(jedis, null, ",");
+        Map<String, String> values = reader.read(List.of("s", "h", "l", "set", "z", "missing"));
+
+        assertEquals(0, reader.getFailures());
+        assertEquals("v1", values.get("s"));
+        assertEquals("a=1,b=2", values.get("h"));
+        assertEquals("x,y", values.get("l"));
+        assertEquals("p", values.get("set"));
+        assertEquals("low,high", values.get("z"));
+        assertEquals("", values.get("missing"));
+    }
+
+    @Test
+    void batchSendsTypeAndOneMgetForStrings() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            redis.putString("k" + i, "v" + i);
+            keys.add("k" + i);
+        }
+        RedisBatchReader reader = new RedisBatchReader(jedis, null, ",");
+
+        redis.resetCounters();
+        Map<String, String> values = reader.read(keys);
+        assertEquals(100, values.size());
+        assertEquals("v42", values.get("k42"));
+        // 100 条 TYPE + 1 条 MGET
+        assertEquals(101, redis.getCommands());
+
+        redis.resetCounters();
+        for (String key : keys) {
+            reader.read(Set.of(key));
+        }
+        // 逐条读取：每个 key 一条 TYPE 与一条 MGET
+        assertEquals(200, redis.getCommands());
+    }
+
+    @Test
+    void failedReadsAreReportedAndNotReturned() throws Exception {
+        redis.putString("s", "v1");
+        RedisBatchReader reader = new RedisBatchReader(jedis, null, ",");
+        redis.close();
+
+        Map<String, String> values = reader.read(List.of("s"));
+
+        assertFalse(values.containsKey("s"));
+        assertEquals(1, reader.getFailures());
+    }
+}
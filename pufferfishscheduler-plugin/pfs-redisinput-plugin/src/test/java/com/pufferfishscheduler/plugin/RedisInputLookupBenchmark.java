@@ -0,0 +1,142 @@
+package com.pufferfishscheduler.plugin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import redis.clients.jedis.Jedis;
+
+/**
+ * Redis 输入查找吞吐：逐行读取（批大小 1，与改造前每行一次 TYPE + 一次读取的往返数相同）、按批 pipeline 读取、
+ * 批量读取叠加本地 LRU 缓存，对比对象为进程内 Redis 替身，往返延迟可调。
+ * <p>
+ * 运行：在测试类路径下执行 {@link #main(String[])}，结果单位为每秒处理的输入行数。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisInputLookupBenchmark {
+
+    private static final int KEY_SPACE = 20_000;
+
+    private static final int ROWS_PER_OP = 2_000;
+
+    /**
+     * 模拟的单次往返延迟（微秒）：0 为本机回环，200 接近同机房网络
+     */
+    @Param({"0", "200"})
+    public long roundTripMicros;
+
+    @Param({"1", "100", "1000"})
+    public int batchSize;
+
+    /**
+     * 本地缓存容量，0 为不缓存
+     */
+    @Param({"0", "5000"})
+    public int cacheSize;
+
+    private LocalRedisStandIn redis;
+
+    private Jedis jedis;
+
+    private RedisBatchReader reader;
+
+    private Map<String, String> cache;
+
+    private List<String> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        redis = new LocalRedisStandIn(roundTripMicros);
+        for (int i = 0; i < KEY_SPACE; i++) {
+            String key = "dim:" + i;
+            switch (i % 4) {
+                case 0:
+                    redis.putHash(key, Map.of("name", "n" + i, "code", "c" + i));
+                    break;
+                case 1:
+                    redis.putList(key, List.of("a" + i, "b" + i));
+                    break;
+                default:
+                    redis.putString(key, "value-" + i);
+            }
+        }
+        jedis = new Jedis("127.0.0.1", redis.getPort());
+        reader = new RedisBatchReader(jedis, null, ",");
+
+        // 维度查找通常是热点分布：80% 的行落在 10% 的 key 上
+        Random random = new Random(42);
+        rows = new ArrayList<>(ROWS_PER_OP);
+        for (int i = 0; i < ROWS_PER_OP; i++) {
+            int id = random.nextInt(10) < 8 ? random.nextInt(KEY_SPACE / 10) : random.nextInt(KEY_SPACE);
+            rows.add("dim:" + id);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCache() {
+        cache = cacheSize > 0 ? RedisInputStepData.newLookupCache(cacheSize) : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        jedis.close();
+        redis.close();
+    }
+
+    /**
+     * 与 RedisInputStep#flushLookups 相同的处理：按批收集、跳过缓存命中、读取未命中的 key
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_OP)
+    public void lookup(Blackhole blackhole) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<String> batch = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            Map<String, String> resolved = new HashMap<>(batch.size() * 2);
+            Set<String> missing = RedisInputStep.collectMissing(batch, cache, resolved);
+            if (!missing.isEmpty()) {
+                Map<String, String> values = reader.read(missing);
+                resolved.putAll(values);
+                if (cache != null) {
+                    cache.putAll(values);
+                }
+            }
+            for (String key : batch) {
+                blackhole.consume(resolved.get(key));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(RedisInputLookupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,45 @@
+package com.pufferfishscheduler.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class RedisInputStepTest {
+
+    @Test
+    void cacheHitsSurviveEvictionByTheSameBatch() {
+        Map<String, String> cache = RedisInputStepData.newLookupCache(2);
+        cache.put("a", "va");
+        cache.put("b", "vb");
+
+        Map<String, String> resolved = new HashMap<>();
+        Set<String> missing = RedisInputStep.collectMissing(Arrays.asList("a", "c", "b", "d", "a"), cache, resolved);
+        assertEquals(List.of("c", "d"), List.copyOf(missing));
+
+        // 写回本批次读取的值会淘汰 a、b，但它们已在扫描时取出
+        Map<String, String> values = Map.of("c", "vc", "d", "vd");
+        resolved.putAll(values);
+        cache.putAll(values);
+
+        assertEquals(2, cache.size());
+        assertEquals("va", resolved.get("a"));
+        assertEquals("vb", resolved.get("b"));
+        assertEquals("vc", resolved.get("c"));
+        assertEquals("vd", resolved.get("d"));
+    }
+
+    @Test
+    void emptyAndDuplicateKeysAreSkipped() {
+        Map<String, String> resolved = new HashMap<>();
+        Set<String> missing = RedisInputStep.collectMissing(Arrays.asList("k", null, "", "k"), null, resolved);
+
+        assertEquals(List.of("k"), List.copyOf(missing));
+        assertEquals(0, resolved.size());
+    }
+}
@@ -1,6 +1,7 @@
 package com.pufferfishscheduler.plugin;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
@@ -30,7 +31,8 @@ import redis.clients.jedis.JedisPoolConfig;
 
 /**
  * Redis输出步骤 - 将数据写入Redis
- * 支持单机和集群模式
+ * 支持单机和集群模式，支持 SET/HSET/RPUSH/SADD 及过期时间
+ * 按批次累积写入，通过 {@link RedisPipelineWriter} 以 pipeline 发送，批次写入后再向下游输出
  * 适配 Jedis 4.4.3 版本
  */
 public class RedisOutputStep extends BaseStep implements StepInterface {
@@ -80,6 +82,7 @@ public class RedisOutputStep extends BaseStep implements StepInterface {
 
         // 处理数据结束的情况（与 Redis 输入一致：首轮允许 currentRow==null，用于无上游时按配置写一次）
         if (shouldStopProcessing(currentRow)) {
+            flushPendingWrites();
             closeRedisConnections();
             setOutputDone();
             return false;
@@ -88,18 +91,21 @@ public class RedisOutputStep extends BaseStep implements StepInterface {
         // 首次执行初始化
         if (first) {
             initializeFirstRow(currentRow);
+            if (isStopped()) {
+                return false;
+            }
         }
 
-        // 获取Key和Value
+        // 获取Key、哈希字段和Value
         String redisKey = resolveRedisKey(currentRow);
+        String hashField = resolveHashField(currentRow);
         String redisValue = resolveRedisValue(currentRow);
 
-        // 写入Redis
-        writeToRedis(redisKey, redisValue);
-
-        // 输出结果行（无上游无输入行时用空行占位，避免 putRow NPE）
-        putRow(data.outputRowMeta, rowForDownstream(currentRow));
-        incrementLinesOutput();
+        // 加入当前批次，满批写入Redis
+        addToBatch(redisKey, hashField, redisValue, rowForDownstream(currentRow));
+        if (data.pendingRows.size() >= meta.getBatchSize()) {
+            flushPendingWrites();
+        }
 
         // 输出进度日志
         logProgressIfNeeded();
@@ -139,12 +145,20 @@ public class RedisOutputStep extends BaseStep implements StepInterface {
         // 确定Key和Value字段索引
         data.keyNr = data.inputRowMeta.indexOfValue(meta.getKey());
         data.valueNr = data.inputRowMeta.indexOfValue(meta.getValue());
+        data.hashFieldNr = StringUtils.isBlank(meta.getHashField())
+                ? -1 : data.inputRowMeta.indexOfValue(meta.getHashField());
+
+        // 常量只做一次变量替换
+        data.constantKey = environmentSubstitute(StringUtils.defaultString(meta.getKey()));
+        data.constantValue = environmentSubstitute(StringUtils.defaultString(meta.getValue()));
+        data.constantHashField = environmentSubstitute(StringUtils.defaultString(meta.getHashField()));
 
         // 验证字段索引
         validateFieldIndexes();
 
         // 初始化Redis连接
         initializeRedisConnection();
+        data.writer = new RedisPipelineWriter(jedis, jedisCluster, meta.getDataType(), meta.getTtlSeconds());
 
         first = false;
     }
@@ -165,6 +179,18 @@ public class RedisOutputStep extends BaseStep implements StepInterface {
             logError("未在输入中找到 Value 字段，且步骤未配置 Redis Value");
             setErrors(1L);
             stopAll();
+            return;
+        }
+        if (!RedisOutputStepMeta.isSupportedDataType(meta.getDataType())) {
+            logError("不支持的Redis写入类型：" + meta.getDataType());
+            setErrors(1L);
+            stopAll();
+            return;
+        }
+        if (RedisOutputStepMeta.DATA_TYPE_HSET.equals(meta.getDataType()) && StringUtils.isBlank(meta.getHashField())) {
+            logError("HSET写入需要配置哈希字段");
+            setErrors(1L);
+            stopAll();
         }
     }
 
@@ -209,13 +235,23 @@ public class RedisOutputStep extends BaseStep implements StepInterface {
     }
 
     /**
-     * 从当前行中获取Redis键
+     * 从当前行中获取Redis键（字段值不做变量替换）
      */
     private String resolveRedisKey(Object[] currentRow) throws KettleValueException {
         if (data.keyNr < 0) {
-            return environmentSubstitute(StringUtils.defaultString(meta.getKey()));
+            return data.constantKey;
+        }
+        return data.inputRowMeta.getString(currentRow, data.keyNr);
+    }
+
+    /**
+     * 从当前行中获取HSET哈希字段
+     */
+    private String resolveHashField(Object[] currentRow) throws KettleValueException {
+        if (data.hashFieldNr < 0) {
+            return data.constantHashField;
         }
-        return environmentSubstitute(data.inputRowMeta.getString(currentRow, data.keyNr));
+        return data.inputRowMeta.getString(currentRow, data.hashFieldNr);
     }
 
     /**
@@ -223,37 +259,53 @@ public class RedisOutputStep extends BaseStep implements StepInterface {
      */
     private String resolveRedisValue(Object[] currentRow) throws KettleValueException {
         if (data.valueNr < 0) {
-            return environmentSubstitute(StringUtils.defaultString(meta.getValue()));
+            return data.constantValue;
         }
-        return environmentSubstitute(data.inputRowMeta.getString(currentRow, data.valueNr));
+        return data.inputRowMeta.getString(currentRow, data.valueNr);
     }
 
     /**
-     * 写入Redis键值对
+     * 加入当前批次；Key 为空的行不写入 Redis，计为错误，但仍向下游输出
      */
-    private void writeToRedis(String key, String value) {
+    private void addToBatch(String key, String hashField, String value, Object[] row) {
         if (key == null || key.isEmpty()) {
             logError("Redis key is empty, skipping write operation");
             setErrors(getErrors() + 1);
-            return;
+        } else {
+            // Jedis 不接受 null 参数，空值按空字符串写入
+            data.pendingWrites.add(new RedisPipelineWriter.Write(key,
+                    StringUtils.defaultString(hashField), StringUtils.defaultString(value)));
         }
+        data.pendingRows.add(row);
+    }
 
-        try {
-            if (jedisCluster != null) {
-                jedisCluster.set(key, value);
-            } else if (jedis != null) {
-                jedis.set(key, value);
+    /**
+     * 将当前批次写入Redis，然后向下游输出对应的行
+     * 写入失败的命令计入错误数，继续处理后续批次
+     */
+    private void flushPendingWrites() throws KettleStepException {
+        List<RedisPipelineWriter.Write> writes = data.pendingWrites;
+        if (!writes.isEmpty() && data.writer != null) {
+            int failures = data.writer.write(writes);
+            if (failures > 0) {
+                logError(String.format("Failed to write %d of %d commands to Redis", failures, writes.size()),
+                        data.writer.getLastError());
+                setErrors(getErrors() + failures);
             }
-
             if (log.isDebug()) {
-                logDebug(String.format("Written to Redis - Key: %s, Value: %s",
-                        truncateForLog(key), truncateForLog(value)));
+                RedisPipelineWriter.Write last = writes.get(writes.size() - 1);
+                logDebug(String.format("Written %d rows to Redis, last Key: %s, Value: %s",
+                        writes.size(), truncateForLog(last.key), truncateForLog(last.value)));
             }
-        } catch (Exception e) {
-            logError("Failed to write to Redis, key: " + key, e);
-            setErrors(getErrors() + 1);
-            // 不抛出异常，继续处理下一条记录
         }
+        writes.clear();
+
+        // 输出结果行（无上游无输入行时用空行占位，避免 putRow NPE）
+        for (Object[] row : data.pendingRows) {
+            putRow(data.outputRowMeta, row);
+            incrementLinesOutput();
+        }
+        data.pendingRows.clear();
     }
 
     /**
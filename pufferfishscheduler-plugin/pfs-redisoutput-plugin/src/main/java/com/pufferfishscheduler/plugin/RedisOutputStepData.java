@@ -1,5 +1,8 @@
 package com.pufferfishscheduler.plugin;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -8,5 +11,21 @@ public class RedisOutputStepData extends BaseStepData implements StepDataInterfa
     public RowMetaInterface inputRowMeta;
     public int keyNr;
     public int valueNr;
+    public int hashFieldNr;
     public RowMetaInterface outputRowMeta;
+
+    /**
+     * 常量 Key/Value/哈希字段（变量替换只在首行做一次）
+     */
+    public String constantKey;
+    public String constantValue;
+    public String constantHashField;
+
+    /**
+     * 当前批次的写入与对应的输出行，批次写入 Redis 后再向下游输出
+     */
+    public List<RedisPipelineWriter.Write> pendingWrites = new ArrayList<>();
+    public List<Object[]> pendingRows = new ArrayList<>();
+
+    public RedisPipelineWriter writer;
 }
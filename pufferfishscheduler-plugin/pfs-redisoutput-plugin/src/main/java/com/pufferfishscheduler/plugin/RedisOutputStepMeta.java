@@ -6,6 +6,7 @@ import java.util.List;
 import org.apache.commons.beanutils.BeanUtils;
 import org.pentaho.di.core.CheckResult;
 import org.pentaho.di.core.CheckResultInterface;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.annotations.Step;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleException;
@@ -52,6 +53,16 @@ public class RedisOutputStepMeta extends BaseStepMeta implements StepMetaInterfa
     private static final String XML_TAG_DB_NAME = "dbName";
     private static final String XML_TAG_KEY = "key";
     private static final String XML_TAG_VALUE = "value";
+    private static final String XML_TAG_DATA_TYPE = "dataType";
+    private static final String XML_TAG_HASH_FIELD = "hashField";
+    private static final String XML_TAG_TTL_SECONDS = "ttlSeconds";
+    private static final String XML_TAG_BATCH_SIZE = "batchSize";
+
+    // 写入数据类型
+    public static final String DATA_TYPE_SET = "SET";
+    public static final String DATA_TYPE_HSET = "HSET";
+    public static final String DATA_TYPE_RPUSH = "RPUSH";
+    public static final String DATA_TYPE_SADD = "SADD";
 
     // 默认值常量
     private static final String DEFAULT_HOST = "";
@@ -60,6 +71,9 @@ public class RedisOutputStepMeta extends BaseStepMeta implements StepMetaInterfa
     private static final String DEFAULT_DB_NAME = "";
     private static final String DEFAULT_KEY = "";
     private static final String DEFAULT_VALUE = "";
+    private static final String DEFAULT_DATA_TYPE = DATA_TYPE_SET;
+    private static final long DEFAULT_TTL_SECONDS = 0;
+    private static final int DEFAULT_BATCH_SIZE = 1000;
 
     // 配置属性
     private String host;
@@ -69,6 +83,26 @@ public class RedisOutputStepMeta extends BaseStepMeta implements StepMetaInterfa
     private String key;
     private String value;
 
+    /**
+     * 写入数据类型：SET / HSET / RPUSH / SADD
+     */
+    private String dataType;
+
+    /**
+     * HSET 的哈希字段：输入字段名或常量
+     */
+    private String hashField;
+
+    /**
+     * 过期时间（秒），小于等于 0 表示不过期
+     */
+    private long ttlSeconds;
+
+    /**
+     * 每批写入行数，批内使用 pipeline 一次发送；为 1 时逐行写入
+     */
+    private int batchSize;
+
     public RedisOutputStepMeta() {
         setDefault();
     }
@@ -81,6 +115,10 @@ public class RedisOutputStepMeta extends BaseStepMeta implements StepMetaInterfa
         this.dbName = DEFAULT_DB_NAME;
         this.key = DEFAULT_KEY;
         this.value = DEFAULT_VALUE;
+        this.dataType = DEFAULT_DATA_TYPE;
+        this.hashField = "";
+        this.ttlSeconds = DEFAULT_TTL_SECONDS;
+        this.batchSize = DEFAULT_BATCH_SIZE;
     }
 
     @Override
@@ -104,6 +142,10 @@ public class RedisOutputStepMeta extends BaseStepMeta implements StepMetaInterfa
         appendXmlTag(xml, XML_TAG_DB_NAME, dbName);
         appendXmlTag(xml, XML_TAG_KEY, key);
         appendXmlTag(xml, XML_TAG_VALUE, value);
+        appendXmlTag(xml, XML_TAG_DATA_TYPE, dataType);
+        appendXmlTag(xml, XML_TAG_HASH_FIELD, hashField);
+        appendXmlTag(xml, XML_TAG_TTL_SECONDS, String.valueOf(ttlSeconds));
+        appendXmlTag(xml, XML_TAG_BATCH_SIZE, String.valueOf(batchSize));
 
         return xml.toString();
     }
@@ -132,6 +174,10 @@ public class RedisOutputStepMeta extends BaseStepMeta implements StepMetaInterfa
             dbName = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepNode, XML_TAG_DB_NAME));
             key = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepNode, XML_TAG_KEY));
             value = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepNode, XML_TAG_VALUE));
+            dataType = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepNode, XML_TAG_DATA_TYPE));
+            hashField = XMLHandler.getNodeValue(XMLHandler.getSubNode(stepNode, XML_TAG_HASH_FIELD));
+            ttlSeconds = Const.toLong(XMLHandler.getTagValue(stepNode, XML_TAG_TTL_SECONDS), DEFAULT_TTL_SECONDS);
+            batchSize = Const.toInt(XMLHandler.getTagValue(stepNode, XML_TAG_BATCH_SIZE), DEFAULT_BATCH_SIZE);
 
             // 使用默认值处理空值
             applyDefaultIfNeeded();
@@ -144,6 +190,8 @@ public class RedisOutputStepMeta extends BaseStepMeta implements StepMetaInterfa
         if (isBlank(host)) host = DEFAULT_HOST;
         if (isBlank(port)) port = DEFAULT_PORT;
         if (isBlank(key)) key = DEFAULT_KEY;
+        dataType = isBlank(dataType) ? DEFAULT_DATA_TYPE : dataType.trim().toUpperCase();
+        if (batchSize <= 0) batchSize = DEFAULT_BATCH_SIZE;
     }
 
     @Override
@@ -156,6 +204,10 @@ public class RedisOutputStepMeta extends BaseStepMeta implements StepMetaInterfa
             rep.saveStepAttribute(transformationId, stepId, XML_TAG_DB_NAME, dbName);
             rep.saveStepAttribute(transformationId, stepId, XML_TAG_KEY, key);
             rep.saveStepAttribute(transformationId, stepId, XML_TAG_VALUE, value);
+            rep.saveStepAttribute(transformationId, stepId, XML_TAG_DATA_TYPE, dataType);
+            rep.saveStepAttribute(transformationId, stepId, XML_TAG_HASH_FIELD, hashField);
+            rep.saveStepAttribute(transformationId, stepId, XML_TAG_TTL_SECONDS, ttlSeconds);
+            rep.saveStepAttribute(transformationId, stepId, XML_TAG_BATCH_SIZE, batchSize);
         } catch (Exception e) {
             throw new KettleException(
                     BaseMessages.getString(PKG, "RedisOutputStepMeta.Exception.UnableToSaveStepInfoToRepository"),
@@ -175,6 +227,10 @@ public class RedisOutputStepMeta extends BaseStepMeta implements StepMetaInterfa
             dbName = rep.getStepAttributeString(stepId, XML_TAG_DB_NAME);
             key = rep.getStepAttributeString(stepId, XML_TAG_KEY);
             value = rep.getStepAttributeString(stepId, XML_TAG_VALUE);
+            dataType = rep.getStepAttributeString(stepId, XML_TAG_DATA_TYPE);
+            hashField = rep.getStepAttributeString(stepId, XML_TAG_HASH_FIELD);
+            ttlSeconds = rep.getStepAttributeInteger(stepId, XML_TAG_TTL_SECONDS);
+            batchSize = (int) rep.getStepAttributeInteger(stepId, XML_TAG_BATCH_SIZE);
 
             applyDefaultIfNeeded();
         } catch (Exception e) {
@@ -223,6 +279,18 @@ public class RedisOutputStepMeta extends BaseStepMeta implements StepMetaInterfa
             return;
         }
 
+        // 检查写入类型配置
+        if (!isSupportedDataType(dataType)) {
+            remarks.add(new CheckResult(CheckResultInterface.TYPE_RESULT_ERROR,
+                    "不支持的Redis写入类型：" + dataType + "，仅支持 SET/HSET/RPUSH/SADD！", stepMeta));
+            return;
+        }
+        if (DATA_TYPE_HSET.equals(dataType) && isBlank(hashField)) {
+            remarks.add(new CheckResult(CheckResultInterface.TYPE_RESULT_ERROR,
+                    "HSET写入需要配置哈希字段！", stepMeta));
+            return;
+        }
+
         // 检查Key配置
         if (isBlank(key)) {
             remarks.add(new CheckResult(CheckResultInterface.TYPE_RESULT_WARNING,
@@ -255,6 +323,14 @@ public class RedisOutputStepMeta extends BaseStepMeta implements StepMetaInterfa
         }
     }
 
+    /**
+     * 是否为支持的写入类型
+     */
+    public static boolean isSupportedDataType(String type) {
+        return DATA_TYPE_SET.equals(type) || DATA_TYPE_HSET.equals(type)
+                || DATA_TYPE_RPUSH.equals(type) || DATA_TYPE_SADD.equals(type);
+    }
+
     /**
      * 判断是否为集群模式
      */
@@ -321,4 +397,36 @@ public class RedisOutputStepMeta extends BaseStepMeta implements StepMetaInterfa
     public void setValue(String value) {
         this.value = value;
     }
-}
\ No newline at end of file
+
+    public String getDataType() {
+        return dataType;
+    }
+
+    public void setDataType(String dataType) {
+        this.dataType = dataType;
+    }
+
+    public String getHashField() {
+        return hashField;
+    }
+
+    public void setHashField(String hashField) {
+        this.hashField = hashField;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
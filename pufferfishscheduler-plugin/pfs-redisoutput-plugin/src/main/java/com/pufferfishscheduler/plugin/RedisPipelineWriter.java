@@ -0,0 +1,284 @@
+package com.pufferfishscheduler.plugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.ConnectionPool;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
+import redis.clients.jedis.util.JedisClusterCRC16;
+import redis.clients.jedis.util.SafeEncoder;
+
+/**
+ * Redis 批量写入：一批写入合并为 pipeline 发送。
+ * <p>
+ * 单机模式整批使用一个 pipeline；集群模式按 key 的哈希槽找到所属主节点，每个节点一个 pipeline。
+ * 槽位分布来自 CLUSTER SLOTS，遇到 MOVED/ASK（迁移中）或节点不可用时刷新槽位，并把受影响的写入交给
+ * {@link JedisCluster} 逐条重试（由其处理重定向）。
+ * 设置了过期时间时，SET 使用 SETEX；其他类型在该批次中每个 key 最后一次写入之后追加一次 EXPIRE。
+ * </p>
+ */
+public class RedisPipelineWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisPipelineWriter.class);
+
+    private static final int SLOT_COUNT = 16384;
+
+    private final Jedis jedis;
+    private final JedisCluster jedisCluster;
+    private final String dataType;
+    private final long ttlSeconds;
+
+    /**
+     * 槽位 -> 主节点（host:port），为空表示需要刷新
+     */
+    private String[] slotOwners;
+
+    /**
+     * 最近一批写入的第一个异常
+     */
+    private Exception lastError;
+
+    public RedisPipelineWriter(Jedis jedis, JedisCluster jedisCluster, String dataType, long ttlSeconds) {
+        this.jedis = jedis;
+        this.jedisCluster = jedisCluster;
+        this.dataType = dataType;
+        this.ttlSeconds = Math.max(0, ttlSeconds);
+    }
+
+    /**
+     * 写入一条数据：key + 哈希字段（仅 HSET）+ 值
+     */
+    public static final class Write {
+        final String key;
+        final String field;
+        final String value;
+
+        public Write(String key, String field, String value) {
+            this.key = key;
+            this.field = field;
+            this.value = value;
+        }
+    }
+
+    /**
+     * 批量写入
+     *
+     * @param writes 本批写入
+     * @return 失败的命令数
+     */
+    public int write(List<Write> writes) {
+        lastError = null;
+        if (writes.isEmpty()) {
+            return 0;
+        }
+        if (jedisCluster != null) {
+            return writeCluster(writes);
+        }
+        if (jedis != null) {
+            try {
+                Pipeline pipeline = jedis.pipelined();
+                appendAll(pipeline, writes);
+                return countFailures(pipeline.syncAndReturnAll(), writes, null);
+            } catch (Exception e) {
+                recordError(e);
+                return writes.size();
+            }
+        }
+        return 0;
+    }
+
+    public Exception getLastError() {
+        return lastError;
+    }
+
+    private int writeCluster(List<Write> writes) {
+        if (slotOwners == null) {
+            refreshSlots();
+        }
+        // 按主节点分组，保持同一 key 的写入顺序
+        Map<String, List<Write>> byNode = new LinkedHashMap<>();
+        List<Write> unrouted = new ArrayList<>();
+        for (Write write : writes) {
+            String node = slotOwners != null ? slotOwners[JedisClusterCRC16.getSlot(write.key)] : null;
+            if (node == null) {
+                unrouted.add(write);
+            } else {
+                byNode.computeIfAbsent(node, k -> new ArrayList<>()).add(write);
+            }
+        }
+
+        Map<String, ConnectionPool> pools = jedisCluster.getClusterNodes();
+        int failures = 0;
+        for (Map.Entry<String, List<Write>> entry : byNode.entrySet()) {
+            ConnectionPool pool = pools.get(entry.getKey());
+            if (pool == null) {
+                unrouted.addAll(entry.getValue());
+                continue;
+            }
+            List<Write> redirected = new ArrayList<>();
+            try (Connection connection = pool.getResource()) {
+                Pipeline pipeline = new Pipeline(connection);
+                appendAll(pipeline, entry.getValue());
+                failures += countFailures(pipeline.syncAndReturnAll(), entry.getValue(), redirected);
+            } catch (Exception e) {
+                // 节点不可用或连接异常：整组交给集群客户端重试
+                LOGGER.warn("Redis cluster pipeline to {} failed, fallback to cluster client: {}",
+                        entry.getKey(), e.getMessage());
+                slotOwners = null;
+                unrouted.addAll(entry.getValue());
+                continue;
+            }
+            if (!redirected.isEmpty()) {
+                // 槽位已迁移：只重试被重定向的写入（重定向的命令没有执行，不会重复写入）
+                slotOwners = null;
+                unrouted.addAll(redirected);
+            }
+        }
+        for (Write write : unrouted) {
+            failures += writeDirect(write);
+        }
+        return failures;
+    }
+
+    /**
+     * 追加一批写入命令：每条写入一个命令，之后是各 key 的 EXPIRE
+     */
+    private void appendAll(Pipeline pipeline, List<Write> writes) {
+        Set<String> expireKeys = ttlSeconds > 0 && !RedisOutputStepMeta.DATA_TYPE_SET.equals(dataType)
+                ? new LinkedHashSet<>() : null;
+        for (Write write : writes) {
+            switch (dataType) {
+                case RedisOutputStepMeta.DATA_TYPE_HSET:
+                    pipeline.hset(write.key, write.field, write.value);
+                    break;
+                case RedisOutputStepMeta.DATA_TYPE_RPUSH:
+                    pipeline.rpush(write.key, write.value);
+                    break;
+                case RedisOutputStepMeta.DATA_TYPE_SADD:
+                    pipeline.sadd(write.key, write.value);
+                    break;
+                default:
+                    if (ttlSeconds > 0) {
+                        pipeline.setex(write.key, ttlSeconds, write.value);
+                    } else {
+                        pipeline.set(write.key, write.value);
+                    }
+                    break;
+            }
+            if (expireKeys != null) {
+                // 移到末尾，保证 EXPIRE 在该 key 最后一次写入之后
+                expireKeys.remove(write.key);
+                expireKeys.add(write.key);
+            }
+        }
+        if (expireKeys != null) {
+            for (String key : expireKeys) {
+                pipeline.expire(key, ttlSeconds);
+            }
+        }
+    }
+
+    /**
+     * 逐条写入（集群客户端自动处理重定向与重试）
+     *
+     * @return 失败的命令数
+     */
+    private int writeDirect(Write write) {
+        try {
+            switch (dataType) {
+                case RedisOutputStepMeta.DATA_TYPE_HSET:
+                    jedisCluster.hset(write.key, write.field, write.value);
+                    break;
+                case RedisOutputStepMeta.DATA_TYPE_RPUSH:
+                    jedisCluster.rpush(write.key, write.value);
+                    break;
+                case RedisOutputStepMeta.DATA_TYPE_SADD:
+                    jedisCluster.sadd(write.key, write.value);
+                    break;
+                default:
+                    if (ttlSeconds > 0) {
+                        jedisCluster.setex(write.key, ttlSeconds, write.value);
+                    } else {
+                        jedisCluster.set(write.key, write.value);
+                    }
+                    return 0;
+            }
+            if (ttlSeconds > 0) {
+                jedisCluster.expire(write.key, ttlSeconds);
+            }
+            return 0;
+        } catch (Exception e) {
+            recordError(e);
+            return 1;
+        }
+    }
+
+    /**
+     * 统计 pipeline 结果中的失败数，结果顺序与 {@link #appendAll} 追加的命令一致
+     *
+     * @param redirected 收集被重定向（MOVED/ASK）的写入，由调用方重试；为 null 时重定向也计为失败
+     */
+    private int countFailures(List<Object> results, List<Write> writes, List<Write> redirected) {
+        int failures = 0;
+        for (int i = 0; i < results.size(); i++) {
+            Object result = results.get(i);
+            if (!(result instanceof Exception)) {
+                continue;
+            }
+            if (redirected != null && result instanceof JedisRedirectionException) {
+                // EXPIRE 被重定向时，同一 key 的写入也已被重定向，重试时会一并设置过期时间
+                if (i < writes.size()) {
+                    redirected.add(writes.get(i));
+                }
+                continue;
+            }
+            recordError((Exception) result);
+            failures++;
+        }
+        return failures;
+    }
+
+    /**
+     * 通过 CLUSTER SLOTS 刷新槽位分布
+     */
+    @SuppressWarnings("unchecked")
+    private void refreshSlots() {
+        for (Map.Entry<String, ConnectionPool> entry : jedisCluster.getClusterNodes().entrySet()) {
+            try (Connection connection = entry.getValue().getResource()) {
+                List<Object> ranges = new Jedis(connection).clusterSlots();
+                String[] owners = new String[SLOT_COUNT];
+                for (Object range : ranges) {
+                    List<Object> info = (List<Object>) range;
+                    int start = ((Long) info.get(0)).intValue();
+                    int end = ((Long) info.get(1)).intValue();
+                    List<Object> master = (List<Object>) info.get(2);
+                    String node = SafeEncoder.encode((byte[]) master.get(0)) + ":" + master.get(1);
+                    Arrays.fill(owners, start, end + 1, node);
+                }
+                slotOwners = owners;
+                return;
+            } catch (Exception e) {
+                LOGGER.warn("Refresh redis cluster slots from {} failed: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        slotOwners = null;
+    }
+
+    private void recordError(Exception e) {
+        if (lastError == null) {
+            lastError = e;
+        }
+    }
+}
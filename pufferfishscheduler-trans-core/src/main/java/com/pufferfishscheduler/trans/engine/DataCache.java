@@ -59,8 +59,7 @@ public class DataCache {
                     for (TransFlowConfig efc : list) {
                         if (FlowType.Trans.name().equals(efc.getFlowType())) {
                             try {
-                                TransMeta transMeta = DataFlowRepository.xml2TransMeta(efc.getFlowContent());
-                                transCacheTemp.put(efc.getBizType(), efc.getBizObjectId(), transMeta);
+                                transCacheTemp.put(efc.getBizType(), efc.getBizObjectId(), DataFlowRepository.toCachedTrans(efc));
                                 count++;
                             } catch (Exception e) {
                                 log.error("Failed to parse trans meta for bizType: {}, bizObjectId: {}", 
@@ -81,7 +80,7 @@ public class DataCache {
     }
 
     /**
-     * 获取转换元数据
+     * 获取转换元数据（模板的副本，可直接修改）
      * 
      * @param bizType     业务类型
      * @param bizObjectId 业务对象ID
@@ -91,7 +90,52 @@ public class DataCache {
         if (!enable || transCache == null) {
             return null;
         }
-        return transCache.get(bizType, bizObjectId);
+        TransMeta template = transCache.get(bizType, bizObjectId);
+        return template == null ? null : (TransMeta) template.clone();
+    }
+
+    /**
+     * 获取带版本信息的缓存项
+     * 
+     * @param bizType     业务类型
+     * @param bizObjectId 业务对象ID
+     * @return 缓存项，未启用或不存在返回 null
+     */
+    public static DataTransCache.CachedTrans getCachedTrans(String bizType, String bizObjectId) {
+        DataTransCache cache = transCache;
+        if (!enable || cache == null) {
+            return null;
+        }
+        return cache.getEntry(bizType, bizObjectId);
+    }
+
+    /**
+     * 添加或更新缓存项
+     * 
+     * @param bizType     业务类型
+     * @param bizObjectId 业务对象ID
+     * @param cachedTrans 缓存项
+     */
+    public static void putCachedTrans(String bizType, String bizObjectId, DataTransCache.CachedTrans cachedTrans) {
+        DataTransCache cache = transCache;
+        if (!enable || cache == null) {
+            return;
+        }
+        cache.put(bizType, bizObjectId, cachedTrans);
+    }
+
+    /**
+     * 使缓存失效（流程保存、更新、删除时调用）
+     * 
+     * @param bizType     业务类型
+     * @param bizObjectId 业务对象ID
+     */
+    public static void evict(String bizType, String bizObjectId) {
+        DataTransCache cache = transCache;
+        if (cache == null) {
+            return;
+        }
+        cache.remove(bizType, bizObjectId);
     }
 
     /**
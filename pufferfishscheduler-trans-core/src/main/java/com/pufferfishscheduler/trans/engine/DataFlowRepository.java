@@ -1,10 +1,12 @@
 package com.pufferfishscheduler.trans.engine;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 import com.pufferfishscheduler.common.utils.CommonUtil;
+import com.pufferfishscheduler.common.utils.MD5Util;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -39,6 +41,11 @@ public class DataFlowRepository {
     private static volatile DataFlowRepository repository;
     private static KettleFlowRepositoryMapper kettleFlowRepositoryMapper;
 
+    /**
+     * XML 解析锁：解析前需要清空全局的 XMLHandlerCache，并发解析会互相破坏节点顺序缓存
+     */
+    private static final Object PARSE_LOCK = new Object();
+
     /**
      * 构造方法，通过依赖注入获取KettleFlowRepositoryMapper
      */
@@ -84,6 +91,7 @@ public class DataFlowRepository {
      */
     public void saveTrans(TransFlowConfig transFlowConfig) {
         save(transFlowConfig);
+        DataCache.evict(transFlowConfig.getBizType(), transFlowConfig.getBizObjectId());
     }
 
     /**
@@ -93,6 +101,7 @@ public class DataFlowRepository {
      */
     public void updateTrans(TransFlowConfig transFlowConfig) {
         update(transFlowConfig);
+        DataCache.evict(transFlowConfig.getBizType(), transFlowConfig.getBizObjectId());
     }
 
     /**
@@ -103,6 +112,7 @@ public class DataFlowRepository {
      */
     public void deleteTrans(String bizType, String bizObjectId) {
         delete(bizType, bizObjectId);
+        DataCache.evict(bizType, bizObjectId);
     }
 
     /**
@@ -122,6 +132,82 @@ public class DataFlowRepository {
         return null;
     }
 
+    /**
+     * 获取用于本次执行的转换元数据
+     * <p>
+     * 缓存启用时先只查询流程记录的版本信息，与缓存模板一致则直接 clone 模板，不读取流程内容、不解析 XML；
+     * 版本不一致时读取内容，内容摘要未变则沿用旧模板，否则重新解析并替换缓存。其他节点修改流程后，
+     * 版本号与更新时间随之变化，下一次执行即可感知。
+     * </p>
+     *
+     * @param bizType     业务类型
+     * @param bizObjectId 业务对象ID
+     * @return 转换元数据（独立副本），流程不存在返回 null
+     */
+    public TransMeta getTransMeta(String bizType, String bizObjectId) {
+        validateBizParams(bizType, bizObjectId);
+
+        if (DataCache.isEnable()) {
+            KettleFlowRepository version = kettleFlowRepositoryMapper.selectVersionByBizTypeAndBizObjectId(bizType, bizObjectId);
+            if (version == null || !FlowType.Trans.name().equals(version.getFlowType())) {
+                DataCache.evict(bizType, bizObjectId);
+                return null;
+            }
+            DataTransCache.CachedTrans cached = DataCache.getCachedTrans(bizType, bizObjectId);
+            if (cached != null && cached.matches(version.getId(), version.getVersion(), version.getUpdatedTime())) {
+                return (TransMeta) cached.getTemplate().clone();
+            }
+        }
+
+        TransFlowConfig transFlowConfig = getTrans(bizType, bizObjectId);
+        if (transFlowConfig == null) {
+            DataCache.evict(bizType, bizObjectId);
+            return null;
+        }
+        if (StringUtils.isBlank(transFlowConfig.getFlowContent())) {
+            throw new IllegalArgumentException(String.format(
+                    "Trans flow content is empty for bizType: %s, bizObjectId: %s", bizType, bizObjectId));
+        }
+        if (!DataCache.isEnable()) {
+            return xml2TransMeta(transFlowConfig.getFlowContent());
+        }
+
+        String contentHash = contentHash(transFlowConfig.getFlowContent());
+        DataTransCache.CachedTrans cached = DataCache.getCachedTrans(bizType, bizObjectId);
+        TransMeta template;
+        if (cached != null && contentHash.equals(cached.getContentHash())) {
+            // 仅版本信息变化（如更新主机名），沿用已解析的模板
+            template = cached.getTemplate();
+        } else {
+            synchronized (PARSE_LOCK) {
+                // 等锁期间其他线程可能已解析同一内容
+                cached = DataCache.getCachedTrans(bizType, bizObjectId);
+                template = cached != null && contentHash.equals(cached.getContentHash())
+                        ? cached.getTemplate()
+                        : xml2TransMeta(transFlowConfig.getFlowContent());
+            }
+        }
+        DataCache.putCachedTrans(bizType, bizObjectId, new DataTransCache.CachedTrans(transFlowConfig.getId(),
+                transFlowConfig.getVersion(), transFlowConfig.getUpdatedTime(), contentHash, template));
+        return (TransMeta) template.clone();
+    }
+
+    /**
+     * 解析流程配置为缓存项
+     *
+     * @param transFlowConfig 转换流程配置
+     * @return 缓存项
+     */
+    public static DataTransCache.CachedTrans toCachedTrans(TransFlowConfig transFlowConfig) {
+        String content = transFlowConfig.getFlowContent();
+        return new DataTransCache.CachedTrans(transFlowConfig.getId(), transFlowConfig.getVersion(),
+                transFlowConfig.getUpdatedTime(), contentHash(content), xml2TransMeta(content));
+    }
+
+    private static String contentHash(String content) {
+        return MD5Util.encode(content.getBytes(StandardCharsets.UTF_8));
+    }
+
     /**
      * 更新转换流程配置的主机名
      * 
@@ -173,6 +259,12 @@ public class DataFlowRepository {
             throw new IllegalArgumentException("XML string cannot be blank");
         }
         
+        synchronized (PARSE_LOCK) {
+            return parseTransMeta(xml);
+        }
+    }
+
+    private static TransMeta parseTransMeta(String xml) {
         try {
             Document doc = XMLHandler.loadXMLString(xml);
             Node transRoot = XMLHandler.getSubNode(doc, "transformation");
@@ -445,6 +537,7 @@ public class DataFlowRepository {
         transFlowConfig.setFlowJson(kettleFlowRepository.getFlowJson());
         transFlowConfig.setExecutorHost(kettleFlowRepository.getExecutorHost());
         transFlowConfig.setId(kettleFlowRepository.getId());
+        transFlowConfig.setVersion(kettleFlowRepository.getVersion());
         transFlowConfig.setUpdatedTime(kettleFlowRepository.getUpdatedTime());
         return transFlowConfig;
     }
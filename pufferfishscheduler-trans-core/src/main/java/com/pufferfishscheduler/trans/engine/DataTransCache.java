@@ -1,8 +1,11 @@
 package com.pufferfishscheduler.trans.engine;
 
 import java.util.Collection;
+import java.util.Date;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.pentaho.di.trans.TransMeta;
@@ -11,21 +14,35 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * 数据转换缓存
+ * <p>
+ * 缓存解析后的转换元数据模板，同时记录流程记录的 id、版本号、更新时间与内容摘要，
+ * 执行前据此判断模板是否仍与库中一致。模板只读，使用方必须 clone 后再修改。
+ * </p>
  */
 @Slf4j
 public class DataTransCache {
-    private final Map<String, TransMeta> cache = new ConcurrentHashMap<>();
+    private final Map<String, CachedTrans> cache = new ConcurrentHashMap<>();
 
     /**
-     * 添加或更新缓存
+     * 添加或更新缓存（不带版本信息，校验版本时视为不一致）
      * @param bizType 业务类型
      * @param bizObjectId 业务对象ID
      * @param transMeta 转换元数据
      */
     public void put(String bizType, String bizObjectId, TransMeta transMeta) {
+        put(bizType, bizObjectId, new CachedTrans(null, null, null, null, transMeta));
+    }
+
+    /**
+     * 添加或更新缓存
+     * @param bizType 业务类型
+     * @param bizObjectId 业务对象ID
+     * @param cachedTrans 带版本信息的转换元数据模板
+     */
+    public void put(String bizType, String bizObjectId, CachedTrans cachedTrans) {
         if (validateParams(bizType, bizObjectId)) {
             String key = getKey(bizType, bizObjectId);
-            cache.put(key, transMeta);
+            cache.put(key, cachedTrans);
             log.debug("缓存添加/更新成功。键：{}，当前缓存大小：{}", key, cache.size());
         }
     }
@@ -50,11 +67,22 @@ public class DataTransCache {
      * @return 转换元数据
      */
     public TransMeta get(String bizType, String bizObjectId) {
+        CachedTrans cachedTrans = getEntry(bizType, bizObjectId);
+        return cachedTrans == null ? null : cachedTrans.getTemplate();
+    }
+
+    /**
+     * 获取带版本信息的缓存
+     * @param bizType 业务类型
+     * @param bizObjectId 业务对象ID
+     * @return 缓存项
+     */
+    public CachedTrans getEntry(String bizType, String bizObjectId) {
         if (validateParams(bizType, bizObjectId)) {
             String key = getKey(bizType, bizObjectId);
-            TransMeta transMeta = cache.get(key);
-            log.debug("缓存获取。键：{}，是否存在：{}", key, transMeta != null);
-            return transMeta;
+            CachedTrans cachedTrans = cache.get(key);
+            log.debug("缓存获取。键：{}，是否存在：{}", key, cachedTrans != null);
+            return cachedTrans;
         }
         return null;
     }
@@ -64,7 +92,7 @@ public class DataTransCache {
      * @return 缓存值集合
      */
     public Collection<TransMeta> getAll() {
-        return cache.values();
+        return cache.values().stream().map(CachedTrans::getTemplate).collect(Collectors.toList());
     }
 
     /**
@@ -125,4 +153,41 @@ public class DataTransCache {
         }
         return true;
     }
+
+    /**
+     * 缓存项：转换元数据模板及其对应的流程记录版本
+     */
+    public static final class CachedTrans {
+        private final String flowId;
+        private final Integer version;
+        private final Date updatedTime;
+        private final String contentHash;
+        private final TransMeta template;
+
+        public CachedTrans(String flowId, Integer version, Date updatedTime, String contentHash, TransMeta template) {
+            this.flowId = flowId;
+            this.version = version;
+            this.updatedTime = updatedTime;
+            this.contentHash = contentHash;
+            this.template = template;
+        }
+
+        /**
+         * 是否与库中流程记录的版本一致（id、版本号、更新时间均相同）
+         */
+        public boolean matches(String flowId, Integer version, Date updatedTime) {
+            return this.flowId != null
+                    && this.flowId.equals(flowId)
+                    && Objects.equals(this.version, version)
+                    && Objects.equals(this.updatedTime, updatedTime);
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public TransMeta getTemplate() {
+            return template;
+        }
+    }
 }
@@ -21,10 +21,14 @@ import com.pufferfishscheduler.dao.mapper.TransComponentMapper;
 import com.pufferfishscheduler.dao.entity.TransFlow;
 import com.pufferfishscheduler.trans.engine.entity.JobExecutingData;
 import com.pufferfishscheduler.trans.engine.entity.JobExecutingInfo;
-import com.pufferfishscheduler.trans.engine.entity.TransFlowConfig;
 import com.pufferfishscheduler.trans.engine.entity.TransParam;
 import com.pufferfishscheduler.trans.engine.exception.DataTransformationEngineException;
 import com.pufferfishscheduler.trans.engine.listener.KettleStepRowListener;
+import com.pufferfishscheduler.trans.engine.metrics.StepBytesSampler;
+import com.pufferfishscheduler.trans.engine.metrics.StepMetrics;
+import com.pufferfishscheduler.trans.engine.metrics.StepMetricsRegistry;
+import com.pufferfishscheduler.trans.plugin.StepParallelismPlanner;
+import com.pufferfishscheduler.trans.plugin.TableInputPartitioner;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
@@ -214,10 +218,14 @@ public class DataTransEngine {
 
         try {
             TransMeta transMeta = loadTransMeta(stage, flowId);
+            // 按本节点资源为自动并行步骤分配副本数（只影响本次运行的元数据副本）
+            new StepParallelismPlanner().apply(transMeta);
             trans = createTransWrapper(transMeta);
 
             params = setupTransParameters(trans, params);
             addParametersToTransMeta(transMeta, params);
+            // 参数生效、副本数确定后探测分片读取的范围
+            TableInputPartitioner.apply(transMeta);
             setupListeners(trans, transListener, stepListener, rowListener);
             startTrans(trans, mapKey);
 
@@ -245,9 +253,21 @@ public class DataTransEngine {
      * @param id 转换ID
      */
     public void removeTrans(Integer id) {
+        removeTrans(id, true);
+    }
+
+    /**
+     * 移除转换
+     *
+     * @param id           转换ID
+     * @param waitForSteps 是否先等待步骤收尾；调用方已在转换结束回调后延时处理时传 false
+     */
+    public void removeTrans(Integer id, boolean waitForSteps) {
         TransWrapper transWrapper = TRANS_MAP.get(id);
         if (transWrapper != null) {
-            waitForStepsCompletion();
+            if (waitForSteps) {
+                waitForStepsCompletion();
+            }
             cleanupTransResources(transWrapper);
             TRANS_MAP.remove(id);
         }
@@ -596,20 +616,15 @@ public class DataTransEngine {
     private TransMeta loadTransMeta(String stage, Integer id) throws Exception {
         DataFlowRepository repository = DataFlowRepository.getRepository();
         String key = buildTransKey(stage);
-        TransFlowConfig transFlowConfig = repository.getTrans(key, id.toString());
+        // 优先使用已解析的模板副本，流程版本变化时才重新读取并解析
+        TransMeta transMeta = repository.getTransMeta(key, id.toString());
 
-        if (transFlowConfig == null) {
+        if (transMeta == null) {
             throw new DataTransformationEngineException(
                     "Trans flow config not found for stage: " + stage + ", id: " + id);
         }
 
-        String config = transFlowConfig.getFlowContent();
-        if (StringUtils.isBlank(config)) {
-            throw new DataTransformationEngineException(
-                    "Trans flow config content is empty for stage: " + stage + ", id: " + id);
-        }
-
-        return DataFlowRepository.xml2TransMeta(config);
+        return transMeta;
     }
 
     /**
@@ -686,11 +701,26 @@ public class DataTransEngine {
 
         trans.prepareExecution(null);
 
+        // 行数、吞吐量由指标采样线程统计，行监听器只挂到调试、写日志、脚本日志等确实需要逐行处理的步骤
+        Map<String, StepMetrics> stepMetrics = StepMetricsRegistry.register(trans,
+                rowListener != null ? rowListener.getLogChannelId() : null);
+        boolean byteSampling = StepMetricsRegistry.isByteSampling();
+
         for (StepMetaDataCombi stepMetaDataCombi : trans.getSteps()) {
             if (rowListener != null) {
                 KettleStepRowListener clonedListener = rowListener.clone();
                 clonedListener.setStep(stepMetaDataCombi);
-                stepMetaDataCombi.step.addRowListener(clonedListener);
+                if (clonedListener.isRequired()) {
+                    stepMetaDataCombi.step.addRowListener(clonedListener);
+                }
+            }
+
+            if (byteSampling) {
+                StepMetrics metrics = stepMetrics.get(
+                        StepMetricsRegistry.stepKey(stepMetaDataCombi.stepname, stepMetaDataCombi.copy));
+                if (metrics != null) {
+                    stepMetaDataCombi.step.addRowListener(new StepBytesSampler(metrics));
+                }
             }
 
             if (stepListener != null) {
@@ -726,6 +756,7 @@ public class DataTransEngine {
         KettleLogStore.discardLines(transWrapper.getLogChannelId(), true);
 
         String instanceId = transWrapper.getInstanceId();
+        StepMetricsRegistry.unregister(instanceId);
         JobExecutingInfo jobExecutingInfo = JobExecutingData.get(instanceId);
         if (jobExecutingInfo != null) {
             jobExecutingInfo.getJobEntryExcutinginfos().clear();
@@ -780,20 +811,15 @@ public class DataTransEngine {
     private TransMeta loadTransMetaForImage(String type, Integer id) throws Exception {
         DataFlowRepository repository = DataFlowRepository.getRepository();
         String key = buildTransKey(type);
-        TransFlowConfig transFlowConfig = repository.getTrans(key, id.toString());
+        // 优先使用已解析的模板副本，流程版本变化时才重新读取并解析
+        TransMeta transMeta = repository.getTransMeta(key, id.toString());
 
-        if (transFlowConfig == null) {
+        if (transMeta == null) {
             throw new DataTransformationEngineException(
                     "Trans flow config not found for type: " + type + ", id: " + id);
         }
 
-        String config = transFlowConfig.getFlowContent();
-        if (StringUtils.isBlank(config)) {
-            throw new DataTransformationEngineException(
-                    "Trans flow config content is empty for type: " + type + ", id: " + id);
-        }
-
-        return DataFlowRepository.xml2TransMeta(config);
+        return transMeta;
     }
 
     /**
@@ -1,8 +1,8 @@
 package com.pufferfishscheduler.trans.engine.entity;
 
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 
 import lombok.Data;
 
@@ -11,6 +11,8 @@ import lombok.Data;
  */
 @Data
 public class LogText {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private String status;
 	private String text;
 
@@ -20,7 +22,6 @@ public class LogText {
 	}
 	
 	private String formatText(String text) {
-		SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-		return String.format("%s %s", sdf.format(new Date()),text);
+		return TIME_FORMAT.format(LocalDateTime.now()) + " " + text;
 	}
 }
@@ -24,21 +24,16 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * kettle步骤行监听器
- * 用于监听转换作业中每个步骤的行读取和写入事件，记录行数据处理日志和统计信息。
+ * 用于调试预览、写日志步骤和 Java 脚本步骤的逐行处理，只挂载到需要的步骤（见 {@link #isRequired()}）；
+ * 行数与处理速度由 {@link com.pufferfishscheduler.trans.engine.metrics.StepMetricsRegistry} 定期采样统计。
  *
  * @author Mayc 
  */
 @Slf4j
 public class KettleStepRowListener implements RowListener {
 
-    private boolean isReadData = false;
-    private long lastDataVolume = 0L;
     private long currentDataVolume = 0L;
-    private long lastTimestamp = 0L;
-    
-    // 统计频率（秒）
-    private static final int STATS_FREQUENCY_SECONDS = 2;
-    
+
     private final String logChannelId;
     private StepMetaDataCombi step;
     private StepDebugMeta stepDebugMeta;
@@ -50,9 +45,7 @@ public class KettleStepRowListener implements RowListener {
 
     @Override
     public void rowReadEvent(RowMetaInterface rowMeta, Object[] row) throws KettleStepException {
-        if (!isReadData) {
-            updateStatistics();
-        }
+        // 读取行数由步骤计数器统计
     }
 
     @Override
@@ -60,18 +53,14 @@ public class KettleStepRowListener implements RowListener {
         try {
             // 处理调试模式
             handleDebugMode(rowMeta, row);
-            
-            // 标记为已读取数据
-            isReadData = true;
-            
+
+            currentDataVolume++;
+
             // 处理写入日志步骤
             handleWriteToLogStep(rowMeta, row);
-            
+
             // 处理Java脚本组件日志
             handleJavaScriptLogs();
-            
-            // 更新统计信息
-            updateStatistics();
         } catch (Exception e) {
             log.error("处理行写入事件失败", e);
             throw new KettleStepException("处理行写入事件失败", e);
@@ -113,8 +102,7 @@ public class KettleStepRowListener implements RowListener {
             WriteToLogMeta writeToLogMeta = (WriteToLogMeta) step.meta;
             if (!writeToLogMeta.isLimitRows() || currentDataVolume <= writeToLogMeta.getLimitRowsNumber()) {
                 StringBuilder message = new StringBuilder(
-                        String.format("步骤\"%s\"日志第%s行。", step.stepMeta.getName(),
-                                currentDataVolume == 0 ? 1 : currentDataVolume));
+                        String.format("步骤\"%s\"日志第%s行。", step.stepMeta.getName(), currentDataVolume));
                 
                 for (String fieldName : writeToLogMeta.getFieldName()) {
                     int fieldIndex = rowMeta.indexOfValue(fieldName);
@@ -147,12 +135,17 @@ public class KettleStepRowListener implements RowListener {
         }
 
         try {
+            // 没有新日志时不扫描日志缓冲区
+            int toLine = KettleLogStore.getLastBufferLineNr();
+            if (toLine == lastLogNumber) {
+                return;
+            }
+
             // 收集根通道及其所有子通道
             List<String> channelIds = new ArrayList<>(
                     LoggingRegistry.getInstance().getLogChannelChildren(logChannelId));
 
             // 拉取通道的日志
-            int toLine = KettleLogStore.getLastBufferLineNr();
             List<KettleLoggingEvent> newLogs = KettleLogStore.getLogBufferFromTo(
                     channelIds,
                     false, // true 将所有通道数据都取出来
@@ -183,55 +176,15 @@ public class KettleStepRowListener implements RowListener {
     }
 
     /**
-     * 更新统计信息
+     * 当前步骤是否需要逐行处理：调试预览、写日志步骤、Java 脚本步骤
+     *
+     * @return 是否需要挂载
      */
-    private void updateStatistics() {
-        currentDataVolume++;
-        
-        if (lastTimestamp == 0L) {
-            lastTimestamp = System.currentTimeMillis();
-            return;
-        }
-
-        long interval = System.currentTimeMillis() - lastTimestamp;
-        if (interval >= STATS_FREQUENCY_SECONDS * 1000) {
-            long rate = calculateProcessingRate(interval);
-            
-            // 更新统计数据
-            lastTimestamp = System.currentTimeMillis();
-            lastDataVolume = currentDataVolume;
-            
-            // 记录统计信息
-            logStatistics(rate);
-        }
-    }
-
-    /**
-     * 计算处理速度
-     * @param interval 时间间隔（毫秒）
-     * @return 处理速度（条/秒）
-     */
-    private long calculateProcessingRate(long interval) {
-        long processedRows = currentDataVolume - lastDataVolume;
-        if (processedRows <= 0) {
-            return 0;
-        }
-        
-        long rate = (processedRows * 1000) / interval;
-        return rate > 0 ? rate : 1;
-    }
-
-    /**
-     * 记录统计信息
-     * @param rate 处理速度（条/秒）
-     */
-    private void logStatistics(long rate) {
-        if (step != null) {
-            String message = String.format("步骤\"%s\"截至当前共处理记录数：%s，处理速度：%s 条/秒!", 
-                    step.stepMeta.getName(), currentDataVolume, rate);
-            log.info(message);
-            LogChannelManager.get(logChannelId).addLog(Constants.EXECUTE_STATUS.SUCCESS, message);
+    public boolean isRequired() {
+        if (stepDebugMeta != null) {
+            return true;
         }
+        return step != null && (step.meta instanceof WriteToLogMeta || step.meta instanceof UserDefinedJavaClassMeta);
     }
 
     /**
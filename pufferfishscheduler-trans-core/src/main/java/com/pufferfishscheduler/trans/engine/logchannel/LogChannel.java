@@ -5,7 +5,6 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -28,20 +27,23 @@ public class LogChannel implements Cloneable {
     public static final String STATUS_SUCCESS = "S";
     public static final String STATUS_FAILURE = "F";
     
-    // 最大日志数量
+    // 最大日志数量（环形缓冲区按 2 的幂向上取整）
     public static final int MAX_LOG_SIZE = 5000;
-    
+
+    // 单个通道日志占用内存上限（估算字节数）
+    public static final long MAX_LOG_BYTES = 4L * 1024 * 1024;
+
     private String type; // 类型：TRANS 或 JOB
     private String id; // 存放trans或者job的id
     private String name; // trans或job名称
-    private List<LogText> logList; // 存放log日志
+    private LogRingBuffer logBuffer; // 存放log日志
     private String status; // 状态：R-运行中；S-运行成功；F-执行失败
     private Map<String, StepStatus> stepStatusMap; // 步骤执行状态映射，key为步骤名称
     private Date finishDate;
 
     public LogChannel() {
         stepStatusMap = new HashMap<>();
-        logList = new CopyOnWriteArrayList<>();
+        logBuffer = new LogRingBuffer(MAX_LOG_SIZE, MAX_LOG_BYTES);
     }
 
     public LogChannel(String type, String id, String name) {
@@ -49,7 +51,7 @@ public class LogChannel implements Cloneable {
         this.id = id;
         this.name = name;
         stepStatusMap = new HashMap<>();
-        logList = new CopyOnWriteArrayList<>();
+        logBuffer = new LogRingBuffer(MAX_LOG_SIZE, MAX_LOG_BYTES);
     }
 
     /**
@@ -57,23 +59,21 @@ public class LogChannel implements Cloneable {
      */
     public void clear() {
         stepStatusMap.clear();
-        logList.clear();
+        logBuffer.clear();
     }
 
     /**
-     * 添加日志
+     * 添加日志（写入时完成文本替换，读取时不再处理）
      * @param logText 日志文本对象
      */
     public void addLog(LogText logText) {
         if (logText == null) {
             return;
         }
-        
-        // 控制日志大小
-        if (logList.size() >= MAX_LOG_SIZE) {
-            logList.remove(0);
+        if (StringUtils.isNotBlank(logText.getText())) {
+            logText.setText(rewrite(logText.getText()));
         }
-        logList.add(logText);
+        logBuffer.add(logText);
     }
 
     /**
@@ -85,12 +85,28 @@ public class LogChannel implements Cloneable {
         if (StringUtils.isBlank(text)) {
             return;
         }
-        
-        // 控制日志大小
-        if (logList.size() >= MAX_LOG_SIZE) {
-            logList.remove(0);
-        }
-        logList.add(new LogText(status, text));
+        logBuffer.add(new LogText(status, rewrite(text)));
+    }
+
+    private static String rewrite(String text) {
+        return StringUtils.replace(text, "Kettle", "Pufferfish");
+    }
+
+    /**
+     * 获取游标之后的日志
+     * @param cursor 已读到的日志序号，-1 表示全部
+     * @return 日志列表
+     */
+    public List<LogText> getLogsAfter(long cursor) {
+        return logBuffer.readAfter(cursor);
+    }
+
+    /**
+     * 最后一条日志的序号，作为下一次增量拉取的游标；没有日志时返回 -1
+     * @return 日志序号
+     */
+    public long getCursor() {
+        return logBuffer.lastSequence();
     }
 
     /**
@@ -154,65 +170,38 @@ public class LogChannel implements Cloneable {
      */
     @Override
     public LogChannel clone() {
+        return clone(-1L);
+    }
+
+    /**
+     * 克隆日志通道，只包含游标之后的日志，供界面增量拉取
+     * @param cursor 已读到的日志序号，-1 表示全部
+     * @return 克隆后的日志通道
+     */
+    public LogChannel clone(long cursor) {
+        LogChannel channel;
         try {
-            LogChannel channel = (LogChannel) super.clone();
-            channel.type = this.type;
-            channel.id = this.id;
-            channel.name = this.name;
-            channel.status = this.status;
-            channel.finishDate = this.finishDate != null ? (Date) this.finishDate.clone() : null;
-            
-            // 克隆日志列表
-            channel.logList = new CopyOnWriteArrayList<>();
-            for (LogText logText : this.logList) {
-                if (logText != null) {
-                    LogText clonedLog = new LogText(logText.getStatus(), logText.getText());
-                    if (StringUtils.isNotBlank(clonedLog.getText())) {
-                        clonedLog.setText(clonedLog.getText().replaceAll("Kettle", "Pufferfish"));
-                    }
-                    channel.addLog(clonedLog);
-                }
-            }
-            
-            // 克隆步骤状态
-            channel.stepStatusMap = new HashMap<>();
-            for (Map.Entry<String, StepStatus> entry : this.stepStatusMap.entrySet()) {
-                if (entry.getValue() != null) {
-                    StepStatus clonedStep = new StepStatus(entry.getValue().getStepName(), entry.getValue().getStatus());
-                    channel.stepStatusMap.put(entry.getKey(), clonedStep);
-                }
-            }
-            
-            return channel;
+            channel = (LogChannel) super.clone();
         } catch (CloneNotSupportedException e) {
             // 处理克隆异常
-            LogChannel channel = new LogChannel();
-            channel.type = this.type;
-            channel.id = this.id;
-            channel.name = this.name;
+            channel = new LogChannel(this.type, this.id, this.name);
             channel.status = this.status;
-            channel.finishDate = this.finishDate;
-            
-            // 复制日志列表
-            for (LogText logText : this.logList) {
-                if (logText != null) {
-                    LogText clonedLog = new LogText(logText.getStatus(), logText.getText());
-                    if (StringUtils.isNotBlank(clonedLog.getText())) {
-                        clonedLog.setText(clonedLog.getText().replaceAll("Kettle", "Pufferfish"));
-                    }
-                    channel.addLog(clonedLog);
-                }
-            }
-            
-            // 复制步骤状态
-            for (StepStatus stepStatus : this.stepStatusMap.values()) {
-                if (stepStatus != null) {
-                    channel.addStepStatus(stepStatus);
-                }
+        }
+        channel.finishDate = this.finishDate != null ? (Date) this.finishDate.clone() : null;
+
+        // 复制日志（日志文本写入后不再修改，直接共享）
+        channel.logBuffer = this.logBuffer.copyAfter(cursor);
+
+        // 克隆步骤状态
+        channel.stepStatusMap = new HashMap<>();
+        for (Map.Entry<String, StepStatus> entry : this.stepStatusMap.entrySet()) {
+            if (entry.getValue() != null) {
+                StepStatus clonedStep = new StepStatus(entry.getValue().getStepName(), entry.getValue().getStatus());
+                channel.stepStatusMap.put(entry.getKey(), clonedStep);
             }
-            
-            return channel;
         }
+
+        return channel;
     }
 
     // Getter 和 Setter 方法
@@ -249,11 +238,16 @@ public class LogChannel implements Cloneable {
     }
 
     public List<LogText> getLogList() {
-        return logList;
+        return logBuffer.readAfter(-1L);
     }
 
     public void setLogList(List<LogText> logList) {
-        this.logList = logList != null ? new CopyOnWriteArrayList<>(logList) : new CopyOnWriteArrayList<>();
+        this.logBuffer = new LogRingBuffer(MAX_LOG_SIZE, MAX_LOG_BYTES);
+        if (logList != null) {
+            for (LogText logText : logList) {
+                addLog(logText);
+            }
+        }
     }
 
     public Date getFinishDate() {
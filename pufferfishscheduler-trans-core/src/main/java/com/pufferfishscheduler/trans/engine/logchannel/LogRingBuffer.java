@@ -0,0 +1,192 @@
+package com.pufferfishscheduler.trans.engine.logchannel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.pufferfishscheduler.trans.engine.entity.LogText;
+
+/**
+ * 日志环形缓冲区
+ * <p>
+ * 每条日志分配一个递增序号，写入 序号 & mask 对应的槽位，满了直接覆盖最旧的一条，写入只有一次 getAndIncrement 和一次槽位替换，不加锁。
+ * 同时按估算字节数限制内存：超出字节上限时从最旧的一条开始逐条淘汰。
+ * 读取方传入游标（已读到的最大序号），只返回之后的日志；遇到已分配序号但尚未写入完成的槽位时停止，保证游标单调且不漏读。
+ * </p>
+ *
+ * @author Mayc
+ */
+public class LogRingBuffer {
+
+    /**
+     * 单条日志的固定开销估算（对象头、引用、状态字段等）
+     */
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final AtomicReferenceArray<Entry> slots;
+
+    private final int mask;
+
+    private final long maxBytes;
+
+    /**
+     * 下一条日志的序号
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * 最旧的可见序号（按字节淘汰后前移）
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * @param maxLines 最大条数，向上取整为 2 的幂
+     * @param maxBytes 最大字节数（估算值）
+     */
+    public LogRingBuffer(int maxLines, long maxBytes) {
+        int capacity = Integer.highestOneBit(Math.max(2, maxLines) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.maxBytes = Math.max(1, maxBytes);
+    }
+
+    /**
+     * 追加一条日志
+     *
+     * @param logText 日志
+     * @return 分配的序号
+     */
+    public long add(LogText logText) {
+        long seq = head.getAndIncrement();
+        Entry entry = new Entry(seq, logText);
+        Entry replaced = slots.getAndSet((int) (seq & mask), entry);
+        long total = bytes.addAndGet(entry.bytes - (replaced != null ? replaced.bytes : 0));
+        if (total > maxBytes) {
+            evict(seq);
+        }
+        return seq;
+    }
+
+    /**
+     * 从最旧的一条开始淘汰，直到字节数回到上限以内（不淘汰刚写入的这一条）
+     */
+    private void evict(long newest) {
+        while (bytes.get() > maxBytes) {
+            long t = tail.get();
+            if (t >= newest) {
+                return;
+            }
+            int index = (int) (t & mask);
+            Entry entry = slots.get(index);
+            if (entry != null && entry.seq == t && slots.compareAndSet(index, entry, null)) {
+                bytes.addAndGet(-entry.bytes);
+            }
+            tail.compareAndSet(t, t + 1);
+        }
+    }
+
+    /**
+     * 读取游标之后的日志
+     *
+     * @param cursor 已读到的最大序号，-1 表示从头读取
+     * @return 日志（按序号升序）
+     */
+    public List<LogText> readAfter(long cursor) {
+        List<Entry> entries = entriesAfter(cursor);
+        List<LogText> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            result.add(entry.logText);
+        }
+        return result;
+    }
+
+    /**
+     * 游标之后的条目；跳过已被覆盖/淘汰的序号，遇到尚未写入完成的序号即停止
+     */
+    private List<Entry> entriesAfter(long cursor) {
+        long end = head.get();
+        long start = Math.max(Math.max(cursor + 1, tail.get()), end - slots.length());
+        List<Entry> result = new ArrayList<>((int) Math.max(0, end - start));
+        for (long seq = Math.max(0, start); seq < end; seq++) {
+            Entry entry = slots.get((int) (seq & mask));
+            if (entry != null && entry.seq == seq) {
+                result.add(entry);
+            } else if (entry != null && entry.seq > seq) {
+                // 已被更新的日志覆盖
+                continue;
+            } else if (seq < tail.get()) {
+                // 已按字节淘汰
+                continue;
+            } else {
+                // 序号已分配但尚未写入
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 复制游标之后的日志到新的缓冲区，序号保持不变
+     *
+     * @param cursor 已读到的最大序号，-1 表示全部
+     * @return 新缓冲区
+     */
+    public LogRingBuffer copyAfter(long cursor) {
+        LogRingBuffer copy = new LogRingBuffer(slots.length(), maxBytes);
+        List<Entry> entries = entriesAfter(cursor);
+        long next = entries.isEmpty() ? Math.max(cursor + 1, 0) : entries.get(entries.size() - 1).seq + 1;
+        long first = entries.isEmpty() ? next : entries.get(0).seq;
+        long total = 0;
+        for (Entry entry : entries) {
+            copy.slots.set((int) (entry.seq & mask), entry);
+            total += entry.bytes;
+        }
+        copy.head.set(next);
+        copy.tail.set(first);
+        copy.bytes.set(total);
+        return copy;
+    }
+
+    /**
+     * 最后一条日志的序号，没有日志时返回 -1
+     */
+    public long lastSequence() {
+        return head.get() - 1;
+    }
+
+    /**
+     * 当前保留的估算字节数
+     */
+    public long bytes() {
+        return bytes.get();
+    }
+
+    /**
+     * 清空日志，序号继续递增，已持有的游标仍然有效
+     */
+    public void clear() {
+        tail.set(head.get());
+        for (int i = 0; i < slots.length(); i++) {
+            Entry entry = slots.getAndSet(i, null);
+            if (entry != null) {
+                bytes.addAndGet(-entry.bytes);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final long seq;
+        private final LogText logText;
+        private final long bytes;
+
+        private Entry(long seq, LogText logText) {
+            this.seq = seq;
+            this.logText = logText;
+            String text = logText.getText();
+            this.bytes = ENTRY_OVERHEAD_BYTES + (text != null ? 2L * text.length() : 0);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.pufferfishscheduler.trans.engine.metrics;
+
+/**
+ * 采样值分布（Prometheus histogram）
+ * <p>
+ * 每个采样周期由采样线程记录一次周期内的吞吐量或平均每行耗时，不在行处理路径上计时，反映的是各采样周期之间的波动，
+ * 而不是单行延迟。读写都在 {@link StepMetricsRegistry} 的类锁内进行，因此不做额外同步。
+ * </p>
+ *
+ * @author Mayc
+ */
+final class SampleHistogram {
+
+    /**
+     * 每秒行数的桶上界
+     */
+    static final double[] ROWS_PER_SECOND_BOUNDS = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    /**
+     * 每行平均耗时（微秒）的桶上界
+     */
+    static final double[] MICROS_PER_ROW_BOUNDS = {1, 5, 10, 50, 100, 500, 1_000, 5_000, 10_000, 100_000};
+
+    private final double[] bounds;
+
+    /**
+     * 各桶计数（非累计），最后一个为 +Inf 桶
+     */
+    private final long[] counts;
+
+    private double sum;
+
+    private long count;
+
+    SampleHistogram(double[] bounds) {
+        this.bounds = bounds;
+        this.counts = new long[bounds.length + 1];
+    }
+
+    void observe(double value) {
+        int i = 0;
+        while (i < bounds.length && value > bounds[i]) {
+            i++;
+        }
+        counts[i]++;
+        sum += value;
+        count++;
+    }
+
+    /**
+     * 并入另一个相同桶边界的分布
+     */
+    void add(SampleHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        sum += other.sum;
+        count += other.count;
+    }
+
+    double[] getBounds() {
+        return bounds;
+    }
+
+    /**
+     * 小于等于第 i 个上界的累计计数，i 等于上界个数时为总数
+     */
+    long cumulativeCount(int i) {
+        long cumulative = 0;
+        for (int j = 0; j <= i; j++) {
+            cumulative += counts[j];
+        }
+        return cumulative;
+    }
+
+    double getSum() {
+        return sum;
+    }
+
+    long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,166 @@
+package com.pufferfishscheduler.trans.engine.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.pentaho.di.trans.step.StepInterface;
+
+/**
+ * 单个步骤副本的运行指标
+ * <p>
+ * 行数、错误数由采样线程按固定周期从 Kettle 步骤计数器同步增量，行处理路径上没有任何额外开销；
+ * 字节数只有开启字节采样时由 {@link StepBytesSampler} 抽样累加。计数器使用 {@link LongAdder}，多线程写入互不竞争。
+ * 最近一个采样周期的时长与处理行数一并保留，由注册表换算为平均每行耗时（周期内无数据时不输出）；
+ * 有数据的采样周期同时计入吞吐量与平均每行耗时的分布（{@link SampleHistogram}）。
+ * </p>
+ *
+ * @author Mayc
+ */
+public class StepMetrics {
+
+    private final String stepName;
+
+    private final int copy;
+
+    private final StepInterface step;
+
+    private final LongAdder rowsRead = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder rowsInput = new LongAdder();
+    private final LongAdder rowsOutput = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    private volatile double rowsPerSecond;
+
+    /**
+     * 最近一个采样周期：[周期时长（纳秒）, 周期内处理行数]，整体替换保证两者一致
+     */
+    private volatile long[] lastInterval = {0L, 0L};
+
+    /**
+     * 各采样周期的每秒行数、平均每行耗时（微秒）分布，仅在注册表类锁内读写
+     */
+    private final SampleHistogram rowsPerSecondHistogram = new SampleHistogram(SampleHistogram.ROWS_PER_SECOND_BOUNDS);
+    private final SampleHistogram microsPerRowHistogram = new SampleHistogram(SampleHistogram.MICROS_PER_ROW_BOUNDS);
+
+    /**
+     * 采样状态，仅采样线程访问
+     */
+    private long lastRead;
+    private long lastWritten;
+    private long lastInput;
+    private long lastOutput;
+    private long lastErrors;
+    private long lastSampleNanos;
+
+    StepMetrics(String stepName, int copy, StepInterface step) {
+        this.stepName = stepName;
+        this.copy = copy;
+        this.step = step;
+        this.lastSampleNanos = System.nanoTime();
+    }
+
+    /**
+     * 累加字节数
+     */
+    public void addBytes(long n) {
+        bytes.add(n);
+    }
+
+    /**
+     * 同步步骤计数器并计算吞吐量、平均每行耗时（采样线程调用）
+     *
+     * @return 本周期处理的行数
+     */
+    long sample(long nowNanos) {
+        long read = step.getLinesRead();
+        long written = step.getLinesWritten();
+        long input = step.getLinesInput();
+        long output = step.getLinesOutput();
+        long errorCount = step.getErrors();
+
+        long readDelta = Math.max(0, read - lastRead);
+        long writtenDelta = Math.max(0, written - lastWritten);
+        long inputDelta = Math.max(0, input - lastInput);
+        long outputDelta = Math.max(0, output - lastOutput);
+        rowsRead.add(readDelta);
+        rowsWritten.add(writtenDelta);
+        rowsInput.add(inputDelta);
+        rowsOutput.add(outputDelta);
+        errors.add(Math.max(0, errorCount - lastErrors));
+        lastRead = read;
+        lastWritten = written;
+        lastInput = input;
+        lastOutput = output;
+        lastErrors = errorCount;
+
+        long processed = Math.max(readDelta + inputDelta, writtenDelta + outputDelta);
+        long elapsedNanos = Math.max(1, nowNanos - lastSampleNanos);
+        lastSampleNanos = nowNanos;
+        rowsPerSecond = processed * 1_000_000_000D / elapsedNanos;
+        lastInterval = new long[]{elapsedNanos, processed};
+        if (processed > 0) {
+            rowsPerSecondHistogram.observe(rowsPerSecond);
+            microsPerRowHistogram.observe(elapsedNanos / 1000D / processed);
+        }
+        return processed;
+    }
+
+    public String getStepName() {
+        return stepName;
+    }
+
+    public int getCopy() {
+        return copy;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.sum();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+
+    public long getRowsInput() {
+        return rowsInput.sum();
+    }
+
+    public long getRowsOutput() {
+        return rowsOutput.sum();
+    }
+
+    /**
+     * 累计处理行数（读取与写出中的较大者）
+     */
+    public long getRowsProcessed() {
+        return Math.max(getRowsRead() + getRowsInput(), getRowsWritten() + getRowsOutput());
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    /**
+     * 最近一个采样周期的 [时长（纳秒）, 处理行数]
+     */
+    long[] getLastInterval() {
+        return lastInterval;
+    }
+
+    SampleHistogram getRowsPerSecondHistogram() {
+        return rowsPerSecondHistogram;
+    }
+
+    SampleHistogram getMicrosPerRowHistogram() {
+        return microsPerRowHistogram;
+    }
+}
@@ -0,0 +1,400 @@
+package com.pufferfishscheduler.trans.engine.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.pentaho.di.trans.step.StepMetaDataCombi;
+
+import com.pufferfishscheduler.common.constants.Constants;
+import com.pufferfishscheduler.trans.engine.TransWrapper;
+import com.pufferfishscheduler.trans.engine.logchannel.LogChannel;
+import com.pufferfishscheduler.trans.engine.logchannel.LogChannelManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 步骤指标注册表
+ * <p>
+ * 转换启动前注册全部步骤，单个采样线程每 {@value #SAMPLE_INTERVAL_SECONDS} 秒同步一次计数器、计算吞吐量，
+ * 并把处理进度写入转换的日志通道；转换结束后做最后一次采样并移除。
+ * 指标以 Prometheus 文本格式输出，见 {@link #scrape()}：按 转换名 + 步骤名 + 副本号 聚合，不带运行实例 id，
+ * 序列数只随转换定义增长；已结束运行的计数并入累计值，计数器跨运行保持单调递增。
+ * 吞吐量与平均每行耗时另按采样周期输出分布（histogram），同样随运行结束并入累计值。
+ * </p>
+ *
+ * @author Mayc
+ */
+@Slf4j
+public class StepMetricsRegistry {
+
+    private static final long SAMPLE_INTERVAL_SECONDS = 2;
+
+    private static final String METRIC_PREFIX = "pfs_step_";
+
+    private static final Map<String, TransMetrics> TRANS_METRICS = new ConcurrentHashMap<>();
+
+    /**
+     * 已结束运行的累计值：序列标签 -> 各计数器（顺序同 {@link #COUNTERS}）与采样分布，仅在类锁内读写
+     */
+    private static final Map<String, Series> RETIRED_TOTALS = new ConcurrentHashMap<>();
+
+    private static final List<Distribution> DISTRIBUTIONS = List.of(
+            new Distribution("sampled_rows_per_second",
+                    "Rows per second of each sample interval with rows, observed by the sampler thread",
+                    SampleHistogram.ROWS_PER_SECOND_BOUNDS, StepMetrics::getRowsPerSecondHistogram),
+            new Distribution("sampled_micros_per_row",
+                    "Sample interval divided by rows processed in it, one observation per interval with rows",
+                    SampleHistogram.MICROS_PER_ROW_BOUNDS, StepMetrics::getMicrosPerRowHistogram));
+
+    private static final List<Counter> COUNTERS = List.of(
+            new Counter("rows_read_total", "Rows read from previous steps", StepMetrics::getRowsRead),
+            new Counter("rows_written_total", "Rows written to next steps", StepMetrics::getRowsWritten),
+            new Counter("rows_input_total", "Rows read from external sources", StepMetrics::getRowsInput),
+            new Counter("rows_output_total", "Rows written to external targets", StepMetrics::getRowsOutput),
+            new Counter("errors_total", "Step errors", StepMetrics::getErrors),
+            new Counter("bytes_total", "Estimated bytes written (only when byte sampling is enabled)", StepMetrics::getBytes));
+
+    /**
+     * 是否抽样统计写出字节数（需要在每个步骤挂载 {@link StepBytesSampler}）
+     */
+    private static volatile boolean byteSampling = false;
+
+    private static final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "StepMetricsSamplerThread");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        sampler.scheduleAtFixedRate(() -> {
+            try {
+                sampleAll();
+            } catch (Exception e) {
+                log.error("Error during step metrics sampling", e);
+            }
+        }, SAMPLE_INTERVAL_SECONDS, SAMPLE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private StepMetricsRegistry() {
+    }
+
+    public static boolean isByteSampling() {
+        return byteSampling;
+    }
+
+    public static void setByteSampling(boolean enable) {
+        byteSampling = enable;
+    }
+
+    /**
+     * 注册转换的全部步骤（在 prepareExecution 之后调用）
+     *
+     * @param trans        转换
+     * @param logChannelId 进度日志写入的日志通道，可为空
+     * @return 步骤名 + 副本号 -> 步骤指标
+     */
+    public static Map<String, StepMetrics> register(TransWrapper trans, String logChannelId) {
+        List<StepMetrics> steps = new ArrayList<>();
+        Map<String, StepMetrics> byStep = new ConcurrentHashMap<>();
+        for (StepMetaDataCombi combi : trans.getSteps()) {
+            StepMetrics metrics = new StepMetrics(combi.stepname, combi.copy, combi.step);
+            steps.add(metrics);
+            byStep.put(stepKey(combi.stepname, combi.copy), metrics);
+        }
+        register(trans.getInstanceId(), trans.getName(), trans::isFinishedOrStopped, logChannelId, steps);
+        return byStep;
+    }
+
+    /**
+     * 注册一次运行的步骤指标
+     *
+     * @param instanceId 转换实例 id
+     * @param transName  转换名，作为序列标签
+     * @param finished   运行是否已结束，结束后由采样线程做最后一次采样并移除
+     * @param logChannelId 进度日志写入的日志通道，可为空
+     * @param steps      步骤指标
+     */
+    static void register(String instanceId, String transName, BooleanSupplier finished, String logChannelId,
+                         List<StepMetrics> steps) {
+        TRANS_METRICS.put(instanceId,
+                new TransMetrics(instanceId, transName, finished, logChannelId, Collections.unmodifiableList(steps)));
+    }
+
+    /**
+     * 移除转换指标，移除前做最后一次采样并把计数并入累计值
+     *
+     * @param instanceId 转换实例 id
+     */
+    public static synchronized void unregister(String instanceId) {
+        TransMetrics transMetrics = instanceId != null ? TRANS_METRICS.get(instanceId) : null;
+        if (transMetrics == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (StepMetrics metrics : transMetrics.steps) {
+            metrics.sample(now);
+        }
+        retire(transMetrics);
+    }
+
+    public static String stepKey(String stepName, int copy) {
+        return stepName + "." + copy;
+    }
+
+    /**
+     * 采样全部转换；已结束的转换做完最后一次采样后移除。与 {@link #unregister(String)} 互斥，
+     * 步骤指标的采样状态只会被一个线程修改
+     */
+    private static synchronized void sampleAll() {
+        long now = System.nanoTime();
+        for (TransMetrics transMetrics : TRANS_METRICS.values()) {
+            boolean finished = transMetrics.finished.getAsBoolean();
+            for (StepMetrics metrics : transMetrics.steps) {
+                if (metrics.sample(now) > 0) {
+                    logProgress(transMetrics.logChannelId, metrics);
+                }
+            }
+            if (finished) {
+                retire(transMetrics);
+            }
+        }
+    }
+
+    /**
+     * 移除运行中的转换并把各步骤计数与分布并入累计值；只有成功移除的一方会合并，同一次运行只计入一次
+     */
+    private static void retire(TransMetrics transMetrics) {
+        if (!TRANS_METRICS.remove(transMetrics.instanceId, transMetrics)) {
+            return;
+        }
+        for (StepMetrics metrics : transMetrics.steps) {
+            RETIRED_TOTALS.computeIfAbsent(labels(transMetrics, metrics), k -> new Series()).add(metrics);
+        }
+    }
+
+    private static long[] totals(StepMetrics metrics) {
+        long[] totals = new long[COUNTERS.size()];
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = COUNTERS.get(i).value.applyAsLong(metrics);
+        }
+        return totals;
+    }
+
+    private static void logProgress(String logChannelId, StepMetrics metrics) {
+        String message = String.format("步骤\"%s\"截至当前共处理记录数：%s，处理速度：%s 条/秒!",
+                metrics.getStepName(), metrics.getRowsProcessed(), Math.max(1L, Math.round(metrics.getRowsPerSecond())));
+        log.info(message);
+        if (logChannelId == null) {
+            return;
+        }
+        LogChannel logChannel = LogChannelManager.get(logChannelId);
+        if (logChannel != null) {
+            logChannel.addLog(Constants.EXECUTE_STATUS.SUCCESS, message);
+        }
+    }
+
+    /**
+     * 以 Prometheus 文本格式（0.0.4）输出步骤指标，同一转换步骤副本的多次运行（含已结束的）合并为一个序列。
+     * 与采样、移除互斥，避免运行刚结束、计数尚未并入累计值时计数器回退
+     */
+    public static synchronized String scrape() {
+        Map<String, Series> all = new TreeMap<>();
+        RETIRED_TOTALS.forEach((labels, retired) -> all.computeIfAbsent(labels, k -> new Series()).add(retired));
+        for (TransMetrics transMetrics : new ArrayList<>(TRANS_METRICS.values())) {
+            for (StepMetrics metrics : transMetrics.steps) {
+                Series series = all.computeIfAbsent(labels(transMetrics, metrics), k -> new Series());
+                series.add(metrics);
+                series.live = true;
+                series.rowsPerSecond += metrics.getRowsPerSecond();
+                long[] interval = metrics.getLastInterval();
+                if (interval[1] > 0) {
+                    series.intervalNanos += interval[0];
+                    series.intervalRows += interval[1];
+                }
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(4096);
+        for (int i = 0; i < COUNTERS.size(); i++) {
+            Counter counter = COUNTERS.get(i);
+            header(sb, counter.name, counter.help, "counter");
+            for (Map.Entry<String, Series> entry : all.entrySet()) {
+                sample(sb, counter.name, entry.getKey(), entry.getValue().totals[i]);
+            }
+        }
+
+        header(sb, "rows_per_second", "Rows processed per second over the last sample interval, running steps only", "gauge");
+        for (Map.Entry<String, Series> entry : all.entrySet()) {
+            if (entry.getValue().live) {
+                sample(sb, "rows_per_second", entry.getKey(), entry.getValue().rowsPerSecond);
+            }
+        }
+
+        // 采样周期时长 / 周期内行数，反映平均处理速度而不是单行延迟；周期内无数据的步骤不输出
+        header(sb, "avg_micros_per_row", "Sample interval divided by rows processed in it, steps with rows in the last interval only", "gauge");
+        for (Map.Entry<String, Series> entry : all.entrySet()) {
+            Series series = entry.getValue();
+            if (series.intervalRows > 0) {
+                sample(sb, "avg_micros_per_row", entry.getKey(), series.intervalNanos / 1000D / series.intervalRows);
+            }
+        }
+
+        for (int i = 0; i < DISTRIBUTIONS.size(); i++) {
+            Distribution distribution = DISTRIBUTIONS.get(i);
+            header(sb, distribution.name, distribution.help, "histogram");
+            for (Map.Entry<String, Series> entry : all.entrySet()) {
+                histogram(sb, distribution.name, entry.getKey(), entry.getValue().histograms[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void histogram(StringBuilder sb, String name, String labels, SampleHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return;
+        }
+        // 在标签末尾追加 le
+        String prefix = labels.substring(0, labels.length() - 1) + ",le=\"";
+        double[] bounds = histogram.getBounds();
+        for (int i = 0; i <= bounds.length; i++) {
+            String le = i < bounds.length ? formatBound(bounds[i]) : "+Inf";
+            sample(sb, name + "_bucket", prefix + le + "\"}", histogram.cumulativeCount(i));
+        }
+        sample(sb, name + "_sum", labels, histogram.getSum());
+        sample(sb, name + "_count", labels, histogram.getCount());
+    }
+
+    private static String formatBound(double bound) {
+        return bound == Math.rint(bound) ? String.valueOf((long) bound) : String.valueOf(bound);
+    }
+
+    private static void header(StringBuilder sb, String name, String help, String type) {
+        sb.append("# HELP ").append(METRIC_PREFIX).append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(METRIC_PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, double value) {
+        sb.append(METRIC_PREFIX).append(name).append(labels).append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            sb.append((long) value);
+        } else {
+            sb.append(value);
+        }
+        sb.append('\n');
+    }
+
+    private static String labels(TransMetrics transMetrics, StepMetrics metrics) {
+        StringBuilder sb = new StringBuilder(128).append('{');
+        label(sb, "trans", transMetrics.transName).append(',');
+        label(sb, "step", metrics.getStepName()).append(',');
+        label(sb, "copy", String.valueOf(metrics.getCopy()));
+        return sb.append('}').toString();
+    }
+
+    private static StringBuilder label(StringBuilder sb, String name, String value) {
+        sb.append(name).append("=\"");
+        String v = value == null ? "" : value;
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '\\' || c == '"') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"');
+    }
+
+    private static final class Counter {
+        private final String name;
+        private final String help;
+        private final ToLongFunction<StepMetrics> value;
+
+        private Counter(String name, String help, ToLongFunction<StepMetrics> value) {
+            this.name = name;
+            this.help = help;
+            this.value = value;
+        }
+    }
+
+    private static final class Distribution {
+        private final String name;
+        private final String help;
+        private final double[] bounds;
+        private final Function<StepMetrics, SampleHistogram> histogram;
+
+        private Distribution(String name, String help, double[] bounds,
+                             Function<StepMetrics, SampleHistogram> histogram) {
+            this.name = name;
+            this.help = help;
+            this.bounds = bounds;
+            this.histogram = histogram;
+        }
+    }
+
+    /**
+     * 一个导出序列（转换 + 步骤 + 副本）的聚合值
+     */
+    private static final class Series {
+        private final long[] totals = new long[COUNTERS.size()];
+        private final SampleHistogram[] histograms = new SampleHistogram[DISTRIBUTIONS.size()];
+        private boolean live;
+        private double rowsPerSecond;
+        private long intervalNanos;
+        private long intervalRows;
+
+        private Series() {
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new SampleHistogram(DISTRIBUTIONS.get(i).bounds);
+            }
+        }
+
+        private void add(StepMetrics metrics) {
+            long[] values = totals(metrics);
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += values[i];
+            }
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i].add(DISTRIBUTIONS.get(i).histogram.apply(metrics));
+            }
+        }
+
+        private void add(Series other) {
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += other.totals[i];
+            }
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i].add(other.histograms[i]);
+            }
+        }
+    }
+
+    private static final class TransMetrics {
+        private final String instanceId;
+        private final String transName;
+        private final BooleanSupplier finished;
+        private final String logChannelId;
+        private final List<StepMetrics> steps;
+
+        private TransMetrics(String instanceId, String transName, BooleanSupplier finished, String logChannelId,
+                             List<StepMetrics> steps) {
+            this.instanceId = instanceId;
+            this.transName = transName;
+            this.finished = finished;
+            this.logChannelId = logChannelId;
+            this.steps = steps;
+        }
+    }
+}
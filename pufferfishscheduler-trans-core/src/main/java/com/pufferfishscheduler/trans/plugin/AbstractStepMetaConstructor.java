@@ -53,6 +53,15 @@ public abstract class AbstractStepMetaConstructor implements StepAwareInterface
 
     }
 
+    /**
+     * 步骤并行特征，默认不参与自动并行度规划
+     *
+     * @return 并行特征
+     */
+    public StepParallelism getParallelism() {
+        return StepParallelism.NEUTRAL;
+    }
+
     /**
      * 验证输入参数
      *
@@ -0,0 +1,32 @@
+package com.pufferfishscheduler.trans.plugin;
+
+/**
+ * 步骤并行特征，供并行度规划使用
+ */
+public enum StepParallelism {
+
+    /**
+     * 无状态且 CPU 密集，可自动扩展为多副本
+     */
+    STATELESS,
+
+    /**
+     * 保持用户配置，不参与自动规划
+     */
+    NEUTRAL,
+
+    /**
+     * 可能持有跨行状态（如用户自定义代码中的计数、缓存），多副本会拆分状态，保持用户配置，不参与自动规划
+     */
+    STATEFUL,
+
+    /**
+     * 结果依赖输入顺序（如分组聚合、按主键更新），其上游不能并行
+     */
+    ORDER_SENSITIVE,
+
+    /**
+     * 产生有序输出（如排序），其下游不能并行
+     */
+    ORDER_PRODUCING
+}
@@ -0,0 +1,209 @@
+package com.pufferfishscheduler.trans.plugin;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 步骤并行度规划器
+ * <p>
+ * 分两个阶段：
+ * <ol>
+ *     <li>{@link #plan}：保存流程时在转换元数据构建完成后执行，只根据拓扑选出可扩展的步骤——无状态的 CPU 密集步骤
+ *     （数据过滤、数据清洗、JSON 解析），排除顺序敏感步骤的上游、有序输出步骤的下游、复制分发的下游以及用户显式配置过副本数的步骤。
+ *     候选步骤与副本上限以属性组 {@link #ATTRIBUTE_GROUP} 记录在转换 XML 中，不写入副本数；</li>
+ *     <li>{@link #apply}：每次运行开始时在执行转换的节点上执行，按该节点的可用核数与当前负载为候选步骤分配副本数，
+ *     只修改本次运行的元数据副本。</li>
+ * </ol>
+ * </p>
+ */
+@Slf4j
+public class StepParallelismPlanner {
+
+    /**
+     * 转换属性组名称
+     */
+    public static final String ATTRIBUTE_GROUP = "pfs_parallelism";
+
+    /**
+     * 候选步骤的属性值
+     */
+    public static final String CANDIDATE = "auto";
+
+    /**
+     * 单个步骤最大副本数
+     */
+    public static final String ATTRIBUTE_MAX_COPIES = "_maxCopies";
+
+    /**
+     * 分配时的可用核数
+     */
+    public static final String ATTRIBUTE_CORES = "_cores";
+
+    /**
+     * 分配时的系统负载
+     */
+    public static final String ATTRIBUTE_LOAD = "_load";
+
+    /**
+     * 单个步骤默认最大副本数
+     */
+    public static final int DEFAULT_MAX_COPIES = 8;
+
+    private final int availableCores;
+
+    private final double systemLoad;
+
+    /**
+     * 按当前节点的可用核数与系统负载分配
+     */
+    public StepParallelismPlanner() {
+        this(Runtime.getRuntime().availableProcessors(),
+                ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage());
+    }
+
+    public StepParallelismPlanner(int availableCores, double systemLoad) {
+        this.availableCores = Math.max(1, availableCores);
+        // 部分平台不支持负载统计，返回负数
+        this.systemLoad = Math.max(0D, systemLoad);
+    }
+
+    /**
+     * 选出可自动扩展副本的步骤，记录在转换属性中（不依赖执行节点的资源）
+     *
+     * @param transMeta   转换元数据（步骤与连线已构建）
+     * @param stepTraits  步骤名称 -> 并行特征
+     * @param pinnedSteps 用户显式配置副本数的步骤名称
+     * @param maxCopies   单个步骤最大副本数，小于等于 0 时使用 {@link #DEFAULT_MAX_COPIES}
+     * @return 候选步骤名称
+     */
+    public static Set<String> plan(TransMeta transMeta, Map<String, StepParallelism> stepTraits,
+                                   Set<String> pinnedSteps, int maxCopies) {
+        if (transMeta == null || stepTraits == null || stepTraits.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> pinned = pinnedSteps == null ? Collections.emptySet() : pinnedSteps;
+
+        // 1. 收集必须保持单副本的步骤
+        Set<String> blocked = new HashSet<>();
+        for (StepMeta stepMeta : transMeta.getSteps()) {
+            StepParallelism trait = stepTraits.getOrDefault(stepMeta.getName(), StepParallelism.NEUTRAL);
+            if (trait == StepParallelism.ORDER_SENSITIVE) {
+                collect(transMeta, stepMeta, false, blocked);
+            } else if (trait == StepParallelism.ORDER_PRODUCING) {
+                collect(transMeta, stepMeta, true, blocked);
+            }
+            // 复制分发时，多副本的下游会收到重复数据
+            if (!stepMeta.isDistributes()) {
+                for (StepMeta next : transMeta.findNextSteps(stepMeta)) {
+                    blocked.add(next.getName());
+                }
+            }
+        }
+
+        // 2. 候选步骤
+        Set<String> candidates = new LinkedHashSet<>();
+        for (StepMeta stepMeta : transMeta.getSteps()) {
+            String name = stepMeta.getName();
+            if (stepTraits.get(name) != StepParallelism.STATELESS || pinned.contains(name) || blocked.contains(name)) {
+                continue;
+            }
+            candidates.add(name);
+        }
+        if (candidates.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        for (String name : candidates) {
+            transMeta.setAttribute(ATTRIBUTE_GROUP, name, CANDIDATE);
+        }
+        transMeta.setAttribute(ATTRIBUTE_GROUP, ATTRIBUTE_MAX_COPIES,
+                String.valueOf(maxCopies > 0 ? maxCopies : DEFAULT_MAX_COPIES));
+
+        log.info("步骤并行度规划完成，候选步骤：{}", candidates);
+        return candidates;
+    }
+
+    /**
+     * 按当前节点的剩余核数为候选步骤平均分配副本数，在每次运行开始时对本次运行的元数据副本执行
+     *
+     * @param transMeta 转换元数据（本次运行的副本）
+     * @return 步骤名称 -> 副本数，未规划时为空
+     */
+    public Map<String, Integer> apply(TransMeta transMeta) {
+        Map<String, String> attributes = transMeta == null ? null : transMeta.getAttributes(ATTRIBUTE_GROUP);
+        if (attributes == null || attributes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<StepMeta> candidates = new ArrayList<>();
+        for (StepMeta stepMeta : transMeta.getSteps()) {
+            // 早期版本保存的是副本数（已写入步骤），不再重新分配
+            if (CANDIDATE.equals(attributes.get(stepMeta.getName()))) {
+                candidates.add(stepMeta);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        int maxCopies = DEFAULT_MAX_COPIES;
+        try {
+            maxCopies = Integer.parseInt(attributes.getOrDefault(ATTRIBUTE_MAX_COPIES, ""));
+        } catch (NumberFormatException e) {
+            // 使用默认上限
+        }
+        int budget = Math.max(1, availableCores - (int) Math.ceil(systemLoad));
+        int copies = Math.max(1, Math.min(maxCopies, budget / candidates.size()));
+
+        Map<String, Integer> plan = new LinkedHashMap<>();
+        for (StepMeta stepMeta : candidates) {
+            stepMeta.setCopies(copies);
+            plan.put(stepMeta.getName(), copies);
+        }
+        transMeta.setAttribute(ATTRIBUTE_GROUP, ATTRIBUTE_CORES, String.valueOf(availableCores));
+        transMeta.setAttribute(ATTRIBUTE_GROUP, ATTRIBUTE_LOAD, String.format("%.2f", systemLoad));
+
+        log.info("步骤副本数分配完成，可用核数：{}，系统负载：{}，分配结果：{}", availableCores, systemLoad, plan);
+        return plan;
+    }
+
+    /**
+     * 沿连线收集上游或下游的全部步骤
+     *
+     * @param transMeta  转换元数据
+     * @param start      起始步骤（不包含）
+     * @param downstream true 收集下游，false 收集上游
+     * @param result     结果集合
+     */
+    private static void collect(TransMeta transMeta, StepMeta start, boolean downstream, Set<String> result) {
+        Deque<StepMeta> queue = new ArrayDeque<>();
+        queue.add(start);
+        Set<StepMeta> visited = new HashSet<>();
+        visited.add(start);
+        while (!queue.isEmpty()) {
+            StepMeta current = queue.poll();
+            List<StepMeta> neighbours = downstream
+                    ? transMeta.findNextSteps(current)
+                    : transMeta.findPreviousSteps(current, true);
+            for (StepMeta neighbour : neighbours) {
+                if (visited.add(neighbour)) {
+                    result.add(neighbour.getName());
+                    queue.add(neighbour);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.pufferfishscheduler.trans.plugin;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.tableinput.TableInputMeta;
+
+import com.pufferfishscheduler.common.exception.BusinessException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 表输入分片读取规划器
+ * <p>
+ * 构造步骤时只以属性组 {@value #ATTRIBUTE_GROUP} 在转换 XML 中记录开启分片读取的步骤及其分片字段，不访问数据库；
+ * 每次运行开始时（参数已生效、副本数已按执行节点确定）由 {@link #apply(TransMeta)} 探测范围并改写该步骤的 SQL，
+ * 边界始终反映运行时的数据。
+ * </p>
+ * <p>
+ * 探测分片字段（数值或日期）的最小值、最大值，把范围等分为 副本数 × {@value #SLICES_PER_COPY} 个左闭右开的分片，
+ * 按分片序号轮流分配给各步骤副本（数据倾斜时热点区间分散到多个副本）。第一个分片不设下界、最后一个分片不设上界，
+ * 分片字段为 NULL 的行归副本 0，因此探测之后新增的数据也只会被读取一次，结果与单条查询一致。
+ * </p>
+ * <p>
+ * 生成的 SQL 以 Kettle 内置变量 {@value #COPY_NR_VARIABLE} 区分副本，每个副本变量替换后只保留自己的条件，
+ * 其余条件为常量假，由数据库优化器消除；Kettle 为每个副本单独建立连接。
+ * 范围为空、无法探测（SQL 含参数未提供的变量）时，只由副本 0 读取全部数据。
+ * </p>
+ */
+@Slf4j
+public class TableInputPartitioner {
+
+    /**
+     * 步骤副本序号变量
+     */
+    public static final String COPY_NR_VARIABLE = "${" + Const.INTERNAL_VARIABLE_STEP_COPYNR + "}";
+
+    /**
+     * 转换属性组：步骤名 → 分片字段
+     */
+    public static final String ATTRIBUTE_GROUP = "pfs_partition_read";
+
+    /**
+     * 每个副本分配的分片数
+     */
+    static final int SLICES_PER_COPY = 4;
+
+    private static final String PARTITION_ALIAS = "pfs_part";
+
+    private static final String TIMESTAMP_PATTERN = "yyyy-MM-dd HH:mm:ss.SSS";
+
+    private final TransMeta transMeta;
+
+    private final DatabaseMeta databaseMeta;
+
+    public TableInputPartitioner(TransMeta transMeta, DatabaseMeta databaseMeta) {
+        this.transMeta = transMeta;
+        this.databaseMeta = databaseMeta;
+    }
+
+    /**
+     * 标记步骤开启分片读取（构造步骤时调用）
+     *
+     * @param transMeta 转换元数据
+     * @param stepName  表输入步骤名
+     * @param column    分片字段
+     */
+    public static void mark(TransMeta transMeta, String stepName, String column) {
+        transMeta.setAttribute(ATTRIBUTE_GROUP, stepName, column);
+    }
+
+    /**
+     * 运行开始时为标记的表输入步骤探测范围并改写 SQL，在参数生效之后、prepareExecution 之前调用；
+     * 只修改本次运行加载的元数据，探测失败时本次运行失败
+     *
+     * @param transMeta 转换元数据
+     */
+    public static void apply(TransMeta transMeta) {
+        Map<String, String> attributes = transMeta.getAttributes(ATTRIBUTE_GROUP);
+        if (attributes == null || attributes.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, String> entry : attributes.entrySet()) {
+            StepMeta stepMeta = transMeta.findStep(entry.getKey());
+            if (stepMeta == null || !(stepMeta.getStepMetaInterface() instanceof TableInputMeta tableInput)) {
+                continue;
+            }
+            int copies = stepMeta.getCopies();
+            if (copies <= 1) {
+                log.info("【{}】单副本运行，分片读取不生效", entry.getKey());
+                continue;
+            }
+            TableInputPartitioner partitioner = new TableInputPartitioner(transMeta, tableInput.getDatabaseMeta());
+            tableInput.setSQL(partitioner.partition(tableInput.getSQL(), entry.getValue(), copies));
+            tableInput.setVariableReplacementActive(true);
+            log.info("【{}】分片读取，分片字段：{}，副本数：{}", entry.getKey(), entry.getValue(), copies);
+        }
+    }
+
+    /**
+     * 生成分片读取 SQL
+     *
+     * @param sql    实际执行的查询（可能已拼接增量条件），同时用于探测范围
+     * @param column 分片字段
+     * @param copies 步骤副本数
+     * @return 按副本序号过滤的 SQL
+     */
+    public String partition(String sql, String column, int copies) {
+        String field = PARTITION_ALIAS + "." + databaseMeta.quoteField(column);
+        List<String> boundaries = copies > 1 ? probeBoundaries(sql, column, copies) : new ArrayList<>();
+        return buildSql(sql, field, boundaries, copies);
+    }
+
+    /**
+     * 探测范围并计算分片边界（严格递增），范围为空或无法探测时返回空列表
+     */
+    private List<String> probeBoundaries(String probeSql, String column, int copies) {
+        String substituted = transMeta.environmentSubstitute(probeSql);
+        if (substituted.contains("${")) {
+            log.warn("分片读取：SQL 含未提供值的变量，无法探测分片字段 {} 的范围，由副本 0 读取全部数据", column);
+            return new ArrayList<>();
+        }
+        String field = PARTITION_ALIAS + "." + databaseMeta.quoteField(column);
+        String rangeSql = String.format("SELECT MIN(%s) AS min_value, MAX(%s) AS max_value FROM (%s) %s",
+                field, field, substituted, PARTITION_ALIAS);
+
+        RowMetaAndData range;
+        Database database = new Database(transMeta, databaseMeta);
+        try {
+            database.shareVariablesWith(transMeta);
+            database.connect();
+            range = database.getOneRow(rangeSql);
+        } catch (KettleException e) {
+            throw new BusinessException("分片读取探测字段【" + column + "】范围失败：" + e.getMessage());
+        } finally {
+            database.disconnect();
+        }
+        if (range == null || range.getData() == null || range.getData()[0] == null || range.getData()[1] == null) {
+            return new ArrayList<>();
+        }
+
+        int slices = copies * SLICES_PER_COPY;
+        ValueMetaInterface valueMeta = range.getRowMeta().getValueMeta(0);
+        try {
+            if (valueMeta.isDate()) {
+                return dateBoundaries(valueMeta.getDate(range.getData()[0]),
+                        range.getRowMeta().getValueMeta(1).getDate(range.getData()[1]), slices);
+            }
+            if (valueMeta.isNumeric()) {
+                return numberBoundaries(valueMeta.getBigNumber(range.getData()[0]),
+                        range.getRowMeta().getValueMeta(1).getBigNumber(range.getData()[1]), slices);
+            }
+        } catch (KettleException e) {
+            throw new BusinessException("分片读取字段【" + column + "】范围转换失败：" + e.getMessage());
+        }
+        throw new BusinessException("分片读取字段【" + column + "】必须为数值或日期类型！");
+    }
+
+    /**
+     * 数值边界：最小值、最大值都是整数时边界取整
+     */
+    static List<String> numberBoundaries(BigDecimal min, BigDecimal max, int slices) {
+        List<String> boundaries = new ArrayList<>();
+        if (min.compareTo(max) >= 0) {
+            return boundaries;
+        }
+        boolean integral = isIntegral(min) && isIntegral(max);
+        BigDecimal width = max.subtract(min);
+        BigDecimal last = min;
+        for (int i = 1; i < slices; i++) {
+            BigDecimal step = width.multiply(BigDecimal.valueOf(i)).divide(BigDecimal.valueOf(slices),
+                    integral ? 0 : Math.max(10, width.scale() + 2), integral ? RoundingMode.FLOOR : RoundingMode.HALF_UP);
+            BigDecimal boundary = min.add(step);
+            if (boundary.compareTo(last) > 0 && boundary.compareTo(max) <= 0) {
+                boundaries.add(boundary.stripTrailingZeros().toPlainString());
+                last = boundary;
+            }
+        }
+        return boundaries;
+    }
+
+    private static boolean isIntegral(BigDecimal value) {
+        return value.signum() == 0 || value.stripTrailingZeros().scale() <= 0;
+    }
+
+    /**
+     * 日期边界，以 JDBC 时间戳转义语法表示，各数据库驱动通用
+     */
+    static List<String> dateBoundaries(Date min, Date max, int slices) {
+        List<String> boundaries = new ArrayList<>();
+        long from = min.getTime();
+        long to = max.getTime();
+        if (from >= to) {
+            return boundaries;
+        }
+        SimpleDateFormat format = new SimpleDateFormat(TIMESTAMP_PATTERN);
+        long last = from;
+        for (int i = 1; i < slices; i++) {
+            long boundary = from + (long) ((double) (to - from) * i / slices);
+            if (boundary > last && boundary <= to) {
+                boundaries.add("{ts '" + format.format(new Date(boundary)) + "'}");
+                last = boundary;
+            }
+        }
+        return boundaries;
+    }
+
+    /**
+     * 拼接分片 SQL：分片 j 为 [b(j-1), b(j))，分配给副本 j % copies
+     */
+    static String buildSql(String sql, String field, List<String> boundaries, int copies) {
+        int slices = boundaries.size() + 1;
+        StringBuilder where = new StringBuilder();
+        for (int copy = 0; copy < copies; copy++) {
+            List<String> conditions = new ArrayList<>();
+            for (int slice = copy; slice < slices; slice += copies) {
+                List<String> bounds = new ArrayList<>(2);
+                if (slice > 0) {
+                    bounds.add(field + " >= " + boundaries.get(slice - 1));
+                }
+                if (slice < slices - 1) {
+                    bounds.add(field + " < " + boundaries.get(slice));
+                }
+                conditions.add(bounds.isEmpty() ? "1 = 1" : "(" + String.join(" AND ", bounds) + ")");
+            }
+            if (copy == 0) {
+                conditions.add(field + " IS NULL");
+            }
+            if (conditions.isEmpty()) {
+                // 分片数少于副本数，该副本不读取数据
+                continue;
+            }
+            if (where.length() > 0) {
+                where.append("\n   OR ");
+            }
+            where.append("(").append(COPY_NR_VARIABLE).append(" = ").append(copy)
+                    .append(" AND (").append(String.join(" OR ", conditions)).append("))");
+        }
+        return String.format("SELECT * FROM (%s) %s\nWHERE %s", sql, PARTITION_ALIAS, where);
+    }
+}
@@ -49,6 +49,8 @@ public class ApiInputConstructor extends AbstractStepMetaConstructor {
     private static final String KEY_USE_PAGE = "usePage";
     private static final String KEY_PAGE_CONDITION = "pageCondition";
     private static final String KEY_START_PAGE_NO = "startPageNo";
+    private static final String KEY_PREFETCH_PAGES = "prefetchPages";
+    private static final String KEY_RESPONSE_JSON_PATH = "responseJsonPath";
     private static final String KEY_COPIES_CACHE = "copiesCache";
     private static final String KEY_DISTRIBUTE_TYPE = "distributeType";
 
@@ -165,6 +167,9 @@ public class ApiInputConstructor extends AbstractStepMetaConstructor {
         String responseBody = data.getString(KEY_RESPONSE_BODY);
         validateIfNeeded(responseBody, componentName, "响应体字段名", validateMode);
         stepMeta.setResponseBody(responseBody);
+
+        Optional.ofNullable(data.getString(KEY_RESPONSE_JSON_PATH))
+                .ifPresent(stepMeta::setResponseJsonPath);
     }
 
     /**
@@ -247,6 +252,11 @@ public class ApiInputConstructor extends AbstractStepMetaConstructor {
             }
             stepMeta.setStartPageNo(startPageNo);
 
+            Integer prefetchPages = data.getInteger(KEY_PREFETCH_PAGES);
+            if (prefetchPages != null && prefetchPages > 0) {
+                stepMeta.setPrefetchPages(prefetchPages);
+            }
+
             validatePageVariable(stepMeta, data);
         }
     }
@@ -41,6 +41,10 @@ public class ApiOutputConstructor extends AbstractStepMetaConstructor {
     private static final String KEY_READ_TIMEOUT = "readOutTime";
     private static final String KEY_RETRY_NUM = "retryNum";
     private static final String KEY_RETRY_TIME = "retryTime";
+    private static final String KEY_RETRY_ON_STATUS = "retryOnStatus";
+    private static final String KEY_OUTPUT_MODE = "outputMode";
+    private static final String KEY_BATCH_SIZE = "batchSize";
+    private static final String KEY_MAX_IN_FLIGHT = "maxInFlight";
     private static final String KEY_USE_XFORM = "useXForm";
     private static final String KEY_XFORM_LIST = "xFormList";
     private static final String KEY_USE_RAW = "useRaw";
@@ -181,6 +185,24 @@ public class ApiOutputConstructor extends AbstractStepMetaConstructor {
                 .ifPresent(stepMeta::setRetryNum);
         Optional.ofNullable(data.getLong(KEY_RETRY_TIME))
                 .ifPresent(stepMeta::setRetryTime);
+        stepMeta.setRetryOnStatus(data.getBooleanValue(KEY_RETRY_ON_STATUS));
+
+        // 输出模式：逐行 / 批量 / 并发
+        Optional.ofNullable(data.getString(KEY_OUTPUT_MODE))
+                .filter(StringUtils::isNotBlank)
+                .map(mode -> mode.trim().toUpperCase())
+                .ifPresent(mode -> {
+                    if (!ApiOutputStepMeta.isSupportedOutputMode(mode)) {
+                        throw new BusinessException("不支持的输出模式：" + mode);
+                    }
+                    stepMeta.setOutputMode(mode);
+                });
+        Optional.ofNullable(data.getInteger(KEY_BATCH_SIZE))
+                .filter(size -> size > 0)
+                .ifPresent(stepMeta::setBatchSize);
+        Optional.ofNullable(data.getInteger(KEY_MAX_IN_FLIGHT))
+                .filter(size -> size > 0)
+                .ifPresent(stepMeta::setMaxInFlight);
 
         // 请求头
         configureHeaders(stepMeta, data);
@@ -6,6 +6,7 @@ import com.pufferfishscheduler.common.constants.Constants;
 import com.pufferfishscheduler.common.exception.BusinessException;
 import com.pufferfishscheduler.trans.plugin.AbstractStepMetaConstructor;
 import com.pufferfishscheduler.trans.plugin.StepContext;
+import com.pufferfishscheduler.trans.plugin.StepParallelism;
 import com.pufferfishscheduler.plugin.DataCleanStepMeta;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -66,6 +67,11 @@ public class DataCleanConstructor extends AbstractStepMetaConstructor {
         cleanStepMeta.setName(name);
         // api地址
         cleanStepMeta.setAddress(context.getUrl());
+        // 批处理行数（未配置时使用插件默认值）
+        Integer batchSize = data.getInteger("batchSize");
+        if (null != batchSize && batchSize > 0) {
+            cleanStepMeta.setBatchSize(batchSize);
+        }
 
         JSONArray fieldList = data.getJSONArray("fieldList");
 
@@ -195,4 +201,11 @@ public class DataCleanConstructor extends AbstractStepMetaConstructor {
         });
     }
 
+    /**
+     * 逐行处理、无跨行状态，可自动扩展为多副本
+     */
+    @Override
+    public StepParallelism getParallelism() {
+        return StepParallelism.STATELESS;
+    }
 }
@@ -4,6 +4,7 @@ import com.alibaba.fastjson2.JSONObject;
 import com.pufferfishscheduler.common.exception.BusinessException;
 import com.pufferfishscheduler.trans.plugin.AbstractStepMetaConstructor;
 import com.pufferfishscheduler.trans.plugin.StepContext;
+import com.pufferfishscheduler.trans.plugin.StepParallelism;
 import com.pufferfishscheduler.plugin.DataFilterStepMeta;
 import org.apache.commons.lang3.StringUtils;
 import org.pentaho.di.core.plugins.StepPluginType;
@@ -49,6 +50,9 @@ public class DataFilterConstructor extends AbstractStepMetaConstructor {
             JSONObject condition = data.getJSONObject("condition");
             filterStepMeta.setCondition(condition.toString());
             filterStepMeta.setJavaCode(null);
+            // 条件树编译模式，默认开启
+            Boolean compileCondition = data.getBoolean("compileCondition");
+            filterStepMeta.setCompileCondition(compileCondition == null || compileCondition);
         } else {
             String javaCode = data.getString("javaCode");
             filterStepMeta.setJavaCode(javaCode);
@@ -76,4 +80,12 @@ public class DataFilterConstructor extends AbstractStepMetaConstructor {
 
         return stepMeta;
     }
+
+    /**
+     * 逐行处理、无跨行状态，可自动扩展为多副本
+     */
+    @Override
+    public StepParallelism getParallelism() {
+        return StepParallelism.STATELESS;
+    }
 }
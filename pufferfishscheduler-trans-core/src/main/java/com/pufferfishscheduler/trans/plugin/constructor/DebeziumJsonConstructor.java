@@ -5,6 +5,7 @@ import com.alibaba.fastjson2.JSONObject;
 import com.pufferfishscheduler.common.exception.BusinessException;
 import com.pufferfishscheduler.trans.plugin.AbstractStepMetaConstructor;
 import com.pufferfishscheduler.trans.plugin.StepContext;
+import com.pufferfishscheduler.trans.plugin.StepParallelism;
 import com.pufferfishscheduler.plugin.DebeziumJsonStepMeta;
 import org.apache.commons.lang3.StringUtils;
 import org.pentaho.di.core.plugins.StepPluginType;
@@ -81,4 +82,12 @@ public class DebeziumJsonConstructor extends AbstractStepMetaConstructor {
 
         return stepMeta;
     }
+
+    /**
+     * 逐行处理、无跨行状态，可自动扩展为多副本
+     */
+    @Override
+    public StepParallelism getParallelism() {
+        return StepParallelism.STATELESS;
+    }
 }
@@ -98,6 +98,10 @@ public class DorisOutputConstructor extends AbstractStepMetaConstructor {
         Integer retries = data.getInteger("retries");
         dorisStreamLoaderMeta.setMaxRetries(null == retries ? 3 : retries);
 
+        // 并发导入线程数
+        Integer loadConcurrency = data.getInteger("loadConcurrency");
+        dorisStreamLoaderMeta.setLoadConcurrency(null == loadConcurrency || loadConcurrency < 1 ? 1 : loadConcurrency);
+
         // 刷新频率（毫秒）
         Long scanningFrequency = data.getLong("scanningFrequency");
         dorisStreamLoaderMeta.setScanningFrequency(null == scanningFrequency ? 500 : scanningFrequency);
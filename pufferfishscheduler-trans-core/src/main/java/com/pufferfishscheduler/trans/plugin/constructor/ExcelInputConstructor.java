@@ -90,7 +90,7 @@ public class ExcelInputConstructor extends AbstractStepMetaConstructor {
             fieldList = new JSONArray();
         }
 
-        // 引擎类型（空则 JXL；SAX_POI 在 POI 5.x 下不可用，见 resolveSpreadSheetTypeCompatibleWithPoi5）
+        // 引擎类型（空则 JXL；SAX_POI 为流式读取 xlsx，见 resolveSpreadSheetType）
         String engine = data.getString("engine");
 
         String password = data.getString("password");
@@ -106,7 +106,7 @@ public class ExcelInputConstructor extends AbstractStepMetaConstructor {
             excelInputMeta.setIgnoreEmptyRows(ignoreEmptyRows);
         }
 
-        excelInputMeta.setSpreadSheetType(resolveSpreadSheetTypeCompatibleWithPoi5(engine));
+        excelInputMeta.setSpreadSheetType(resolveSpreadSheetType(engine, password));
         excelInputMeta.setRowLimit(null == readLine ? 0 : readLine);
         excelInputMeta.setEncoding(assCode);
         excelInputMeta.setPassword(password);
@@ -256,16 +256,16 @@ public class ExcelInputConstructor extends AbstractStepMetaConstructor {
      * 执行后处理
      */
     /**
-     * Kettle StaxPoi（SAX_POI）依赖旧版 POI 的 XSSFReader API；本工程统一使用 Apache POI 5.x 时会产生 NoSuchMethodError，
-     * 故将 SAX_POI 映射为 POI（标准 DOM 读 xlsx，大文件内存占用更高）。
+     * SAX_POI 由本工程基于 POI 5.x 重写的 StaxPoiWorkbook 流式读取 xlsx（内存占用与文件大小无关）；
+     * 流式读取不支持加密文件，设置了密码时改用 POI（标准 DOM 读取）。
      */
-    private static SpreadSheetType resolveSpreadSheetTypeCompatibleWithPoi5(String engine) {
+    private static SpreadSheetType resolveSpreadSheetType(String engine, String password) {
         if (StringUtils.isBlank(engine)) {
             return SpreadSheetType.JXL;
         }
         SpreadSheetType t = SpreadSheetType.valueOf(engine);
-        if (t == SpreadSheetType.SAX_POI) {
-            log.debug("engine=SAX_POI 与 POI 5.x 不兼容，已改用 POI 读取 xlsx");
+        if (t == SpreadSheetType.SAX_POI && StringUtils.isNotBlank(password)) {
+            log.debug("engine=SAX_POI 不支持加密文件，已改用 POI 读取 xlsx");
             return SpreadSheetType.POI;
         }
         return t;
@@ -7,6 +7,7 @@ import com.pufferfishscheduler.common.exception.BusinessException;
 import com.pufferfishscheduler.common.utils.ListenDatabaseType;
 import com.pufferfishscheduler.trans.plugin.AbstractStepMetaConstructor;
 import com.pufferfishscheduler.trans.plugin.StepContext;
+import com.pufferfishscheduler.trans.plugin.StepParallelism;
 import com.pufferfishscheduler.common.config.file.FilePathConfig;
 import com.pufferfishscheduler.plugin.util.DbDatabaseVo;
 import org.apache.commons.lang3.StringUtils;
@@ -245,4 +246,12 @@ public class InsertOrUpdateConstructor extends AbstractStepMetaConstructor {
 
         return null;
     }
+
+    /**
+     * 结果依赖输入顺序，上游步骤保持单副本
+     */
+    @Override
+    public StepParallelism getParallelism() {
+        return StepParallelism.ORDER_SENSITIVE;
+    }
 }
@@ -6,6 +6,7 @@ import com.pufferfishscheduler.common.exception.BusinessException;
 import com.pufferfishscheduler.domain.vo.collect.FieldInfoVo;
 import com.pufferfishscheduler.trans.plugin.AbstractStepMetaConstructor;
 import com.pufferfishscheduler.trans.plugin.StepContext;
+import com.pufferfishscheduler.trans.plugin.StepParallelism;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -103,4 +104,12 @@ public class JavaCodeConstructor extends AbstractStepMetaConstructor {
 
         return stepMeta;
     }
+
+    /**
+     * 用户代码可能在成员变量中保存跨行状态，不能自动扩展为多副本
+     */
+    @Override
+    public StepParallelism getParallelism() {
+        return StepParallelism.STATEFUL;
+    }
 }
@@ -71,6 +71,37 @@ public class KafkaProducerOutputConstructor extends AbstractStepMetaConstructor
         applyIfNotBlank(data.getString("keyField"), meta::setKeyField);
         applyIfNotBlank(data.getString("messageField"), meta::setMessageField);
 
+        // 吞吐参数：未配置时使用客户端默认值
+        if (data.getInteger("batchSize") != null) {
+            meta.setBatchSize(data.getInteger("batchSize"));
+        }
+        if (data.getInteger("lingerMs") != null) {
+            meta.setLingerMs(data.getInteger("lingerMs"));
+        }
+        applyIfNotBlank(data.getString("compressionType"), meta::setCompressionType);
+        if (data.getInteger("maxInFlightRequests") != null) {
+            meta.setMaxInFlightRequests(data.getInteger("maxInFlightRequests"));
+        }
+
+        // 投递保证：DEFAULT / IDEMPOTENT / TRANSACTIONAL
+        String deliveryGuarantee = data.getString("deliveryGuarantee");
+        if (StringUtils.isNotBlank(deliveryGuarantee)) {
+            KafkaProducerOutputMeta.DeliveryGuarantee guarantee =
+                    KafkaProducerOutputMeta.DeliveryGuarantee.parse(deliveryGuarantee.trim().toUpperCase());
+            if (context.isValidate() && guarantee == KafkaProducerOutputMeta.DeliveryGuarantee.DEFAULT
+                    && !KafkaProducerOutputMeta.DeliveryGuarantee.DEFAULT.name().equalsIgnoreCase(deliveryGuarantee.trim())) {
+                throw new BusinessException("【" + name + "】投递保证不支持：" + deliveryGuarantee);
+            }
+            meta.setDeliveryGuarantee(guarantee);
+        }
+        applyIfNotBlank(data.getString("transactionalIdPrefix"), meta::setTransactionalIdPrefix);
+        if (data.getLong("transactionCommitRows") != null) {
+            meta.setTransactionCommitRows(data.getLong("transactionCommitRows"));
+        }
+        if (data.getInteger("transactionTimeoutMs") != null) {
+            meta.setTransactionTimeoutMs(data.getInteger("transactionTimeoutMs"));
+        }
+
         Map<String, String> cfg = new HashMap<>();
         if (StringUtils.isNotBlank(database.getProperties())) {
             try {
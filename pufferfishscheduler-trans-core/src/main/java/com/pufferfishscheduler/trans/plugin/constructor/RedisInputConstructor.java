@@ -65,6 +65,14 @@ public class RedisInputConstructor extends AbstractStepMetaConstructor {
         redisInputStepMeta.setDbName(database.getDbName());
         redisInputStepMeta.setKey(data.getString("key"));
         redisInputStepMeta.setFieldDelimiter(data.getString("fieldDelimiter"));
+        Integer batchSize = data.getInteger("batchSize");
+        if (null != batchSize && batchSize > 0) {
+            redisInputStepMeta.setBatchSize(batchSize);
+        }
+        Integer cacheSize = data.getInteger("cacheSize");
+        if (null != cacheSize && cacheSize >= 0) {
+            redisInputStepMeta.setCacheSize(cacheSize);
+        }
 
         String eiPluginId = context.getRegistryID().getPluginId(StepPluginType.class, redisInputStepMeta);
         StepMeta stepMeta = context.getStepMetaMap().get(context.getId());
@@ -65,6 +65,23 @@ public class RedisOutputConstructor  extends AbstractStepMetaConstructor {
         redisOutputStepMeta.setDbName(data.getString("dbName"));
         redisOutputStepMeta.setKey(data.getString("key"));
         redisOutputStepMeta.setValue(data.getString("value"));
+        String dataType = data.getString("dataType");
+        if (StringUtils.isNotBlank(dataType)) {
+            dataType = dataType.trim().toUpperCase();
+            if (!RedisOutputStepMeta.isSupportedDataType(dataType)) {
+                throw new BusinessException("不支持的Redis写入类型：" + dataType);
+            }
+            redisOutputStepMeta.setDataType(dataType);
+        }
+        redisOutputStepMeta.setHashField(data.getString("hashField"));
+        Long ttlSeconds = data.getLong("ttlSeconds");
+        if (null != ttlSeconds) {
+            redisOutputStepMeta.setTtlSeconds(ttlSeconds);
+        }
+        Integer batchSize = data.getInteger("batchSize");
+        if (null != batchSize && batchSize > 0) {
+            redisOutputStepMeta.setBatchSize(batchSize);
+        }
 
 
         String eiPluginId = context.getRegistryID().getPluginId(StepPluginType.class, redisOutputStepMeta);
@@ -6,6 +6,7 @@ import com.pufferfishscheduler.common.exception.BusinessException;
 import com.pufferfishscheduler.domain.form.collect.SetVariableForm;
 import com.pufferfishscheduler.trans.plugin.AbstractStepMetaConstructor;
 import com.pufferfishscheduler.trans.plugin.StepContext;
+import com.pufferfishscheduler.trans.plugin.StepParallelism;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.pentaho.di.core.plugins.StepPluginType;
@@ -90,4 +91,12 @@ public class SetVariablesConstructor extends AbstractStepMetaConstructor {
 
         return stepMeta;
     }
+
+    /**
+     * 结果依赖输入顺序，上游步骤保持单副本
+     */
+    @Override
+    public StepParallelism getParallelism() {
+        return StepParallelism.ORDER_SENSITIVE;
+    }
 }
@@ -5,6 +5,7 @@ import com.alibaba.fastjson2.JSONObject;
 import com.pufferfishscheduler.common.exception.BusinessException;
 import com.pufferfishscheduler.trans.plugin.AbstractStepMetaConstructor;
 import com.pufferfishscheduler.trans.plugin.StepContext;
+import com.pufferfishscheduler.trans.plugin.StepParallelism;
 import org.apache.commons.lang3.StringUtils;
 import org.pentaho.di.core.plugins.StepPluginType;
 import org.pentaho.di.trans.TransMeta;
@@ -97,4 +98,12 @@ public class SortRowsConstructor extends AbstractStepMetaConstructor {
 
         return stepMeta;
     }
+
+    /**
+     * 输出有序，下游步骤保持单副本
+     */
+    @Override
+    public StepParallelism getParallelism() {
+        return StepParallelism.ORDER_PRODUCING;
+    }
 }
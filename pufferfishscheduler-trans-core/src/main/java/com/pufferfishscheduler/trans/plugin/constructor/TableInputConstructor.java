@@ -21,6 +21,7 @@ import com.pufferfishscheduler.common.utils.MD5Util;
 import com.pufferfishscheduler.dao.entity.DbDatabase;
 import com.pufferfishscheduler.trans.plugin.AbstractStepMetaConstructor;
 import com.pufferfishscheduler.trans.plugin.StepContext;
+import com.pufferfishscheduler.trans.plugin.TableInputPartitioner;
 import com.pufferfishscheduler.trans.runtime.TransPluginRuntime;
 
 import lombok.extern.slf4j.Slf4j;
@@ -82,6 +83,7 @@ public class TableInputConstructor extends AbstractStepMetaConstructor {
         Boolean implementEveryOne = data.getBoolean("implementEveryOne"); // 是否每个实例都执行
         String stepInsertVariable = data.getString("stepInsertVariable"); // 步骤插入变量
         boolean increment = data.getBoolean("increment") != null ? data.getBoolean("increment") : false; // 是否增量读取
+        boolean partitionRead = data.getBooleanValue("partitionRead"); // 是否按字段范围分片并行读取
 
         TableInputMeta tableInput = new TableInputMeta();
         tableInput.setDefault();
@@ -92,6 +94,9 @@ public class TableInputConstructor extends AbstractStepMetaConstructor {
         transMeta.addDatabase(dataMeta);
 
         tableInput.setDatabaseMeta(dataMeta);
+        if (partitionRead) {
+            configurePartitionRead(transMeta, data, name);
+        }
         // 设置行限制：如果用户指定了rowLimit则使用用户指定的值，否则设置为0表示不限制
         if (StringUtils.isNotBlank(rowLimit)) {
             tableInput.setRowLimit(rowLimit);
@@ -294,6 +299,32 @@ public class TableInputConstructor extends AbstractStepMetaConstructor {
         return sql;
     }
 
+    /**
+     * 配置分片读取：只记录分片字段，范围在每次运行开始时由 {@link TableInputPartitioner#apply(TransMeta)} 探测，
+     * 保存流程、获取字段时不访问数据库
+     *
+     * @param transMeta 转换元数据
+     * @param data      配置数据
+     * @param name      组件名称（步骤名）
+     */
+    private void configurePartitionRead(TransMeta transMeta, JSONObject data, String name) {
+        // 分片字段：未指定时使用增量字段
+        String partitionColumn = data.getString("partitionColumn");
+        if (StringUtils.isBlank(partitionColumn)) {
+            partitionColumn = data.getString("incrementField");
+        }
+        if (StringUtils.isBlank(partitionColumn)) {
+            throw new BusinessException("【" + name + "】分片读取需要指定分片字段！");
+        }
+        // 行限制由每个副本各自生效，分片后总行数会变为 副本数 × 行限制，且取到的行取决于分片方式，因此不允许同时使用
+        String rowLimit = data.getString("rowLimit");
+        if (StringUtils.isNotBlank(rowLimit) && !"0".equals(rowLimit.trim())) {
+            throw new BusinessException("【" + name + "】分片读取不支持设置行限制！");
+        }
+
+        TableInputPartitioner.mark(transMeta, name, partitionColumn);
+    }
+
     /**
      * 配置步骤变量
      * 
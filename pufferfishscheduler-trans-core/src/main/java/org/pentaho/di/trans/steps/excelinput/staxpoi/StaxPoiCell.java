@@ -0,0 +1,48 @@
+package org.pentaho.di.trans.steps.excelinput.staxpoi;
+
+import org.pentaho.di.core.spreadsheet.KCell;
+import org.pentaho.di.core.spreadsheet.KCellType;
+
+/**
+ * 流式读取的单元格
+ *
+ * @author Mayc
+ */
+public class StaxPoiCell implements KCell {
+
+    private final Object value;
+
+    private final KCellType type;
+
+    private final int row;
+
+    public StaxPoiCell(String value, int row) {
+        this(value, KCellType.LABEL, row);
+    }
+
+    public StaxPoiCell(Object value, KCellType type, int row) {
+        this.value = value;
+        this.type = type;
+        this.row = row;
+    }
+
+    @Override
+    public KCellType getType() {
+        return type;
+    }
+
+    @Override
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public String getContents() {
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public int getRow() {
+        return row;
+    }
+}
@@ -0,0 +1,464 @@
+package org.pentaho.di.trans.steps.excelinput.staxpoi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.pentaho.di.core.spreadsheet.KCell;
+import org.pentaho.di.core.spreadsheet.KCellType;
+import org.pentaho.di.core.spreadsheet.KSheet;
+
+/**
+ * 流式读取的 xlsx 工作表
+ * <p>
+ * 以 StAX 顺序解析工作表 XML，任意时刻只持有当前一行的单元格。Excel 输入步骤按行号递增读取，
+ * 向后读取时跳过中间行（不构建单元格），向前读取时重新打开工作表流。
+ * 行数取自 dimension 元素，缺失时额外扫描一遍工作表统计；读取超出行数时抛出
+ * {@link ArrayIndexOutOfBoundsException}，Excel 输入步骤据此切换到下一个工作表。
+ * </p>
+ *
+ * @author Mayc
+ */
+public class StaxPoiSheet implements KSheet {
+
+    private static final String TAG_DIMENSION = "dimension";
+    private static final String TAG_SHEET_DATA = "sheetData";
+    private static final String TAG_ROW = "row";
+    private static final String TAG_CELL = "c";
+    private static final String TAG_VALUE = "v";
+    private static final String TAG_FORMULA = "f";
+    private static final String TAG_INLINE_STRING = "is";
+    private static final String TAG_TEXT = "t";
+    private static final String TAG_PHONETIC_RUN = "rPh";
+    private static final String ATTR_REF = "ref";
+    private static final String ATTR_ROW_NUMBER = "r";
+    private static final String ATTR_CELL_REF = "r";
+    private static final String ATTR_TYPE = "t";
+    private static final String ATTR_STYLE = "s";
+
+    private static final String TYPE_SHARED_STRING = "s";
+    private static final String TYPE_INLINE_STRING = "inlineStr";
+    private static final String TYPE_FORMULA_STRING = "str";
+    private static final String TYPE_BOOLEAN = "b";
+    private static final String TYPE_ERROR = "e";
+
+    private static final KCell[] EMPTY_ROW = new KCell[0];
+
+    private final XSSFReader reader;
+    private final String sheetName;
+    private final String sheetId;
+    private final SharedStrings sharedStrings;
+    private final StylesTable styles;
+    private final boolean date1904;
+    private final XMLInputFactory xmlInputFactory = XMLHelper.newXMLInputFactory();
+
+    /**
+     * 样式序号 -> 是否日期格式
+     */
+    private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+
+    private int numRows = -1;
+    private int numCols;
+
+    private InputStream inputStream;
+    private XMLStreamReader sheetReader;
+
+    /**
+     * 下一次顺序读取的行号（0 起始）
+     */
+    private int nextRow;
+
+    /**
+     * 已读到但行号大于请求行号的行（xlsx 不保存空行），留给后续请求
+     */
+    private int bufferedRowNr = -1;
+    private KCell[] bufferedRow;
+
+    /**
+     * 最近返回的一行，同一行重复读取（如逐个 getCell）时直接返回
+     */
+    private int currentRowNr = -1;
+    private KCell[] currentRow;
+
+    /**
+     * 最近解析到的 row 元素的行号，row 缺少 r 属性时据此递增
+     */
+    private int lastRowNr = -1;
+
+    private boolean endOfSheet;
+
+    public StaxPoiSheet(XSSFReader reader, String sheetName, String sheetId, SharedStrings sharedStrings,
+                        StylesTable styles, boolean date1904)
+            throws IOException, InvalidFormatException, XMLStreamException {
+        this.reader = reader;
+        this.sheetName = sheetName;
+        this.sheetId = sheetId;
+        this.sharedStrings = sharedStrings;
+        this.styles = styles;
+        this.date1904 = date1904;
+        openSheetReader();
+        if (numRows < 0) {
+            numRows = countRows();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return sheetName;
+    }
+
+    @Override
+    public int getRows() {
+        return numRows;
+    }
+
+    @Override
+    public KCell[] getRow(int rownr) {
+        if (rownr < 0 || rownr >= numRows) {
+            // Excel 输入步骤以越界异常判断工作表已读完
+            throw new ArrayIndexOutOfBoundsException(rownr);
+        }
+        if (rownr == currentRowNr) {
+            return currentRow;
+        }
+        try {
+            if (rownr < nextRow || sheetReader == null) {
+                openSheetReader();
+            }
+            nextRow = rownr + 1;
+
+            if (bufferedRow != null && bufferedRowNr < rownr) {
+                bufferedRow = null;
+            }
+            if (bufferedRow == null && !endOfSheet) {
+                readRow(rownr);
+            }
+            KCell[] row = EMPTY_ROW;
+            if (bufferedRow != null && bufferedRowNr == rownr) {
+                row = bufferedRow;
+                bufferedRow = null;
+            }
+            currentRowNr = rownr;
+            currentRow = row;
+            return row;
+        } catch (IOException | InvalidFormatException | XMLStreamException e) {
+            throw new RuntimeException("读取工作表失败：" + sheetName, e);
+        }
+    }
+
+    @Override
+    public KCell getCell(int colnr, int rownr) {
+        KCell[] row = getRow(rownr);
+        return colnr >= 0 && colnr < row.length ? row[colnr] : null;
+    }
+
+    /**
+     * 关闭工作表流
+     */
+    public void close() {
+        closeSheetReader();
+        currentRow = null;
+        currentRowNr = -1;
+    }
+
+    /**
+     * 打开（或重新打开）工作表流并定位到 sheetData，同时读取 dimension
+     */
+    private void openSheetReader() throws IOException, InvalidFormatException, XMLStreamException {
+        closeSheetReader();
+        nextRow = 0;
+        bufferedRow = null;
+        bufferedRowNr = -1;
+        currentRow = null;
+        currentRowNr = -1;
+        lastRowNr = -1;
+        endOfSheet = false;
+
+        inputStream = reader.getSheet(sheetId);
+        sheetReader = xmlInputFactory.createXMLStreamReader(inputStream);
+        while (sheetReader.hasNext()) {
+            if (sheetReader.next() != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String tag = sheetReader.getLocalName();
+            if (TAG_DIMENSION.equals(tag) && numRows < 0) {
+                readDimension(sheetReader.getAttributeValue(null, ATTR_REF));
+            } else if (TAG_SHEET_DATA.equals(tag)) {
+                return;
+            }
+        }
+        endOfSheet = true;
+    }
+
+    /**
+     * dimension 形如 A1:F100；只有单个单元格引用时（部分工具固定写 A1）视为未知
+     */
+    private void readDimension(String ref) {
+        if (ref == null || ref.indexOf(':') < 0) {
+            return;
+        }
+        String end = ref.substring(ref.indexOf(':') + 1);
+        int rowNr = rowNumber(end);
+        if (rowNr > 0) {
+            numRows = rowNr;
+            numCols = columnIndex(end) + 1;
+        }
+    }
+
+    private void closeSheetReader() {
+        if (sheetReader != null) {
+            try {
+                sheetReader.close();
+            } catch (XMLStreamException e) {
+                // 忽略
+            }
+            sheetReader = null;
+        }
+        if (inputStream != null) {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                // 忽略
+            }
+            inputStream = null;
+        }
+    }
+
+    /**
+     * 向后读取到行号不小于 rownr 的第一行并放入缓冲；之前的行直接跳过
+     */
+    private void readRow(int rownr) throws XMLStreamException {
+        while (sheetReader.hasNext()) {
+            int event = sheetReader.next();
+            if (event == XMLStreamConstants.END_ELEMENT && TAG_SHEET_DATA.equals(sheetReader.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT || !TAG_ROW.equals(sheetReader.getLocalName())) {
+                continue;
+            }
+            String r = sheetReader.getAttributeValue(null, ATTR_ROW_NUMBER);
+            int rowNr = r != null ? Integer.parseInt(r) - 1 : lastRowNr + 1;
+            lastRowNr = rowNr;
+            if (rowNr < rownr) {
+                skipElement();
+                continue;
+            }
+            bufferedRowNr = rowNr;
+            bufferedRow = parseRow(rowNr);
+            return;
+        }
+        endOfSheet = true;
+    }
+
+    /**
+     * 解析当前 row 元素内的全部单元格
+     */
+    private KCell[] parseRow(int rowNr) throws XMLStreamException {
+        List<KCell> cells = new ArrayList<>(Math.max(numCols, 16));
+        int col = -1;
+        while (sheetReader.hasNext()) {
+            int event = sheetReader.next();
+            if (event == XMLStreamConstants.END_ELEMENT && TAG_ROW.equals(sheetReader.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT || !TAG_CELL.equals(sheetReader.getLocalName())) {
+                continue;
+            }
+            String ref = sheetReader.getAttributeValue(null, ATTR_CELL_REF);
+            col = ref != null ? columnIndex(ref) : col + 1;
+            KCell cell = parseCell(rowNr);
+            if (cell == null) {
+                continue;
+            }
+            while (cells.size() <= col) {
+                cells.add(null);
+            }
+            cells.set(col, cell);
+        }
+        while (cells.size() < numCols) {
+            cells.add(null);
+        }
+        return cells.toArray(new KCell[0]);
+    }
+
+    /**
+     * 解析当前 c 元素，空单元格返回 null
+     */
+    private KCell parseCell(int rowNr) throws XMLStreamException {
+        String type = sheetReader.getAttributeValue(null, ATTR_TYPE);
+        String style = sheetReader.getAttributeValue(null, ATTR_STYLE);
+        String value = null;
+        boolean formula = false;
+
+        while (sheetReader.hasNext()) {
+            int event = sheetReader.next();
+            if (event == XMLStreamConstants.END_ELEMENT && TAG_CELL.equals(sheetReader.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String tag = sheetReader.getLocalName();
+            if (TAG_VALUE.equals(tag)) {
+                value = sheetReader.getElementText();
+            } else if (TAG_FORMULA.equals(tag)) {
+                formula = true;
+                skipElement();
+            } else if (TAG_INLINE_STRING.equals(tag)) {
+                value = readInlineString();
+            }
+        }
+
+        if (value == null) {
+            return null;
+        }
+        if (type == null) {
+            return numericCell(value, style, formula, rowNr);
+        }
+        switch (type) {
+            case TYPE_SHARED_STRING:
+                return new StaxPoiCell(sharedStrings.getItemAt(Integer.parseInt(value.trim())).getString(),
+                        KCellType.LABEL, rowNr);
+            case TYPE_INLINE_STRING:
+                return new StaxPoiCell(value, KCellType.LABEL, rowNr);
+            case TYPE_FORMULA_STRING:
+            case TYPE_ERROR:
+                return new StaxPoiCell(value, formula ? KCellType.STRING_FORMULA : KCellType.LABEL, rowNr);
+            case TYPE_BOOLEAN:
+                return new StaxPoiCell("1".equals(value) || "true".equalsIgnoreCase(value),
+                        formula ? KCellType.BOOLEAN_FORMULA : KCellType.BOOLEAN, rowNr);
+            default:
+                return numericCell(value, style, formula, rowNr);
+        }
+    }
+
+    private KCell numericCell(String value, String style, boolean formula, int rowNr) {
+        double number;
+        try {
+            number = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return new StaxPoiCell(value, formula ? KCellType.STRING_FORMULA : KCellType.LABEL, rowNr);
+        }
+        if (isDateStyle(style)) {
+            return new StaxPoiCell(DateUtil.getJavaDate(number, date1904),
+                    formula ? KCellType.DATE_FORMULA : KCellType.DATE, rowNr);
+        }
+        return new StaxPoiCell(number, formula ? KCellType.NUMBER_FORMULA : KCellType.NUMBER, rowNr);
+    }
+
+    private boolean isDateStyle(String style) {
+        if (style == null || styles == null) {
+            return false;
+        }
+        int styleIndex = Integer.parseInt(style);
+        return dateStyles.computeIfAbsent(styleIndex, index -> {
+            XSSFCellStyle cellStyle = styles.getStyleAt(index);
+            return cellStyle != null
+                    && DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+        });
+    }
+
+    /**
+     * 读取内联字符串（is 元素），拼接各文本段，忽略注音
+     */
+    private String readInlineString() throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        while (sheetReader.hasNext()) {
+            int event = sheetReader.next();
+            if (event == XMLStreamConstants.END_ELEMENT && TAG_INLINE_STRING.equals(sheetReader.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String tag = sheetReader.getLocalName();
+            if (TAG_TEXT.equals(tag)) {
+                text.append(sheetReader.getElementText());
+            } else if (TAG_PHONETIC_RUN.equals(tag)) {
+                skipElement();
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * 跳过当前元素（含子元素），停在其结束标签
+     */
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && sheetReader.hasNext()) {
+            int event = sheetReader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * 没有 dimension 时扫描一遍工作表，以最后一行的行号作为行数
+     */
+    private int countRows() throws IOException, InvalidFormatException, XMLStreamException {
+        int lastRowNr = -1;
+        try (InputStream in = reader.getSheet(sheetId)) {
+            XMLStreamReader xml = xmlInputFactory.createXMLStreamReader(in);
+            try {
+                while (xml.hasNext()) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && TAG_ROW.equals(xml.getLocalName())) {
+                        String r = xml.getAttributeValue(null, ATTR_ROW_NUMBER);
+                        lastRowNr = r != null ? Integer.parseInt(r) - 1 : lastRowNr + 1;
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        }
+        return lastRowNr + 1;
+    }
+
+    /**
+     * 单元格引用（如 AB12）的列序号，0 起始
+     */
+    private static int columnIndex(String ref) {
+        int col = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = Character.toUpperCase(ref.charAt(i));
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            col = col * 26 + (c - 'A' + 1);
+        }
+        return col - 1;
+    }
+
+    /**
+     * 单元格引用（如 AB12）的行号，1 起始；没有行号时返回 0
+     */
+    private static int rowNumber(String ref) {
+        int i = 0;
+        while (i < ref.length() && Character.isLetter(ref.charAt(i))) {
+            i++;
+        }
+        try {
+            return i < ref.length() ? Integer.parseInt(ref.substring(i)) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
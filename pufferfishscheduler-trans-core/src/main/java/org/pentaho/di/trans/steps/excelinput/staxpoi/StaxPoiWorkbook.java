@@ -0,0 +1,215 @@
+package org.pentaho.di.trans.steps.excelinput.staxpoi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.spreadsheet.KSheet;
+import org.pentaho.di.core.spreadsheet.KWorkbook;
+
+/**
+ * Excel 输入 SAX_POI 引擎的 xlsx 工作簿（基于 Apache POI 5.x 重写）
+ * <p>
+ * Kettle 自带的实现依赖旧版 POI 的 {@code XSSFReader#getSharedStringsTable()} 返回类型，在 POI 5.x 下会抛出
+ * NoSuchMethodError。本类与 Kettle 同名，位于应用自身的类路径上，优先于 kettle-engine 中的实现加载，
+ * {@code WorkbookFactory} 按 SAX_POI 创建工作簿时即使用本实现。
+ * </p>
+ * <p>
+ * 只解析 workbook.xml 得到工作表列表，工作表内容由 {@link StaxPoiSheet} 以 StAX 逐行读取，内存占用与文件大小无关；
+ * 共享字符串表使用只读的精简实现，由各工作表共享。
+ * </p>
+ *
+ * @author Mayc
+ */
+public class StaxPoiWorkbook implements KWorkbook {
+
+    private static final String TAG_SHEET = "sheet";
+    private static final String TAG_WORKBOOK_PR = "workbookPr";
+    private static final String ATTR_NAME = "name";
+    private static final String ATTR_ID = "id";
+    private static final String ATTR_DATE_1904 = "date1904";
+
+    private String filename;
+
+    private String encoding;
+
+    private OPCPackage opcpkg;
+
+    private XSSFReader reader;
+
+    /**
+     * 工作表名 -> 关系 id，保持工作簿中的顺序
+     */
+    private final Map<String, String> sheetNameIdMap = new LinkedHashMap<>();
+
+    private final Map<String, StaxPoiSheet> openSheetsMap = new HashMap<>();
+
+    private SharedStrings sharedStrings;
+
+    private StylesTable styles;
+
+    private boolean date1904;
+
+    protected StaxPoiWorkbook() {
+    }
+
+    public StaxPoiWorkbook(String filename, String encoding) throws KettleException {
+        this.filename = filename;
+        this.encoding = encoding;
+        try {
+            open(OPCPackage.open(filename, PackageAccess.READ));
+        } catch (Exception e) {
+            throw new KettleException("打开Excel文件失败：" + filename, e);
+        }
+    }
+
+    /**
+     * 从输入流打开（POI 需要把整个压缩包读入内存，大文件应使用文件路径）
+     */
+    public StaxPoiWorkbook(InputStream inputStream, String encoding) throws KettleException {
+        this.encoding = encoding;
+        try {
+            open(OPCPackage.open(inputStream));
+        } catch (Exception e) {
+            throw new KettleException("打开Excel文件失败", e);
+        }
+    }
+
+    private void open(OPCPackage pkg) throws Exception {
+        this.opcpkg = pkg;
+        try {
+            this.reader = new XSSFReader(pkg);
+            readWorkbook();
+        } catch (Exception e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * 解析 workbook.xml：工作表名称与关系 id、是否使用 1904 日期系统
+     */
+    private void readWorkbook() throws IOException, XMLStreamException, InvalidFormatException {
+        try (InputStream in = reader.getWorkbookData()) {
+            XMLStreamReader xml = XMLHelper.newXMLInputFactory().createXMLStreamReader(in);
+            try {
+                while (xml.hasNext()) {
+                    if (xml.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    String tag = xml.getLocalName();
+                    if (TAG_WORKBOOK_PR.equals(tag)) {
+                        String value = attribute(xml, ATTR_DATE_1904);
+                        date1904 = "1".equals(value) || "true".equalsIgnoreCase(value);
+                    } else if (TAG_SHEET.equals(tag)) {
+                        String name = attribute(xml, ATTR_NAME);
+                        // r:id 在过渡格式与严格格式下命名空间不同，按本地名匹配
+                        String id = attribute(xml, ATTR_ID);
+                        if (name != null && id != null) {
+                            sheetNameIdMap.put(name, id);
+                        }
+                    }
+                }
+            } finally {
+                xml.close();
+            }
+        }
+    }
+
+    private static String attribute(XMLStreamReader xml, String localName) {
+        for (int i = 0; i < xml.getAttributeCount(); i++) {
+            if (localName.equals(xml.getAttributeLocalName(i))) {
+                return xml.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public KSheet getSheet(String sheetName) {
+        String sheetId = sheetNameIdMap.get(sheetName);
+        if (sheetId == null) {
+            return null;
+        }
+        StaxPoiSheet sheet = openSheetsMap.get(sheetName);
+        if (sheet != null) {
+            return sheet;
+        }
+        try {
+            if (sharedStrings == null) {
+                sharedStrings = new ReadOnlySharedStringsTable(opcpkg, false);
+                styles = reader.getStylesTable();
+            }
+            sheet = new StaxPoiSheet(reader, sheetName, sheetId, sharedStrings, styles, date1904);
+        } catch (Exception e) {
+            throw new RuntimeException("读取工作表失败：" + sheetName, e);
+        }
+        openSheetsMap.put(sheetName, sheet);
+        return sheet;
+    }
+
+    @Override
+    public String[] getSheetNames() {
+        return sheetNameIdMap.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public String getEncoding() {
+        return encoding;
+    }
+
+    @Override
+    public int getNumberOfSheets() {
+        return sheetNameIdMap.size();
+    }
+
+    @Override
+    public KSheet getSheet(int sheetNr) {
+        String sheetName = getSheetName(sheetNr);
+        return sheetName == null ? null : getSheet(sheetName);
+    }
+
+    @Override
+    public String getSheetName(int sheetNr) {
+        if (sheetNr < 0 || sheetNr >= sheetNameIdMap.size()) {
+            return null;
+        }
+        List<String> names = new ArrayList<>(sheetNameIdMap.keySet());
+        return names.get(sheetNr);
+    }
+
+    @Override
+    public void close() {
+        for (StaxPoiSheet sheet : openSheetsMap.values()) {
+            sheet.close();
+        }
+        openSheetsMap.clear();
+        if (opcpkg != null) {
+            // 只读打开，回滚即可释放文件句柄，不会写回文件
+            opcpkg.revert();
+            opcpkg = null;
+        }
+    }
+}
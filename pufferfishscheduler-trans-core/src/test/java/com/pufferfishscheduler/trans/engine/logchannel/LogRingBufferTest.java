@@ -0,0 +1,134 @@
+package com.pufferfishscheduler.trans.engine.logchannel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.pufferfishscheduler.trans.engine.entity.LogText;
+
+/**
+ * 日志环形缓冲区：写满后覆盖最旧的日志、按字节淘汰，以及多线程并发写入时读取方按游标不漏读、不重复读
+ */
+class LogRingBufferTest {
+
+    @Test
+    void wrapsPastCapacityAndKeepsNewestLines() {
+        // 5 条向上取整为 8 条
+        LogRingBuffer buffer = new LogRingBuffer(5, Long.MAX_VALUE);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, buffer.add(new LogText("R", "line-" + i)));
+        }
+
+        assertEquals(19, buffer.lastSequence());
+        assertEquals(range(12, 20), lines(buffer.readAfter(-1)));
+        // 游标落在已被覆盖的区间时从最旧的保留日志开始
+        assertEquals(range(12, 20), lines(buffer.readAfter(3)));
+        assertEquals(range(16, 20), lines(buffer.readAfter(15)));
+        assertTrue(buffer.readAfter(19).isEmpty());
+
+        // 覆盖时扣除被替换条目的字节数
+        long expected = 0;
+        for (LogText logText : buffer.readAfter(-1)) {
+            expected += 64 + 2L * logText.getText().length();
+        }
+        assertEquals(expected, buffer.bytes());
+    }
+
+    @Test
+    void evictsOldestLinesBeyondByteLimit() {
+        LogText sample = new LogText("R", "line-0");
+        long entryBytes = 64 + 2L * sample.getText().length();
+        LogRingBuffer buffer = new LogRingBuffer(64, 3 * entryBytes);
+        for (int i = 0; i < 10; i++) {
+            buffer.add(new LogText("R", "line-" + i));
+        }
+
+        assertEquals(range(7, 10), lines(buffer.readAfter(-1)));
+        assertEquals(3 * entryBytes, buffer.bytes());
+
+        // 清空后序号继续递增，旧游标仍然有效
+        buffer.clear();
+        assertEquals(0, buffer.bytes());
+        buffer.add(new LogText("R", "line-10"));
+        assertEquals(range(10, 11), lines(buffer.readAfter(9)));
+    }
+
+    @Test
+    void concurrentWritersAreReadOnceInOrder() throws Exception {
+        int writers = 4;
+        int perWriter = 20_000;
+        LogRingBuffer buffer = new LogRingBuffer(writers * perWriter, Long.MAX_VALUE);
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            String prefix = "w" + w + "-";
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perWriter; i++) {
+                    buffer.add(new LogText("R", prefix + i));
+                }
+                return null;
+            }));
+        }
+
+        List<String> read = new ArrayList<>();
+        long cursor = -1;
+        start.countDown();
+        boolean writing = true;
+        while (writing || cursor < buffer.lastSequence()) {
+            writing = futures.stream().anyMatch(f -> !f.isDone());
+            // 容量足够且不淘汰，读到的日志与序号一一对应
+            List<LogText> batch = buffer.readAfter(cursor);
+            cursor += batch.size();
+            read.addAll(lines(batch));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(writers * perWriter, read.size());
+        assertEquals(read.size(), new HashSet<>(read).size());
+        // 同一写线程的日志按写入顺序出现
+        int[] next = new int[writers];
+        for (String line : read) {
+            int w = Integer.parseInt(line.substring(1, line.indexOf('-')));
+            assertEquals(next[w]++, Integer.parseInt(line.substring(line.indexOf('-') + 1)), line);
+        }
+        Set<String> all = new HashSet<>(lines(buffer.readAfter(-1)));
+        assertEquals(writers * perWriter, all.size());
+    }
+
+    /**
+     * 去掉 LogText 添加的时间前缀
+     */
+    private static List<String> lines(List<LogText> logTexts) {
+        List<String> lines = new ArrayList<>(logTexts.size());
+        for (LogText logText : logTexts) {
+            String text = logText.getText();
+            lines.add(text.substring(text.lastIndexOf(' ') + 1));
+        }
+        return lines;
+    }
+
+    private static List<String> range(int from, int to) {
+        List<String> lines = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            lines.add("line-" + i);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,125 @@
+package com.pufferfishscheduler.trans.engine.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.pentaho.di.trans.step.StepInterface;
+
+/**
+ * 步骤指标注册表：已结束运行的计数只并入累计值一次，与运行中的计数合并后跨运行单调递增；采样分布的桶计数
+ */
+class StepMetricsRegistryTest {
+
+    private static final String STEP = "表输入";
+
+    @Test
+    void retiredRunsFoldIntoTotalsExactlyOnce() {
+        String trans = "trans-" + UUID.randomUUID();
+
+        // 主动移除：重复移除不会重复合并
+        retireRun(trans, 10, false);
+        assertEquals(10, counter(trans, "rows_read_total"));
+
+        // 已结束的运行可能同时被采样线程和主动移除处理，只有一方合并
+        retireRun(trans, 20, true);
+        assertEquals(30, counter(trans, "rows_read_total"));
+
+        // 运行中的计数随采样逐步可见，结束后保持不变
+        AtomicLong rows = new AtomicLong(5);
+        String instanceId = UUID.randomUUID().toString();
+        StepMetricsRegistry.register(instanceId, trans, () -> false, null,
+                List.of(new StepMetrics(STEP, 0, step(rows))));
+        long live = counter(trans, "rows_read_total");
+        assertTrue(live == 30 || live == 35, "live=" + live);
+
+        StepMetricsRegistry.unregister(instanceId);
+        StepMetricsRegistry.unregister(instanceId);
+        assertEquals(35, counter(trans, "rows_read_total"));
+        assertEquals(35, counter(trans, "rows_written_total"));
+    }
+
+    @Test
+    void histogramBucketsAreCumulative() {
+        SampleHistogram histogram = new SampleHistogram(new double[]{1, 10, 100});
+        histogram.observe(0.5);
+        histogram.observe(1);
+        histogram.observe(50);
+        histogram.observe(1_000);
+
+        assertEquals(2, histogram.cumulativeCount(0));
+        assertEquals(2, histogram.cumulativeCount(1));
+        assertEquals(3, histogram.cumulativeCount(2));
+        assertEquals(4, histogram.cumulativeCount(3));
+        assertEquals(1_051.5, histogram.getSum());
+
+        SampleHistogram merged = new SampleHistogram(new double[]{1, 10, 100});
+        merged.add(histogram);
+        merged.add(histogram);
+        assertEquals(8, merged.getCount());
+        assertEquals(6, merged.cumulativeCount(2));
+    }
+
+    @Test
+    void retiredRunExportsSampledDistributions() {
+        String trans = "trans-" + UUID.randomUUID();
+        retireRun(trans, 100, false);
+
+        String labels = "{trans=\"" + trans + "\",step=\"" + STEP + "\",copy=\"0\"";
+        String scrape = StepMetricsRegistry.scrape();
+        assertTrue(scrape.contains("pfs_step_sampled_rows_per_second_bucket" + labels + ",le=\"+Inf\"} 1\n"), scrape);
+        assertTrue(scrape.contains("pfs_step_sampled_micros_per_row_count" + labels + "} 1\n"), scrape);
+    }
+
+    private static void retireRun(String trans, long rows, boolean finished) {
+        String instanceId = UUID.randomUUID().toString();
+        AtomicBoolean done = new AtomicBoolean(finished);
+        StepMetricsRegistry.register(instanceId, trans, done::get, null,
+                List.of(new StepMetrics(STEP, 0, step(new AtomicLong(rows)))));
+        StepMetricsRegistry.unregister(instanceId);
+        StepMetricsRegistry.unregister(instanceId);
+    }
+
+    private static long counter(String trans, String name) {
+        String prefix = "pfs_step_" + name + "{trans=\"" + trans + "\",step=\"" + STEP + "\",copy=\"0\"} ";
+        for (String line : StepMetricsRegistry.scrape().split("\n")) {
+            if (line.startsWith(prefix)) {
+                return Long.parseLong(line.substring(prefix.length()));
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 读取、写出行数均为 rows 的步骤替身
+     */
+    private static StepInterface step(AtomicLong rows) {
+        return (StepInterface) Proxy.newProxyInstance(StepInterface.class.getClassLoader(),
+                new Class<?>[]{StepInterface.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getLinesRead":
+                        case "getLinesWritten":
+                            return rows.get();
+                        default:
+                            break;
+                    }
+                    Class<?> type = method.getReturnType();
+                    if (type == boolean.class) {
+                        return false;
+                    }
+                    if (type == int.class) {
+                        return 0;
+                    }
+                    if (type == long.class) {
+                        return 0L;
+                    }
+                    return null;
+                });
+    }
+}
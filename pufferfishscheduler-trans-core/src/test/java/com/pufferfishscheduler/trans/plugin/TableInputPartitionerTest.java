@@ -0,0 +1,306 @@
+package com.pufferfishscheduler.trans.plugin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.tableinput.TableInputMeta;
+
+/**
+ * 分片读取规划：边界计算、SQL 拼接，在 H2 上验证各副本读取结果合并后与单条查询一致，以及构造时只标记、运行开始时才探测
+ */
+class TableInputPartitionerTest {
+
+    private static final String SOURCE_SQL = "SELECT id, created, name FROM orders";
+
+    private final String databaseName = "mem:" + UUID.randomUUID();
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:" + databaseName + ";DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE orders (id BIGINT, created TIMESTAMP, name VARCHAR(64))");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        connection.close();
+    }
+
+    @Test
+    void numberBoundariesEmptyWhenRangeIsEmpty() {
+        assertTrue(TableInputPartitioner.numberBoundaries(BigDecimal.TEN, BigDecimal.TEN, 16).isEmpty());
+        assertTrue(TableInputPartitioner.numberBoundaries(BigDecimal.TEN, BigDecimal.ONE, 16).isEmpty());
+    }
+
+    @Test
+    void numberBoundariesCollapseWhenRangeNarrowerThanSlices() {
+        // 整数范围 [0, 3] 切 16 片，取整后只剩两个不同的边界
+        List<String> boundaries = TableInputPartitioner.numberBoundaries(BigDecimal.ZERO, BigDecimal.valueOf(3), 16);
+        assertEquals(List.of("1", "2"), boundaries);
+    }
+
+    @Test
+    void numberBoundariesKeepFractionsForDecimalRange() {
+        List<String> boundaries = TableInputPartitioner.numberBoundaries(new BigDecimal("0.5"), new BigDecimal("1.5"), 4);
+        assertEquals(List.of("0.75", "1", "1.25"), boundaries);
+    }
+
+    @Test
+    void numberBoundariesStrictlyIncreasingOnWideRange() {
+        List<String> boundaries = TableInputPartitioner.numberBoundaries(BigDecimal.valueOf(-5),
+                BigDecimal.valueOf(Long.MAX_VALUE), 32);
+        assertEquals(31, boundaries.size());
+        assertStrictlyIncreasing(boundaries);
+    }
+
+    @Test
+    void dateBoundariesEmptyWhenRangeIsEmpty() {
+        Date date = new Date(1_700_000_000_000L);
+        assertTrue(TableInputPartitioner.dateBoundaries(date, date, 8).isEmpty());
+        assertTrue(TableInputPartitioner.dateBoundaries(date, new Date(date.getTime() - 1), 8).isEmpty());
+    }
+
+    @Test
+    void dateBoundariesCollapseWhenRangeNarrowerThanSlices() throws Exception {
+        // 3 毫秒切 8 片，毫秒精度下最多只有两个不同的边界
+        Date min = new Date(1_700_000_000_000L);
+        List<String> boundaries = TableInputPartitioner.dateBoundaries(min, new Date(min.getTime() + 3), 8);
+        assertEquals(2, boundaries.size());
+        List<Long> millis = new ArrayList<>();
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        for (String boundary : boundaries) {
+            assertTrue(boundary.startsWith("{ts '") && boundary.endsWith("'}"), boundary);
+            millis.add(format.parse(boundary.substring(5, boundary.length() - 2)).getTime());
+        }
+        assertEquals(List.of(min.getTime() + 1, min.getTime() + 2), millis);
+    }
+
+    @Test
+    void buildSqlSkipsCopiesWithoutSlices() {
+        String sql = TableInputPartitioner.buildSql(SOURCE_SQL, "pfs_part.id", List.of("10"), 4);
+        String copyNr = TableInputPartitioner.COPY_NR_VARIABLE;
+        assertTrue(sql.contains("(" + copyNr + " = 0 AND ((pfs_part.id < 10) OR pfs_part.id IS NULL))"), sql);
+        assertTrue(sql.contains("(" + copyNr + " = 1 AND ((pfs_part.id >= 10)))"), sql);
+        assertFalse(sql.contains(copyNr + " = 2"), sql);
+        assertFalse(sql.contains(copyNr + " = 3"), sql);
+    }
+
+    @Test
+    void buildSqlWithoutBoundariesReadsEverythingOnCopyZero() {
+        String sql = TableInputPartitioner.buildSql(SOURCE_SQL, "pfs_part.id", List.of(), 3);
+        assertTrue(sql.contains("(" + TableInputPartitioner.COPY_NR_VARIABLE + " = 0 AND (1 = 1 OR pfs_part.id IS NULL))"),
+                sql);
+        assertFalse(sql.contains(TableInputPartitioner.COPY_NR_VARIABLE + " = 1"), sql);
+    }
+
+    @Test
+    void partitionedReadEqualsSingleQueryOnSkewedNumbers() throws SQLException {
+        // 95% 的行集中在 [1, 50]，少量离群值拉大范围，另有 NULL 分片字段
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1900; i++) {
+            rows.add(new Object[]{(long) (i % 50 + 1), null, "hot-" + i});
+        }
+        for (int i = 0; i < 90; i++) {
+            rows.add(new Object[]{1_000_000L + i * 10_000L, null, "cold-" + i});
+        }
+        for (int i = 0; i < 10; i++) {
+            rows.add(new Object[]{null, null, "null-" + i});
+        }
+        insert(rows);
+
+        for (int copies : new int[]{2, 3, 8}) {
+            List<String> boundaries = TableInputPartitioner.numberBoundaries(
+                    queryDecimal("SELECT MIN(id) FROM orders"), queryDecimal("SELECT MAX(id) FROM orders"),
+                    copies * TableInputPartitioner.SLICES_PER_COPY);
+            assertPartitionedReadMatches("pfs_part.id", boundaries, copies);
+        }
+    }
+
+    @Test
+    void partitionedReadEqualsSingleQueryOnDates() throws SQLException {
+        long base = 1_700_000_000_000L;
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // 前 480 行落在同一分钟内
+            long offset = i < 480 ? i * 100L : i * 86_400_000L;
+            rows.add(new Object[]{(long) i, new Timestamp(base + offset), "row-" + i});
+        }
+        rows.add(new Object[]{500L, null, "no-date"});
+        insert(rows);
+
+        List<String> boundaries = TableInputPartitioner.dateBoundaries(
+                queryTimestamp("SELECT MIN(created) FROM orders"), queryTimestamp("SELECT MAX(created) FROM orders"),
+                4 * TableInputPartitioner.SLICES_PER_COPY);
+        assertFalse(boundaries.isEmpty());
+        assertPartitionedReadMatches("pfs_part.created", boundaries, 4);
+    }
+
+    @Test
+    void partitionedReadWithFewerSlicesThanCopies() throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, null, "a"});
+        rows.add(new Object[]{2L, null, "b"});
+        rows.add(new Object[]{3L, null, "c"});
+        rows.add(new Object[]{null, null, "d"});
+        insert(rows);
+
+        // 6 个副本共 24 片，但整数范围 [1, 3] 只能切出两个分片
+        List<String> boundaries = TableInputPartitioner.numberBoundaries(BigDecimal.ONE, BigDecimal.valueOf(3), 24);
+        assertEquals(List.of("2"), boundaries);
+        assertPartitionedReadMatches("pfs_part.id", boundaries, 6);
+        String sql = TableInputPartitioner.buildSql(SOURCE_SQL, "pfs_part.id", boundaries, 6);
+        assertTrue(readCopy(sql, 5).isEmpty());
+    }
+
+    @Test
+    void allNullKeysAreReadOnceByCopyZero() throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            rows.add(new Object[]{null, null, "null-" + i});
+        }
+        insert(rows);
+
+        // MIN/MAX 均为 NULL 时探测返回空边界
+        String sql = TableInputPartitioner.buildSql(SOURCE_SQL, "pfs_part.id", List.of(), 4);
+        assertEquals(20, readCopy(sql, 0).size());
+        for (int copy = 1; copy < 4; copy++) {
+            assertTrue(readCopy(sql, copy).isEmpty());
+        }
+        assertPartitionedReadMatches("pfs_part.id", List.of(), 4);
+    }
+
+    @Test
+    void markedStepIsPartitionedOnlyAtRunStart() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            rows.add(new Object[]{(long) i, null, "row-" + i});
+        }
+        insert(rows);
+
+        KettleClientEnvironment.init();
+        DatabaseMeta databaseMeta = new DatabaseMeta("h2", "H2", "Native", null, databaseName, null, null, null);
+        TableInputMeta tableInput = new TableInputMeta();
+        tableInput.setDefault();
+        tableInput.setDatabaseMeta(databaseMeta);
+        tableInput.setSQL(SOURCE_SQL);
+        StepMeta stepMeta = new StepMeta("表输入", tableInput);
+        stepMeta.setCopies(4);
+        TransMeta transMeta = new TransMeta();
+        transMeta.addDatabase(databaseMeta);
+        transMeta.addStep(stepMeta);
+
+        // 构造时只记录分片字段，SQL 不变
+        TableInputPartitioner.mark(transMeta, "表输入", "id");
+        assertEquals(SOURCE_SQL, tableInput.getSQL());
+
+        // 探测之后新增的行仍只被读取一次
+        TableInputPartitioner.apply(transMeta);
+        insert(List.<Object[]>of(new Object[]{10_000L, null, "late"}));
+        String sql = tableInput.getSQL();
+        assertTrue(tableInput.isVariableReplacementActive());
+        assertTrue(sql.contains(TableInputPartitioner.COPY_NR_VARIABLE + " = 3"), sql);
+
+        List<String> partitioned = new ArrayList<>();
+        for (int copy = 0; copy < 4; copy++) {
+            List<String> copyRows = readCopy(sql, copy);
+            assertFalse(copyRows.isEmpty(), "copy=" + copy);
+            partitioned.addAll(copyRows);
+        }
+        List<String> single = read(SOURCE_SQL);
+        Collections.sort(partitioned);
+        Collections.sort(single);
+        assertEquals(single, partitioned);
+    }
+
+    private void assertPartitionedReadMatches(String field, List<String> boundaries, int copies) throws SQLException {
+        String sql = TableInputPartitioner.buildSql(SOURCE_SQL, field, boundaries, copies);
+        List<String> partitioned = new ArrayList<>();
+        for (int copy = 0; copy < copies; copy++) {
+            partitioned.addAll(readCopy(sql, copy));
+        }
+        List<String> single = read(SOURCE_SQL);
+        Collections.sort(partitioned);
+        Collections.sort(single);
+        assertEquals(single, partitioned, "copies=" + copies + ", boundaries=" + boundaries);
+    }
+
+    /**
+     * 按 Kettle 的方式替换副本序号变量后执行
+     */
+    private List<String> readCopy(String sql, int copy) throws SQLException {
+        return read(sql.replace(TableInputPartitioner.COPY_NR_VARIABLE, String.valueOf(copy)));
+    }
+
+    private List<String> read(String sql) throws SQLException {
+        List<String> result = new ArrayList<>();
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                result.add(rs.getObject("id") + "|" + rs.getObject("created") + "|" + rs.getString("name"));
+            }
+        }
+        return result;
+    }
+
+    private void insert(List<Object[]> rows) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO orders (id, created, name) VALUES (?, ?, ?)")) {
+            for (Object[] row : rows) {
+                statement.setObject(1, row[0]);
+                statement.setObject(2, row[1]);
+                statement.setObject(3, row[2]);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private BigDecimal queryDecimal(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getBigDecimal(1);
+        }
+    }
+
+    private Date queryTimestamp(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return new Date(rs.getTimestamp(1).getTime());
+        }
+    }
+
+    private static void assertStrictlyIncreasing(List<String> boundaries) {
+        for (int i = 1; i < boundaries.size(); i++) {
+            assertTrue(new BigDecimal(boundaries.get(i)).compareTo(new BigDecimal(boundaries.get(i - 1))) > 0,
+                    boundaries.toString());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.pentaho.di.trans.steps.excelinput.staxpoi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pentaho.di.core.spreadsheet.KCell;
+import org.pentaho.di.core.spreadsheet.KCellType;
+import org.pentaho.di.core.spreadsheet.KSheet;
+
+/**
+ * 流式读取 xlsx：单元格类型、跳行与回读，以及大工作簿逐行读取时堆占用保持平稳
+ */
+class StaxPoiWorkbookTest {
+
+    private static final int LARGE_ROWS = 300_000;
+
+    /**
+     * 逐行读完整个大工作簿时，GC 后堆占用相对打开时的最大增量。
+     * 按 DOM 方式加载同一文件需要数百 MB
+     */
+    private static final long MAX_HEAP_GROWTH_BYTES = 32L * 1024 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsCellTypesAndSeeksBackwards() throws Exception {
+        Path file = dir.resolve("types.xlsx");
+        Date date = new Date(1_700_000_000_000L);
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+            Sheet sheet = workbook.createSheet("data");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("name");
+            header.createCell(1).setCellValue("amount");
+            header.createCell(2).setCellValue("created");
+            header.createCell(3).setCellValue("active");
+            for (int i = 1; i <= 10; i++) {
+                // 第 5 行留空，验证缺失行返回空数组
+                if (i == 5) {
+                    continue;
+                }
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("row-" + i);
+                row.createCell(1).setCellValue(i * 1.5);
+                row.createCell(2).setCellValue(date);
+                row.getCell(2).setCellStyle(dateStyle);
+                row.createCell(3).setCellValue(i % 2 == 0);
+            }
+            workbook.createSheet("empty");
+            write(workbook, file);
+        }
+
+        StaxPoiWorkbook workbook = new StaxPoiWorkbook(file.toString(), null);
+        try {
+            assertEquals(2, workbook.getNumberOfSheets());
+            assertEquals("data", workbook.getSheetName(0));
+            KSheet sheet = workbook.getSheet("data");
+            assertEquals(11, sheet.getRows());
+
+            KCell[] row = sheet.getRow(7);
+            assertEquals(KCellType.LABEL, row[0].getType());
+            assertEquals("row-7", row[0].getValue());
+            assertEquals(KCellType.NUMBER, row[1].getType());
+            assertEquals(10.5D, (Double) row[1].getValue(), 1e-9);
+            assertEquals(KCellType.DATE, row[2].getType());
+            assertEquals(date, row[2].getValue());
+            assertEquals(KCellType.BOOLEAN, row[3].getType());
+            assertEquals(false, row[3].getValue());
+
+            assertEquals(0, sheet.getRow(5).length);
+            // 回读需要重新打开工作表流
+            assertEquals("name", sheet.getRow(0)[0].getValue());
+            assertEquals("row-10", sheet.getCell(0, 10).getValue());
+            assertThrows(ArrayIndexOutOfBoundsException.class, () -> sheet.getRow(11));
+        } finally {
+            workbook.close();
+        }
+    }
+
+    @Test
+    void heapStaysFlatWhileStreamingLargeWorkbook() throws Exception {
+        Path file = dir.resolve("large.xlsx");
+        // SXSSF 写出时只在内存保留一个窗口的行，默认使用内联字符串，工作簿本身不会占用大量堆
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+            Sheet sheet = workbook.createSheet("orders");
+            Row header = sheet.createRow(0);
+            String[] names = {"id", "customer", "amount", "created", "paid", "remark"};
+            for (int c = 0; c < names.length; c++) {
+                header.createCell(c).setCellValue(names[c]);
+            }
+            Date created = new Date(1_700_000_000_000L);
+            for (int i = 1; i <= LARGE_ROWS; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue(i);
+                row.createCell(1).setCellValue("customer-" + (i % 1000));
+                row.createCell(2).setCellValue(i * 0.01);
+                row.createCell(3).setCellValue(created);
+                row.getCell(3).setCellStyle(dateStyle);
+                row.createCell(4).setCellValue(i % 3 == 0);
+                row.createCell(5).setCellValue("remark for order " + i + " with some padding text");
+            }
+            write(workbook, file);
+            workbook.dispose();
+        }
+
+        StaxPoiWorkbook workbook = new StaxPoiWorkbook(file.toString(), null);
+        try {
+            KSheet sheet = workbook.getSheet(0);
+            assertEquals(LARGE_ROWS + 1, sheet.getRows());
+            long baseline = usedHeapAfterGc();
+
+            List<Long> samples = new ArrayList<>();
+            double amountSum = 0;
+            for (int i = 1; i <= LARGE_ROWS; i++) {
+                KCell[] row = sheet.getRow(i);
+                amountSum += (Double) row[2].getValue();
+                if (i % 50_000 == 0) {
+                    samples.add(usedHeapAfterGc());
+                }
+            }
+            assertEquals("remark for order " + LARGE_ROWS + " with some padding text",
+                    sheet.getRow(LARGE_ROWS)[5].getValue());
+            assertEquals(0.01 * LARGE_ROWS * (LARGE_ROWS + 1) / 2, amountSum, 1e-3 * LARGE_ROWS);
+
+            long peak = samples.stream().mapToLong(Long::longValue).max().orElse(baseline);
+            assertTrue(peak - baseline < MAX_HEAP_GROWTH_BYTES,
+                    "heap grew by " + (peak - baseline) / 1024 / 1024 + " MB, samples=" + samples);
+            // 前后两段的占用不应随已读行数增长
+            long drift = samples.get(samples.size() - 1) - samples.get(0);
+            assertTrue(drift < MAX_HEAP_GROWTH_BYTES / 4,
+                    "heap drifted by " + drift / 1024 + " KB, samples=" + samples);
+        } finally {
+            workbook.close();
+        }
+    }
+
+    private static void write(Workbook workbook, Path file) throws Exception {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            workbook.write(out);
+        }
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -2,7 +2,9 @@ package com.pufferfishscheduler.worker.common.config;
 
 import com.pufferfishscheduler.trans.engine.DataCache;
 import com.pufferfishscheduler.trans.engine.DataTransEngine;
+import com.pufferfishscheduler.trans.engine.metrics.StepMetricsRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,8 +16,9 @@ import org.springframework.context.annotation.Configuration;
 public class SprintDataTransEngineConfiguration {
 
     @Bean
-    public DataTransEngine dataEngine() {
+    public DataTransEngine dataEngine(@Value("${trans.metrics.byte-sampling:false}") boolean byteSampling) {
         DataTransEngine dataEngine = new DataTransEngine();
+        StepMetricsRegistry.setByteSampling(byteSampling);
 
         log.info("Init data trans engine (Kettle sync)...");
         try {
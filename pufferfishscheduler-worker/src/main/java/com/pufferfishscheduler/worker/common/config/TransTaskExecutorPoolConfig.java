@@ -1,33 +1,40 @@
 package com.pufferfishscheduler.worker.common.config;
 
+import com.pufferfishscheduler.worker.task.trans.executor.AdmissionController;
+import com.pufferfishscheduler.worker.task.trans.executor.ExecutionLane;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-
-import java.util.concurrent.Executor;
-import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * 转换任务在 worker 内异步执行，避免长时间占用 Kafka 消费线程。
+ * <p>
+ * 启动通道只负责加载并启动转换，转换运行期间不占用线程；运行结束由 Kettle 回调投递到收尾通道；
+ * 停止命令走独立的控制通道，不会排在启动任务之后。
+ * </p>
  */
 @Configuration
 public class TransTaskExecutorPoolConfig {
 
-    @Bean(name = "transTaskWorkExecutor")
-    public Executor transTaskWorkExecutor(
-            @Value("${trans.task.pool.core-size:2}") int coreSize,
-            @Value("${trans.task.pool.max-size:8}") int maxSize,
-            @Value("${trans.task.pool.queue-capacity:100}") int queueCapacity) {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(coreSize);
-        executor.setMaxPoolSize(maxSize);
-        executor.setQueueCapacity(queueCapacity);
-        executor.setThreadNamePrefix("trans-task-work-");
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(120);
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
-        executor.initialize();
-        return executor;
+    @Bean(name = "transTaskLaunchLane", destroyMethod = "shutdown")
+    public ExecutionLane transTaskLaunchLane(@Value("${trans.task.pool.core-size:2}") int coreSize) {
+        return ExecutionLane.fixed("trans-task-launch", coreSize);
+    }
+
+    @Bean(name = "transTaskControlLane", destroyMethod = "shutdown")
+    public ExecutionLane transTaskControlLane(@Value("${trans.task.pool.control-size:2}") int controlSize) {
+        return ExecutionLane.fixed("trans-task-control", controlSize);
+    }
+
+    @Bean(name = "transTaskCompletionLane", destroyMethod = "shutdown")
+    public ExecutionLane transTaskCompletionLane(@Value("${trans.task.pool.completion-size:2}") int completionSize) {
+        return ExecutionLane.scheduled("trans-task-completion", completionSize);
+    }
+
+    @Bean
+    public AdmissionController transTaskAdmissionController(
+            @Value("${trans.task.admission.max-cpu-load:0.85}") double maxCpuLoad,
+            @Value("${trans.task.admission.max-heap-usage:0.85}") double maxHeapUsage) {
+        return new AdmissionController(maxCpuLoad, maxHeapUsage);
     }
 }
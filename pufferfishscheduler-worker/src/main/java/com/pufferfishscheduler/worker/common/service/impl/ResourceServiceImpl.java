@@ -4,12 +4,14 @@ import com.alibaba.fastjson2.JSONObject;
 import com.pufferfishscheduler.common.config.file.FilePathConfig;
 import com.pufferfishscheduler.common.constants.Constants;
 import com.pufferfishscheduler.common.exception.BusinessException;
+import com.pufferfishscheduler.common.ftp.FTPManager;
+import com.pufferfishscheduler.common.ftp.FTPSManager;
+import com.pufferfishscheduler.common.ftp.FtpClientPool;
+import com.pufferfishscheduler.common.ftp.FtpPoolKey;
 import com.pufferfishscheduler.common.utils.AESUtil;
 import com.pufferfishscheduler.dao.entity.DbDatabase;
 import com.pufferfishscheduler.worker.common.service.DictService;
 import com.pufferfishscheduler.worker.common.service.ResourceService;
-import com.pufferfishscheduler.worker.task.connect.ftp.FTPManager;
-import com.pufferfishscheduler.worker.task.connect.ftp.FTPSManager;
 import com.pufferfishscheduler.worker.task.metadata.service.DbDatabaseService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
@@ -20,14 +22,20 @@ import org.apache.commons.net.ftp.FTPFile;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
-import java.util.function.BooleanSupplier;
 
 /**
  * 资源管理 Service 实现
@@ -36,6 +44,10 @@ import java.util.function.BooleanSupplier;
 @Service
 public class ResourceServiceImpl implements ResourceService {
 
+    private static final int RETRY_TIMES_DOWNLOAD = 6;
+
+    private static final long RETRY_WAIT_MS = 2000L;
+
     @Autowired
     private AESUtil aesUtil;
 
@@ -48,6 +60,9 @@ public class ResourceServiceImpl implements ResourceService {
     @Autowired
     private DbDatabaseService databaseService;
 
+    @Autowired
+    private FtpClientPool ftpClientPool;
+
 
     @Override
     public void uploadWithNames(Integer dbId, String path, List<String> fileNames) {
@@ -64,11 +79,7 @@ public class ResourceServiceImpl implements ResourceService {
         path = filePathConfig.getFtpPath() + File.separator + handleBuiltInDirectory(path);
         DbDatabase database = getDbDatabase(dbId);
 
-        if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
-            ftpUploadWithNames(database, path, fileNames);
-        } else {
-            ftpsUploadWithNames(database, path, fileNames);
-        }
+        ftpUploadWithNames(database, path, fileNames);
     }
 
     /**
@@ -162,64 +173,56 @@ public class ResourceServiceImpl implements ResourceService {
     }
 
     /**
-     * FTP上传文件
+     * 获取FTP连接池的键
      *
-     * @param database  FTP库配置
-     * @param path      上传路径
-     * @param fileNames 文件名列表
+     * @param database 数据库
+     * @return 连接池键
      */
-    private void ftpUploadWithNames(DbDatabase database, String path, List<String> fileNames) {
-        FTPManager ftpManager = getFtpManager(database);
-        try {
-            ftpManager.init();
-            for (String fileName : fileNames) {
-                boolean result = ftpManager.uploadFile(path, fileName, false);
-                if (result) {
-                    log.info("上传文件【{}】到【{}】成功！", fileName, path);
-                } else {
-                    log.error("上传文件【{}】到【{}】失败！", fileName, path);
-                }
-            }
-        } catch (Exception e) {
-            log.error("FTP上传异常", e);
-            throw new BusinessException("上传文件失败！");
-        } finally {
-            try {
-                ftpManager.close();
-            } catch (Exception e) {
-                log.error("关闭FTP失败", e);
-            }
+    private FtpPoolKey getFtpPoolKey(DbDatabase database) {
+        if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
+            FTPManager m = getFtpManager(database);
+            return new FtpPoolKey(database.getId(), Constants.FTP_TYPE.FTP, m.getHost(), m.getPort(),
+                    m.getUser(), m.getPassword(), m.getControlEncoding(), m.getMode());
         }
+        FTPSManager m = getFtpsManager(database);
+        return new FtpPoolKey(database.getId(), Constants.FTP_TYPE.FTPS, m.getHost(), m.getPort(),
+                m.getUser(), m.getPassword(), m.getControlEncoding(), m.getMode());
     }
 
     /**
-     * FTPS上传文件
+     * FTP/FTPS上传文件
      *
-     * @param database  FTPS库配置
+     * @param database  FTP/FTPS库配置
      * @param path      上传路径
-     * @param fileNames 文件名列表
+     * @param fileNames 本地文件路径列表
      */
-    private void ftpsUploadWithNames(DbDatabase database, String path, List<String> fileNames) {
-        FTPSManager ftpsManager = getFtpsManager(database);
+    private void ftpUploadWithNames(DbDatabase database, String path, List<String> fileNames) {
         try {
-            ftpsManager.init();
-            for (String fileName : fileNames) {
-                boolean result = ftpsManager.uploadFile(path, fileName, false);
-                if (result) {
-                    log.info("上传文件【{}】到【{}】成功！", fileName, path);
-                } else {
-                    log.error("上传文件【{}】到【{}】失败！", fileName, path);
+            ftpClientPool.execute(getFtpPoolKey(database), ftpClient -> {
+                // 连接池中的客户端保留上次的工作目录，每次都需切换
+                if (!ftpClient.changeWorkingDirectory(path)) {
+                    throw new BusinessException("远程目录不存在: " + path);
                 }
-            }
+                for (String fileName : fileNames) {
+                    Path localPath = Paths.get(fileName);
+                    if (!Files.isRegularFile(localPath)) {
+                        throw new BusinessException("无效的本地文件路径: " + fileName);
+                    }
+                    boolean result;
+                    try (InputStream is = Files.newInputStream(localPath)) {
+                        result = ftpClient.storeFile(localPath.getFileName().toString(), is);
+                    }
+                    if (result) {
+                        log.info("上传文件【{}】到【{}】成功！", fileName, path);
+                    } else {
+                        log.error("上传文件【{}】到【{}】失败！", fileName, path);
+                    }
+                }
+                return null;
+            });
         } catch (Exception e) {
-            log.error("FTPS上传异常", e);
+            log.error("{}上传异常", database.getType(), e);
             throw new BusinessException("上传文件失败！");
-        } finally {
-            try {
-                ftpsManager.close();
-            } catch (Exception e) {
-                log.error("关闭FTPS失败", e);
-            }
         }
     }
 
@@ -272,74 +275,82 @@ public class ResourceServiceImpl implements ResourceService {
                 ? filePathConfig.getFtpPath()
                 : filePathConfig.getFtpPath() + File.separator + handleBuiltInDirectory(remoteRelativeDir);
 
-        if (Constants.FTP_TYPE.FTP.equals(database.getType())) {
-            FTPManager ftpManager = getFtpManager(database);
+        String protocolLabel = database.getType();
+        FtpPoolKey key = getFtpPoolKey(database);
+        for (int attempt = 1; ; attempt++) {
             try {
-                ftpManager.init();
-                finishDownloadToLocal(
-                        ftpManager.getFTPClient(),
-                        remotePath,
-                        fileName,
-                        localFullPath,
-                        "FTP",
-                        () -> ftpManager.downloadFile(remotePath, fileName, localFullPath));
-            } finally {
-                try {
-                    ftpManager.close();
-                } catch (Exception e) {
-                    log.error("关闭FTP失败", e);
+                if (ftpClientPool.execute(key, ftpClient -> finishDownloadToLocal(
+                        ftpClient, remotePath, fileName, localFullPath, protocolLabel))) {
+                    return;
                 }
+                log.warn("{} 下载未完成({}/{}): {}/{}", protocolLabel, attempt, RETRY_TIMES_DOWNLOAD, remotePath, fileName);
+            } catch (IOException e) {
+                // 出错的客户端已由连接池销毁，重试时借用新连接并从本地已写入的位置续传
+                log.warn("{} 下载失败({}/{}): {}", protocolLabel, attempt, RETRY_TIMES_DOWNLOAD, e.getMessage());
             }
-        } else if (Constants.FTP_TYPE.FTPS.equals(database.getType())) {
-            FTPSManager ftpsManager = getFtpsManager(database);
-            try {
-                ftpsManager.init();
-                finishDownloadToLocal(
-                        ftpsManager.getFTPClient(),
-                        remotePath,
-                        fileName,
-                        localFullPath,
-                        "FTPS",
-                        () -> ftpsManager.downloadFile(remotePath, fileName, localFullPath));
-            } finally {
-                try {
-                    ftpsManager.close();
-                } catch (Exception e) {
-                    log.error("关闭FTPS失败", e);
-                }
+            if (attempt >= RETRY_TIMES_DOWNLOAD) {
+                throw new BusinessException("文件下载失败，已达最大重试次数: " + fileName);
             }
-        } else {
-            throw new BusinessException("请校验数据源类型是否是FTP/FTPS!");
+            sleepBeforeRetry();
+        }
+    }
+
+    private static void sleepBeforeRetry() {
+        try {
+            Thread.sleep(RETRY_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("文件下载被中断");
         }
     }
 
     /**
      * 完成 FTP/FTPS 下载：可跳过已完整缓存；下载后校验大小与 Office 魔数，避免损坏/错误页被当成 Excel。
+     *
+     * @return 服务端未确认传输完成时返回 false，由调用方重试续传
      */
-    private void finishDownloadToLocal(
+    private boolean finishDownloadToLocal(
             FTPClient client,
             String remotePath,
             String fileName,
             String localFullPath,
-            String protocolLabel,
-            BooleanSupplier runDownload) {
+            String protocolLabel) throws IOException {
         long remoteSize = safeReadRemoteRegularFileSize(client, remotePath, fileName);
         File localFile = new File(localFullPath);
         if (remoteSize >= 0 && localFile.isFile() && localFile.length() == remoteSize && remoteSize > 0) {
             if (isProbableExcelOfficeFile(localFile, fileName)) {
                 log.info("本地文件已完整（{} bytes），跳过 {} 下载: {}", remoteSize, protocolLabel, localFullPath);
-                return;
+                return true;
             }
             log.warn("本地大小与远程一致但非有效 Excel 魔数，删除后重新下载: {}", localFullPath);
             if (!localFile.delete()) {
                 log.warn("删除可疑缓存失败: {}", localFullPath);
             }
         }
-        if (!runDownload.getAsBoolean()) {
-            throw new BusinessException("文件下载失败: " + fileName);
+        if (!retrieveToLocal(client, remotePath, fileName, localFile)) {
+            return false;
         }
         validateLocalFileAfterFtpDownload(localFile, fileName, remoteSize, protocolLabel);
         log.info("已下载远程文件 [{}]/[{}] 到 [{}]", remotePath, fileName, localFullPath);
+        return true;
+    }
+
+    /**
+     * 下载远程文件，本地已存在部分内容时从其末尾续传
+     */
+    private static boolean retrieveToLocal(FTPClient client, String remotePath, String fileName, File localFile) throws IOException {
+        if (!client.changeWorkingDirectory(remotePath)) {
+            throw new BusinessException("远程目录不存在: " + remotePath);
+        }
+        File parent = localFile.getParentFile();
+        if (parent != null) {
+            FileUtils.forceMkdir(parent);
+        }
+        long localSize = localFile.isFile() ? localFile.length() : 0;
+        client.setRestartOffset(localSize);
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(localFile, localSize > 0))) {
+            return client.retrieveFile(fileName, os);
+        }
     }
 
     private void validateLocalFileAfterFtpDownload(File localFile, String fileName, long remoteSize, String protocolLabel) {
@@ -11,9 +11,13 @@ import com.pufferfishscheduler.worker.task.metadata.service.DbSyncExecutor;
 import com.pufferfishscheduler.worker.task.trans.service.TransTaskExecutor;
 import lombok.AllArgsConstructor;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
@@ -21,10 +25,25 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import org.apache.commons.lang3.StringUtils;
@@ -33,6 +52,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Worker 消费 Kafka 派发消息：元数据同步、转换任务（只写 DB；前端查询结果）
+ * <p>
+ * 单个消费线程负责 poll，各分区批次在派发线程池中并发处理（分区内保持顺序）；状态变更落库后按分区提交位点。
+ * 转换线程池积压时暂停全部分区，回落后恢复，消费线程不会被 CallerRuns 阻塞。
+ * </p>
  */
 @Component
 public class TaskDispatchKafkaConsumer implements InitializingBean, DisposableBean {
@@ -54,6 +77,27 @@ public class TaskDispatchKafkaConsumer implements InitializingBean, DisposableBe
     @Value("${kafka.consumer.max-poll-interval-ms:900000}")
     private int maxPollIntervalMs;
 
+    @Value("${kafka.consumer.max-poll-records:50}")
+    private int maxPollRecords;
+
+    /**
+     * 并发处理的分区数（派发线程数）
+     */
+    @Value("${kafka.dispatch.concurrency:8}")
+    private int dispatchConcurrency;
+
+    /**
+     * 转换准入压力（CPU、堆内存相对上限）达到该值时暂停所有分区
+     */
+    @Value("${kafka.dispatch.backpressure.high-watermark:1.0}")
+    private double highWatermark;
+
+    /**
+     * 转换准入压力回落到该值以下时恢复分区
+     */
+    @Value("${kafka.dispatch.backpressure.low-watermark:0.85}")
+    private double lowWatermark;
+
     /**
      * 元数据任务映射器
      */
@@ -73,6 +117,27 @@ public class TaskDispatchKafkaConsumer implements InitializingBean, DisposableBe
 
     private KafkaConsumer<String, String> consumer;
     private final AtomicBoolean running = new AtomicBoolean(false);
+    private Thread pollThread;
+
+    /**
+     * 分区批次处理线程池
+     */
+    private ExecutorService dispatchPool;
+
+    /**
+     * 正在处理的分区批次（仅消费线程访问）；处理期间该分区保持暂停，保证分区内顺序
+     */
+    private final Map<TopicPartition, Future<?>> inFlight = new HashMap<>();
+
+    /**
+     * 状态变更已落库、等待提交的位点
+     */
+    private final ConcurrentHashMap<TopicPartition, OffsetAndMetadata> completedOffsets = new ConcurrentHashMap<>();
+
+    /**
+     * 是否因转换线程池积压而暂停消费（仅消费线程访问）
+     */
+    private boolean throttled = false;
 
     public TaskDispatchKafkaConsumer(MetadataTaskMapper metadataTaskMapper, DbSyncExecutor dbSyncExecutor, TransTaskMapper transTaskMapper, TransTaskExecutor transTaskExecutor) {
         this.metadataTaskMapper = metadataTaskMapper;
@@ -93,45 +158,207 @@ public class TaskDispatchKafkaConsumer implements InitializingBean, DisposableBe
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
-        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "50");
-        // 转换可能长时间运行，避免超过 max.poll.interval 被踢出消费组（可按需调大）
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+        // 分区批次在派发线程池处理，消费线程持续 poll；仍保留较大值以兼容同步执行的元数据任务
         props.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, maxPollIntervalMs);
 
+        AtomicInteger threadIndex = new AtomicInteger();
+        dispatchPool = Executors.newFixedThreadPool(Math.max(1, dispatchConcurrency), r -> {
+            Thread t = new Thread(r, "kafka-dispatch-worker-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
         consumer = new KafkaConsumer<>(props);
-        consumer.subscribe(Arrays.asList(topic));
+        consumer.subscribe(Arrays.asList(topic), new DispatchRebalanceListener());
 
         running.set(true);
-        Thread t = new Thread(this::loop, "kafka-dispatch-consumer-" + groupId);
-        t.setDaemon(true);
-        t.start();
+        pollThread = new Thread(this::loop, "kafka-dispatch-consumer-" + groupId);
+        pollThread.setDaemon(true);
+        pollThread.start();
 
-        log.info("Kafka dispatch consumer started: topic={}, groupId={}", topic, groupId);
+        log.info("Kafka dispatch consumer started: topic={}, groupId={}, concurrency={}", topic, groupId, dispatchConcurrency);
     }
 
     /**
-     * 消费循环
+     * 消费循环：只负责 poll、派发分区批次、提交位点与暂停/恢复分区，不在本线程执行业务
      */
     private void loop() {
-        while (running.get()) {
-            ConsumerRecords<String, String> records;
+        try {
+            while (running.get()) {
+                try {
+                    reapCompleted();
+                    commitCompleted(false);
+                    applyBackpressure();
+
+                    ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(1000));
+                    dispatch(records);
+                } catch (WakeupException e) {
+                    if (running.get()) {
+                        log.warn("Kafka dispatch consumer woken up unexpectedly");
+                    }
+                } catch (Exception e) {
+                    log.error("Kafka dispatch loop failed", e);
+                }
+            }
+        } finally {
+            shutdownConsumer();
+        }
+    }
+
+    /**
+     * 按分区派发：每个分区一次只有一个批次在处理，派发后暂停该分区直到批次完成
+     */
+    private void dispatch(ConsumerRecords<String, String> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        for (TopicPartition partition : records.partitions()) {
+            List<ConsumerRecord<String, String>> partitionRecords = records.records(partition);
+            if (partitionRecords.isEmpty()) {
+                continue;
+            }
+            consumer.pause(Collections.singleton(partition));
+            inFlight.put(partition, dispatchPool.submit(() -> processPartition(partition, partitionRecords)));
+        }
+    }
+
+    /**
+     * 顺序处理一个分区批次；每条消息的状态变更落库后推进该分区的待提交位点
+     */
+    private void processPartition(TopicPartition partition, List<ConsumerRecord<String, String>> records) {
+        for (ConsumerRecord<String, String> record : records) {
             try {
-                records = consumer.poll(Duration.ofMillis(1000));
+                process(record.value());
             } catch (Exception e) {
-                log.error("Kafka poll failed", e);
-                continue;
+                // 失败状态已尽量落库；继续处理下一条（避免阻塞分区）
+                log.error("Kafka dispatch message failed, partition={}, offset={}", partition, record.offset(), e);
             }
+            completedOffsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+        }
+    }
 
-            for (ConsumerRecord<String, String> record : records) {
-                boolean ok = process(record.value());
-                if (!ok) {
-                    // 失败状态已落库；继续处理下一条（避免阻塞）
-                }
+    /**
+     * 回收已完成的分区批次，未被背压暂停时恢复分区
+     */
+    private void reapCompleted() {
+        List<TopicPartition> finished = new ArrayList<>();
+        Iterator<Map.Entry<TopicPartition, Future<?>>> it = inFlight.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<TopicPartition, Future<?>> entry = it.next();
+            if (entry.getValue().isDone()) {
+                it.remove();
+                finished.add(entry.getKey());
             }
+        }
+        if (!finished.isEmpty() && !throttled) {
+            finished.retainAll(consumer.assignment());
+            consumer.resume(finished);
+        }
+    }
 
+    /**
+     * 按分区提交已落库的位点
+     *
+     * @param sync 是否同步提交（再均衡、关闭时使用）
+     */
+    private void commitCompleted(boolean sync) {
+        if (completedOffsets.isEmpty()) {
+            return;
+        }
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : new ArrayList<>(completedOffsets.keySet())) {
+            OffsetAndMetadata offset = completedOffsets.remove(partition);
+            if (offset != null) {
+                offsets.put(partition, offset);
+            }
+        }
+        offsets.keySet().retainAll(consumer.assignment());
+        if (offsets.isEmpty()) {
+            return;
+        }
+        try {
+            if (sync) {
+                consumer.commitSync(offsets);
+            } else {
+                consumer.commitAsync(offsets, (committed, e) -> {
+                    if (e != null) {
+                        log.warn("Kafka commitAsync failed, offsets={}", committed, e);
+                    }
+                });
+            }
+        } catch (Exception e) {
+            log.error("Kafka commit failed, offsets={}", offsets, e);
+        }
+    }
+
+    /**
+     * 根据 Worker 的 CPU、堆内存余量暂停/恢复全部分区，资源不足时不再接收新的转换
+     */
+    private void applyBackpressure() {
+        double pressure = transTaskExecutor.getAdmissionPressure();
+        if (!throttled && pressure >= highWatermark) {
+            throttled = true;
+            consumer.pause(consumer.assignment());
+            log.warn("Trans admission pressure {} reached high watermark {}, pause dispatch consumption", pressure, highWatermark);
+        } else if (throttled && pressure <= lowWatermark) {
+            throttled = false;
+            Set<TopicPartition> resumable = new HashSet<>(consumer.assignment());
+            resumable.removeAll(inFlight.keySet());
+            consumer.resume(resumable);
+            log.info("Trans admission pressure {} dropped below low watermark {}, resume dispatch consumption", pressure, lowWatermark);
+        }
+    }
+
+    /**
+     * 等待分区批次处理完成
+     */
+    private void awaitInFlight(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            Future<?> future = inFlight.remove(partition);
+            if (future == null) {
+                continue;
+            }
             try {
-                consumer.commitSync();
+                future.get(maxPollIntervalMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
             } catch (Exception e) {
-                log.error("Kafka commitSync failed", e);
+                log.warn("Wait dispatch batch failed, partition={}", partition, e);
+            }
+        }
+    }
+
+    private void shutdownConsumer() {
+        try {
+            awaitInFlight(new ArrayList<>(inFlight.keySet()));
+            commitCompleted(true);
+        } catch (Exception e) {
+            log.warn("Kafka dispatch consumer final commit failed", e);
+        } finally {
+            try {
+                consumer.close();
+            } catch (Exception ignore) {
+            }
+        }
+    }
+
+    /**
+     * 再均衡：被回收的分区先等待在途批次并同步提交，新分配的分区在背压期间保持暂停
+     */
+    private class DispatchRebalanceListener implements ConsumerRebalanceListener {
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            awaitInFlight(partitions);
+            commitCompleted(true);
+        }
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            if (throttled) {
+                consumer.pause(partitions);
             }
         }
     }
@@ -281,7 +508,7 @@ public class TaskDispatchKafkaConsumer implements InitializingBean, DisposableBe
     }
 
     /**
-     * 销毁 Kafka 消费者
+     * 销毁 Kafka 消费者：由消费线程完成在途批次、提交位点并关闭
      */
     @Override
     public void destroy() {
@@ -289,10 +516,17 @@ public class TaskDispatchKafkaConsumer implements InitializingBean, DisposableBe
         try {
             if (consumer != null) {
                 consumer.wakeup();
-                consumer.close();
             }
+            if (pollThread != null) {
+                pollThread.join(30_000L);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception ignore) {
+        } finally {
+            if (dispatchPool != null) {
+                dispatchPool.shutdown();
+            }
         }
     }
 }
-
@@ -25,6 +25,11 @@ import java.util.Map;
 @Slf4j
 public abstract class AbstractDatabaseConnector {
 
+    /**
+     * 数据源id，getConnection 按此id从连接池借用连接
+     */
+    private Integer id;
+
     /**
      * 主机
      */
@@ -179,6 +184,7 @@ public abstract class AbstractDatabaseConnector {
      */
     public DBConnectionInfo getDatabaseInfo() {
         DBConnectionInfo info = new DBConnectionInfo();
+        info.setId(id);
         info.setUsername(username);
         info.setPassword(password);
         info.setType(type);
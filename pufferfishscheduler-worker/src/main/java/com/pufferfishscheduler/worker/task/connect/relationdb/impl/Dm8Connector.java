@@ -3,6 +3,7 @@ package com.pufferfishscheduler.worker.task.connect.relationdb.impl;
 import com.pufferfishscheduler.common.constants.Constants;
 import com.pufferfishscheduler.common.exception.BusinessException;
 import com.pufferfishscheduler.common.utils.JdbcUrlUtil;
+import com.pufferfishscheduler.common.utils.DataSourceRegistry;
 import com.pufferfishscheduler.common.utils.JdbcUtil;
 import com.pufferfishscheduler.domain.domain.TableColumnSchema;
 import com.pufferfishscheduler.domain.domain.TableForeignKey;
@@ -105,7 +106,7 @@ public class Dm8Connector extends AbstractDatabaseConnector {
     @Override
     public Connection getConnection() {
         try {
-            return JdbcUtil.getConnection(getDriver(), getUrl(), getDatabaseInfo());
+            return DataSourceRegistry.getConnection(getDriver(), getUrl(), getDatabaseInfo());
         } catch (Exception e) {
             log.error("达梦数据库连接创建失败", e);
             throw new BusinessException("创建数据库连接失败！" + e.getMessage());
@@ -366,6 +367,7 @@ public class Dm8Connector extends AbstractDatabaseConnector {
         } finally {
             JdbcUtil.closeResultSet(rs);
             JdbcUtil.closeStatement(stat);
+            JdbcUtil.closeConnection(conn);
         }
         return result;
     }
@@ -3,6 +3,7 @@ package com.pufferfishscheduler.worker.task.connect.relationdb.impl;
 import com.pufferfishscheduler.common.constants.Constants;
 import com.pufferfishscheduler.common.exception.BusinessException;
 import com.pufferfishscheduler.common.utils.ConnectorUtil;
+import com.pufferfishscheduler.common.utils.DataSourceRegistry;
 import com.pufferfishscheduler.common.utils.JdbcUtil;
 import com.pufferfishscheduler.domain.domain.TableColumnSchema;
 import com.pufferfishscheduler.domain.domain.TableForeignKey;
@@ -83,7 +84,7 @@ public class MySQLConnector extends AbstractDatabaseConnector {
     public Connection getConnection() {
         Connection conn;
         try {
-            conn = JdbcUtil.getConnection(getDriver(), getUrl(), getDatabaseInfo());
+            conn = DataSourceRegistry.getConnection(getDriver(), getUrl(), getDatabaseInfo());
         } catch (Exception e) {
             log.error(null, e);
             throw new BusinessException("创建数据库连接失败！" + e.getMessage());
@@ -2,6 +2,7 @@ package com.pufferfishscheduler.worker.task.connect.relationdb.impl;
 
 import com.pufferfishscheduler.common.constants.Constants;
 import com.pufferfishscheduler.common.exception.BusinessException;
+import com.pufferfishscheduler.common.utils.DataSourceRegistry;
 import com.pufferfishscheduler.common.utils.JdbcUtil;
 import com.pufferfishscheduler.domain.domain.TableColumnSchema;
 import com.pufferfishscheduler.domain.domain.TableForeignKey;
@@ -115,7 +116,7 @@ public class OracleConnector extends AbstractDatabaseConnector {
     @Override
     public Connection getConnection() {
         try {
-            return JdbcUtil.getConnection(getDriver(), getUrl(), getDatabaseInfo());
+            return DataSourceRegistry.getConnection(getDriver(), getUrl(), getDatabaseInfo());
         } catch (Exception e) {
             log.error("Oracle连接创建失败", e);
             throw new BusinessException("创建数据库连接失败！" + e.getMessage());
@@ -332,6 +333,7 @@ public class OracleConnector extends AbstractDatabaseConnector {
         } finally {
             JdbcUtil.closeResultSet(rs);
             JdbcUtil.closeStatement(stat);
+            JdbcUtil.closeConnection(conn);
         }
         return result;
     }
@@ -2,6 +2,7 @@ package com.pufferfishscheduler.worker.task.connect.relationdb.impl;
 
 import com.pufferfishscheduler.common.constants.Constants;
 import com.pufferfishscheduler.common.exception.BusinessException;
+import com.pufferfishscheduler.common.utils.DataSourceRegistry;
 import com.pufferfishscheduler.common.utils.JdbcUtil;
 import com.pufferfishscheduler.domain.domain.TableColumnSchema;
 import com.pufferfishscheduler.domain.domain.TableForeignKey;
@@ -115,7 +116,7 @@ public class PostgreSQLConnector extends AbstractDatabaseConnector {
     public Connection getConnection() {
         Connection conn;
         try {
-            conn = JdbcUtil.getConnection(getDriver(), getUrl(), getDatabaseInfo());
+            conn = DataSourceRegistry.getConnection(getDriver(), getUrl(), getDatabaseInfo());
         } catch (Exception e) {
             log.error("创建PostgreSQL连接失败", e);
             throw new BusinessException("创建数据库连接失败！" + e.getMessage());
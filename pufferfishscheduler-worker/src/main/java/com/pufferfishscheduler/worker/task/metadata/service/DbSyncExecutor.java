@@ -1,6 +1,7 @@
 package com.pufferfishscheduler.worker.task.metadata.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.pufferfishscheduler.common.bean.UserContext;
 import com.pufferfishscheduler.common.constants.Constants;
 import com.pufferfishscheduler.common.exception.BusinessException;
@@ -22,11 +23,15 @@ import com.pufferfishscheduler.worker.task.connect.relationdb.DatabaseConnectorF
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -37,11 +42,18 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class DbSyncExecutor {
 
+    /**
+     * 批量写入每块的记录数
+     */
+    private static final int BATCH_SIZE = 500;
+
     private final DbDatabaseMapper dbDatabaseMapper;
     private final DbTableMapper dbTableMapper;
     private final DbFieldMapper dbFieldMapper;
     private final DbTablePropertiesMapper dbTablePropertiesMapper;
     private final AESUtil aesUtil;
+    private final SqlSessionFactory sqlSessionFactory;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * 执行数据库元数据同步
@@ -54,10 +66,13 @@ public class DbSyncExecutor {
 
     /**
      * 同步数据库表信息到数据库元数据表
+     * <p>
+     * 已有表、字段各一次查询读入内存比对，只写入新增、变化和删除的记录；写入按 {@value #BATCH_SIZE} 条分块批量执行，
+     * 每块单独提交，不在整个同步过程中持有长事务。
+     * </p>
      *
      * @param databaseId 数据库id
      */
-    @Transactional(rollbackFor = Exception.class)
     public void syncTableInfo(int databaseId) {
         log.info("开始同步数据库表信息, databaseId={}", databaseId);
         try {
@@ -69,17 +84,27 @@ public class DbSyncExecutor {
                 return;
             }
             String currentUser = Optional.ofNullable(UserContext.getCurrentAccount()).orElse(Constants.SYS_OP_INFO.SYSTEM_ACCOUNT);
-
-            syncTablesToDatabase(databaseId, tableInfoMap, currentUser);
-
-            List<DbTableProperties> primaryKeyList = new ArrayList<>();
-            syncFieldsToDatabase(databaseId, tableInfoMap, currentUser, primaryKeyList);
-            syncPrimaryKeysToDatabase(databaseId, primaryKeyList, currentUser);
+            syncSchema(databaseId, tableInfoMap, currentUser);
         } finally {
             log.info("同步数据库表信息完成, databaseId={}", databaseId);
         }
     }
 
+    /**
+     * 把读取到的表结构写入元数据表：表、字段、主键依次同步
+     *
+     * @param databaseId   数据库id
+     * @param tableInfoMap 表名 -> 表结构
+     * @param currentUser  当前用户
+     */
+    void syncSchema(int databaseId, Map<String, TableSchema> tableInfoMap, String currentUser) {
+        Map<String, Integer> tableIdMap = syncTablesToDatabase(databaseId, tableInfoMap, currentUser);
+
+        List<DbTableProperties> primaryKeyList = new ArrayList<>();
+        syncFieldsToDatabase(databaseId, tableInfoMap, tableIdMap, currentUser, primaryKeyList);
+        syncPrimaryKeysToDatabase(databaseId, primaryKeyList, currentUser);
+    }
+
     /**
      *
      * 根据 ID 获取数据库元数据
@@ -119,6 +144,7 @@ public class DbSyncExecutor {
      */
     private AbstractDatabaseConnector buildConnector(DBConnectionInfo info) {
         AbstractDatabaseConnector connector = DatabaseConnectorFactory.getConnector(info.getType());
+        connector.setId(info.getId());
         connector.setDbName(info.getDbName());
         connector.setUsername(info.getUsername());
         connector.setPassword(info.getPassword());
@@ -135,20 +161,19 @@ public class DbSyncExecutor {
     }
 
     /**
-     * 同步数据库表信息
+     * 同步数据库表信息：一次查询读取已有表，内存比对后批量写入
      *
      * @param databaseId   数据库id
      * @param tableInfoMap 表信息映射表
      * @param currentUser  当前用户
+     * @return 表名 -> 表id（同步后未删除的表）
      */
-    private void syncTablesToDatabase(int databaseId, Map<String, TableSchema> tableInfoMap, String currentUser) {
-        LambdaQueryWrapper<DbTable> tableQuery = new LambdaQueryWrapper<>();
-        tableQuery.eq(DbTable::getDbId, databaseId).eq(DbTable::getDeleted, Constants.DELETE_FLAG.FALSE);
-        List<DbTable> existingTables = dbTableMapper.selectList(tableQuery);
-        Map<String, DbTable> existingTableMap = existingTables.stream()
-                .collect(Collectors.toMap(DbTable::getName, t -> t, (a, b) -> a));
+    private Map<String, Integer> syncTablesToDatabase(int databaseId, Map<String, TableSchema> tableInfoMap, String currentUser) {
+        Map<String, DbTable> existingTableMap = listTables(databaseId);
 
         Date now = new Date();
+        List<DbTable> inserts = new ArrayList<>();
+        List<DbTable> updates = new ArrayList<>();
         for (TableSchema source : tableInfoMap.values()) {
             DbTable target = existingTableMap.get(source.getTableName());
             if (target == null) {
@@ -162,56 +187,71 @@ public class DbSyncExecutor {
                 target.setCreatedTime(now);
                 target.setUpdatedBy(currentUser);
                 target.setUpdatedTime(now);
-                dbTableMapper.insert(target);
-            } else {
+                inserts.add(target);
+            } else if (!Objects.equals(target.getDescription(), source.getTableComment())) {
                 target.setDescription(source.getTableComment());
                 target.setUpdatedBy(currentUser);
                 target.setUpdatedTime(now);
-                dbTableMapper.updateById(target);
+                updates.add(target);
             }
         }
 
         Set<String> currentTableNames = tableInfoMap.keySet();
-        for (DbTable existing : existingTables) {
+        for (DbTable existing : existingTableMap.values()) {
             if (!currentTableNames.contains(existing.getName())) {
                 existing.setDeleted(Constants.DELETE_FLAG.TRUE);
                 existing.setUpdatedBy(currentUser);
                 existing.setUpdatedTime(now);
-                dbTableMapper.updateById(existing);
+                updates.add(existing);
             }
         }
+
+        executeBatch(DbTableMapper.class, inserts, BaseMapper::insert);
+        executeBatch(DbTableMapper.class, updates, BaseMapper::updateById);
+        log.info("同步表信息, databaseId={}, 新增={}, 更新/删除={}", databaseId, inserts.size(), updates.size());
+
+        // 批量插入不保证回填自增主键，有新增表时重新读取一次表id
+        Map<String, DbTable> tableMap = inserts.isEmpty() ? existingTableMap : listTables(databaseId);
+        Map<String, Integer> tableIdMap = new HashMap<>();
+        tableMap.forEach((name, table) -> {
+            if (!Constants.DELETE_FLAG.TRUE.equals(table.getDeleted())) {
+                tableIdMap.put(name, table.getId());
+            }
+        });
+        return tableIdMap;
     }
 
     /**
-     * 同步数据库字段信息
+     * 同步数据库字段信息：一次查询读取该数据源下所有已有字段，内存比对后批量写入
      *
      * @param databaseId     数据库id
      * @param tableInfoMap   表信息映射表
+     * @param tableIdMap     表名 -> 表id
      * @param currentUser    当前用户
      * @param primaryKeyList 主键列表
      */
-    private void syncFieldsToDatabase(int databaseId, Map<String, TableSchema> tableInfoMap,
+    private void syncFieldsToDatabase(int databaseId, Map<String, TableSchema> tableInfoMap, Map<String, Integer> tableIdMap,
                                       String currentUser, List<DbTableProperties> primaryKeyList) {
-        LambdaQueryWrapper<DbTable> tableQuery = new LambdaQueryWrapper<>();
-        tableQuery.eq(DbTable::getDbId, databaseId).eq(DbTable::getDeleted, Constants.DELETE_FLAG.FALSE);
-        Map<String, Integer> tableIdMap = dbTableMapper.selectList(tableQuery).stream()
-                .collect(Collectors.toMap(DbTable::getName, DbTable::getId, (a, b) -> a));
+        LambdaQueryWrapper<DbField> fieldQuery = new LambdaQueryWrapper<>();
+        fieldQuery.inSql(DbField::getTableId, "SELECT id FROM db_table WHERE db_id = " + databaseId + " AND deleted = 0")
+                .eq(DbField::getDeleted, Constants.DELETE_FLAG.FALSE);
+        Map<Integer, Map<String, DbField>> existingFieldMap = new HashMap<>();
+        for (DbField field : dbFieldMapper.selectList(fieldQuery)) {
+            existingFieldMap.computeIfAbsent(field.getTableId(), k -> new HashMap<>()).putIfAbsent(field.getName(), field);
+        }
 
         Date now = new Date();
+        List<DbField> inserts = new ArrayList<>();
+        List<DbField> updates = new ArrayList<>();
         for (TableSchema sourceTable : tableInfoMap.values()) {
             Integer tableId = tableIdMap.get(sourceTable.getTableName());
             if (tableId == null) continue;
 
-            LambdaQueryWrapper<DbField> fieldQuery = new LambdaQueryWrapper<>();
-            fieldQuery.eq(DbField::getTableId, tableId).eq(DbField::getDeleted, Constants.DELETE_FLAG.FALSE);
-            List<DbField> existingFields = dbFieldMapper.selectList(fieldQuery);
-            Map<String, DbField> existingFieldMap = existingFields.stream()
-                    .collect(Collectors.toMap(DbField::getName, f -> f, (a, b) -> a));
-
+            Map<String, DbField> existingFields = existingFieldMap.getOrDefault(tableId, Collections.emptyMap());
             Map<String, TableColumnSchema> columnInfoMap = sourceTable.getColumnInfos();
             if (columnInfoMap != null) {
                 for (TableColumnSchema col : columnInfoMap.values()) {
-                    DbField f = existingFieldMap.get(col.getColumnName());
+                    DbField f = existingFields.get(col.getColumnName());
                     if (f == null) {
                         f = new DbField();
                         f.setTableId(tableId);
@@ -228,8 +268,8 @@ public class DbSyncExecutor {
                         f.setCreatedTime(now);
                         f.setUpdatedBy(currentUser);
                         f.setUpdatedTime(now);
-                        dbFieldMapper.insert(f);
-                    } else {
+                        inserts.add(f);
+                    } else if (isFieldChanged(f, col)) {
                         f.setDataType(col.getDataType());
                         f.setDataLength(col.getDataLength());
                         f.setDescription(col.getColumnComment());
@@ -238,22 +278,74 @@ public class DbSyncExecutor {
                         f.setPrecision(col.getPrecision());
                         f.setUpdatedBy(currentUser);
                         f.setUpdatedTime(now);
-                        dbFieldMapper.updateById(f);
+                        updates.add(f);
                     }
                     collectPrimaryKey(col, tableId, primaryKeyList);
                 }
             }
 
             Set<String> currentFieldNames = columnInfoMap != null ? columnInfoMap.keySet() : Collections.emptySet();
-            for (DbField existing : existingFields) {
+            for (DbField existing : existingFields.values()) {
                 if (!currentFieldNames.contains(existing.getName())) {
                     existing.setDeleted(Constants.DELETE_FLAG.TRUE);
                     existing.setUpdatedBy(currentUser);
                     existing.setUpdatedTime(now);
-                    dbFieldMapper.updateById(existing);
+                    updates.add(existing);
                 }
             }
         }
+
+        executeBatch(DbFieldMapper.class, inserts, BaseMapper::insert);
+        executeBatch(DbFieldMapper.class, updates, BaseMapper::updateById);
+        log.info("同步字段信息, databaseId={}, 新增={}, 更新/删除={}", databaseId, inserts.size(), updates.size());
+    }
+
+    /**
+     * 读取数据源下未删除的表
+     *
+     * @param databaseId 数据库id
+     * @return 表名 -> 表
+     */
+    private Map<String, DbTable> listTables(int databaseId) {
+        LambdaQueryWrapper<DbTable> tableQuery = new LambdaQueryWrapper<>();
+        tableQuery.eq(DbTable::getDbId, databaseId).eq(DbTable::getDeleted, Constants.DELETE_FLAG.FALSE);
+        return dbTableMapper.selectList(tableQuery).stream()
+                .collect(Collectors.toMap(DbTable::getName, t -> t, (a, b) -> a));
+    }
+
+    /**
+     * 字段信息是否变化
+     */
+    private boolean isFieldChanged(DbField field, TableColumnSchema col) {
+        return !Objects.equals(field.getDataType(), col.getDataType())
+                || !Objects.equals(field.getDataLength(), col.getDataLength())
+                || !Objects.equals(field.getDescription(), col.getColumnComment())
+                || !Objects.equals(field.getNullable(), col.getIsNull())
+                || !Objects.equals(field.getOrderBy(), col.getColumnOrder())
+                || !Objects.equals(field.getPrecision(), col.getPrecision());
+    }
+
+    /**
+     * 按 {@value #BATCH_SIZE} 条分块，以 MyBatis 批量执行器写入，每块单独提交
+     *
+     * @param mapperClass Mapper 类型
+     * @param rows        待写入数据
+     * @param action      单行写入操作
+     */
+    private <T> void executeBatch(Class<? extends BaseMapper<T>> mapperClass, List<T> rows, BiConsumer<BaseMapper<T>, T> action) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<T> chunk = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                // 会话经 SpringManagedTransaction 取得当前事务绑定的连接，自身的提交/回滚不生效，flush 后随事务模板提交
+                try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+                    BaseMapper<T> mapper = session.getMapper(mapperClass);
+                    for (T row : chunk) {
+                        action.accept(mapper, row);
+                    }
+                    session.flushStatements();
+                }
+            });
+        }
     }
 
     /**
@@ -284,19 +376,6 @@ public class DbSyncExecutor {
      * @param currentUser    当前用户
      */
     private void syncPrimaryKeysToDatabase(int databaseId, List<DbTableProperties> primaryKeyList, String currentUser) {
-        LambdaQueryWrapper<DbTable> tableQuery = new LambdaQueryWrapper<>();
-        tableQuery.eq(DbTable::getDbId, databaseId).eq(DbTable::getDeleted, Constants.DELETE_FLAG.FALSE);
-        List<Integer> tableIds = dbTableMapper.selectList(tableQuery).stream().map(DbTable::getId).collect(Collectors.toList());
-
-        if (!tableIds.isEmpty()) {
-            LambdaQueryWrapper<DbTableProperties> deleteQuery = new LambdaQueryWrapper<>();
-            deleteQuery.eq(DbTableProperties::getPropType, Constants.TABLE_PROPERTIES.PRIMARY_KEY)
-                    .in(DbTableProperties::getTableId, tableIds);
-            dbTablePropertiesMapper.delete(deleteQuery);
-        }
-
-        if (primaryKeyList.isEmpty()) return;
-
         Map<Integer, List<DbTableProperties>> groupedByTableId = primaryKeyList.stream()
                 .collect(Collectors.groupingBy(DbTableProperties::getTableId));
         List<DbTableProperties> finalList = new ArrayList<>();
@@ -324,9 +403,17 @@ public class DbSyncExecutor {
             }
         }
 
-        if (!finalList.isEmpty()) {
-            dbTablePropertiesMapper.batchInsert(finalList);
-        }
+        // 主键信息先删后插，放在同一事务内，避免读到主键缺失的中间状态
+        transactionTemplate.executeWithoutResult(status -> {
+            LambdaQueryWrapper<DbTableProperties> deleteQuery = new LambdaQueryWrapper<>();
+            deleteQuery.eq(DbTableProperties::getPropType, Constants.TABLE_PROPERTIES.PRIMARY_KEY)
+                    .inSql(DbTableProperties::getTableId,
+                            "SELECT id FROM db_table WHERE db_id = " + databaseId + " AND deleted = 0");
+            dbTablePropertiesMapper.delete(deleteQuery);
+            for (int from = 0; from < finalList.size(); from += BATCH_SIZE) {
+                dbTablePropertiesMapper.batchInsert(finalList.subList(from, Math.min(from + BATCH_SIZE, finalList.size())));
+            }
+        });
     }
 }
 
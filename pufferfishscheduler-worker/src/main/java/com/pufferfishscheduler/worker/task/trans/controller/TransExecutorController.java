@@ -0,0 +1,39 @@
+package com.pufferfishscheduler.worker.task.trans.controller;
+
+import com.pufferfishscheduler.common.result.ApiResponse;
+import com.pufferfishscheduler.trans.engine.metrics.StepMetricsRegistry;
+import com.pufferfishscheduler.worker.task.trans.service.TransTaskExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 转换执行模型与步骤运行指标
+ *
+ * @author Mayc
+ */
+@RestController
+@RequestMapping(value = "/trans/executor", produces = { "application/json;charset=utf-8" })
+public class TransExecutorController {
+
+    @Autowired
+    private TransTaskExecutor transTaskExecutor;
+
+    /**
+     * 各通道排队深度、排队耗时与准入压力
+     */
+    @GetMapping("/metrics.do")
+    public ApiResponse metrics() {
+        return ApiResponse.success(transTaskExecutor.getExecutorMetrics());
+    }
+
+    /**
+     * 步骤指标（Prometheus 文本格式）：行数、错误数、字节数计数器，每秒行数、每行平均耗时，
+     * 以及按采样周期统计的每秒行数、每行平均耗时分布（采样线程记录，不是单行延迟）
+     */
+    @GetMapping(value = "/prometheus", produces = { "text/plain;version=0.0.4;charset=utf-8" })
+    public String prometheus() {
+        return StepMetricsRegistry.scrape();
+    }
+}
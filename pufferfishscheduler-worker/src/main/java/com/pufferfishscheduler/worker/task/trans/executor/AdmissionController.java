@@ -0,0 +1,139 @@
+package com.pufferfishscheduler.worker.task.trans.executor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 准入控制：按 Worker 的 CPU 负载与堆内存使用率计算压力值，供 Kafka 派发侧暂停/恢复消费。
+ * <p>
+ * 压力值 = max(CPU 负载 / CPU 上限, 堆使用率 / 堆上限)，达到 1 表示某项资源已到上限。
+ * 堆使用率取各堆内存池最近一次 GC 后的占用，不把尚未回收的垃圾算作压力。
+ * 采样结果缓存一个采样周期，派发线程频繁调用时不会反复读取 MXBean。
+ * </p>
+ *
+ * @author Mayc
+ */
+@Slf4j
+public class AdmissionController {
+
+    private static final long SAMPLE_INTERVAL_MS = 1000L;
+
+    private final double maxCpuLoad;
+
+    private final double maxHeapUsage;
+
+    private final OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+
+    private volatile long sampledAt;
+
+    private volatile double cpuLoad;
+
+    private volatile double heapUsage;
+
+    /**
+     * @param maxCpuLoad   CPU 负载上限（0~1）
+     * @param maxHeapUsage 堆使用率上限（0~1）
+     */
+    public AdmissionController(double maxCpuLoad, double maxHeapUsage) {
+        this.maxCpuLoad = maxCpuLoad > 0 ? Math.min(maxCpuLoad, 1D) : 1D;
+        this.maxHeapUsage = maxHeapUsage > 0 ? Math.min(maxHeapUsage, 1D) : 1D;
+    }
+
+    /**
+     * 当前压力值，大于等于 1 表示资源余量不足
+     */
+    public double pressure() {
+        sample();
+        return Math.max(cpuLoad / maxCpuLoad, heapUsage / maxHeapUsage);
+    }
+
+    /**
+     * 资源余量是否允许接收新任务
+     */
+    public boolean admit() {
+        return pressure() < 1D;
+    }
+
+    /**
+     * 指标快照
+     */
+    public Map<String, Object> metrics() {
+        double pressure = pressure();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("cpuLoad", cpuLoad);
+        metrics.put("maxCpuLoad", maxCpuLoad);
+        metrics.put("heapUsage", heapUsage);
+        metrics.put("maxHeapUsage", maxHeapUsage);
+        metrics.put("pressure", pressure);
+        return metrics;
+    }
+
+    private void sample() {
+        long now = System.currentTimeMillis();
+        if (now - sampledAt < SAMPLE_INTERVAL_MS) {
+            return;
+        }
+        synchronized (this) {
+            if (now - sampledAt < SAMPLE_INTERVAL_MS) {
+                return;
+            }
+            cpuLoad = readCpuLoad();
+            heapUsage = readHeapUsage();
+            sampledAt = now;
+        }
+    }
+
+    /**
+     * 整机 CPU 负载；取不到时用系统平均负载 / 核数近似
+     */
+    private double readCpuLoad() {
+        try {
+            if (osBean instanceof com.sun.management.OperatingSystemMXBean sunBean) {
+                double load = sunBean.getCpuLoad();
+                if (load >= 0) {
+                    return load;
+                }
+            }
+        } catch (Throwable e) {
+            log.debug("Read cpu load failed: {}", e.getMessage());
+        }
+        double average = osBean.getSystemLoadAverage();
+        return average < 0 ? 0D : Math.min(1D, average / Math.max(1, osBean.getAvailableProcessors()));
+    }
+
+    /**
+     * GC 后的堆使用率；未设置 -Xmx 时按已提交大小计算，垃圾收集器不提供 GC 后占用时退化为当前占用
+     */
+    private double readHeapUsage() {
+        MemoryUsage heap = memoryBean.getHeapMemoryUsage();
+        long max = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+        if (max <= 0) {
+            return 0D;
+        }
+        long used = 0L;
+        boolean supported = false;
+        for (MemoryPoolMXBean pool : heapPools) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (afterGc != null) {
+                supported = true;
+                used += afterGc.getUsed();
+            }
+        }
+        return (double) (supported ? used : heap.getUsed()) / max;
+    }
+}
@@ -0,0 +1,187 @@
+package com.pufferfishscheduler.worker.task.trans.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 执行通道：一组专用线程 + 无界队列，记录排队深度与排队耗时。
+ * <p>
+ * 启动、停止、收尾各自使用独立通道，停止命令不会排在启动任务之后；
+ * 是否继续接收任务由 {@link AdmissionController} 根据 CPU、堆内存余量决定，通道本身不限制队列长度。
+ * </p>
+ *
+ * @author Mayc
+ */
+@Slf4j
+public class ExecutionLane {
+
+    private final String name;
+
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private volatile long lastWaitNanos;
+
+    private ExecutionLane(String name, ThreadPoolExecutor executor) {
+        this.name = name;
+        this.executor = executor;
+    }
+
+    /**
+     * 固定线程数的通道，空闲线程超时回收
+     *
+     * @param name    通道名，同时作为线程名前缀
+     * @param threads 线程数
+     */
+    public static ExecutionLane fixed(String name, int threads) {
+        int size = Math.max(1, threads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory(name + "-"));
+        executor.allowCoreThreadTimeOut(true);
+        return new ExecutionLane(name, executor);
+    }
+
+    /**
+     * 支持延时执行的通道
+     *
+     * @param name    通道名，同时作为线程名前缀
+     * @param threads 线程数
+     */
+    public static ExecutionLane scheduled(String name, int threads) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(Math.max(1, threads),
+                new CustomizableThreadFactory(name + "-"));
+        executor.setRemoveOnCancelPolicy(true);
+        return new ExecutionLane(name, executor);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 提交任务，排队耗时从提交时刻开始计算
+     */
+    public void execute(Runnable task) {
+        submitted.increment();
+        executor.execute(wrap(task, System.nanoTime()));
+    }
+
+    /**
+     * 提交可取消的任务；排队中取消时立即移出队列，不再占用排队深度
+     */
+    public Future<?> submit(Runnable task) {
+        submitted.increment();
+        FutureTask<Void> future = new FutureTask<>(measure(task, System.nanoTime()), null) {
+            @Override
+            protected void done() {
+                completed.increment();
+                if (isCancelled()) {
+                    executor.remove(this);
+                }
+            }
+        };
+        executor.execute(future);
+        return future;
+    }
+
+    /**
+     * 延时执行，排队耗时从到期时刻开始计算；非延时通道退化为立即执行
+     */
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!(executor instanceof ScheduledThreadPoolExecutor scheduler)) {
+            execute(task);
+            return;
+        }
+        submitted.increment();
+        scheduler.schedule(wrap(task, System.nanoTime() + unit.toNanos(delay)), delay, unit);
+    }
+
+    private Runnable wrap(Runnable task, long readyAt) {
+        Runnable measured = measure(task, readyAt);
+        return () -> {
+            try {
+                measured.run();
+            } finally {
+                completed.increment();
+            }
+        };
+    }
+
+    /**
+     * 记录排队耗时与失败次数；完成数由 {@link #wrap} 或 {@link #submit} 在任务结束（或取消）时计入
+     */
+    private Runnable measure(Runnable task, long readyAt) {
+        return () -> {
+            long wait = Math.max(0, System.nanoTime() - readyAt);
+            totalWaitNanos.add(wait);
+            maxWaitNanos.accumulateAndGet(wait, Math::max);
+            lastWaitNanos = wait;
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.error("Execution lane {} task failed", name, e);
+            }
+        };
+    }
+
+    /**
+     * 排队中的任务数，不含正在执行的任务
+     */
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * 当前指标快照
+     */
+    public LaneMetrics metrics() {
+        long done = completed.sum();
+        LaneMetrics metrics = new LaneMetrics();
+        metrics.setName(name);
+        metrics.setPoolSize(executor.getPoolSize());
+        metrics.setActiveCount(executor.getActiveCount());
+        metrics.setQueueDepth(executor.getQueue().size());
+        metrics.setSubmitted(submitted.sum());
+        metrics.setCompleted(done);
+        metrics.setFailed(failed.sum());
+        metrics.setAvgWaitMillis(done == 0 ? 0D : totalWaitNanos.sum() / 1_000_000D / done);
+        metrics.setMaxWaitMillis(TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        metrics.setLastWaitMillis(TimeUnit.NANOSECONDS.toMillis(lastWaitNanos));
+        return metrics;
+    }
+
+    /**
+     * 停止接收新任务，等待已提交（含已到期的延时任务）执行完成
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(120, TimeUnit.SECONDS)) {
+                log.warn("Execution lane {} did not terminate in time, {} tasks left", name, executor.getQueue().size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.pufferfishscheduler.worker.task.trans.executor;
+
+import lombok.Data;
+
+/**
+ * 执行通道指标
+ *
+ * @author Mayc
+ */
+@Data
+public class LaneMetrics {
+
+    /**
+     * 通道名
+     */
+    private String name;
+
+    /**
+     * 当前线程数
+     */
+    private int poolSize;
+
+    /**
+     * 正在执行的任务数
+     */
+    private int activeCount;
+
+    /**
+     * 排队任务数（延时通道包含尚未到期的任务）
+     */
+    private int queueDepth;
+
+    /**
+     * 累计提交数
+     */
+    private long submitted;
+
+    /**
+     * 累计完成数
+     */
+    private long completed;
+
+    /**
+     * 累计异常数
+     */
+    private long failed;
+
+    /**
+     * 平均排队耗时（毫秒）
+     */
+    private double avgWaitMillis;
+
+    /**
+     * 最大排队耗时（毫秒）
+     */
+    private long maxWaitMillis;
+
+    /**
+     * 最近一次排队耗时（毫秒）
+     */
+    private long lastWaitMillis;
+}
@@ -19,18 +19,38 @@ import com.pufferfishscheduler.trans.engine.logchannel.LogChannel;
 import com.pufferfishscheduler.trans.engine.logchannel.LogChannelManager;
 import com.pufferfishscheduler.trans.plugin.AbstractStepMetaConstructor;
 import com.pufferfishscheduler.trans.plugin.StepMetaConstructorFactory;
+import com.pufferfishscheduler.worker.task.trans.executor.AdmissionController;
+import com.pufferfishscheduler.worker.task.trans.executor.ExecutionLane;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.trans.Trans;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 转换任务服务
+ * <p>
+ * 启动通道只负责加载并启动转换，启动后线程立即释放；转换结束由 Kettle 的 transFinished 回调延时投递到收尾通道，
+ * 运行期间不占用任何线程。停止命令走独立的控制通道。
+ * </p>
+ * <p>
+ * 同时运行的转换数受 {@code trans.task.pool.max-running} 限制：启动前先占用运行名额，并等待 CPU、堆内存准入通过，
+ * 收尾完成（或启动失败）后归还名额。名额占满时启动任务在启动通道中排队。
+ * </p>
+ * <p>
+ * 停止命令到达时仍在排队的启动任务会被取消；已出队的启动任务在占到名额后重新读取任务状态，已停止则不再启动。
+ * </p>
  *
  * @author Mayc
  * @since 2026-03-22  11:34
@@ -44,6 +64,21 @@ public class TransTaskExecutor {
      */
     private static final ConcurrentHashMap<Integer, String> RUNNING_TASK_TO_INSTANCE = new ConcurrentHashMap<>();
 
+    /**
+     * 排队中的启动任务：taskId → 启动凭证，停止时整体摘除并取消
+     */
+    private final ConcurrentHashMap<Integer, Set<QueuedLaunch>> queuedLaunches = new ConcurrentHashMap<>();
+
+    /**
+     * 转换结束后延时收尾，给步骤留出提交、关闭连接的时间
+     */
+    private static final long COMPLETION_DELAY_MILLIS = 2000L;
+
+    /**
+     * 准入未通过时的重试间隔，与准入采样周期一致
+     */
+    private static final long ADMISSION_RETRY_MILLIS = 1000L;
+
     @Autowired
     private TransFlowMapper transFlowMapper;
 
@@ -54,30 +89,175 @@ public class TransTaskExecutor {
     DataTransEngine dataTransEngine;
 
     @Autowired
-    @Qualifier("transTaskWorkExecutor")
-    private Executor transTaskWorkExecutor;
+    @Qualifier("transTaskLaunchLane")
+    private ExecutionLane launchLane;
+
+    @Autowired
+    @Qualifier("transTaskControlLane")
+    private ExecutionLane controlLane;
+
+    @Autowired
+    @Qualifier("transTaskCompletionLane")
+    private ExecutionLane completionLane;
+
+    @Autowired
+    private AdmissionController admissionController;
+
+    /**
+     * 同时运行的转换数上限
+     */
+    private final int maxRunning;
 
     /**
-     * Kafka / 调度侧调用：提交到线程池异步执行，完成后在池内线程更新 trans_task 状态。
+     * 运行名额
+     */
+    private final Semaphore runningSlots;
+
+    public TransTaskExecutor(@Value("${trans.task.pool.max-running:8}") int maxRunning) {
+        this.maxRunning = Math.max(1, maxRunning);
+        this.runningSlots = new Semaphore(this.maxRunning, true);
+    }
+
+    /**
+     * Kafka / 调度侧调用：在启动通道中启动转换后立即返回，转换结束后在收尾通道更新 trans_task 状态。
      */
     public void submitExecute(Integer taskId) {
-        transTaskWorkExecutor.execute(() -> {
-            TransTask current = transTaskMapper.selectById(taskId);
-            String failurePolicy = current != null ? current.getFailurePolicy() : "1";
-            try {
-                executeBlocking(taskId);
-                markTransTaskSuccess(taskId);
-            } catch (Exception e) {
-                log.error("转换任务执行失败, taskId={}", taskId, e);
-                markTransTaskFailed(taskId, failurePolicy, e);
-            }
+        QueuedLaunch queued = new QueuedLaunch();
+        queuedLaunches.compute(taskId, (k, launches) -> {
+            Set<QueuedLaunch> set = launches != null ? launches : new HashSet<>();
+            set.add(queued);
+            return set;
+        });
+        try {
+            queued.future = launchLane.submit(() -> {
+                TransTask current = transTaskMapper.selectById(taskId);
+                String failurePolicy = current != null ? current.getFailurePolicy() : "1";
+                RunningSlot slot;
+                try {
+                    slot = acquireRunningSlot(taskId);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dequeueLaunch(taskId, queued);
+                    log.warn("Worker 正在关闭，转换任务未启动, taskId={}", taskId);
+                    markTransTaskFailed(taskId, failurePolicy, new IllegalStateException("Worker 正在关闭，转换任务未启动"));
+                    return;
+                }
+                boolean started = false;
+                try {
+                    // 排队或等待名额期间可能已收到停止命令
+                    if (!dequeueLaunch(taskId, queued) || isStopRequested(taskId)) {
+                        log.info("转换任务在启动前已停止，不再启动, taskId={}", taskId);
+                        return;
+                    }
+                    launch(taskId, failurePolicy, slot);
+                    started = true;
+                } catch (Exception e) {
+                    log.error("转换任务执行失败, taskId={}", taskId, e);
+                    markTransTaskFailed(taskId, failurePolicy, e);
+                } finally {
+                    if (!started) {
+                        slot.release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dequeueLaunch(taskId, queued);
+            throw e;
+        }
+    }
+
+    /**
+     * 启动任务出队
+     *
+     * @return false 表示已被停止命令取消
+     */
+    private boolean dequeueLaunch(Integer taskId, QueuedLaunch queued) {
+        boolean[] removed = new boolean[1];
+        queuedLaunches.computeIfPresent(taskId, (k, launches) -> {
+            removed[0] = launches.remove(queued);
+            return launches.isEmpty() ? null : launches;
         });
+        return removed[0];
+    }
+
+    /**
+     * 取消该任务所有排队中的启动任务
+     *
+     * @return 取消的启动任务数
+     */
+    private int cancelQueuedLaunches(Integer taskId) {
+        Set<QueuedLaunch> launches = queuedLaunches.remove(taskId);
+        if (launches == null) {
+            return 0;
+        }
+        for (QueuedLaunch queued : launches) {
+            Future<?> future = queued.future;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+        return launches.size();
+    }
+
+    /**
+     * Master 收到立即停止后先将状态改为 STOPPING 再投递停止命令，以数据库状态为准
+     */
+    private boolean isStopRequested(Integer taskId) {
+        TransTask current = transTaskMapper.selectById(taskId);
+        return current != null && (Constants.JOB_MANAGE_STATUS.STOPPING.equals(current.getStatus())
+                || Constants.JOB_MANAGE_STATUS.STOP.equals(current.getStatus()));
+    }
+
+    /**
+     * 占用运行名额并等待准入通过；名额占满或资源余量不足时阻塞当前启动线程
+     */
+    private RunningSlot acquireRunningSlot(Integer taskId) throws InterruptedException {
+        runningSlots.acquire();
+        RunningSlot slot = new RunningSlot();
+        try {
+            boolean logged = false;
+            while (!admissionController.admit()) {
+                if (!logged) {
+                    log.info("准入压力过高，等待资源释放后启动转换, taskId={}, pressure={}", taskId, admissionController.pressure());
+                    logged = true;
+                }
+                Thread.sleep(ADMISSION_RETRY_MILLIS);
+            }
+            return slot;
+        } catch (InterruptedException e) {
+            slot.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 准入压力，供 Kafka 派发侧做背压；大于等于 1 表示资源余量不足或待启动、运行中的转换已占满运行名额。
+     * <p>
+     * 取 CPU 负载、堆使用率相对各自上限的较大者，与（运行中 + 启动通道排队）/ 运行名额 二者的较大值。
+     * </p>
+     */
+    public double getAdmissionPressure() {
+        long pending = (long) (maxRunning - runningSlots.availablePermits()) + launchLane.queueDepth();
+        return Math.max(admissionController.pressure(), (double) pending / maxRunning);
+    }
+
+    /**
+     * 执行模型指标：运行中的转换数、准入压力、各通道排队深度与排队耗时
+     */
+    public Map<String, Object> getExecutorMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("running", RUNNING_TASK_TO_INSTANCE.size());
+        metrics.put("maxRunning", maxRunning);
+        metrics.put("availableSlots", runningSlots.availablePermits());
+        metrics.put("admission", admissionController.metrics());
+        metrics.put("lanes", List.of(launchLane.metrics(), controlLane.metrics(), completionLane.metrics()));
+        return metrics;
     }
 
     /**
      * 单次运行的资源 id：taskId + runId，避免并发或连续触发时 LogChannel 互相覆盖。
      */
-    private void executeBlocking(Integer taskId) throws Exception {
+    private void launch(Integer taskId, String failurePolicy, RunningSlot slot) throws Exception {
         log.info("执行转换任务, id={}", taskId);
 
         TransTask transTask = getTransTaskById(taskId);
@@ -100,9 +280,10 @@ public class TransTaskExecutor {
         logChannel.setStatus(Constants.EXECUTE_STATUS.RUNNING);
 
         try {
-            syncExecute(transFlow, taskId, logChannel);
-        } finally {
+            startTrans(new TransRun(taskId, failurePolicy, transFlow, logKey, logChannel, slot));
+        } catch (Exception e) {
             LogChannelManager.remove(logKey);
+            throw e;
         }
     }
 
@@ -202,21 +383,18 @@ public class TransTaskExecutor {
 
 
     /**
-     * 同步执行转换流
+     * 启动转换流，不等待执行结束
      *
-     * @param transFlow  转换流
-     * @param taskId     转换任务 ID（与流程定义解耦）
-     * @param logChannel 日志通道
-     */
-    private void syncExecute(TransFlow transFlow, Integer taskId, LogChannel logChannel) throws Exception {
-        String config = transFlow.getConfig();
-        TransWrapper trans = null;
-        boolean success = false;
+     * @param run 本次运行
+     */
+    private void startTrans(TransRun run) throws Exception {
+        TransFlow transFlow = run.transFlow;
+        LogChannel logChannel = run.logChannel;
         try {
             List<TransParam> params = new ArrayList<>();
 
             // 执行前置方法
-            beforeTrans(transFlow.getId(), config, params);
+            beforeTrans(transFlow.getId(), transFlow.getConfig(), params);
 
             // 解析参数配置
             parseParamConfig(transFlow.getParamConfig(), params);
@@ -225,24 +403,41 @@ public class TransTaskExecutor {
 
             // 与 LogChannelManager.put 使用同一复合 id（taskId/runId）
             String listenerKey = LogChannelManager.getKey(logChannel.getType(), logChannel.getId());
-            trans = dataTransEngine.executeTrans(
+            dataTransEngine.executeTrans(
                     transFlow,
-                    taskId,
+                    run.taskId,
                     params,
-                    new KettleTransListener(listenerKey),
+                    new CompletionTransListener(listenerKey, run),
                     new KettleStepListener(listenerKey),
                     new KettleStepRowListener(listenerKey));
 
-            registerRunningTrans(taskId, trans.getInstanceId());
-            try {
-                logChannel.addLog(Constants.EXECUTE_STATUS.SUCCESS, "开发流程初始化成功！");
-                logChannel.addLog(Constants.EXECUTE_STATUS.SUCCESS, "开始执行开发流程...");
+            logChannel.addLog(Constants.EXECUTE_STATUS.SUCCESS, "开发流程初始化成功！");
+            logChannel.addLog(Constants.EXECUTE_STATUS.SUCCESS, "开始执行开发流程...");
+        } catch (Exception e) {
+            log.error("执行转换流程失败，转换流程id：{}", transFlow.getId(), e);
+            String detail = e.getMessage();
+            logChannel.addLog(Constants.EXECUTE_STATUS.FAILURE,
+                    "执行流程失败。原因：" + (StringUtils.isNotBlank(detail) ? detail : e.getClass().getSimpleName()));
+            logChannel.addLog(Constants.EXECUTE_STATUS.SUCCESS, "流程执行结束！");
+            logChannel.setStatus(Constants.EXECUTE_STATUS.FAILURE);
+            logChannel.setFinishDate(new Date());
+            throw e;
+        }
+    }
 
-                // 等待转换执行完成
-                trans.waitUntilFinished();
-            } finally {
-                unregisterRunningTrans(taskId, trans.getInstanceId());
-            }
+    /**
+     * 转换结束后的收尾：校验错误数、执行后置方法、释放转换实例并更新任务状态
+     *
+     * @param run   本次运行
+     * @param trans 转换实例
+     */
+    private void completeTrans(TransRun run, TransWrapper trans) {
+        Integer taskId = run.taskId;
+        Integer flowId = run.transFlow.getId();
+        LogChannel logChannel = run.logChannel;
+        Exception failure = null;
+        try {
+            unregisterRunningTrans(taskId, trans.getInstanceId());
 
             if (trans.getErrors() > 0) {
                 String errMsg = "Kettle 转换结束但存在错误，错误数=" + trans.getErrors();
@@ -250,30 +445,29 @@ public class TransTaskExecutor {
                 throw new IllegalStateException(errMsg);
             }
 
-            try {
-                Thread.sleep(2000);
-            } catch (InterruptedException e) {
-                log.warn("线程被中断", e);
-                Thread.currentThread().interrupt();
-            }
-
-            afterTrans(transFlow.getId(), config);
-            success = true;
-
+            afterTrans(flowId, run.transFlow.getConfig());
         } catch (Exception e) {
-            log.error("执行转换流程失败，转换流程id：{}", transFlow.getId(), e);
+            failure = e;
+            log.error("执行转换流程失败，转换流程id：{}", flowId, e);
             String detail = e.getMessage();
             logChannel.addLog(Constants.EXECUTE_STATUS.FAILURE,
                     "执行流程失败。原因：" + (StringUtils.isNotBlank(detail) ? detail : e.getClass().getSimpleName()));
-            throw e;
         } finally {
-            if (trans != null) {
-                dataTransEngine.removeTrans(taskId);
-            }
+            // 已在回调后延时收尾，无需再等待步骤
+            dataTransEngine.removeTrans(taskId, false);
 
             logChannel.addLog(Constants.EXECUTE_STATUS.SUCCESS, "流程执行结束！");
-            logChannel.setStatus(success ? Constants.EXECUTE_STATUS.SUCCESS : Constants.EXECUTE_STATUS.FAILURE);
+            logChannel.setStatus(failure == null ? Constants.EXECUTE_STATUS.SUCCESS : Constants.EXECUTE_STATUS.FAILURE);
             logChannel.setFinishDate(new Date());
+            LogChannelManager.remove(run.logKey);
+            run.slot.release();
+        }
+
+        if (failure == null) {
+            markTransTaskSuccess(taskId);
+        } else {
+            log.error("转换任务执行失败, taskId={}", taskId, failure);
+            markTransTaskFailed(taskId, run.failurePolicy, failure);
         }
     }
 
@@ -410,7 +604,11 @@ public class TransTaskExecutor {
      * @param taskId 转换任务id
      */
     public void stopExecute(Integer taskId) {
-        transTaskWorkExecutor.execute(() -> {
+        int cancelled = cancelQueuedLaunches(taskId);
+        if (cancelled > 0) {
+            log.info("已取消排队中的转换启动任务, taskId={}, count={}", taskId, cancelled);
+        }
+        controlLane.execute(() -> {
             TransTask current = transTaskMapper.selectById(taskId);
             String failurePolicy = current != null ? current.getFailurePolicy() : "1";
             try {
@@ -466,7 +664,9 @@ public class TransTaskExecutor {
         Date finishedAt = new Date();
         UpdateWrapper<TransTask> toInit = new UpdateWrapper<>();
         toInit.eq("id", taskId)
-                .eq("status", Constants.JOB_MANAGE_STATUS.RUNNING)
+                .in("status", Arrays.asList(
+                        Constants.JOB_MANAGE_STATUS.RUNNING,
+                        Constants.JOB_MANAGE_STATUS.STOPPING))
                 .set("status", Constants.JOB_MANAGE_STATUS.STOP)
                 .set("reason", "")
                 .set("updated_time", finishedAt)
@@ -499,4 +699,84 @@ public class TransTaskExecutor {
                 .eq(TransFlow::getDeleted, Constants.DELETE_FLAG.FALSE);
         return transFlowMapper.selectOne(queryWrapper);
     }
+
+    /**
+     * 排队中的启动任务凭证；凭证从 {@link #queuedLaunches} 中摘除即视为取消，future 只用于把任务移出启动通道队列
+     */
+    private static final class QueuedLaunch {
+        private volatile Future<?> future;
+    }
+
+    /**
+     * 单次运行上下文
+     */
+    private static final class TransRun {
+        private final Integer taskId;
+        private final String failurePolicy;
+        private final TransFlow transFlow;
+        private final String logKey;
+        private final LogChannel logChannel;
+        private final RunningSlot slot;
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+
+        private TransRun(Integer taskId, String failurePolicy, TransFlow transFlow, String logKey, LogChannel logChannel,
+                         RunningSlot slot) {
+            this.taskId = taskId;
+            this.failurePolicy = failurePolicy;
+            this.transFlow = transFlow;
+            this.logKey = logKey;
+            this.logChannel = logChannel;
+            this.slot = slot;
+        }
+    }
+
+    /**
+     * 一次运行占用的名额，启动失败与收尾两处都会归还，只生效一次
+     */
+    private final class RunningSlot {
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                runningSlots.release();
+            }
+        }
+    }
+
+    /**
+     * 在日志监听之外登记运行实例，并在转换结束后把收尾延时投递到收尾通道
+     */
+    private class CompletionTransListener extends KettleTransListener {
+
+        private final TransRun run;
+
+        private CompletionTransListener(String logChannelId, TransRun run) {
+            super(logChannelId);
+            this.run = run;
+        }
+
+        @Override
+        public void transStarted(Trans trans) throws KettleException {
+            super.transStarted(trans);
+            registerRunningTrans(run.taskId, ((TransWrapper) trans).getInstanceId());
+        }
+
+        @Override
+        public void transFinished(Trans trans) throws KettleException {
+            try {
+                super.transFinished(trans);
+            } finally {
+                if (run.finished.compareAndSet(false, true)) {
+                    TransWrapper wrapper = (TransWrapper) trans;
+                    try {
+                        completionLane.schedule(() -> completeTrans(run, wrapper),
+                                COMPLETION_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                    } catch (RejectedExecutionException e) {
+                        // 收尾通道已关闭（进程退出中），在回调线程中直接收尾
+                        completeTrans(run, wrapper);
+                    }
+                }
+            }
+        }
+    }
 }
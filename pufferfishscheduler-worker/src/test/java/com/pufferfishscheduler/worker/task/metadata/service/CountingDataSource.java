@@ -0,0 +1,170 @@
+package com.pufferfishscheduler.worker.task.metadata.service;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * 统计数据库往返的数据源包装：每次 execute* 与 executeBatch 计为一次往返，同时统计批量行数、取得连接数与提交次数
+ */
+class CountingDataSource implements DataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate");
+
+    private static final Set<String> BATCH_METHODS = Set.of("executeBatch", "executeLargeBatch");
+
+    private final DataSource target;
+
+    private final AtomicLong statements = new AtomicLong();
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private final AtomicLong batchedRows = new AtomicLong();
+
+    private final AtomicLong connections = new AtomicLong();
+
+    private final AtomicLong commits = new AtomicLong();
+
+    CountingDataSource(DataSource target) {
+        this.target = target;
+    }
+
+    /**
+     * 单条语句执行次数（含查询）
+     */
+    long getStatements() {
+        return statements.get();
+    }
+
+    /**
+     * 批量执行次数
+     */
+    long getBatches() {
+        return batches.get();
+    }
+
+    /**
+     * 数据库往返总数
+     */
+    long getRoundTrips() {
+        return statements.get() + batches.get();
+    }
+
+    long getBatchedRows() {
+        return batchedRows.get();
+    }
+
+    long getConnections() {
+        return connections.get();
+    }
+
+    long getCommits() {
+        return commits.get();
+    }
+
+    void reset() {
+        statements.set(0);
+        batches.set(0);
+        batchedRows.set(0);
+        connections.set(0);
+        commits.set(0);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(target.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(target.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        connections.incrementAndGet();
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            if ("commit".equals(method.getName())) {
+                commits.incrementAndGet();
+            }
+            Object result = invoke(method, connection, args);
+            if (result instanceof Statement && method.getReturnType().isInterface()) {
+                return wrapStatement(method.getReturnType(), (Statement) result);
+            }
+            return result;
+        });
+    }
+
+    private Object wrapStatement(Class<?> type, Statement statement) {
+        return proxy(type, statement, (proxy, method, args) -> {
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name)) {
+                statements.incrementAndGet();
+            } else if (BATCH_METHODS.contains(name)) {
+                batches.incrementAndGet();
+            } else if ("addBatch".equals(name)) {
+                batchedRows.incrementAndGet();
+            }
+            return invoke(method, statement, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(CountingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return target.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        target.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        target.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return target.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return target.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return target.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return target.isWrapperFor(iface);
+    }
+}
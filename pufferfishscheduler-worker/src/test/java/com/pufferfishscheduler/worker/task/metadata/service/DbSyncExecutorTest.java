@@ -0,0 +1,244 @@
+package com.pufferfishscheduler.worker.task.metadata.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import com.pufferfishscheduler.dao.mapper.DbFieldMapper;
+import com.pufferfishscheduler.dao.mapper.DbTableMapper;
+import com.pufferfishscheduler.dao.mapper.DbTablePropertiesMapper;
+import com.pufferfishscheduler.domain.domain.TableColumnSchema;
+import com.pufferfishscheduler.domain.domain.TableSchema;
+
+/**
+ * 元数据同步：在 H2（MySQL 模式）上用数千张合成表对比逐行同步与分块批量同步的数据库往返次数，
+ * 并验证批量执行器会话加入分块事务、随事务提交或回滚
+ */
+class DbSyncExecutorTest {
+
+    private static final int DATABASE_ID = 1;
+
+    private static final String USER = "test";
+
+    private static final int TABLES = 3_000;
+
+    private static final int COLUMNS = 10;
+
+    /**
+     * 与 DbSyncExecutor 的分块大小一致
+     */
+    private static final int BATCH_SIZE = 500;
+
+    private JdbcDataSource h2;
+
+    private CountingDataSource dataSource;
+
+    private TransactionTemplate transactionTemplate;
+
+    private DbSyncExecutor executor;
+
+    private LegacyDbSync legacy;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE db_table (id INT AUTO_INCREMENT PRIMARY KEY, db_id INT, `name` VARCHAR(255) NOT NULL,"
+                    + " business_name VARCHAR(255), description VARCHAR(1024), deleted TINYINT,"
+                    + " created_by VARCHAR(64), created_time TIMESTAMP, updated_by VARCHAR(64), updated_time TIMESTAMP)");
+            statement.execute("CREATE TABLE db_field (id INT AUTO_INCREMENT PRIMARY KEY, table_id INT, `name` VARCHAR(255) NOT NULL,"
+                    + " business_name VARCHAR(255), data_type VARCHAR(64), data_length INT, description VARCHAR(1024),"
+                    + " nullable TINYINT, order_by INT, `precision` INT, deleted TINYINT,"
+                    + " created_by VARCHAR(64), created_time TIMESTAMP, updated_by VARCHAR(64), updated_time TIMESTAMP)");
+            statement.execute("CREATE TABLE db_table_properties (id VARCHAR(64) PRIMARY KEY, table_id INT, prop_type VARCHAR(16),"
+                    + " `prop_values` VARCHAR(1024), created_by VARCHAR(64), created_time TIMESTAMP)");
+        }
+        dataSource = new CountingDataSource(h2);
+
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setCacheEnabled(false);
+        GlobalConfig globalConfig = GlobalConfigUtils.defaults();
+        globalConfig.getDbConfig().setIdType(IdType.AUTO);
+        MybatisSqlSessionFactoryBean factoryBean = new MybatisSqlSessionFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setConfiguration(configuration);
+        factoryBean.setGlobalConfig(globalConfig);
+        factoryBean.setMapperLocations(new ClassPathResource("mapper/DbTablePropertiesMapper.xml"));
+        SqlSessionFactory sqlSessionFactory = factoryBean.getObject();
+        sqlSessionFactory.getConfiguration().addMapper(DbTableMapper.class);
+        sqlSessionFactory.getConfiguration().addMapper(DbFieldMapper.class);
+
+        SqlSessionTemplate sqlSessionTemplate = new SqlSessionTemplate(sqlSessionFactory);
+        DbTableMapper dbTableMapper = sqlSessionTemplate.getMapper(DbTableMapper.class);
+        DbFieldMapper dbFieldMapper = sqlSessionTemplate.getMapper(DbFieldMapper.class);
+        DbTablePropertiesMapper dbTablePropertiesMapper = sqlSessionTemplate.getMapper(DbTablePropertiesMapper.class);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        executor = new DbSyncExecutor(null, dbTableMapper, dbFieldMapper, dbTablePropertiesMapper, null,
+                sqlSessionFactory, transactionTemplate);
+        legacy = new LegacyDbSync(dbTableMapper, dbFieldMapper, dbTablePropertiesMapper, transactionTemplate);
+    }
+
+    @Test
+    void firstSyncUsesFarFewerRoundTripsThanPerRowSync() throws SQLException {
+        Map<String, TableSchema> schema = schema(TABLES, COLUMNS);
+
+        legacy.sync(DATABASE_ID, schema, USER);
+        long legacyRoundTrips = dataSource.getRoundTrips();
+        assertSynced(TABLES, COLUMNS);
+        clear();
+
+        dataSource.reset();
+        executor.syncSchema(DATABASE_ID, schema, USER);
+        long roundTrips = dataSource.getRoundTrips();
+        assertSynced(TABLES, COLUMNS);
+
+        // 逐行：表 insert 3000 + 字段查询 3000 + 字段 insert 30000 + 3 次表查询 + 主键删除、插入
+        assertEquals(2L * TABLES + (long) TABLES * COLUMNS + 5, legacyRoundTrips);
+        // 分块：表查询 2 + 表批量 6 + 字段查询 1 + 字段批量 60 + 主键删除 1 + 主键插入 6
+        long expected = 2 + chunks(TABLES) + 1 + chunks((long) TABLES * COLUMNS) + 1 + chunks(TABLES);
+        assertEquals(expected, roundTrips,
+                "per-row round trips=" + legacyRoundTrips + ", chunked round trips=" + roundTrips);
+        assertEquals((long) TABLES + (long) TABLES * COLUMNS, dataSource.getBatchedRows());
+        assertTrue(roundTrips * 100 < legacyRoundTrips);
+    }
+
+    @Test
+    void unchangedResyncWritesOnlyPrimaryKeys() throws SQLException {
+        Map<String, TableSchema> schema = schema(TABLES, COLUMNS);
+        executor.syncSchema(DATABASE_ID, schema, USER);
+
+        dataSource.reset();
+        executor.syncSchema(DATABASE_ID, schema, USER);
+        assertEquals(0, dataSource.getBatches());
+        assertEquals(0, dataSource.getBatchedRows());
+        // 表查询 1 + 字段查询 1 + 主键删除 1 + 主键插入 6
+        assertEquals(3 + chunks(TABLES), dataSource.getStatements());
+        assertSynced(TABLES, COLUMNS);
+    }
+
+    @Test
+    void resyncWritesOnlyChangedRows() throws SQLException {
+        Map<String, TableSchema> schema = schema(TABLES, COLUMNS);
+        executor.syncSchema(DATABASE_ID, schema, USER);
+
+        schema.get("t_00042").getColumnInfos().get("c_3").setColumnComment("changed");
+        schema.remove("t_00043");
+        dataSource.reset();
+        executor.syncSchema(DATABASE_ID, schema, USER);
+
+        // 删除的表一行软删除 + 变化的字段一行更新
+        assertEquals(2, dataSource.getBatchedRows());
+        assertEquals(1, count("SELECT COUNT(*) FROM db_table WHERE `name` = 't_00043' AND deleted = 1"));
+        assertEquals(1, count("SELECT COUNT(*) FROM db_field f JOIN db_table t ON t.id = f.table_id"
+                + " WHERE t.`name` = 't_00042' AND f.`name` = 'c_3' AND f.description = 'changed'"));
+        assertEquals(TABLES - 1, count("SELECT COUNT(*) FROM db_table_properties p JOIN db_table t ON t.id = p.table_id"
+                + " WHERE t.deleted = 0"));
+    }
+
+    @Test
+    void batchSessionCommitsWithChunkTransaction() throws SQLException {
+        int tables = 1_200;
+        int columns = 2;
+        executor.syncSchema(DATABASE_ID, schema(tables, columns), USER);
+
+        // 每个分块一个事务，批量会话复用事务连接：连接数 = 事务数 + 3 次事务外查询，提交次数 = 事务数
+        long transactions = chunks(tables) + chunks((long) tables * columns) + 1;
+        assertEquals(transactions, dataSource.getCommits());
+        assertEquals(transactions + 3, dataSource.getConnections());
+        // 另开连接可见，说明已随事务提交
+        assertSynced(tables, columns);
+    }
+
+    @Test
+    void batchSessionRollsBackWithEnclosingTransaction() throws SQLException {
+        Map<String, TableSchema> schema = schema(1_200, 2);
+        transactionTemplate.executeWithoutResult(status -> {
+            executor.syncSchema(DATABASE_ID, schema, USER);
+            status.setRollbackOnly();
+        });
+
+        // 批量会话若使用了独立的自动提交连接，回滚后仍会留下数据
+        assertEquals(0, count("SELECT COUNT(*) FROM db_table"));
+        assertEquals(0, count("SELECT COUNT(*) FROM db_field"));
+        assertEquals(0, count("SELECT COUNT(*) FROM db_table_properties"));
+        assertEquals(1, dataSource.getConnections() - dataSource.getCommits());
+    }
+
+    private static Map<String, TableSchema> schema(int tables, int columns) {
+        Map<String, TableSchema> schema = new LinkedHashMap<>();
+        for (int t = 0; t < tables; t++) {
+            TableSchema table = new TableSchema();
+            table.setTableName(String.format("t_%05d", t));
+            table.setTableComment("table " + t);
+            Map<String, TableColumnSchema> columnInfos = new LinkedHashMap<>();
+            for (int c = 0; c < columns; c++) {
+                TableColumnSchema column = new TableColumnSchema();
+                column.setTableName(table.getTableName());
+                column.setColumnName("c_" + c);
+                column.setColumnComment("column " + c);
+                column.setDataType(c % 2 == 0 ? "bigint" : "varchar");
+                column.setDataLength(c % 2 == 0 ? 20 : 255);
+                column.setPrecision(0);
+                column.setIsNull(c != 0);
+                column.setColumnOrder(c + 1);
+                column.setConstraintType(c == 0 ? "PRI" : null);
+                columnInfos.put(column.getColumnName(), column);
+            }
+            table.setColumnInfos(columnInfos);
+            schema.put(table.getTableName(), table);
+        }
+        return schema;
+    }
+
+    private static long chunks(long rows) {
+        return (rows + BATCH_SIZE - 1) / BATCH_SIZE;
+    }
+
+    private void assertSynced(int tables, int columns) throws SQLException {
+        assertEquals(tables, count("SELECT COUNT(*) FROM db_table WHERE deleted = 0"));
+        assertEquals((long) tables * columns, count("SELECT COUNT(*) FROM db_field WHERE deleted = 0"));
+        assertEquals(tables, count("SELECT COUNT(*) FROM db_table_properties"));
+    }
+
+    private void clear() throws SQLException {
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE db_table_properties");
+            statement.execute("TRUNCATE TABLE db_field");
+            statement.execute("TRUNCATE TABLE db_table");
+        }
+    }
+
+    /**
+     * 直接使用 H2 数据源另开连接查询，不计入往返统计
+     */
+    private long count(String sql) throws SQLException {
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
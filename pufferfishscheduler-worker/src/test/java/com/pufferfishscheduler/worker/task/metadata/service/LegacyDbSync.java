@@ -0,0 +1,126 @@
+package com.pufferfishscheduler.worker.task.metadata.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.pufferfishscheduler.common.constants.Constants;
+import com.pufferfishscheduler.dao.entity.DbField;
+import com.pufferfishscheduler.dao.entity.DbTable;
+import com.pufferfishscheduler.dao.entity.DbTableProperties;
+import com.pufferfishscheduler.dao.mapper.DbFieldMapper;
+import com.pufferfishscheduler.dao.mapper.DbTableMapper;
+import com.pufferfishscheduler.dao.mapper.DbTablePropertiesMapper;
+import com.pufferfishscheduler.domain.domain.TableColumnSchema;
+import com.pufferfishscheduler.domain.domain.TableSchema;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 改造前逐行同步的语句模式（每张表一次字段查询，每行一次 insert/update，整体一个事务），仅作为语句数对比的基线
+ */
+class LegacyDbSync {
+
+    private final DbTableMapper dbTableMapper;
+    private final DbFieldMapper dbFieldMapper;
+    private final DbTablePropertiesMapper dbTablePropertiesMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    LegacyDbSync(DbTableMapper dbTableMapper, DbFieldMapper dbFieldMapper,
+                 DbTablePropertiesMapper dbTablePropertiesMapper, TransactionTemplate transactionTemplate) {
+        this.dbTableMapper = dbTableMapper;
+        this.dbFieldMapper = dbFieldMapper;
+        this.dbTablePropertiesMapper = dbTablePropertiesMapper;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    void sync(int databaseId, Map<String, TableSchema> tableInfoMap, String currentUser) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Date now = new Date();
+            Map<String, DbTable> existingTables = listTables(databaseId);
+            for (TableSchema source : tableInfoMap.values()) {
+                DbTable target = existingTables.get(source.getTableName());
+                if (target == null) {
+                    target = new DbTable();
+                    target.setDbId(databaseId);
+                    target.setName(source.getTableName());
+                    target.setBusinessName(source.getTableName());
+                    target.setDescription(source.getTableComment());
+                    target.setDeleted(Constants.DELETE_FLAG.FALSE);
+                    target.setCreatedBy(currentUser);
+                    target.setCreatedTime(now);
+                    target.setUpdatedBy(currentUser);
+                    target.setUpdatedTime(now);
+                    dbTableMapper.insert(target);
+                } else {
+                    target.setDescription(source.getTableComment());
+                    target.setUpdatedTime(now);
+                    dbTableMapper.updateById(target);
+                }
+            }
+
+            Map<String, DbTable> tables = listTables(databaseId);
+            List<DbTableProperties> primaryKeys = new ArrayList<>();
+            for (TableSchema sourceTable : tableInfoMap.values()) {
+                Integer tableId = tables.get(sourceTable.getTableName()).getId();
+                LambdaQueryWrapper<DbField> fieldQuery = new LambdaQueryWrapper<>();
+                fieldQuery.eq(DbField::getTableId, tableId).eq(DbField::getDeleted, Constants.DELETE_FLAG.FALSE);
+                Map<String, DbField> existingFields = dbFieldMapper.selectList(fieldQuery).stream()
+                        .collect(Collectors.toMap(DbField::getName, f -> f, (a, b) -> a));
+                for (TableColumnSchema col : sourceTable.getColumnInfos().values()) {
+                    DbField f = existingFields.get(col.getColumnName());
+                    if (f == null) {
+                        f = new DbField();
+                        f.setTableId(tableId);
+                        f.setName(col.getColumnName());
+                        f.setBusinessName(col.getColumnName());
+                        f.setDeleted(Constants.DELETE_FLAG.FALSE);
+                        f.setCreatedBy(currentUser);
+                        f.setCreatedTime(now);
+                    }
+                    f.setDataType(col.getDataType());
+                    f.setDataLength(col.getDataLength());
+                    f.setDescription(col.getColumnComment());
+                    f.setNullable(col.getIsNull());
+                    f.setOrderBy(col.getColumnOrder());
+                    f.setPrecision(col.getPrecision());
+                    f.setUpdatedBy(currentUser);
+                    f.setUpdatedTime(now);
+                    if (f.getId() == null) {
+                        dbFieldMapper.insert(f);
+                    } else {
+                        dbFieldMapper.updateById(f);
+                    }
+                    if ("PRI".equals(col.getConstraintType())) {
+                        DbTableProperties p = new DbTableProperties();
+                        p.setId(UUID.randomUUID().toString());
+                        p.setTableId(tableId);
+                        p.setPropType(Constants.TABLE_PROPERTIES.PRIMARY_KEY);
+                        p.setPropValues(col.getColumnName());
+                        p.setCreatedBy(currentUser);
+                        p.setCreatedTime(now);
+                        primaryKeys.add(p);
+                    }
+                }
+            }
+
+            List<Integer> tableIds = listTables(databaseId).values().stream().map(DbTable::getId)
+                    .collect(Collectors.toList());
+            LambdaQueryWrapper<DbTableProperties> deleteQuery = new LambdaQueryWrapper<>();
+            deleteQuery.eq(DbTableProperties::getPropType, Constants.TABLE_PROPERTIES.PRIMARY_KEY)
+                    .in(DbTableProperties::getTableId, tableIds);
+            dbTablePropertiesMapper.delete(deleteQuery);
+            dbTablePropertiesMapper.batchInsert(primaryKeys);
+        });
+    }
+
+    private Map<String, DbTable> listTables(int databaseId) {
+        LambdaQueryWrapper<DbTable> tableQuery = new LambdaQueryWrapper<>();
+        tableQuery.eq(DbTable::getDbId, databaseId).eq(DbTable::getDeleted, Constants.DELETE_FLAG.FALSE);
+        return dbTableMapper.selectList(tableQuery).stream()
+                .collect(Collectors.toMap(DbTable::getName, t -> t, (a, b) -> a));
+    }
+}
@@ -0,0 +1,47 @@
+package com.pufferfishscheduler.worker.task.trans.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 执行通道：排队中取消的任务立即移出队列且不会执行，提交数与完成数保持一致
+ */
+class ExecutionLaneTest {
+
+    @Test
+    void cancelledQueuedTaskLeavesQueueWithoutRunning() throws Exception {
+        ExecutionLane lane = ExecutionLane.fixed("lane-test", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        lane.execute(() -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        AtomicInteger ran = new AtomicInteger();
+        Future<?> cancelled = lane.submit(ran::incrementAndGet);
+        Future<?> kept = lane.submit(ran::incrementAndGet);
+        assertEquals(2, lane.queueDepth());
+
+        assertTrue(cancelled.cancel(false));
+        assertEquals(1, lane.queueDepth());
+
+        release.countDown();
+        kept.get(10, TimeUnit.SECONDS);
+        lane.shutdown();
+
+        assertEquals(1, ran.get());
+        LaneMetrics metrics = lane.metrics();
+        assertEquals(3, metrics.getSubmitted());
+        assertEquals(3, metrics.getCompleted());
+    }
+}
@@ -0,0 +1,35 @@
+package com.pufferfishscheduler.worker.trans;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URL;
+
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.junit.jupiter.api.Test;
+import org.pentaho.di.trans.steps.excelinput.staxpoi.StaxPoiSheet;
+import org.pentaho.di.trans.steps.excelinput.staxpoi.StaxPoiWorkbook;
+
+/**
+ * trans-core 中基于 POI 5 重写的 StaxPoi* 必须排在 kettle-engine 自带的同名类之前，
+ * 否则 SAX_POI 引擎会加载 Kettle 旧版实现并在运行期抛出 NoSuchMethodError。
+ * 调整依赖顺序导致 kettle-engine 先出现在类路径上时此测试失败
+ */
+class StaxPoiClasspathOrderTest {
+
+    @Test
+    void transCoreStaxPoiClassesWinOverKettleEngine() {
+        for (Class<?> type : new Class<?>[]{StaxPoiWorkbook.class, StaxPoiSheet.class}) {
+            URL resource = getClass().getClassLoader().getResource(type.getName().replace('.', '/') + ".class");
+            assertNotNull(resource, type.getName());
+            assertTrue(resource.toString().contains("pufferfishscheduler-trans-core"),
+                    type.getSimpleName() + " loaded from " + resource);
+        }
+        // Kettle 自带版本没有这个构造方法
+        assertDoesNotThrow(() -> StaxPoiSheet.class.getConstructor(XSSFReader.class, String.class, String.class,
+                SharedStrings.class, StylesTable.class, boolean.class));
+    }
+}